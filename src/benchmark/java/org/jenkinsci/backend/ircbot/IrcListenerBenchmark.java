@@ -0,0 +1,229 @@
+package org.jenkinsci.backend.ircbot;
+
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.jenkinsci.backend.ircbot.util.TokenBucket;
+import org.kohsuke.github.GitHub;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pircbotx.Channel;
+import org.pircbotx.PircBotX;
+import org.pircbotx.User;
+import org.pircbotx.UserLevel;
+import org.pircbotx.hooks.events.MessageEvent;
+import org.pircbotx.output.OutputChannel;
+import org.pircbotx.output.OutputIRC;
+import org.pircbotx.output.OutputRaw;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmarks for the message handling hot path of {@link IrcListener}.
+ * The corpus mimics the channel traffic: mostly chatter, some direct commands and some unknown commands.
+ * IRC objects are stub-only mocks, so no invocations are recorded during the measurement.
+ * Commands run in the benchmark thread and GitHub and JIRA are stubbed, so the measurement covers the whole command
+ * rather than its submission to the command threads, and the mentioned issues are not looked up over the network.
+ * The replies are sent to a no-op sink without the rate limit of the outbound queue, otherwise the queue would be full
+ * within milliseconds and the benchmark would measure the logging of the dropped messages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IrcListenerBenchmark {
+
+    private static final String BOT_NICK = "jenkins-admin-bench";
+    private static final String CHANNEL = "#jenkins-hosting";
+
+    /**
+     * Channel chatter, never addressed to the bot.
+     */
+    private static final String[] CHATTER = {
+            "hi all, is there anybody who can review my hosting request?",
+            "I have opened https://github.com/jenkins-infra/repository-permissions-updater/pull/1234",
+            "JENKINS-12345 looks like a duplicate of JENKINS-54321",
+            "thanks!",
+            "the build on ci.jenkins.io fails with a timeout again",
+            "ok",
+            "could someone with permissions take a look at the fork request?",
+            "lgtm",
+    };
+
+    /**
+     * Cheap commands, which do not touch remote services.
+     */
+    private static final String[] COMMANDS = {
+            "help",
+            "botsnack",
+            "version",
+    };
+
+    /**
+     * Privileged commands sent by a user without voice, so that they are rejected before any remote call.
+     */
+    private static final String[] PRIVILEGED = {
+            "make foo a committer on bar-plugin, baz-plugin",
+            "fork https://github.com/foo/bar-plugin on github as baz-plugin with jira",
+            "make foo lead for bar-plugin",
+            "kick spammer",
+    };
+
+    private static final String[] UNKNOWN = {
+            "what is the weather today?",
+            "thank you!",
+            "hello",
+    };
+
+    private final IssueKeyDetector issueKeys = new IssueKeyDetector(IrcBotConfig.getIssueProjects());
+
+    private IrcListener listener;
+    private OutboundScheduler outbound;
+    private MessageEvent[] traffic;
+    private String[] directPayloads;
+    private Channel channel;
+    private User sender;
+    private File unknownCommands;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        unknownCommands = File.createTempFile("unknown-commands", ".txt");
+        CommandExecutor directExecutor = new CommandExecutor(MoreExecutors.newDirectExecutorService(), 16);
+        GitHub gitHub = stub(GitHub.class);
+        outbound = new OutboundScheduler((channel, line) -> { }, new TokenBucket(1, 1, TimeUnit.NANOSECONDS),
+                IrcBotConfig.OUTBOUND_MAX_LINE_BYTES, IrcBotConfig.OUTBOUND_MAX_QUEUED, false);
+        BotServices services = new BotServices(unknownCommands, directExecutor, new GitHubClientProvider(() -> gitHub),
+                new ForkJournal(null), issueKey -> CompletableFuture.completedFuture(issueKey + " summary"), () -> outbound);
+        listener = new IrcListener(services, IrcNetwork.getDefault());
+
+        PircBotX bot = stub(PircBotX.class);
+        when(bot.getNick()).thenReturn(BOT_NICK);
+        when(bot.sendRaw()).thenReturn(stub(OutputRaw.class));
+        when(bot.sendIRC()).thenReturn(stub(OutputIRC.class));
+
+        channel = stub(Channel.class);
+        when(channel.getName()).thenReturn(CHANNEL);
+        when(channel.send()).thenReturn(stub(OutputChannel.class));
+        doReturn(bot).when(channel).getBot();
+
+        sender = stub(User.class);
+        when(sender.getNick()).thenReturn("some-user");
+        when(sender.getUserLevels(channel)).thenReturn(ImmutableSortedSet.<UserLevel>of());
+
+        // 80% chatter, 6% cheap commands, 8% privileged commands, 6% unknown commands
+        List<MessageEvent> events = new ArrayList<>();
+        List<String> payloads = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final String message;
+            if (i < 40) {
+                message = CHATTER[i % CHATTER.length];
+            } else if (i < 43) {
+                message = direct(COMMANDS[i - 40], payloads);
+            } else if (i < 47) {
+                message = direct(PRIVILEGED[i - 43], payloads);
+            } else {
+                message = direct(UNKNOWN[i - 47], payloads);
+            }
+            events.add(event(bot, message));
+        }
+        traffic = events.toArray(new MessageEvent[0]);
+        directPayloads = payloads.toArray(new String[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (unknownCommands != null && !unknownCommands.delete()) {
+            unknownCommands.deleteOnExit();
+        }
+    }
+
+    /**
+     * Full {@link IrcListener#onMessage(MessageEvent)} processing of the mixed channel traffic.
+     */
+    @Benchmark
+    public void channelTraffic() {
+        listener.onMessage(traffic[next(traffic.length)]);
+        drainReplies();
+    }
+
+    /**
+     * {@link IrcListener#handleDirectCommand(Channel, User, String)} for the messages addressed to the bot.
+     */
+    @Benchmark
+    public void directCommand() {
+        listener.handleDirectCommand(channel, sender, directPayloads[next(directPayloads.length)]);
+        drainReplies();
+    }
+
+    /**
+     * Command lookup only, without invoking the handlers.
+     */
+    @Benchmark
+    public void commandLookup(Blackhole bh) {
+        bh.consume(listener.getCommands().find(directPayloads[next(directPayloads.length)]));
+    }
+
+    /**
+     * Issue key detection in the channel chatter.
+     */
+    @Benchmark
+    public void issueKeyDetection(Blackhole bh) {
+        bh.consume(issueKeys.find(CHATTER[next(CHATTER.length)]));
+    }
+
+    /**
+     * Sends the queued replies, like the background sender of the outbound queue would.
+     */
+    private void drainReplies() {
+        while (outbound.sendNext()) {
+            // sent to the no-op sink
+        }
+    }
+
+    private int next(int length) {
+        if (++index >= length) {
+            index = 0;
+        }
+        return index;
+    }
+
+    private static String direct(String payload, List<String> payloads) {
+        payloads.add(payload);
+        return BOT_NICK + ": " + payload;
+    }
+
+    private MessageEvent event(PircBotX bot, String message) {
+        MessageEvent e = stub(MessageEvent.class);
+        when(e.getChannel()).thenReturn(channel);
+        when(e.getUser()).thenReturn(sender);
+        when(e.getMessage()).thenReturn(message);
+        doReturn(bot).when(e).getBot();
+        return e;
+    }
+
+    private static <T> T stub(Class<T> clazz) {
+        return mock(clazz, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,221 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Health of the bot reported by {@link StatusServer}.
+ *
+ * The IRC state is updated from the events received by {@link IrcListener}.
+ * JIRA and GitHub are probed in the background, so the HTTP requests never wait for them.
+ * The bot is ready when it is connected and has joined a channel, and it is alive unless
+ * it has been disconnected for longer than {@link IrcBotConfig#HEALTH_MAX_DISCONNECTED_SEC}.
+ * The time the bot takes to become ready after the start or a disconnection is reported too.
+ * @since 2.0-SNAPSHOT
+ */
+public class BotHealth {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BotHealth.class);
+
+    /**
+     * Checks whether a remote service is reachable.
+     */
+    @FunctionalInterface
+    public interface Probe {
+        boolean isReachable() throws Exception;
+    }
+
+    private final LongSupplier clock;
+    private final long maxDisconnectedMillis;
+    private final IntSupplier pendingCommands;
+
+    private volatile boolean connected;
+    private volatile long disconnectedSince;
+    private volatile long lastMessageAt;
+    private volatile long lastTimeToReadyMillis = -1;
+    private final AtomicBoolean awaitingReady = new AtomicBoolean(true);
+    private volatile LongConsumer readyListener = millis -> { };
+    /**
+     * Joined channels, normalized with {@link ChannelAllowList#normalize(String)}.
+     */
+    private final Set<String> channels = ConcurrentHashMap.newKeySet();
+    private final Map<String, Probe> probes = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> reachable = new ConcurrentHashMap<>();
+
+    /**
+     * @param pendingCommands Number of the commands waiting or running
+     * @param maxDisconnectedSec The bot is not alive anymore if it has been disconnected for this time
+     * @param clock Current time in milliseconds
+     */
+    public BotHealth(@Nonnull IntSupplier pendingCommands, long maxDisconnectedSec, @Nonnull LongSupplier clock) {
+        this.pendingCommands = pendingCommands;
+        this.maxDisconnectedMillis = TimeUnit.SECONDS.toMillis(maxDisconnectedSec);
+        this.clock = clock;
+        this.disconnectedSince = clock.getAsLong();
+    }
+
+    /**
+     * Sets the listener notified with the time (in milliseconds) the bot has taken to become ready
+     * after the start or the last disconnection.
+     */
+    public void setReadyListener(@Nonnull LongConsumer listener) {
+        this.readyListener = listener;
+    }
+
+    public void connected() {
+        connected = true;
+        checkReady();
+    }
+
+    public void disconnected() {
+        if (connected) {
+            disconnectedSince = clock.getAsLong();
+        }
+        connected = false;
+        channels.clear();
+        awaitingReady.set(true);
+    }
+
+    public void joined(@Nonnull String channel) {
+        channels.add(ChannelAllowList.normalize(channel));
+        checkReady();
+    }
+
+    private void checkReady() {
+        if (isReady() && awaitingReady.compareAndSet(true, false)) {
+            long millis = clock.getAsLong() - disconnectedSince;
+            lastTimeToReadyMillis = millis;
+            readyListener.accept(millis);
+        }
+    }
+
+    public void left(@Nonnull String channel) {
+        channels.remove(ChannelAllowList.normalize(channel));
+    }
+
+    /**
+     * Records that a channel message has been received.
+     */
+    public void messageReceived() {
+        lastMessageAt = clock.getAsLong();
+    }
+
+    /**
+     * Adds a remote service to be checked by {@link #probe()}.
+     */
+    public void addProbe(@Nonnull String name, @Nonnull Probe probe) {
+        probes.put(name, probe);
+    }
+
+    /**
+     * Checks the remote services now.
+     */
+    public void probe() {
+        for (Map.Entry<String, Probe> probe : probes.entrySet()) {
+            boolean result;
+            try {
+                result = probe.getValue().isReachable();
+            } catch (Exception e) {
+                LOGGER.warn("{} is not reachable", probe.getKey(), e);
+                result = false;
+            }
+            reachable.put(probe.getKey(), result);
+        }
+    }
+
+    /**
+     * Checks the remote services periodically in a background thread.
+     */
+    public void startProbes(long intervalSec) {
+        startProbes(Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ircbot-health");
+            t.setDaemon(true);
+            return t;
+        }), intervalSec);
+    }
+
+    /**
+     * Checks the remote services periodically.
+     */
+    public void startProbes(@Nonnull ScheduledExecutorService scheduler, long intervalSec) {
+        scheduler.scheduleWithFixedDelay(this::probe, 0, intervalSec, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Checks whether the bot can serve the channels.
+     */
+    public boolean isReady() {
+        return connected && !channels.isEmpty();
+    }
+
+    /**
+     * Checks whether the bot works or is likely to recover, e.g. it is reconnecting.
+     */
+    public boolean isAlive() {
+        return connected || clock.getAsLong() - disconnectedSince < maxDisconnectedMillis;
+    }
+
+    /**
+     * Renders the state as a JSON object.
+     */
+    @Nonnull
+    public String toJson() {
+        long now = clock.getAsLong();
+        long lastMessage = lastMessageAt;
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"alive\":").append(isAlive());
+        json.append(",\"ready\":").append(isReady());
+        json.append(",\"connected\":").append(connected);
+        json.append(",\"channels\":[");
+        boolean first = true;
+        for (String channel : new TreeSet<>(channels)) {
+            json.append(first ? "" : ",").append(quote(channel));
+            first = false;
+        }
+        json.append("]");
+        json.append(",\"lastMessageAgeSeconds\":")
+                .append(lastMessage == 0 ? "null" : String.valueOf(TimeUnit.MILLISECONDS.toSeconds(now - lastMessage)));
+        long timeToReady = lastTimeToReadyMillis;
+        json.append(",\"lastTimeToReadySeconds\":")
+                .append(timeToReady < 0 ? "null" : String.format(Locale.ENGLISH, "%.3f", timeToReady / 1000.0));
+        json.append(",\"pendingCommands\":").append(pendingCommands.getAsInt());
+        json.append(",\"upstream\":{");
+        first = true;
+        for (Map.Entry<String, Boolean> entry : new TreeMap<>(reachable).entrySet()) {
+            json.append(first ? "" : ",").append(quote(entry.getKey())).append(':').append(entry.getValue());
+            first = false;
+        }
+        json.append("}}");
+        return json.toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder res = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                res.append('\\').append(c);
+            } else if (c < 0x20) {
+                res.append(String.format("\\u%04x", (int) c));
+            } else {
+                res.append(c);
+            }
+        }
+        return res.append('"').toString();
+    }
+}
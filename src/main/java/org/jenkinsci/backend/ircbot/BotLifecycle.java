@@ -0,0 +1,132 @@
+package org.jenkinsci.backend.ircbot;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shuts the bot down in order: stops accepting commands, drains the running ones,
+ * flushes the pending output, quits IRC and closes the shared clients.
+ *
+ * The steps are executed in the registration order, a failing step does not prevent the following ones.
+ * The shutdown runs once, either on the {@code restart} command or from the JVM shutdown hook.
+ * @since 2.0-SNAPSHOT
+ */
+public class BotLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BotLifecycle.class);
+
+    /**
+     * Shutdown step.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void run() throws Exception;
+    }
+
+    private static final class NamedStep {
+        private final String name;
+        private final Step step;
+
+        private NamedStep(String name, Step step) {
+            this.name = name;
+            this.step = step;
+        }
+    }
+
+    private final List<NamedStep> steps = new ArrayList<>();
+    private final AtomicBoolean stopping = new AtomicBoolean();
+    private final Object done = new Object();
+    private boolean completed;
+
+    /**
+     * Adds a step executed after the steps added so far.
+     * @param name Step name used in the logs
+     */
+    public synchronized void addStep(@Nonnull String name, @Nonnull Step step) {
+        steps.add(new NamedStep(name, step));
+    }
+
+    /**
+     * Checks whether the shutdown has started, new work should not be accepted anymore.
+     */
+    public boolean isStopping() {
+        return stopping.get();
+    }
+
+    /**
+     * Executes the shutdown steps.
+     * If the shutdown is already running in another thread, waits for its completion.
+     */
+    public void shutdown() {
+        if (!stopping.compareAndSet(false, true)) {
+            awaitCompletion();
+            return;
+        }
+        final List<NamedStep> toRun;
+        synchronized (this) {
+            toRun = new ArrayList<>(steps);
+        }
+        LOGGER.info("Shutting down");
+        try {
+            for (NamedStep step : toRun) {
+                long start = System.currentTimeMillis();
+                try {
+                    step.step.run();
+                    LOGGER.info("Shutdown step '{}' completed in {} ms", step.name, System.currentTimeMillis() - start);
+                } catch (InterruptedException e) {
+                    LOGGER.warn("Shutdown step '{}' interrupted", step.name);
+                    Thread.currentThread().interrupt();
+                } catch (Exception | LinkageError e) {
+                    LOGGER.warn("Shutdown step '{}' failed", step.name, e);
+                }
+            }
+        } finally {
+            synchronized (done) {
+                completed = true;
+                done.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Shuts the bot down in a new thread and exits, the container manager starts a new instance.
+     * Returns immediately, so it can be called from a command being drained.
+     */
+    @SuppressFBWarnings(
+            value="DM_EXIT",
+            justification="Intentionally restarting the app"
+    )
+    public void restart() {
+        Thread thread = new Thread(() -> {
+            shutdown();
+            System.exit(0);
+        }, "ircbot-shutdown");
+        thread.start();
+    }
+
+    /**
+     * Runs the shutdown when the JVM exits, e.g. on {@code SIGTERM} from the container manager.
+     */
+    public void installShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "ircbot-shutdown-hook"));
+    }
+
+    private void awaitCompletion() {
+        synchronized (done) {
+            while (!completed) {
+                try {
+                    done.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.jenkinsci.backend.ircbot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+import javax.annotation.Nonnull;
+
+/**
+ * Metrics of the bot: command latencies and outcomes, latencies of the JIRA and GitHub calls,
+ * in-flight gauges, queue depths and the remaining GitHub rate limit.
+ * They are exposed in the Prometheus text format by {@link StatusServer}.
+ *
+ * Meters are registered on the first use and cached afterwards, so recording an event is a map lookup
+ * and a few atomic updates. Plain channel messages are not instrumented at all.
+ * @since 2.0-SNAPSHOT
+ */
+public class BotMetrics {
+
+    public static final String JIRA = "jira";
+    public static final String GITHUB = "github";
+
+    private static final Duration MAX_EXPECTED_DURATION = Duration.ofMinutes(2);
+
+    private static final BotMetrics DEFAULT = new BotMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+
+    private final MeterRegistry registry;
+    private final AtomicInteger commandsInFlight = new AtomicInteger();
+    private final Map<String, AtomicInteger> remoteCallsInFlight = new ConcurrentHashMap<>();
+    private final AtomicLong gitHubRateLimitRemaining = new AtomicLong(-1);
+    /**
+     * Timers by the command or the remote call, and the outcome.
+     */
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public BotMetrics(@Nonnull MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("ircbot.commands.in.flight", commandsInFlight, AtomicInteger::get)
+                .description("Commands being executed")
+                .register(registry);
+        Gauge.builder("ircbot.github.ratelimit.remaining", gitHubRateLimitRemaining, AtomicLong::get)
+                .description("Remaining GitHub API requests in the current rate limit window, -1 if unknown")
+                .register(registry);
+    }
+
+    /**
+     * Gets the metrics shared by the bot.
+     */
+    @Nonnull
+    public static BotMetrics get() {
+        return DEFAULT;
+    }
+
+    @Nonnull
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Records the start of a command.
+     * @return Start time to be passed to {@link #commandCompleted(String, long, boolean)}
+     */
+    public long commandStarted() {
+        commandsInFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the completion of a command.
+     * @param command Command name, see {@link CommandRegistry.Command#getName()}
+     * @param startNanos Value returned by {@link #commandStarted()}
+     * @param success {@code false} if the command failed, see {@link CommandRegistry.OutcomeHandler}
+     */
+    public void commandCompleted(@Nonnull String command, long startNanos, boolean success) {
+        long duration = System.nanoTime() - startNanos;
+        commandsInFlight.decrementAndGet();
+        String outcome = outcome(success);
+        timers.computeIfAbsent(command + ' ' + outcome, k -> Timer.builder("ircbot.command.duration")
+                        .description("Execution time of the commands")
+                        .tag("command", command)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .maximumExpectedValue(MAX_EXPECTED_DURATION)
+                        .register(registry))
+                .record(duration, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a command rejected because the bot was busy.
+     */
+    public void commandRejected(@Nonnull String command) {
+        rejections.computeIfAbsent(command, k -> Counter.builder("ircbot.commands.rejected")
+                        .description("Commands rejected because too many commands were pending")
+                        .tag("command", command)
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * Records the start of a call to a remote service.
+     * @param service {@link #JIRA} or {@link #GITHUB}
+     * @return Start time to be passed to {@link #remoteCallCompleted(String, String, long, boolean)}
+     */
+    public long remoteCallStarted(@Nonnull String service) {
+        remoteCallsInFlight(service).incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the completion of a call to a remote service.
+     * @param service {@link #JIRA} or {@link #GITHUB}
+     * @param operation Kind of the call. It must come from a small set of values, e.g. the HTTP method.
+     * @param startNanos Value returned by {@link #remoteCallStarted(String)}
+     * @param success {@code false} if the call failed
+     */
+    public void remoteCallCompleted(@Nonnull String service, @Nonnull String operation, long startNanos, boolean success) {
+        long duration = System.nanoTime() - startNanos;
+        remoteCallsInFlight(service).decrementAndGet();
+        String outcome = outcome(success);
+        timers.computeIfAbsent(service + ' ' + operation + ' ' + outcome, k -> Timer.builder("ircbot.remote.duration")
+                        .description("Duration of the calls to JIRA and GitHub")
+                        .tag("service", service)
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .maximumExpectedValue(MAX_EXPECTED_DURATION)
+                        .register(registry))
+                .record(duration, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time the bot has taken to become ready after the start or a disconnection, see {@link BotHealth}.
+     * @param network Name of the network, see {@link IrcNetwork#getName()}
+     */
+    public void timeToReady(@Nonnull String network, long millis) {
+        timers.computeIfAbsent("ready " + network, k -> Timer.builder("ircbot.irc.ready.duration")
+                        .description("Time from the start or the loss of the connection until the bot has joined a channel")
+                        .tag("network", network)
+                        .publishPercentileHistogram()
+                        .maximumExpectedValue(MAX_EXPECTED_DURATION)
+                        .register(registry))
+                .record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the remaining GitHub rate limit reported by the last response.
+     */
+    public void gitHubRateLimitRemaining(long remaining) {
+        gitHubRateLimitRemaining.set(remaining);
+    }
+
+    /**
+     * Registers a gauge, e.g. the depth of a queue.
+     * The object is referenced strongly.
+     */
+    public <T> void gauge(@Nonnull String name, @Nonnull String description, @Nonnull T obj, @Nonnull ToDoubleFunction<T> value) {
+        Gauge.builder(name, obj, value).description(description).strongReference(true).register(registry);
+    }
+
+    /**
+     * Registers a counter, which value is maintained by the object, e.g. the number of dropped messages.
+     */
+    public <T> void counter(@Nonnull String name, @Nonnull String description, @Nonnull T obj, @Nonnull ToDoubleFunction<T> value) {
+        FunctionCounter.builder(name, obj, value).description(description).register(registry);
+    }
+
+    /**
+     * Renders the metrics in the Prometheus text format.
+     * @return Metrics, or an empty string if the registry is not a Prometheus one
+     */
+    @Nonnull
+    public String scrape() {
+        return registry instanceof PrometheusMeterRegistry ? ((PrometheusMeterRegistry) registry).scrape() : "";
+    }
+
+    private AtomicInteger remoteCallsInFlight(String service) {
+        AtomicInteger inFlight = remoteCallsInFlight.get(service);
+        if (inFlight == null) {
+            inFlight = remoteCallsInFlight.computeIfAbsent(service, k -> {
+                AtomicInteger counter = new AtomicInteger();
+                Gauge.builder("ircbot.remote.in.flight", counter, AtomicInteger::get)
+                        .description("Calls to JIRA and GitHub waiting for the response")
+                        .tag("service", service)
+                        .register(registry);
+                return counter;
+            });
+        }
+        return inFlight;
+    }
+
+    private static String outcome(boolean success) {
+        return success ? "success" : "failure";
+    }
+}
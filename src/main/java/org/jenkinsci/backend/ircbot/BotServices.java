@@ -0,0 +1,162 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.backend.ircbot.util.Backoff;
+import org.jenkinsci.backend.ircbot.util.ExpiringCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Clients, caches and executors shared by the {@link IrcListener}s of all the networks the bot connects to,
+ * see {@link IrcNetwork}.
+ *
+ * Commands from every network run in the same {@link CommandExecutor} and use the same GitHub client,
+ * so the limits on the concurrent remote calls apply to the whole process.
+ * The shutdown sequence is shared too, a {@code restart} command received in one network restarts all of them.
+ * @since 2.0-SNAPSHOT
+ */
+public class BotServices {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BotServices.class);
+
+    private final UnknownCommandJournal unknownCommands;
+    private final CommandExecutor commandExecutor;
+    private final GitHubClientProvider gitHub;
+    private final GitHubTeamIndex gitHubTeams;
+    private final ForkJournal forkJournal;
+
+    /**
+     * Summaries of the mentioned issues, shared by all channels.
+     */
+    private final IssueSummaryCache issueSummaries;
+
+    /**
+     * Waits for the repositories GitHub creates asynchronously.
+     */
+    private final ResourceAwaiter gitHubAwaiter = new ResourceAwaiter(FanOut.GITHUB,
+            new Backoff(IrcBotConfig.GITHUB_RETRY_ATTEMPTS, IrcBotConfig.GITHUB_RETRY_INITIAL_DELAY_MS,
+                    IrcBotConfig.GITHUB_RETRY_MAX_DELAY_MS, TimeUnit.MILLISECONDS, IrcBotConfig.GITHUB_RETRY_JITTER_PERCENT / 100.0));
+
+    /**
+     * Outbound queues of the networks, reported together.
+     */
+    private final List<OutboundScheduler> outbound = new CopyOnWriteArrayList<>();
+    private final Supplier<OutboundScheduler> outboundFactory;
+
+    private final BotLifecycle lifecycle = new BotLifecycle();
+
+    /**
+     * Creates the services with the default clients.
+     * @param unknownCommands File recording the commands that were not understood, {@code null} to disable it
+     */
+    public BotServices(@CheckForNull File unknownCommands) {
+        this(unknownCommands, new CommandExecutor(), GitHubClientProvider.createDefault(),
+                new ForkJournal(new File(IrcBotConfig.GITHUB_FORK_JOURNAL)));
+    }
+
+    public BotServices(@CheckForNull File unknownCommands, @Nonnull CommandExecutor commandExecutor,
+                       @Nonnull GitHubClientProvider gitHub, @Nonnull ForkJournal forkJournal) {
+        this(unknownCommands, commandExecutor, gitHub, forkJournal, new IssueSummaryBatcher()::get);
+    }
+
+    /**
+     * @param issueSummaries Fetches the summaries of the issues mentioned in the channels
+     */
+    public BotServices(@CheckForNull File unknownCommands, @Nonnull CommandExecutor commandExecutor,
+                       @Nonnull GitHubClientProvider gitHub, @Nonnull ForkJournal forkJournal,
+                       @Nonnull IssueSummaryCache.Loader issueSummaries) {
+        this(unknownCommands, commandExecutor, gitHub, forkJournal, issueSummaries, OutboundScheduler::new);
+    }
+
+    /**
+     * @param issueSummaries Fetches the summaries of the issues mentioned in the channels
+     * @param outboundFactory Creates the outbound queue of each network
+     */
+    BotServices(@CheckForNull File unknownCommands, @Nonnull CommandExecutor commandExecutor,
+                @Nonnull GitHubClientProvider gitHub, @Nonnull ForkJournal forkJournal,
+                @Nonnull IssueSummaryCache.Loader issueSummaries, @Nonnull Supplier<OutboundScheduler> outboundFactory) {
+        this.outboundFactory = outboundFactory;
+        this.issueSummaries = new IssueSummaryCache(issueSummaries,
+                new ExpiringCache<>(IrcBotConfig.JIRA_ISSUE_SUMMARY_TTL_SEC, TimeUnit.SECONDS, 500));
+        this.unknownCommands = new UnknownCommandJournal(unknownCommands);
+        this.commandExecutor = commandExecutor;
+        this.gitHub = gitHub;
+        this.gitHubTeams = new GitHubTeamIndex(gitHub, IrcBotConfig.GITHUB_TEAM_INDEX_REFRESH_SEC);
+        this.forkJournal = forkJournal;
+
+        lifecycle.addStep("stop accepting commands", commandExecutor::close);
+        lifecycle.addStep("drain commands", () -> {
+            if (!commandExecutor.awaitTermination(IrcBotConfig.SHUTDOWN_DRAIN_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                LOGGER.warn("{} commands have not completed in time", commandExecutor.getPendingCount());
+            }
+        });
+        lifecycle.addStep("stop waiting for GitHub", gitHubAwaiter::close);
+        lifecycle.addStep("flush unknown commands", () -> {
+            this.unknownCommands.flush(5, TimeUnit.SECONDS);
+            this.unknownCommands.close();
+        });
+
+        BotMetrics metrics = BotMetrics.get();
+        metrics.gauge("ircbot.commands.pending", "Commands submitted and not completed yet",
+                commandExecutor, CommandExecutor::getPendingCount);
+        metrics.gauge("ircbot.outbound.queued", "Messages waiting to be sent",
+                outbound, schedulers -> schedulers.stream().mapToInt(OutboundScheduler::getQueuedCount).sum());
+        metrics.counter("ircbot.outbound.dropped", "Messages dropped because the outbound queue was full",
+                outbound, schedulers -> schedulers.stream().mapToLong(OutboundScheduler::getDroppedCount).sum());
+    }
+
+    /**
+     * Creates the outbound queue of a network, which is reported in the metrics.
+     */
+    OutboundScheduler createOutbound() {
+        OutboundScheduler scheduler = outboundFactory.get();
+        outbound.add(scheduler);
+        return scheduler;
+    }
+
+    UnknownCommandJournal getUnknownCommands() {
+        return unknownCommands;
+    }
+
+    CommandExecutor getCommandExecutor() {
+        return commandExecutor;
+    }
+
+    /**
+     * Gets the GitHub client shared by the commands.
+     */
+    public GitHubClientProvider getGitHub() {
+        return gitHub;
+    }
+
+    GitHubTeamIndex getGitHubTeams() {
+        return gitHubTeams;
+    }
+
+    ForkJournal getForkJournal() {
+        return forkJournal;
+    }
+
+    IssueSummaryCache getIssueSummaries() {
+        return issueSummaries;
+    }
+
+    ResourceAwaiter getGitHubAwaiter() {
+        return gitHubAwaiter;
+    }
+
+    /**
+     * Gets the shutdown sequence of the bot.
+     * The steps added so far stop the command execution, the networks add their own steps afterwards.
+     */
+    public BotLifecycle getLifecycle() {
+        return lifecycle;
+    }
+}
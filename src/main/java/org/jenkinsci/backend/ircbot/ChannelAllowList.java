@@ -0,0 +1,136 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Channels the bot joins and answers in.
+ * The list is parsed once, and the names are normalized with the {@code rfc1459} casemapping of IRC,
+ * so checking a channel is a single lookup.
+ * Instances are immutable, a reload creates a new list.
+ * @since 2.0-SNAPSHOT
+ */
+public final class ChannelAllowList {
+
+    private static final Pattern SEPARATOR = Pattern.compile("[,\\s]+");
+
+    /**
+     * Configured names by their normalized form.
+     */
+    private final Map<String, String> channels;
+
+    private ChannelAllowList(@Nonnull Map<String, String> channels) {
+        this.channels = channels;
+    }
+
+    /**
+     * Parses a list of channels separated by commas or whitespaces.
+     * Entries not starting with {@code #} are ignored.
+     * @param list Channel list
+     * @param defaultList Used if the list contains no channel
+     */
+    @Nonnull
+    public static ChannelAllowList parse(@CheckForNull String list, @Nonnull String defaultList) {
+        Map<String, String> res = parse(list);
+        if (res.isEmpty()) {
+            res = parse(defaultList);
+        }
+        return new ChannelAllowList(Collections.unmodifiableMap(res));
+    }
+
+    /**
+     * Reads the channels from the file, see {@link #parse(String, String)}.
+     */
+    @Nonnull
+    public static ChannelAllowList load(@Nonnull File file, @Nonnull String defaultList) throws IOException {
+        return parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), defaultList);
+    }
+
+    private static Map<String, String> parse(String list) {
+        Map<String, String> res = new LinkedHashMap<>();
+        if (list != null) {
+            for (String channel : SEPARATOR.split(list)) {
+                if (channel.startsWith("#")) {
+                    res.putIfAbsent(normalize(channel), channel);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Checks whether the bot should answer in the channel.
+     */
+    public boolean contains(@Nonnull String channel) {
+        return channels.containsKey(normalize(channel));
+    }
+
+    /**
+     * Gets the channels as configured.
+     */
+    @Nonnull
+    public Set<String> getChannels() {
+        return new HashSet<>(channels.values());
+    }
+
+    /**
+     * Gets the channels of this list missing in the other one.
+     */
+    @Nonnull
+    public Set<String> without(@Nonnull ChannelAllowList other) {
+        Set<String> res = new HashSet<>();
+        for (Map.Entry<String, String> entry : channels.entrySet()) {
+            if (!other.channels.containsKey(entry.getKey())) {
+                res.add(entry.getValue());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Lowercases the name with the {@code rfc1459} casemapping,
+     * where {@code []\~} are the uppercase forms of <code>{}|^</code>.
+     */
+    @Nonnull
+    static String normalize(@Nonnull String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (toLower(c) != c) {
+                char[] chars = name.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    chars[j] = toLower(chars[j]);
+                }
+                return new String(chars);
+            }
+        }
+        return name;
+    }
+
+    private static char toLower(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        switch (c) {
+            case '[': return '{';
+            case ']': return '}';
+            case '\\': return '|';
+            case '~': return '^';
+            default: return c;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", channels.values());
+    }
+}
@@ -0,0 +1,159 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+
+import org.pircbotx.Channel;
+import org.pircbotx.User;
+import org.pircbotx.UserLevel;
+
+/**
+ * Remembers who has a voice or operator status in the channels.
+ * The levels are read from the member list of PircBotX, which it updates before it dispatches the events,
+ * and are kept until an IRC event concerning the user (mode change, join, part, quit, kick, nick change or member list)
+ * invalidates them. PircBotX dispatches the events concurrently and in no particular order, so the events never
+ * update the levels themselves, any of them only makes the next check read the member list again.
+ *
+ * It also rate-limits the member list refreshes, which are requested when a permission check fails:
+ * there is at most one refresh in flight per channel.
+ * @since 2.0-SNAPSHOT
+ */
+public class ChannelAuthorizations {
+
+    private static final int OP = 1;
+    private static final int VOICE = 2;
+
+    /**
+     * A refresh without a member list reply is considered lost after this time.
+     */
+    private static final long REFRESH_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private static final class ChannelState {
+        /**
+         * Levels by the normalized nicks.
+         */
+        private final Map<String, Integer> levels = new ConcurrentHashMap<>();
+        /**
+         * Time the last refresh has been requested, guarded by {@code this}.
+         */
+        private long refreshRequestedAt;
+        private boolean refreshInFlight;
+    }
+
+    private final Map<String, ChannelState> channels = new ConcurrentHashMap<>();
+    private final long refreshIntervalMillis;
+    private final LongSupplier clock;
+
+    public ChannelAuthorizations() {
+        this(IrcBotConfig.NAMES_REFRESH_INTERVAL_SEC, System::currentTimeMillis);
+    }
+
+    /**
+     * @param refreshIntervalSec Minimal time between the member list refreshes of a channel
+     * @param clock Current time in milliseconds
+     */
+    public ChannelAuthorizations(long refreshIntervalSec, @Nonnull LongSupplier clock) {
+        this.refreshIntervalMillis = TimeUnit.SECONDS.toMillis(refreshIntervalSec);
+        this.clock = clock;
+    }
+
+    /**
+     * Checks whether the user has the operator status or, optionally, the voice in the channel.
+     */
+    public boolean isAuthorized(@Nonnull Channel channel, @Nonnull User user, boolean acceptVoice) {
+        // an invalidation of the same nick waits for the computation, so it never keeps the levels read before it
+        int levels = state(channel.getName()).levels.computeIfAbsent(key(user.getNick()), k -> toLevels(user, channel));
+        return (levels & OP) != 0 || (acceptVoice && (levels & VOICE) != 0);
+    }
+
+    /**
+     * Forgets the levels of the user in the channel, after a mode change, join, part or kick.
+     */
+    public void invalidate(@Nonnull String channel, @Nonnull String nick) {
+        ChannelState state = channels.get(key(channel));
+        if (state != null) {
+            state.levels.remove(key(nick));
+        }
+    }
+
+    /**
+     * Forgets the levels of the user in all the channels, after a quit or a nick change.
+     */
+    public void invalidate(@Nonnull String nick) {
+        String key = key(nick);
+        for (ChannelState state : channels.values()) {
+            state.levels.remove(key);
+        }
+    }
+
+    /**
+     * Forgets the entries of the channel, when the bot has left it.
+     */
+    public void forget(@Nonnull String channel) {
+        channels.remove(key(channel));
+    }
+
+    /**
+     * Forgets the entries of all the channels, when the bot has been disconnected.
+     * The events missed until the bot reconnects would make them stale.
+     */
+    public void clear() {
+        channels.clear();
+    }
+
+    /**
+     * Forgets the entries of the channel, whose member list has been received, and completes the pending refresh.
+     */
+    public void memberList(@Nonnull String channel) {
+        ChannelState state = state(channel);
+        state.levels.clear();
+        synchronized (state) {
+            state.refreshInFlight = false;
+        }
+    }
+
+    /**
+     * Decides whether the member list of the channel should be refreshed.
+     * @return {@code true} if the caller should request the member list,
+     *         {@code false} if it has been requested recently or the request is still in flight
+     */
+    public boolean shouldRefresh(@Nonnull String channel) {
+        ChannelState state = state(channel);
+        long now = clock.getAsLong();
+        synchronized (state) {
+            long sinceLast = now - state.refreshRequestedAt;
+            if (state.refreshRequestedAt != 0 && sinceLast < refreshIntervalMillis) {
+                return false;
+            }
+            if (state.refreshInFlight && sinceLast < REFRESH_TIMEOUT_MILLIS) {
+                return false;
+            }
+            state.refreshRequestedAt = now;
+            state.refreshInFlight = true;
+            return true;
+        }
+    }
+
+    private ChannelState state(String channel) {
+        return channels.computeIfAbsent(key(channel), k -> new ChannelState());
+    }
+
+    private static int toLevels(User user, Channel channel) {
+        int levels = 0;
+        for (UserLevel level : user.getUserLevels(channel)) {
+            if (level == UserLevel.OP) {
+                levels |= OP;
+            } else if (level == UserLevel.VOICE) {
+                levels |= VOICE;
+            }
+        }
+        return levels;
+    }
+
+    private static String key(String name) {
+        return ChannelAllowList.normalize(name);
+    }
+}
@@ -0,0 +1,42 @@
+package org.jenkinsci.backend.ircbot;
+
+import javax.annotation.Nonnull;
+
+import org.pircbotx.Channel;
+
+/**
+ * Sends messages to a channel through the {@link OutboundScheduler}.
+ * The methods do not block, messages are sent once the rate limit allows it.
+ * @since 2.0-SNAPSHOT
+ */
+public final class ChannelOutput {
+
+    private final OutboundScheduler scheduler;
+    private final Channel channel;
+
+    ChannelOutput(@Nonnull OutboundScheduler scheduler, @Nonnull Channel channel) {
+        this.scheduler = scheduler;
+        this.channel = channel;
+    }
+
+    /**
+     * Sends the message, it may be merged with other messages to the channel.
+     */
+    public void message(@Nonnull String message) {
+        scheduler.enqueue(channel, message, false);
+    }
+
+    /**
+     * Sends a short acknowledgement, which goes ahead of the pending bulk output.
+     */
+    public void ack(@Nonnull String message) {
+        scheduler.enqueue(channel, message, true);
+    }
+
+    /**
+     * Sends a raw IRC line concerning the channel, e.g. a kick, which goes ahead of the pending bulk output.
+     */
+    public void rawLine(@Nonnull String line) {
+        scheduler.enqueueRaw(channel, line);
+    }
+}
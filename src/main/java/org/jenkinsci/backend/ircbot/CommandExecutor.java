@@ -0,0 +1,261 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes command bodies outside of the IRC listener threads.
+ * Tasks submitted for the same key (normally a channel) are executed one by one in the submission order,
+ * so the replies of the commands do not get interleaved.
+ * Tasks for different keys run concurrently, up to the configured number of threads.
+ * Asynchronous tasks keep their key busy until they complete, without holding a thread meanwhile.
+ * @since 2.0-SNAPSHOT
+ */
+public class CommandExecutor implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandExecutor.class);
+
+    private final ExecutorService executor;
+    private final int capacity;
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Pending tasks for the keys, which currently have a task running.
+     * Guarded by {@code this}.
+     */
+    private final Map<String, Deque<Supplier<? extends CompletionStage<?>>>> queues = new HashMap<>();
+    /**
+     * Number of the submitted tasks, which have not completed yet.
+     * Guarded by {@code this}.
+     */
+    private int pending;
+    private boolean closed;
+
+    /**
+     * Creates the executor using {@link IrcBotConfig#COMMAND_THREADS} and {@link IrcBotConfig#COMMAND_QUEUE_SIZE}.
+     */
+    public CommandExecutor() {
+        this(IrcBotConfig.COMMAND_THREADS, IrcBotConfig.COMMAND_QUEUE_SIZE, IrcBotConfig.COMMAND_VIRTUAL_THREADS);
+    }
+
+    /**
+     * @param threads Maximum number of tasks being executed concurrently
+     * @param queueSize Maximum number of tasks waiting for execution
+     * @param useVirtualThreads Use virtual threads if the runtime supports them
+     */
+    public CommandExecutor(int threads, int queueSize, boolean useVirtualThreads) {
+        this(createThreadPool(threads, useVirtualThreads), threads + Math.max(0, queueSize));
+    }
+
+    /**
+     * @param executor Runs the tasks, e.g. a direct executor running them in the submitting thread
+     * @param capacity Maximum number of tasks being executed or waiting for execution
+     */
+    CommandExecutor(@Nonnull ExecutorService executor, int capacity) {
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    private static ExecutorService createThreadPool(int threads, boolean useVirtualThreads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one command thread is required, got " + threads);
+        }
+        ThreadFactory threadFactory = useVirtualThreads ? virtualThreadFactory() : null;
+        if (threadFactory == null) {
+            threadFactory = platformThreadFactory();
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Submits the task for execution.
+     * @param key Ordering key, tasks with the same key are never executed concurrently
+     * @param task Task to be executed
+     * @return {@code false} if the executor is overloaded or closed, and the task has been rejected
+     */
+    public boolean submit(@Nonnull String key, @Nonnull Runnable task) {
+        return submitAsync(key, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Submits the task, which completes asynchronously.
+     * The next task for the key starts once the returned stage completes.
+     * @param key Ordering key, tasks with the same key are never executed concurrently
+     * @param task Task to be executed, it may return {@code null} if it has completed synchronously
+     * @return {@code false} if the executor is overloaded or closed, and the task has been rejected
+     */
+    public boolean submitAsync(@Nonnull String key, @Nonnull Supplier<? extends CompletionStage<?>> task) {
+        synchronized (this) {
+            if (closed || pending >= capacity) {
+                return false;
+            }
+            pending++;
+            Deque<Supplier<? extends CompletionStage<?>>> queue = queues.get(key);
+            if (queue != null) {
+                // a task for this key is running, it will pick up this one once completed
+                queue.add(task);
+                return true;
+            }
+            queues.put(key, new ArrayDeque<>());
+        }
+        try {
+            executor.execute(() -> runAll(key, task));
+        } catch (RejectedExecutionException ex) {
+            // closed concurrently
+            synchronized (this) {
+                pending -= 1 + queues.remove(key).size();
+                notifyAll();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of tasks, which have been submitted and have not completed yet.
+     */
+    public synchronized int getPendingCount() {
+        return pending;
+    }
+
+    /**
+     * Gets the number of tasks being executed right now.
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    private void runAll(String key, Supplier<? extends CompletionStage<?>> first) {
+        Supplier<? extends CompletionStage<?>> current = first;
+        while (current != null) {
+            CompletionStage<?> stage = null;
+            active.incrementAndGet();
+            try {
+                stage = current.get();
+            } catch (RuntimeException | Error ex) {
+                LOGGER.error("Unhandled failure of the command for {}", key, ex);
+            } finally {
+                active.decrementAndGet();
+            }
+            if (stage != null) {
+                // the next task starts once this one completes, the thread is released meanwhile
+                stage.whenComplete((result, ex) -> runNext(key));
+                return;
+            }
+            current = next(key);
+        }
+    }
+
+    private void runNext(String key) {
+        Supplier<? extends CompletionStage<?>> next = next(key);
+        if (next == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> runAll(key, next));
+        } catch (RejectedExecutionException ex) {
+            // closed meanwhile, the already submitted tasks still have to complete
+            runAll(key, next);
+        }
+    }
+
+    /**
+     * Marks the current task for the key as completed.
+     * @return Next task for the key or {@code null} if there is none
+     */
+    @CheckForNull
+    private synchronized Supplier<? extends CompletionStage<?>> next(String key) {
+        pending--;
+        if (pending == 0) {
+            notifyAll();
+        }
+        Deque<Supplier<? extends CompletionStage<?>>> queue = queues.get(key);
+        Supplier<? extends CompletionStage<?>> next = queue.poll();
+        if (next == null) {
+            queues.remove(key);
+        }
+        return next;
+    }
+
+    /**
+     * Stops accepting new tasks.
+     * Already submitted tasks will be completed.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Waits until the submitted tasks complete after {@link #close()}.
+     * @return {@code false} if the timeout expired first
+     */
+    public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this) {
+            // asynchronous tasks do not hold the threads of the executor
+            while (pending > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+        }
+        return executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+        final AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = defaultFactory.newThread(r);
+            t.setName("ircbot-command-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Gets the virtual thread factory if running on Java 21 or above.
+     * Reflection is used, because the bot is still built for Java 17.
+     */
+    @CheckForNull
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "ircbot-command-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
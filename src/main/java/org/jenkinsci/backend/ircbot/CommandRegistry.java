@@ -0,0 +1,259 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.pircbotx.Channel;
+import org.pircbotx.User;
+
+/**
+ * Dispatch table for the direct commands of {@link IrcListener}.
+ * Every command declares the leading keywords it may start with,
+ * so a payload is only matched against the patterns registered for its first word.
+ * Within a keyword, commands are tried in the registration order.
+ * @since 2.0-SNAPSHOT
+ */
+public class CommandRegistry {
+
+    /**
+     * Handles a command, which pattern has matched the payload.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(Channel channel, User sender, Matcher m);
+    }
+
+    /**
+     * Handles a command and reports whether it has succeeded.
+     * Handlers which tell the channel about their failures themselves, e.g. when GitHub or JIRA cannot be reached,
+     * return {@code false}, so that the failure is still counted by {@link BotMetrics}.
+     */
+    @FunctionalInterface
+    public interface OutcomeHandler {
+        boolean handle(Channel channel, User sender, Matcher m);
+    }
+
+    /**
+     * Handles a command, which completes asynchronously, e.g. once GitHub has created a repository.
+     * The command has failed if the stage completes exceptionally or with {@code false}.
+     */
+    @FunctionalInterface
+    public interface AsyncHandler {
+        @Nonnull
+        CompletionStage<?> handle(Channel channel, User sender, Matcher m);
+    }
+
+    /**
+     * Registered command.
+     */
+    public static final class Command {
+        private final String name;
+        private final Pattern pattern;
+        private final Handler handler;
+        private final OutcomeHandler outcomeHandler;
+        @CheckForNull
+        private final AsyncHandler asyncHandler;
+        private final List<String> keywords;
+
+        /**
+         * @param name Short name of the command, used in logs and metrics
+         * @param pattern Pattern, which should match the entire payload
+         * @param handler Command handler
+         * @param keywords Words the payload may start with. Matched case-insensitively.
+         */
+        public Command(@Nonnull String name, @Nonnull Pattern pattern, @Nonnull Handler handler, @Nonnull String... keywords) {
+            this(name, pattern, handler, (channel, sender, m) -> {
+                handler.handle(channel, sender, m);
+                return true;
+            }, null, keywords);
+        }
+
+        private Command(String name, Pattern pattern, Handler handler, OutcomeHandler outcomeHandler,
+                        @CheckForNull AsyncHandler asyncHandler, String... keywords) {
+            if (keywords.length == 0) {
+                throw new IllegalArgumentException("Command " + name + " must declare at least one keyword");
+            }
+            this.name = name;
+            this.pattern = pattern;
+            this.handler = handler;
+            this.outcomeHandler = outcomeHandler;
+            this.asyncHandler = asyncHandler;
+            List<String> normalized = new ArrayList<>(keywords.length);
+            for (String keyword : keywords) {
+                normalized.add(normalize(keyword));
+            }
+            this.keywords = Collections.unmodifiableList(normalized);
+        }
+
+        @Nonnull
+        public String getName() {
+            return name;
+        }
+
+        @Nonnull
+        public Pattern getPattern() {
+            return pattern;
+        }
+
+        /**
+         * Creates a command, which completes asynchronously.
+         * The following commands in the same channel wait for its completion, see {@link CommandExecutor#submitAsync}.
+         * @param name Short name of the command, used in logs and metrics
+         * @param pattern Pattern, which should match the entire payload
+         * @param handler Command handler
+         * @param keywords Words the payload may start with. Matched case-insensitively.
+         */
+        @Nonnull
+        public static Command async(@Nonnull String name, @Nonnull Pattern pattern, @Nonnull AsyncHandler handler, @Nonnull String... keywords) {
+            return new Command(name, pattern, handler::handle, (channel, sender, m) -> {
+                handler.handle(channel, sender, m);
+                return true;
+            }, handler, keywords);
+        }
+
+        /**
+         * Creates a command, which reports whether it has succeeded.
+         * @param name Short name of the command, used in logs and metrics
+         * @param pattern Pattern, which should match the entire payload
+         * @param handler Command handler
+         * @param keywords Words the payload may start with. Matched case-insensitively.
+         */
+        @Nonnull
+        public static Command withOutcome(@Nonnull String name, @Nonnull Pattern pattern, @Nonnull OutcomeHandler handler, @Nonnull String... keywords) {
+            return new Command(name, pattern, handler::handle, handler, null, keywords);
+        }
+
+        /**
+         * Gets the handler. The handler of an asynchronous command returns once the command has started.
+         */
+        @Nonnull
+        public Handler getHandler() {
+            return handler;
+        }
+
+        /**
+         * Gets the handler, which reports whether the command has succeeded.
+         * Commands created without an outcome always succeed unless they throw.
+         * The handler of an asynchronous command returns once the command has started, see {@link #getAsyncHandler()}.
+         */
+        @Nonnull
+        public OutcomeHandler getOutcomeHandler() {
+            return outcomeHandler;
+        }
+
+        /**
+         * Gets the handler of an asynchronous command.
+         * @return Handler or {@code null} if the command completes synchronously
+         */
+        @CheckForNull
+        public AsyncHandler getAsyncHandler() {
+            return asyncHandler;
+        }
+
+        @Nonnull
+        public List<String> getKeywords() {
+            return keywords;
+        }
+    }
+
+    /**
+     * Result of the command lookup.
+     */
+    public static final class Match {
+        private final Command command;
+        private final Matcher matcher;
+
+        private Match(Command command, Matcher matcher) {
+            this.command = command;
+            this.matcher = matcher;
+        }
+
+        @Nonnull
+        public Command getCommand() {
+            return command;
+        }
+
+        @Nonnull
+        public Matcher getMatcher() {
+            return matcher;
+        }
+    }
+
+    private final List<Command> commands = new CopyOnWriteArrayList<>();
+    private final Map<String, List<Command>> byKeyword = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a new command.
+     * Commands registered earlier take precedence over the later ones.
+     * @param command Command to be registered
+     * @return this registry
+     */
+    @Nonnull
+    public synchronized CommandRegistry register(@Nonnull Command command) {
+        commands.add(command);
+        for (String keyword : command.getKeywords()) {
+            byKeyword.computeIfAbsent(keyword, k -> new CopyOnWriteArrayList<>()).add(command);
+        }
+        return this;
+    }
+
+    /**
+     * Gets all registered commands in the registration order.
+     */
+    @Nonnull
+    public List<Command> getCommands() {
+        return Collections.unmodifiableList(commands);
+    }
+
+    /**
+     * Finds the command matching the payload.
+     * @param payload Trimmed payload with the whitespaces collapsed
+     * @return Matched command or {@code null} if there is no such command
+     */
+    @CheckForNull
+    public Match find(@Nonnull String payload) {
+        final List<Command> candidates = byKeyword.get(normalize(firstWord(payload)));
+        if (candidates == null) {
+            return null;
+        }
+        for (Command command : candidates) {
+            Matcher m = command.getPattern().matcher(payload);
+            if (m.matches()) {
+                return new Match(command, m);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds and invokes the command matching the payload.
+     * @return {@code true} if the payload has been handled
+     */
+    public boolean dispatch(Channel channel, User sender, @Nonnull String payload) {
+        Match match = find(payload);
+        if (match == null) {
+            return false;
+        }
+        match.getCommand().getHandler().handle(channel, sender, match.getMatcher());
+        return true;
+    }
+
+    private static String firstWord(String payload) {
+        int end = payload.indexOf(' ');
+        return end < 0 ? payload : payload.substring(0, end);
+    }
+
+    private static String normalize(String keyword) {
+        return keyword.toLowerCase(Locale.ENGLISH);
+    }
+}
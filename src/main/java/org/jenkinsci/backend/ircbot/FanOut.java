@@ -0,0 +1,205 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the same operation for several items concurrently.
+ * Each remote service has its own instance, which limits the number of concurrent requests to it.
+ * Single asynchronous operations on the service share the limit, see {@link #execute(Runnable)}.
+ * @since 2.0-SNAPSHOT
+ */
+public class FanOut implements Executor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FanOut.class);
+
+    /**
+     * Operations on GitHub. Keep the parallelism low to stay within the secondary rate limits.
+     */
+    public static final FanOut GITHUB = new FanOut("github", IrcBotConfig.GITHUB_PARALLELISM);
+    /**
+     * Operations on JIRA.
+     */
+    public static final FanOut JIRA = new FanOut("jira", IrcBotConfig.JIRA_PARALLELISM);
+
+    /**
+     * Operation performed for every item.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        /**
+         * @param item Item to be processed
+         * @throws Exception Operation failure, its message is reported to the user
+         */
+        void apply(@Nonnull String item) throws Exception;
+    }
+
+    /**
+     * Result of the operation for a single item.
+     */
+    public static final class Result {
+        private final String item;
+        @CheckForNull
+        private final String error;
+
+        private Result(String item, @CheckForNull String error) {
+            this.item = item;
+            this.error = error;
+        }
+
+        @Nonnull
+        public String getItem() {
+            return item;
+        }
+
+        /**
+         * @return Failure description or {@code null} if the operation succeeded
+         */
+        @CheckForNull
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private final String name;
+    private final ExecutorService executor;
+
+    public FanOut(@Nonnull String name, int parallelism) {
+        this.name = name;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), threadFactory(name));
+    }
+
+    /**
+     * Runs the operation for all items and waits for the completion.
+     * Repeated items are processed once, so that e.g. the same team is not created twice concurrently.
+     * Names of the GitHub repositories and JIRA components are case-insensitive, so are the items.
+     * @param items Items to be processed
+     * @param operation Operation
+     * @return Results in the order of the first occurrences of the items
+     */
+    @Nonnull
+    public List<Result> run(@Nonnull List<String> items, @Nonnull Operation operation) {
+        items = distinct(items);
+        List<Result> results = new ArrayList<>(items.size());
+        if (items.size() == 1) {
+            // nothing to parallelize
+            results.add(apply(items.get(0), operation));
+            return results;
+        }
+
+        List<Future<Result>> futures = new ArrayList<>(items.size());
+        for (String item : items) {
+            futures.add(executor.submit(() -> apply(item, operation)));
+        }
+        for (int i = 0; i < items.size(); i++) {
+            Future<Result> future = futures.get(i);
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                results.add(new Result(items.get(i), "interrupted"));
+            } catch (ExecutionException e) {
+                // apply() does not throw, but be on the safe side
+                results.add(new Result(items.get(i), describe(e.getCause())));
+            }
+        }
+        return results;
+    }
+
+    private static List<String> distinct(List<String> items) {
+        Set<String> seen = new HashSet<>();
+        List<String> distinct = new ArrayList<>(items.size());
+        for (String item : items) {
+            if (seen.add(item.toLowerCase(Locale.ENGLISH))) {
+                distinct.add(item);
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Runs a single operation asynchronously, within the concurrency limit of the service.
+     */
+    @Override
+    public void execute(@Nonnull Runnable task) {
+        executor.execute(task);
+    }
+
+    private Result apply(String item, Operation operation) {
+        if (Thread.currentThread().isInterrupted()) {
+            return new Result(item, "interrupted");
+        }
+        try {
+            operation.apply(item);
+            return new Result(item, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(item, "interrupted");
+        } catch (Exception e) {
+            LOGGER.warn("Operation on {} failed for {}", name, item, e);
+            return new Result(item, describe(e));
+        }
+    }
+
+    /**
+     * Summarizes results in a single line.
+     * @param succeeded Prefix of the successful items, e.g. "Added foo as a committer for"
+     * @param failed Prefix of the failed items, e.g. "Failed to add foo to"
+     * @param results Results to be summarized
+     * @return Summary, e.g. "Added foo as a committer for a, b. Failed to add foo to c (no such repository)."
+     */
+    @Nonnull
+    public static String summarize(@Nonnull String succeeded, @Nonnull String failed, @Nonnull List<Result> results) {
+        List<String> ok = results.stream().filter(Result::isSuccess).map(Result::getItem).collect(Collectors.toList());
+        List<String> errors = results.stream().filter(r -> !r.isSuccess())
+                .map(r -> r.getItem() + " (" + r.getError() + ")").collect(Collectors.toList());
+
+        StringBuilder summary = new StringBuilder();
+        if (!ok.isEmpty()) {
+            summary.append(succeeded).append(' ').append(String.join(", ", ok)).append('.');
+        }
+        if (!errors.isEmpty()) {
+            if (summary.length() > 0) {
+                summary.append(' ');
+            }
+            summary.append(failed).append(' ').append(String.join(", ", errors)).append('.');
+        }
+        return summary.toString();
+    }
+
+    private static String describe(Throwable t) {
+        return t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+        final AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = defaultFactory.newThread(r);
+            t.setName("ircbot-" + name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
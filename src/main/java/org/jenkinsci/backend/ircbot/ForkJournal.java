@@ -0,0 +1,319 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-ahead log of the fork workflows, see {@link ForkWorkflow}.
+ *
+ * The start of a workflow and every completed step are appended to the file and synced to the disk
+ * before the workflow continues, so that the workflows interrupted by a restart can be resumed.
+ * Each record is a line of tab-separated workflow id, record type and values.
+ * The workflows are bound to the network and the channel they have been requested in, see {@link IrcNetwork}.
+ * When the journal is opened, the file is compacted to the records of the unfinished workflows.
+ * @since 2.0-SNAPSHOT
+ */
+public class ForkJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ForkJournal.class);
+
+    static final String START = "start";
+    static final String STEP = "step";
+    static final String END = "end";
+
+    /**
+     * State of a single fork workflow.
+     */
+    public static final class Entry {
+        private final long id;
+        private final String network;
+        private final String channel;
+        private final String owner;
+        private final String repo;
+        @CheckForNull
+        private final String newName;
+        private final List<String> maintainers;
+        private final boolean useGHIssues;
+        /**
+         * Completed steps and their data, steps may complete concurrently.
+         */
+        private final Map<String, String> steps = new ConcurrentHashMap<>();
+
+        Entry(long id, @Nonnull String network, @Nonnull String channel, @Nonnull String owner, @Nonnull String repo, @CheckForNull String newName,
+              @Nonnull List<String> maintainers, boolean useGHIssues) {
+            this.id = id;
+            this.network = network;
+            this.channel = channel;
+            this.owner = owner;
+            this.repo = repo;
+            this.newName = newName;
+            this.maintainers = Collections.unmodifiableList(new ArrayList<>(maintainers));
+            this.useGHIssues = useGHIssues;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Gets the name of the network where the fork has been requested, see {@link IrcNetwork#getName()}.
+         */
+        @Nonnull
+        public String getNetwork() {
+            return network;
+        }
+
+        /**
+         * Gets the channel where the fork has been requested.
+         */
+        @Nonnull
+        public String getChannel() {
+            return channel;
+        }
+
+        @Nonnull
+        public String getOwner() {
+            return owner;
+        }
+
+        @Nonnull
+        public String getRepo() {
+            return repo;
+        }
+
+        @CheckForNull
+        public String getNewName() {
+            return newName;
+        }
+
+        /**
+         * Gets the name of the repository in the organization once the workflow completes.
+         */
+        @Nonnull
+        public String getTargetName() {
+            return newName != null ? newName : repo;
+        }
+
+        @Nonnull
+        public List<String> getMaintainers() {
+            return maintainers;
+        }
+
+        public boolean isUseGHIssues() {
+            return useGHIssues;
+        }
+
+        public boolean isCompleted(@Nonnull String step) {
+            return steps.containsKey(step);
+        }
+
+        /**
+         * Gets the data recorded with the completed step.
+         * @return Data or {@code null} if the step has not completed
+         */
+        @CheckForNull
+        public String getData(@Nonnull String step) {
+            return steps.get(step);
+        }
+
+        @Override
+        public String toString() {
+            return owner + "/" + repo + (newName != null ? " as " + newName : "");
+        }
+    }
+
+    @CheckForNull
+    private final File file;
+
+    // guarded by this
+    private long nextId = 1;
+    /**
+     * Unfinished workflows read from the file, which have not been resumed yet.
+     */
+    private final Map<Long, Entry> pending = new LinkedHashMap<>();
+
+    /**
+     * Opens the journal, reads the unfinished workflows and compacts the file.
+     * Failures are logged, the journal still records the new workflows.
+     * @param file Journal file. If {@code null}, the workflows are not persisted.
+     */
+    public ForkJournal(@CheckForNull File file) {
+        this.file = file;
+        if (file != null && file.exists()) {
+            try {
+                read(file);
+                compact(file);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to read the fork journal {}", file, e);
+            }
+            if (!pending.isEmpty()) {
+                LOGGER.info("Found {} unfinished fork workflows in {}", pending.size(), file);
+            }
+        }
+    }
+
+    /**
+     * Records the start of a workflow.
+     */
+    @Nonnull
+    public Entry begin(@Nonnull String network, @Nonnull String channel, @Nonnull String owner, @Nonnull String repo,
+                       @CheckForNull String newName, @Nonnull List<String> maintainers, boolean useGHIssues) {
+        Entry entry;
+        synchronized (this) {
+            entry = new Entry(nextId++, network, channel, owner, repo, newName, maintainers, useGHIssues);
+        }
+        append(startRecord(entry));
+        return entry;
+    }
+
+    /**
+     * Records the completion of the step.
+     * @param data Data needed to resume the workflow after the step, e.g. names of the created objects
+     */
+    public void completed(@Nonnull Entry entry, @Nonnull String step, @CheckForNull String data) {
+        String value = data != null ? data : "";
+        append(stepRecord(entry.id, step, value));
+        entry.steps.put(step, value);
+    }
+
+    /**
+     * Records the end of the workflow, it will not be resumed anymore.
+     */
+    public void finished(@Nonnull Entry entry, boolean success) {
+        append(entry.id + "\t" + END + "\t" + (success ? "ok" : "failed"));
+    }
+
+    /**
+     * Takes the unfinished workflows requested in the channel of the network, so that they can be resumed.
+     * Every workflow is returned only once.
+     */
+    @Nonnull
+    public synchronized List<Entry> takePending(@Nonnull String network, @Nonnull String channel) {
+        String name = ChannelAllowList.normalize(channel);
+        List<Entry> taken = new ArrayList<>();
+        for (Iterator<Entry> it = pending.values().iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (entry.network.equals(network) && ChannelAllowList.normalize(entry.channel).equals(name)) {
+                taken.add(entry);
+                it.remove();
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Gets the number of unfinished workflows, which have not been resumed yet.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private synchronized void append(String line) {
+        if (file == null) {
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write to the fork journal {}, the workflow cannot be resumed after a restart", file, e);
+        }
+    }
+
+    private synchronized void read(File file) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (!apply(line.split("\t", -1))) {
+                    // e.g. the last line written before a crash
+                    LOGGER.warn("Ignoring a malformed record in the fork journal {}: {}", file, line);
+                }
+            }
+        }
+    }
+
+    private boolean apply(String[] fields) {
+        long id;
+        try {
+            id = Long.parseLong(fields[0]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        nextId = Math.max(nextId, id + 1);
+        // the records written before the networks were introduced have no network
+        if ((fields.length == 8 || fields.length == 9) && START.equals(fields[1])) {
+            List<String> maintainers = fields[7].isEmpty() ? Collections.emptyList() : Arrays.asList(fields[7].split(","));
+            String network = fields.length == 9 ? fields[8] : IrcNetwork.DEFAULT_NAME;
+            pending.put(id, new Entry(id, network, fields[2], fields[3], fields[4], fields[5].isEmpty() ? null : fields[5],
+                    maintainers, Boolean.parseBoolean(fields[6])));
+            return true;
+        }
+        if (fields.length == 4 && STEP.equals(fields[1])) {
+            Entry entry = pending.get(id);
+            if (entry != null) {
+                entry.steps.put(fields[2], fields[3]);
+            }
+            return entry != null;
+        }
+        if (fields.length == 3 && END.equals(fields[1])) {
+            return pending.remove(id) != null;
+        }
+        return false;
+    }
+
+    private synchronized void compact(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp);
+             Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            for (Entry entry : pending.values()) {
+                w.write(startRecord(entry) + "\n");
+                for (Map.Entry<String, String> step : entry.steps.entrySet()) {
+                    w.write(stepRecord(entry.id, step.getKey(), step.getValue()) + "\n");
+                }
+            }
+            w.flush();
+            out.getFD().sync();
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String startRecord(Entry entry) {
+        return entry.id + "\t" + START + "\t" + sanitize(entry.channel) + "\t" + sanitize(entry.owner) + "\t" + sanitize(entry.repo)
+                + "\t" + (entry.newName != null ? sanitize(entry.newName) : "") + "\t" + entry.useGHIssues
+                + "\t" + entry.maintainers.stream().map(ForkJournal::sanitize).collect(Collectors.joining(","))
+                + "\t" + sanitize(entry.network);
+    }
+
+    private static String stepRecord(long id, String step, String data) {
+        return id + "\t" + STEP + "\t" + sanitize(step) + "\t" + sanitize(data);
+    }
+
+    private static String sanitize(String value) {
+        return value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,330 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.backend.ircbot.util.ResourceAwaiter;
+import org.kohsuke.github.GHOrganization;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHTeam;
+import org.kohsuke.github.GHUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Forks a repository into the GitHub organization and sets it up to our policy.
+ *
+ * The steps are recorded in the {@link ForkJournal}, so that a workflow interrupted by a restart
+ * is resumed from the first step which has not completed.
+ * GitHub creates and renames repositories asynchronously, so the steps waiting for them poll with a {@link ResourceAwaiter},
+ * and the idempotent steps are retried the same way. No thread is blocked between the attempts,
+ * the fork is requested with {@link GitHubClientProvider#requestFork}, which does not wait for it like the library does.
+ * The repository local team and the repository settings do not depend on each other and are set up in parallel.
+ * @since 2.0-SNAPSHOT
+ */
+public class ForkWorkflow {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ForkWorkflow.class);
+
+    static final String FORK = "fork";
+    static final String RENAME = "rename";
+    static final String LEGACY_TEAMS = "legacyTeams";
+    static final String TEAM = "team";
+    static final String SETTINGS = "settings";
+    static final String CLEANUP = "cleanup";
+
+    /**
+     * Sets up the forked repository.
+     */
+    @FunctionalInterface
+    public interface Setup {
+        void apply(@Nonnull ChannelOutput out, @Nonnull GHRepository repository, @Nonnull ForkJournal.Entry entry) throws IOException;
+    }
+
+    /**
+     * Step of the workflow, which may fail synchronously.
+     */
+    @FunctionalInterface
+    private interface Step<T, R> {
+        CompletableFuture<R> apply(T value) throws IOException;
+    }
+
+    private final GitHubClientProvider gitHub;
+    private final ForkJournal journal;
+    private final ResourceAwaiter awaiter;
+    private final Executor executor;
+    private final Setup team;
+    private final Setup settings;
+
+    /**
+     * @param gitHub GitHub client
+     * @param journal Records the progress of the workflows
+     * @param awaiter Waits for GitHub and retries the failed steps
+     * @param executor Runs the steps, e.g. {@link FanOut#GITHUB}
+     * @param team Creates the repository local team, its failures are reported but do not stop the workflow
+     * @param settings Applies the repository settings, it must be idempotent
+     */
+    public ForkWorkflow(@Nonnull GitHubClientProvider gitHub, @Nonnull ForkJournal journal, @Nonnull ResourceAwaiter awaiter,
+                        @Nonnull Executor executor, @Nonnull Setup team, @Nonnull Setup settings) {
+        this.gitHub = gitHub;
+        this.journal = journal;
+        this.awaiter = awaiter;
+        this.executor = executor;
+        this.team = team;
+        this.settings = settings;
+    }
+
+    /**
+     * Starts a new workflow.
+     * @param origin Repository {@code owner/repo} to be forked
+     * @return Completes with {@code true} if the repository has been forked and set up
+     */
+    @Nonnull
+    public CompletableFuture<Boolean> start(@Nonnull ChannelOutput out, @Nonnull String network, @Nonnull String channel,
+                                            @Nonnull String owner, @Nonnull String repo, @Nonnull GHRepository origin,
+                                            @CheckForNull String newName, @Nonnull List<String> maintainers, boolean useGHIssues) {
+        ForkJournal.Entry entry = journal.begin(network, channel, owner, repo, newName, maintainers, useGHIssues);
+        return run(out, entry, origin);
+    }
+
+    /**
+     * Resumes a workflow interrupted by a restart.
+     * @return Completes with {@code true} if the repository has been forked and set up
+     */
+    @Nonnull
+    public CompletableFuture<Boolean> resume(@Nonnull ChannelOutput out, @Nonnull ForkJournal.Entry entry) {
+        LOGGER.info("Resuming the fork of {}", entry);
+        out.message("Resuming the fork of " + entry);
+        return run(out, entry, null);
+    }
+
+    /**
+     * Takes the unfinished workflows requested in the channel of the network, see {@link ForkJournal#takePending(String, String)}.
+     */
+    @Nonnull
+    public List<ForkJournal.Entry> takePending(@Nonnull String network, @Nonnull String channel) {
+        return journal.takePending(network, channel);
+    }
+
+    private CompletableFuture<Boolean> run(ChannelOutput out, ForkJournal.Entry entry, @CheckForNull GHRepository origin) {
+        return CompletableFuture.completedFuture(origin)
+                .thenComposeAsync(step(o -> fork(entry, o)), executor)
+                .thenComposeAsync(step(r -> rename(entry, r)), executor)
+                .thenComposeAsync(step(r -> find(entry, r)), executor)
+                .thenComposeAsync(step(r -> setup(out, entry, r)), executor)
+                .handle((ignored, failure) -> finish(out, entry, failure));
+    }
+
+    /**
+     * Forks the repository.
+     * @return Fork or {@code null} if it has been forked before the restart
+     */
+    private CompletableFuture<GHRepository> fork(ForkJournal.Entry entry, @CheckForNull GHRepository origin) throws IOException {
+        if (entry.isCompleted(FORK)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        GHOrganization org = gitHub.getOrganization();
+        if (origin == null) {
+            GHUser user = gitHub.get().getUser(entry.getOwner());
+            if (user == null) {
+                throw new IOException("No such user: " + entry.getOwner());
+            }
+            origin = user.getRepository(entry.getRepo());
+            if (origin == null) {
+                throw new IOException("No such repository: " + entry.getRepo());
+            }
+        }
+
+        IOException missing;
+        try {
+            // forking again returns the existing fork, so this is safe to repeat after a restart
+            gitHub.requestFork(origin, org);
+            missing = new IOException(entry.getOwner() + "/" + entry.getRepo() + " was forked but can't find the new repository");
+        } catch (IOException e) {
+            // we started seeing 500 errors, presumably due to time out.
+            // give it a bit of time, and see if the repository is there
+            LOGGER.warn("GitHub reported that it failed to fork {}/{}. But we aren't trusting", entry.getOwner(), entry.getRepo());
+            missing = e;
+        }
+        // GitHub creates the fork asynchronously
+        IOException failure = missing;
+        return awaiter.await(() -> org.getRepository(entry.getRepo()))
+                .thenApply(r -> {
+                    found(r, failure);
+                    journal.completed(entry, FORK, null);
+                    return r;
+                });
+    }
+
+    /**
+     * Renames the fork if requested.
+     * @param r Fork or {@code null} if it has been forked before the restart
+     * @return Renamed repository, or {@code r} if there is nothing to rename
+     */
+    private CompletableFuture<GHRepository> rename(ForkJournal.Entry entry, @CheckForNull GHRepository r) throws IOException {
+        String newName = entry.getNewName();
+        if (newName == null || entry.isCompleted(RENAME)) {
+            return CompletableFuture.completedFuture(r);
+        }
+        GHOrganization org = gitHub.getOrganization();
+
+        CompletableFuture<GHRepository> renamed;
+        if (r != null) {
+            renamed = renameTo(org, entry, r);
+        } else {
+            // resumed, the repository may have been renamed before the restart
+            GHRepository existing = org.getRepository(newName);
+            if (existing != null && existing.getName().equalsIgnoreCase(newName)) {
+                renamed = CompletableFuture.completedFuture(existing);
+            } else {
+                renamed = awaiter.await(() -> org.getRepository(entry.getRepo()))
+                        .thenApply(fork -> found(fork, new IOException("Cannot find the repository " + entry.getRepo())))
+                        .thenCompose(fork -> renameTo(org, entry, fork));
+            }
+        }
+        return renamed.thenApply(repository -> {
+            journal.completed(entry, RENAME, null);
+            return repository;
+        });
+    }
+
+    private CompletableFuture<GHRepository> renameTo(GHOrganization org, ForkJournal.Entry entry, GHRepository r) {
+        String newName = entry.getNewName();
+        try {
+            r.renameTo(newName);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return awaiter.await(() -> org.getRepository(newName))
+                .thenApply(renamed -> found(renamed,
+                        new IOException(entry.getRepo() + " renamed to " + newName + " but not finding the new repository")));
+    }
+
+    /**
+     * Finds the repository, if the previous steps have completed before the restart.
+     */
+    private CompletableFuture<GHRepository> find(ForkJournal.Entry entry, @CheckForNull GHRepository r) throws IOException {
+        if (r != null) {
+            return CompletableFuture.completedFuture(r);
+        }
+        GHOrganization org = gitHub.getOrganization();
+        String name = entry.getTargetName();
+        return awaiter.await(() -> org.getRepository(name))
+                .thenApply(repository -> found(repository, new IOException("Cannot find the repository " + name)));
+    }
+
+    private CompletableFuture<Void> setup(ChannelOutput out, ForkJournal.Entry entry, GHRepository r) throws IOException {
+        GHOrganization org = gitHub.getOrganization();
+
+        // GitHub adds a lot of teams to this repo by default, which we don't want
+        Collection<GHTeam> legacyTeams;
+        if (!entry.isCompleted(LEGACY_TEAMS)) {
+            legacyTeams = r.getTeams();
+            journal.completed(entry, LEGACY_TEAMS,
+                    legacyTeams.stream().map(GHTeam::getSlug).collect(Collectors.joining(",")));
+        } else {
+            legacyTeams = findTeams(org, entry.getData(LEGACY_TEAMS));
+        }
+
+        CompletableFuture<Void> teamCreated = CompletableFuture.completedFuture(null);
+        if (!entry.isCompleted(TEAM)) {
+            teamCreated = CompletableFuture.runAsync(() -> {
+                try {
+                    team.apply(out, r, entry);
+                } catch (IOException e) {
+                    // if the owner is an org, the team cannot be created for it
+                    out.message("Failed to add " + entry.getOwner() + " to the new repository. Maybe an org?: " + e.getMessage());
+                    // fall through
+                }
+                journal.completed(entry, TEAM, null);
+            }, executor);
+        }
+        CompletableFuture<Void> configured = CompletableFuture.completedFuture(null);
+        if (!entry.isCompleted(SETTINGS)) {
+            configured = awaiter.retry(() -> {
+                settings.apply(out, r, entry);
+                return null;
+            }).thenRun(() -> journal.completed(entry, SETTINGS, null));
+        }
+
+        return CompletableFuture.allOf(teamCreated, configured).thenCompose(ignored -> {
+            out.message("Created https://github.com/" + RuntimeConfig.current().getGitHubOrganization() + "/" + entry.getTargetName());
+            return cleanup(entry, r, legacyTeams);
+        });
+    }
+
+    /**
+     * Removes all the existing teams.
+     */
+    private CompletableFuture<Void> cleanup(ForkJournal.Entry entry, GHRepository r, Collection<GHTeam> legacyTeams) {
+        if (entry.isCompleted(CLEANUP)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<?>[] removed = legacyTeams.stream()
+                .map(legacyTeam -> awaiter.retry(() -> {
+                    legacyTeam.remove(r);
+                    return null;
+                }))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(removed).thenRun(() -> journal.completed(entry, CLEANUP, null));
+    }
+
+    private boolean finish(ChannelOutput out, ForkJournal.Entry entry, @CheckForNull Throwable failure) {
+        if (failure == null) {
+            journal.finished(entry, true);
+            return true;
+        }
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof RejectedExecutionException) {
+            // shutting down, keep the workflow in the journal, it will be resumed after the restart
+            LOGGER.warn("Fork of {} has been interrupted", entry, cause);
+            out.message("Failed to fork a repository, it will be resumed after the restart");
+            return false;
+        }
+        journal.finished(entry, false);
+        out.message("Failed to fork a repository: " + cause.getMessage());
+        LOGGER.warn("Failed to fork {}", entry, cause);
+        return false;
+    }
+
+    private static GHRepository found(@CheckForNull GHRepository r, IOException missing) {
+        if (r == null) {
+            throw new CompletionException(missing);
+        }
+        return r;
+    }
+
+    private static <T, R> Function<T, CompletableFuture<R>> step(Step<T, R> step) {
+        return value -> {
+            try {
+                return step.apply(value);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        };
+    }
+
+    private static List<GHTeam> findTeams(GHOrganization org, @CheckForNull String slugs) throws IOException {
+        List<GHTeam> teams = new ArrayList<>();
+        if (slugs == null || slugs.isEmpty()) {
+            return teams;
+        }
+        for (String slug : slugs.split(",")) {
+            GHTeam team = org.getTeamBySlug(slug);
+            if (team != null) {
+                teams.add(team);
+            }
+        }
+        return teams;
+    }
+}
@@ -0,0 +1,224 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import org.kohsuke.github.AsyncForkRequest;
+import org.kohsuke.github.GHOrganization;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.HttpException;
+import org.kohsuke.github.extras.okhttp3.OkHttpGitHubConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the GitHub client shared by all commands, and the handle of the managed organization.
+ * The default client keeps an on-disk HTTP response cache, so that repeated lookups
+ * are sent as conditional requests and served as 304 responses, which do not count against the rate limit.
+ * The client is recreated after connection failures reported via {@link #reportFailure(Throwable)},
+ * the pooled connections of the default client are dropped then too.
+ * @since 2.0-SNAPSHOT
+ */
+public class GitHubClientProvider implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GitHubClientProvider.class);
+
+    /**
+     * Creates GitHub clients.
+     */
+    @FunctionalInterface
+    public interface Factory {
+        @Nonnull
+        GitHub create() throws IOException;
+    }
+
+    private final Factory factory;
+
+    @CheckForNull
+    private GitHub github;
+    @CheckForNull
+    private GHOrganization organization;
+    @CheckForNull
+    private String organizationName;
+    /**
+     * HTTP client used by the default factory, released on {@link #close()}.
+     */
+    @CheckForNull
+    private final OkHttpClient httpClient;
+    private boolean closed;
+
+    public GitHubClientProvider(@Nonnull Factory factory) {
+        this(factory, null);
+    }
+
+    private GitHubClientProvider(@Nonnull Factory factory, @CheckForNull OkHttpClient httpClient) {
+        this.factory = factory;
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Creates the provider, which connects using the default credentials (see {@link GitHubBuilder#fromCredentials()})
+     * and uses the response cache configured by {@link IrcBotConfig#GITHUB_CACHE_DIR} and {@link IrcBotConfig#GITHUB_CACHE_SIZE_MB}.
+     */
+    @Nonnull
+    public static GitHubClientProvider createDefault() {
+        File cacheDir = IrcBotConfig.GITHUB_CACHE_SIZE_MB > 0 ? new File(IrcBotConfig.GITHUB_CACHE_DIR) : null;
+        OkHttpClient httpClient = createHttpClient(cacheDir, IrcBotConfig.GITHUB_CACHE_SIZE_MB * 1024L * 1024L, BotMetrics.get());
+        return new GitHubClientProvider(() -> GitHubBuilder.fromCredentials()
+                .withConnector(new OkHttpGitHubConnector(httpClient)).build(), httpClient);
+    }
+
+    /**
+     * Gets the shared client.
+     * @throws IOException Connection failure or the provider has been closed
+     */
+    @Nonnull
+    public synchronized GitHub get() throws IOException {
+        if (closed) {
+            throw new IOException("GitHub client has been already closed");
+        }
+        if (github == null) {
+            github = factory.create();
+        }
+        return github;
+    }
+
+    /**
+     * Gets the organization managed by the bot, see {@link RuntimeConfig#getGitHubOrganization()}.
+     * The handle is retrieved once and reused until the configured organization changes.
+     * @throws IOException Connection failure
+     */
+    @Nonnull
+    public synchronized GHOrganization getOrganization() throws IOException {
+        String name = RuntimeConfig.current().getGitHubOrganization();
+        if (organization == null || !name.equals(organizationName)) {
+            try {
+                organization = get().getOrganization(name);
+            } catch (IOException e) {
+                reportFailure(e);
+                throw e;
+            }
+            organizationName = name;
+        }
+        return organization;
+    }
+
+    /**
+     * Requests the fork of the repository into the organization, GitHub creates it asynchronously.
+     * Unlike {@link GHRepository#forkTo(GHOrganization)}, it does not wait for the fork.
+     * @throws IOException Request failure, the fork may still appear
+     */
+    public void requestFork(@Nonnull GHRepository origin, @Nonnull GHOrganization org) throws IOException {
+        try {
+            AsyncForkRequest.send(get(), origin, org);
+        } catch (IOException e) {
+            reportFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Reports the failure of a GitHub call.
+     * If GitHub has not responded at all, e.g. the connection has been reset or timed out,
+     * the client is recreated on the next use. Error responses of GitHub do not affect the client.
+     */
+    public void reportFailure(@Nonnull Throwable failure) {
+        if (!isConnectionFailure(failure)) {
+            return;
+        }
+        LOGGER.warn("GitHub request failed, the client will be recreated", failure);
+        invalidate();
+        if (httpClient != null) {
+            httpClient.connectionPool().evictAll();
+        }
+    }
+
+    /**
+     * Checks whether GitHub is reachable and accepts the credentials.
+     * The client is recreated on the next use if the check fails.
+     * @return {@code false} if the check failed
+     */
+    public boolean isHealthy() {
+        GitHub client;
+        try {
+            client = get();
+        } catch (IOException e) {
+            reportFailure(e);
+            return false;
+        }
+        if (client.isCredentialValid()) {
+            return true;
+        }
+        LOGGER.warn("GitHub client health check failed, recreating the client");
+        synchronized (this) {
+            if (github == client) {
+                invalidate();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the client and the cached organization, they will be recreated on the next use.
+     */
+    public synchronized void invalidate() {
+        github = null;
+        organization = null;
+    }
+
+    /**
+     * Drops the client and releases the connections and the response cache.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            invalidate();
+        }
+        if (httpClient != null) {
+            httpClient.dispatcher().executorService().shutdown();
+            httpClient.connectionPool().evictAll();
+            Cache cache = httpClient.cache();
+            if (cache != null) {
+                try {
+                    cache.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to close the GitHub response cache", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the HTTP client of the default provider, which records the calls in the metrics.
+     * @param cacheDir Directory of the response cache, {@code null} to disable the cache
+     * @param cacheSizeBytes Maximum size of the response cache
+     */
+    @Nonnull
+    static OkHttpClient createHttpClient(@CheckForNull File cacheDir, long cacheSizeBytes, @Nonnull BotMetrics metrics) {
+        OkHttpClient.Builder client = new OkHttpClient.Builder()
+                .addInterceptor(new GitHubMetricsInterceptor(metrics));
+        if (cacheDir != null) {
+            LOGGER.info("Using GitHub response cache in {}", cacheDir);
+            client.cache(new Cache(cacheDir, cacheSizeBytes));
+        }
+        return client.build();
+    }
+
+    private static boolean isConnectionFailure(Throwable failure) {
+        if (failure instanceof HttpException) {
+            // the response code is known if GitHub has responded
+            return ((HttpException) failure).getResponseCode() <= 0;
+        }
+        // 404 responses
+        return failure instanceof IOException && !(failure instanceof FileNotFoundException);
+    }
+}
@@ -0,0 +1,46 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Records the latency and the outcome of the GitHub API calls in {@link BotMetrics},
+ * together with the remaining rate limit reported in the responses.
+ * @since 2.0-SNAPSHOT
+ */
+public class GitHubMetricsInterceptor implements Interceptor {
+
+    private static final String RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+
+    private final BotMetrics metrics;
+
+    public GitHubMetricsInterceptor(@Nonnull BotMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Nonnull
+    @Override
+    public Response intercept(@Nonnull Chain chain) throws IOException {
+        long start = metrics.remoteCallStarted(BotMetrics.GITHUB);
+        boolean success = false;
+        try {
+            Response response = chain.proceed(chain.request());
+            // 404 is a regular answer of the lookups, e.g. for a team which does not exist yet
+            success = response.code() < 400 || response.code() == 404;
+            String remaining = response.header(RATE_LIMIT_REMAINING);
+            if (remaining != null) {
+                try {
+                    metrics.gitHubRateLimitRemaining(Long.parseLong(remaining.trim()));
+                } catch (NumberFormatException e) {
+                    // not reported
+                }
+            }
+            return response;
+        } finally {
+            metrics.remoteCallCompleted(BotMetrics.GITHUB, chain.request().method(), start, success);
+        }
+    }
+}
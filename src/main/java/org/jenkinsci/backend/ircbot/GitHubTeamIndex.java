@@ -0,0 +1,202 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.kohsuke.github.GHOrganization;
+import org.kohsuke.github.GHTeam;
+import org.kohsuke.github.PagedIterable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of the teams in the managed organization by their names.
+ * The organization has thousands of teams, so listing all of them for every lookup is not an option.
+ * The index is seeded and refreshed in the background, teams created by the bot are added directly,
+ * and teams missing in the index are looked up by their slug.
+ * @since 2.0-SNAPSHOT
+ */
+class GitHubTeamIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GitHubTeamIndex.class);
+
+    private static final int PAGE_SIZE = 100;
+
+    /**
+     * Minimal delay between the attempts to seed the index if GitHub is unavailable.
+     */
+    private static final long RETRY_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private final GitHubClientProvider gitHub;
+    private final long refreshMillis;
+    private final LongSupplier clock;
+    private final ExecutorService refresher;
+
+    /**
+     * Teams by their lowercased names.
+     */
+    private volatile Map<String, GHTeam> teams = new ConcurrentHashMap<>();
+    /**
+     * Teams added while the refresh is running, they must survive the replacement of {@link #teams}.
+     */
+    private final Map<String, GHTeam> addedDuringRefresh = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    /**
+     * Completion time of the last refresh, or {@code 0} if the index has not been seeded yet.
+     */
+    private volatile long refreshedAt;
+    private volatile long attemptedAt;
+    /**
+     * Incremented by {@link #invalidate()}, so that a refresh started before does not install its stale result.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    GitHubTeamIndex(@Nonnull GitHubClientProvider gitHub, long refreshSec) {
+        this(gitHub, refreshSec, System::currentTimeMillis, Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ircbot-github-teams");
+            t.setDaemon(true);
+            return t;
+        }));
+    }
+
+    GitHubTeamIndex(@Nonnull GitHubClientProvider gitHub, long refreshSec, @Nonnull LongSupplier clock, @Nonnull ExecutorService refresher) {
+        this.gitHub = gitHub;
+        this.refreshMillis = TimeUnit.SECONDS.toMillis(refreshSec);
+        this.clock = clock;
+        this.refresher = refresher;
+    }
+
+    /**
+     * Gets the team by its name.
+     * Schedules the refresh of the index if it is stale, the lookup itself never waits for it.
+     * @param teamName Team name, e.g. "foo-plugin Developers"
+     * @return Team or {@code null} if the organization has no such team
+     * @throws IOException Lookup failure
+     */
+    @CheckForNull
+    GHTeam get(@Nonnull String teamName) throws IOException {
+        refreshIfStale();
+        GHTeam team = teams.get(key(teamName));
+        if (team != null) {
+            return team;
+        }
+
+        // Created outside of the bot or not indexed yet
+        team = getBySlug(teamName);
+        if (team != null) {
+            put(teamName, team);
+        }
+        return team;
+    }
+
+    /**
+     * Adds the team to the index, e.g. once the bot creates it.
+     */
+    void put(@Nonnull String teamName, @Nonnull GHTeam team) {
+        String key = key(teamName);
+        teams.put(key, team);
+        if (refreshing.get()) {
+            addedDuringRefresh.put(key, team);
+        }
+    }
+
+    /**
+     * Schedules the refresh if the index has not been seeded yet or if it is older than the refresh interval.
+     */
+    void refreshIfStale() {
+        long now = clock.getAsLong();
+        long loadedAt = refreshedAt;
+        if (loadedAt != 0 && now - loadedAt <= refreshMillis) {
+            return;
+        }
+        if (attemptedAt != 0 && now - attemptedAt < RETRY_MILLIS) {
+            return;
+        }
+        if (refreshing.compareAndSet(false, true)) {
+            addedDuringRefresh.clear();
+            attemptedAt = now;
+            refresher.execute(this::refresh);
+        }
+    }
+
+    /**
+     * Drops the index, e.g. when the managed organization changes.
+     * It is seeded again on the next lookup.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+        teams = new ConcurrentHashMap<>();
+        refreshedAt = 0;
+        attemptedAt = 0;
+    }
+
+    private void refresh() {
+        final int started = generation.get();
+        try {
+            Map<String, GHTeam> fresh = new ConcurrentHashMap<>();
+            PagedIterable<GHTeam> listing = gitHub.getOrganization().listTeams();
+            List<GHTeam> all = listing != null ? listing.withPageSize(PAGE_SIZE).toList() : null;
+            if (all == null) {
+                LOGGER.warn("GitHub returned no team listing, keeping the current index");
+                return;
+            }
+            for (GHTeam team : all) {
+                if (team.getName() != null) {
+                    fresh.put(key(team.getName()), team);
+                }
+            }
+            fresh.putAll(addedDuringRefresh);
+            if (generation.get() != started) {
+                LOGGER.info("GitHub team index has been invalidated during the refresh, discarding the result");
+                return;
+            }
+            teams = fresh;
+            refreshedAt = clock.getAsLong();
+            LOGGER.info("Indexed {} GitHub teams", fresh.size());
+        } catch (IOException | RuntimeException e) {
+            // Lookups fall back to the slugs, retry on the next access
+            LOGGER.warn("Failed to index GitHub teams", e);
+        } finally {
+            addedDuringRefresh.clear();
+            refreshing.set(false);
+        }
+    }
+
+    @CheckForNull
+    private GHTeam getBySlug(String teamName) throws IOException {
+        GHOrganization org = gitHub.getOrganization();
+        GHTeam team;
+        try {
+            team = org.getTeamBySlug(slugOf(teamName));
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        // GitHub derives slugs from names, but different names may map to the same slug
+        return team != null && teamName.equalsIgnoreCase(team.getName()) ? team : null;
+    }
+
+    /**
+     * Computes the slug GitHub assigns to the team name, e.g. "foo.bar Developers" becomes "foo-bar-developers".
+     */
+    @Nonnull
+    static String slugOf(@Nonnull String teamName) {
+        String slug = teamName.toLowerCase(Locale.ENGLISH).replaceAll("[^a-z0-9_]+", "-");
+        return slug.replaceAll("^-+|-+$", "");
+    }
+
+    private static String key(String teamName) {
+        return teamName.toLowerCase(Locale.ENGLISH);
+    }
+}
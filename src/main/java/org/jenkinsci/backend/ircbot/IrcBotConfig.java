@@ -2,6 +2,8 @@ package org.jenkinsci.backend.ircbot;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
 import java.util.Arrays;
@@ -28,8 +30,130 @@ public class IrcBotConfig {
     private static final String DEFAULT_IRCBOT_NAME = ("ircbot-"+System.getProperty("user.name"));
     static String NAME = System.getProperty(varPrefix+"name", DEFAULT_IRCBOT_NAME);
     static String SERVER = System.getProperty(varPrefix+"server", "irc.libera.chat");
+    /**
+     * Connect to {@link #SERVER} with TLS, it is also the default of the networks listed in {@link #NETWORKS}.
+     * @since 2.0-SNAPSHOT
+     */
+    static final boolean TLS = Boolean.parseBoolean(System.getProperty(varPrefix+"tls", "true"));
+    /**
+     * Port of the IRC server, {@code 6697} with TLS and {@code 6667} without by default.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int PORT = Integer.getInteger(varPrefix+"port", TLS ? 6697 : 6667);
+    /**
+     * Comma-separated names of the IRC networks the bot connects to at once, see {@link IrcNetwork#configured()}.
+     * Every network is set by the {@code ircbot.network.<name>.server}, {@code .port}, {@code .tls} and {@code .channels} properties.
+     * If not set, the bot connects to {@link #SERVER} only.
+     * @since 2.0-SNAPSHOT
+     */
+    static final String NETWORKS = System.getProperty(varPrefix+"networks", null);
     static final Set<String> DEFAULT_CHANNELS = new HashSet<String>(Arrays.asList("#jenkins-hosting"));
     static final String CHANNELS_LIST = System.getProperty(varPrefix+"channels", "#jenkins-hosting");
+    /**
+     * File with the channels separated by commas or newlines, it replaces {@link #CHANNELS_LIST} if set.
+     * The file is read again when the configuration is reloaded, see {@link RuntimeConfigManager}.
+     * @since 2.0-SNAPSHOT
+     */
+    static final String CHANNELS_FILE = System.getProperty(varPrefix+"channelsFile", null);
+    /**
+     * Comma-separated nicks whose messages are ignored, usually other bots.
+     * Entries ending with {@code *} match nick prefixes.
+     * @since 2.0-SNAPSHOT
+     */
+    static final String IGNORED_NICKS = System.getProperty(varPrefix+"ignoredNicks", "jenkinsci_builds,jenkins-admin,ircbot-*");
+    /**
+     * Minimal time (in seconds) between the member list refreshes of a channel, which are requested when a permission check fails.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int NAMES_REFRESH_INTERVAL_SEC = Integer.getInteger(varPrefix+"namesRefreshInterval", 10);
+
+    // Connection
+    /**
+     * Delay (in milliseconds) before reconnecting when the connection is lost, it doubles after every failed attempt.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int RECONNECT_INITIAL_DELAY_MS = Integer.getInteger(varPrefix+"reconnect.initialDelay", 1000);
+    /**
+     * Maximum delay (in milliseconds) between the reconnection attempts.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int RECONNECT_MAX_DELAY_MS = Integer.getInteger(varPrefix+"reconnect.maxDelay", 60000);
+    /**
+     * Randomized part (in percent) of the reconnection delays, so that the bots split by a netsplit do not reconnect at once.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int RECONNECT_JITTER_PERCENT = Integer.getInteger(varPrefix+"reconnect.jitter", 50);
+    /**
+     * Number of the failed connection attempts in a row after which the bot stops reconnecting.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int RECONNECT_ATTEMPTS = Integer.getInteger(varPrefix+"reconnect.attempts", Integer.MAX_VALUE);
+    /**
+     * Time (in seconds) the TLS sessions are kept to be resumed on reconnection, see {@link TlsSocketFactory}.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int TLS_SESSION_TIMEOUT_SEC = Integer.getInteger(varPrefix+"tls.sessionTimeout", 86400);
+
+    // Outbound messages
+    /**
+     * Number of lines the bot may send at once before the rate limit applies.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int OUTBOUND_BURST = Integer.getInteger(varPrefix+"outbound.burst", 4);
+    /**
+     * Sustained rate of the outbound lines: one line per this interval (in milliseconds).
+     * @since 2.0-SNAPSHOT
+     */
+    static final int OUTBOUND_INTERVAL_MS = Integer.getInteger(varPrefix+"outbound.interval", 1000);
+    /**
+     * Maximum length (in bytes) of a line merged from several messages.
+     * IRC lines are limited to 512 bytes, including the command, the channel name and the prefix added by the server.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int OUTBOUND_MAX_LINE_BYTES = Integer.getInteger(varPrefix+"outbound.maxLineLength", 400);
+    /**
+     * Maximum number of messages waiting to be sent, further messages are dropped.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int OUTBOUND_MAX_QUEUED = Integer.getInteger(varPrefix+"outbound.maxQueued", 500);
+
+    // Runtime configuration
+    /**
+     * Properties file with the settings that can be changed without restarting the bot, see {@link RuntimeConfig}.
+     * @since 2.0-SNAPSHOT
+     */
+    static final String CONFIG_FILE = System.getProperty(varPrefix+"configFile", null);
+    /**
+     * Reload the configuration file when it changes.
+     * Otherwise it is reloaded by the {@code reload config} command only.
+     * @since 2.0-SNAPSHOT
+     */
+    static final boolean CONFIG_WATCH = Boolean.parseBoolean(System.getProperty(varPrefix+"configWatch", "true"));
+
+    // Shutdown
+    /**
+     * Time (in seconds) the running commands get to complete when the bot restarts or shuts down.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int SHUTDOWN_DRAIN_TIMEOUT_SEC = Integer.getInteger(varPrefix+"shutdown.drainTimeout", 120);
+
+    // HTTP
+    /**
+     * Port of the HTTP endpoint serving the metrics and the health, see {@link StatusServer}.
+     * A negative value disables the endpoint.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int HTTP_PORT = Integer.getInteger(varPrefix+"http.port", 8080);
+    /**
+     * Interval (in seconds) between the reachability checks of JIRA and GitHub, see {@link BotHealth}.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int HEALTH_PROBE_INTERVAL_SEC = Integer.getInteger(varPrefix+"health.probeInterval", 60);
+    /**
+     * The bot is reported as not alive if it has been disconnected from IRC for this time (in seconds).
+     * @since 2.0-SNAPSHOT
+     */
+    static final int HEALTH_MAX_DISCONNECTED_SEC = Integer.getInteger(varPrefix+"health.maxDisconnected", 300);
 
     // Testing
     /**
@@ -51,10 +175,136 @@ public class IrcBotConfig {
      * @since 2.0-SNAPSHOT
      */
     static final int JIRA_TIMEOUT_SEC = Integer.getInteger(varPrefix+"jira.requestTimeout", 30);
+    /**
+     * The shared JIRA client is verified before use, if it has not been verified for this time (in seconds).
+     * @since 2.0-SNAPSHOT
+     */
+    static final int JIRA_HEALTH_CHECK_INTERVAL_SEC = Integer.getInteger(varPrefix+"jira.healthCheckInterval", 300);
+    /**
+     * Time (in seconds) for which the list of JIRA project components is cached.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int JIRA_COMPONENT_CACHE_TTL_SEC = Integer.getInteger(varPrefix+"jira.componentCacheTtl", 600);
+    /**
+     * Maximum number of concurrent JIRA requests of a single command.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int JIRA_PARALLELISM = Integer.getInteger(varPrefix+"jira.parallelism", 4);
+    /**
+     * Comma-separated keys of the JIRA projects whose issues are recognized in the channel messages.
+     * @since 2.0-SNAPSHOT
+     */
+    static final String JIRA_ISSUE_PROJECTS = System.getProperty(varPrefix+"jira.issueProjects", "JENKINS,INFRA");
+    /**
+     * The bot does not reply to the mention of an issue, if it has been mentioned in the channel within this time (in seconds).
+     * @since 2.0-SNAPSHOT
+     */
+    static final int JIRA_ISSUE_MENTION_TTL_SEC = Integer.getInteger(varPrefix+"jira.issueMentionTtl", 60);
+    /**
+     * Time (in seconds) for which the summaries of the mentioned issues are cached.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int JIRA_ISSUE_SUMMARY_TTL_SEC = Integer.getInteger(varPrefix+"jira.issueSummaryTtl", 300);
+    /**
+     * Time (in milliseconds) for which the issue lookups are collected, so that they are fetched by a single search.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int JIRA_ISSUE_BATCH_WINDOW_MS = Integer.getInteger(varPrefix+"jira.issueBatchWindow", 200);
+    /**
+     * Maximum number of issues fetched by a single search.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int JIRA_ISSUE_BATCH_SIZE = Integer.getInteger(varPrefix+"jira.issueBatchSize", 50);
 
     // Github
     static String GITHUB_ORGANIZATION = System.getProperty(varPrefix+"github.organization", "jenkinsci");
     static String GITHUB_POST_COMMIT_HOOK_EMAIL = System.getProperty(varPrefix+"github.postCommitHookEmail", "jenkinsci-commits@googlegroups.com");
+    /**
+     * Maximum number of concurrent GitHub operations of a single command.
+     * Keep it low, GitHub applies secondary rate limits to concurrent requests.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int GITHUB_PARALLELISM = Integer.getInteger(varPrefix+"github.parallelism", 3);
+    /**
+     * Directory of the GitHub HTTP response cache.
+     * Cached responses are revalidated by conditional requests, which do not count against the rate limit.
+     * @since 2.0-SNAPSHOT
+     */
+    static final String GITHUB_CACHE_DIR = System.getProperty(varPrefix+"github.cacheDir",
+            new File(System.getProperty("java.io.tmpdir"), "ircbot-github-cache").getPath());
+    /**
+     * Maximum size of the GitHub HTTP response cache (in megabytes). Use 0 to disable the cache.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int GITHUB_CACHE_SIZE_MB = Integer.getInteger(varPrefix+"github.cacheSize", 50);
+    /**
+     * Interval between the refreshes of the GitHub team index (in seconds).
+     * Teams created by the bot are indexed immediately, and missing teams are looked up directly,
+     * so the refresh only catches the teams created or renamed outside of the bot.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int GITHUB_TEAM_INDEX_REFRESH_SEC = Integer.getInteger(varPrefix+"github.teamIndexRefresh", 3600);
+    /**
+     * Maximum number of attempts of the idempotent GitHub operations, e.g. waiting for a forked repository.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int GITHUB_RETRY_ATTEMPTS = Integer.getInteger(varPrefix+"github.retryAttempts", 6);
+    /**
+     * Delay before the first retry of a GitHub operation (in milliseconds), it doubles with every further retry.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int GITHUB_RETRY_INITIAL_DELAY_MS = Integer.getInteger(varPrefix+"github.retryInitialDelay", 250);
+    /**
+     * Maximum delay between the retries of a GitHub operation (in milliseconds).
+     * @since 2.0-SNAPSHOT
+     */
+    static final int GITHUB_RETRY_MAX_DELAY_MS = Integer.getInteger(varPrefix+"github.retryMaxDelay", 8000);
+    /**
+     * Randomized part of the delays between the retries of a GitHub operation (in percent).
+     * @since 2.0-SNAPSHOT
+     */
+    static final int GITHUB_RETRY_JITTER_PERCENT = Integer.getInteger(varPrefix+"github.retryJitter", 50);
+    /**
+     * Journal of the fork workflows, which are resumed after a restart.
+     * @since 2.0-SNAPSHOT
+     */
+    static final String GITHUB_FORK_JOURNAL = System.getProperty(varPrefix+"github.forkJournal", "fork-journal.txt");
+
+    // Unknown commands
+
+    /**
+     * Maximum number of unknown commands waiting to be written to the journal.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int UNKNOWN_COMMANDS_QUEUE_SIZE = Integer.getInteger(varPrefix+"unknownCommands.queueSize", 1000);
+    /**
+     * Size of the unknown command journal (in kilobytes) which triggers its rotation.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int UNKNOWN_COMMANDS_MAX_SIZE_KB = Integer.getInteger(varPrefix+"unknownCommands.maxSize", 1024);
+    /**
+     * Number of rotated unknown command journals to be kept.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int UNKNOWN_COMMANDS_BACKUPS = Integer.getInteger(varPrefix+"unknownCommands.backups", 5);
+
+    // Commands
+    /**
+     * Maximum number of commands being executed concurrently.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int COMMAND_THREADS = Integer.getInteger(varPrefix+"commands.threads", 4);
+    /**
+     * Maximum number of commands waiting for execution.
+     * Commands beyond this limit are rejected with a message asking to retry later.
+     * @since 2.0-SNAPSHOT
+     */
+    static final int COMMAND_QUEUE_SIZE = Integer.getInteger(varPrefix+"commands.queueSize", 32);
+    /**
+     * Use virtual threads for the command execution when running on Java 21 or above.
+     * @since 2.0-SNAPSHOT
+     */
+    static final boolean COMMAND_VIRTUAL_THREADS = Boolean.parseBoolean(System.getProperty(varPrefix+"commands.virtualThreads", "true"));
 
     static {
         try {
@@ -64,16 +314,42 @@ public class IrcBotConfig {
         }
     }
 
+    private static final ChannelAllowList CHANNELS = ChannelAllowList.parse(CHANNELS_LIST, String.join(",", DEFAULT_CHANNELS));
+
     public static @Nonnull Set<String> getChannels() {
-        HashSet<String> res = new HashSet<String>();
-        if (CHANNELS_LIST != null) {
-            String[] channels = CHANNELS_LIST.split(",");
-            for (String channel : channels) {
-                if (channel.startsWith("#")) {
-                    res.add(channel);
-                }
+        return CHANNELS.getChannels();
+    }
+
+    /**
+     * Reads the channel list, from {@link #CHANNELS_FILE} if it is set.
+     * @throws IOException The file cannot be read
+     * @since 2.0-SNAPSHOT
+     */
+    public static @Nonnull ChannelAllowList loadChannels() throws IOException {
+        if (CHANNELS_FILE != null) {
+            return ChannelAllowList.load(new File(CHANNELS_FILE), CHANNELS.toString());
+        }
+        return CHANNELS;
+    }
+
+    /**
+     * Gets the keys of the JIRA projects whose issues are recognized in the channel messages.
+     * @since 2.0-SNAPSHOT
+     */
+    public static @Nonnull Set<String> getIssueProjects() {
+        return parseList(JIRA_ISSUE_PROJECTS);
+    }
+
+    /**
+     * Splits a comma-separated list, empty entries are skipped.
+     */
+    static @Nonnull Set<String> parseList(@Nonnull String list) {
+        Set<String> res = new HashSet<String>();
+        for (String entry : list.split(",")) {
+            if (!entry.trim().isEmpty()) {
+                res.add(entry.trim());
             }
         }
-        return res.isEmpty() ? DEFAULT_CHANNELS : res;
+        return res;
     }
 }
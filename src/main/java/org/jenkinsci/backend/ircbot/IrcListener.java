@@ -5,13 +5,15 @@ import com.atlassian.jira.rest.client.api.JiraRestClient;
 import com.atlassian.jira.rest.client.api.domain.AssigneeType;
 import com.atlassian.jira.rest.client.api.domain.Component;
 import com.atlassian.jira.rest.client.api.domain.input.ComponentInput;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -19,11 +21,23 @@ import java.util.stream.Collectors;
 import io.atlassian.util.concurrent.Promise;
 import org.jenkinsci.backend.ircbot.fallback.BotsnackMessage;
 import org.jenkinsci.backend.ircbot.fallback.FallbackMessage;
+import org.jenkinsci.backend.ircbot.util.ExpiringCache;
+import org.jenkinsci.backend.ircbot.util.ResourceAwaiter;
 import org.kohsuke.github.GHOrganization.Permission;
 import org.kohsuke.github.GHTeamBuilder;
 import org.pircbotx.cap.SASLCapHandler;
 import org.pircbotx.hooks.ListenerAdapter;
+import org.pircbotx.hooks.events.ConnectEvent;
+import org.pircbotx.hooks.events.DisconnectEvent;
+import org.pircbotx.hooks.events.JoinEvent;
+import org.pircbotx.hooks.events.KickEvent;
 import org.pircbotx.hooks.events.MessageEvent;
+import org.pircbotx.hooks.events.NickChangeEvent;
+import org.pircbotx.hooks.events.OpEvent;
+import org.pircbotx.hooks.events.PartEvent;
+import org.pircbotx.hooks.events.QuitEvent;
+import org.pircbotx.hooks.events.UserListEvent;
+import org.pircbotx.hooks.events.VoiceEvent;
 import org.kohsuke.github.GHOrganization;
 import org.kohsuke.github.GHRepository;
 import org.kohsuke.github.GHTeam;
@@ -31,11 +45,9 @@ import org.kohsuke.github.GHUser;
 import org.kohsuke.github.GitHub;
 import org.pircbotx.Channel;
 import org.pircbotx.Configuration;
+import org.pircbotx.MultiBotManager;
 import org.pircbotx.PircBotX;
 import org.pircbotx.User;
-import org.pircbotx.UserLevel;
-import org.pircbotx.output.OutputChannel;
-import org.pircbotx.output.OutputIRC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,12 +60,10 @@ import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -75,17 +85,285 @@ public class IrcListener extends ListenerAdapter {
     /**
      * Records commands that we didn't understand.
      */
-    private File unknownCommands;
+    private final UnknownCommandJournal unknownCommands;
 
     /**
-     * Map from the issue number to the time it was last mentioned.
+     * Finds the JIRA issues mentioned in the channels.
+     */
+    private volatile IssueKeyDetector issueKeys = new IssueKeyDetector(RuntimeConfig.current().getIssueProjects());
+
+    /**
+     * Channel and issue pairs mentioned recently.
      * Used so that we don't repeatedly mention the same issues.
      */
-    @SuppressWarnings("unchecked")
-    private final Map<String,Long> recentIssues = Collections.<String,Long>synchronizedMap(new HashMap<String,Long>(10));
+    private final ExpiringCache<String,Boolean> recentIssues =
+            new ExpiringCache<>(IrcBotConfig.JIRA_ISSUE_MENTION_TTL_SEC, TimeUnit.SECONDS, 1000);
+
+    /**
+     * Summaries of the mentioned issues, shared by all channels and networks.
+     */
+    private final IssueSummaryCache issueSummaries;
+
+    /**
+     * Maximum length of a line sent to the server without the trailing CR LF.
+     */
+    private static final int MAX_LINE_BYTES = 510;
+
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+    private static final Pattern LIST_SEPARATOR = Pattern.compile("\\s*,\\s*");
+
+    private static final Pattern CREATE_REPO = Pattern.compile("(?:create|make|add) (\\S+)(?: repository)? (?:on|in) github(?: for (\\S+))?(?: with (jira|github issues))?",CASE_INSENSITIVE);
+    private static final Pattern FORK_REPO = Pattern.compile("fork (?:https://github\\.com/)?(\\S+)/(\\S+)(?: on github)?(?: as (\\S+))?(?: with (jira|github issues))?",CASE_INSENSITIVE);
+    private static final Pattern RENAME_REPO = Pattern.compile("rename (?:github )repo (\\S+) to (\\S+)",CASE_INSENSITIVE);
+    private static final Pattern ADD_COMMITTER = Pattern.compile("(?:make|give|grant|add) (\\S+)(?: as)? (?:a )?(?:committ?er|commit access) (?:of|on|to|at) (.+)",CASE_INSENSITIVE);
+    private static final Pattern REMOVE_COMMITTER = Pattern.compile("(?:remove|revoke) (\\S+)(?: as)? (?:a )?(committ?er|member) (?:from|on) (.+)",CASE_INSENSITIVE);
+    private static final Pattern ADD_MAINTAINER = Pattern.compile("(?:make|give|grant|add) (\\S+)(?: as)? (?:a )?(?:maintainer) on (.+)",CASE_INSENSITIVE);
+    private static final Pattern MAKE_TEAM_VISIBLE = Pattern.compile("(?:make) (.*) team(?:s)? visible",CASE_INSENSITIVE);
+    private static final Pattern CREATE_COMPONENT = Pattern.compile("(?:create|make|add) (\\S+)(?: component)? in (?:the )?(?:issue|bug)(?: tracker| database)? for (\\S+)",CASE_INSENSITIVE);
+    private static final Pattern DELETE_COMPONENT = Pattern.compile("(?:rem|remove|del|delete) component (\\S+) and move its issues to (\\S+)",CASE_INSENSITIVE);
+    private static final Pattern RENAME_COMPONENT = Pattern.compile("rename component (\\S+) to (\\S+)",CASE_INSENSITIVE);
+    private static final Pattern REMOVE_DEFAULT_ASSIGNEE = Pattern.compile("(?:rem|remove) (?:the )?(?:lead|default assignee) (?:for|of|from) (.+)",CASE_INSENSITIVE);
+    private static final Pattern SET_DEFAULT_ASSIGNEE = Pattern.compile("(?:make|set) (\\S+) (?:the |as )?(?:lead|default assignee) (?:for|of) (.+)",CASE_INSENSITIVE);
+    private static final Pattern SET_DESCRIPTION = Pattern.compile("set (?:the )?description (?:for|of) (?:component )?(\\S+) to \\\"(.*)\\\"",CASE_INSENSITIVE);
+    private static final Pattern REMOVE_DESCRIPTION = Pattern.compile("(?:rem|remove) (?:the )?description (?:for|of) (?:component )?(\\S+)",CASE_INSENSITIVE);
+    private static final Pattern GRANT_VOICE = Pattern.compile("(?:make|give|grant|add) (\\S+) voice(?: on irc)?",CASE_INSENSITIVE);
+    private static final Pattern REMOVE_VOICE = Pattern.compile("(?:rem|remove|ungrant|del|delete) (\\S+) voice(?: on irc)?",CASE_INSENSITIVE);
+    private static final Pattern KICK = Pattern.compile("(?:kick) (\\S+)",CASE_INSENSITIVE);
+    private static final Pattern SET_TOPIC = Pattern.compile("(?:set) (?:topic) (.*)", CASE_INSENSITIVE);
+    private static final Pattern VERSION = Pattern.compile("version", CASE_INSENSITIVE);
+    private static final Pattern HELP = Pattern.compile("help", CASE_INSENSITIVE);
+    private static final Pattern REFRESH = Pattern.compile("refresh", CASE_INSENSITIVE);
+    private static final Pattern BOTSNACK = Pattern.compile("botsnack", CASE_INSENSITIVE);
+    private static final Pattern RESTART = Pattern.compile("restart", CASE_INSENSITIVE);
+    private static final Pattern RELOAD_CONFIG = Pattern.compile("reload (?:config|configuration|channels)", CASE_INSENSITIVE);
+
+    /**
+     * Direct commands supported by the bot.
+     */
+    private final CommandRegistry commands = new CommandRegistry();
+
+    /**
+     * Runs the command bodies, so that slow JIRA and GitHub calls do not block the IRC event processing.
+     */
+    private final CommandExecutor commandExecutor;
+
+    /**
+     * GitHub client shared by the commands.
+     */
+    private final GitHubClientProvider gitHub;
+
+    /**
+     * Teams of the GitHub organization by their names.
+     */
+    private final GitHubTeamIndex gitHubTeams;
+
+    /**
+     * Sends the messages of the bot without flooding the channels.
+     */
+    private final OutboundScheduler outbound;
+
+    /**
+     * Forks of GitHub repositories, resumed after a restart.
+     */
+    private final ForkWorkflow forks;
+
+    /**
+     * Voices and operators of the channels.
+     */
+    private final ChannelAuthorizations authorizations = new ChannelAuthorizations();
+
+    /**
+     * Settings which can be changed without reconnecting.
+     */
+    private final RuntimeConfigManager config = RuntimeConfigManager.getDefault();
+
+    /**
+     * Applies the configuration changes to this listener, removed from the shared manager on shutdown.
+     */
+    private final RuntimeConfigManager.Listener configListener = this::applyConfig;
+
+    /**
+     * Command and remote call metrics.
+     */
+    private final BotMetrics metrics = BotMetrics.get();
+
+    /**
+     * IRC state and reachability of JIRA and GitHub, reported on the HTTP endpoint.
+     */
+    private final BotHealth health;
+
+    /**
+     * Orderly shutdown of the bot, used by the {@code restart} command.
+     */
+    private final BotLifecycle lifecycle;
+
+    /**
+     * Network this listener serves.
+     */
+    private final IrcNetwork network;
+
+    /**
+     * Delays between the reconnections to the network.
+     */
+    private final ReconnectPolicy reconnect = ReconnectPolicy.createDefault();
+
+    /**
+     * Connected bot, used to join and leave channels after configuration changes.
+     */
+    @CheckForNull
+    private volatile PircBotX bot;
 
     public IrcListener(File unknownCommands) {
-        this.unknownCommands = unknownCommands;
+        this(new BotServices(unknownCommands), IrcNetwork.getDefault());
+    }
+
+    public IrcListener(File unknownCommands, CommandExecutor commandExecutor, GitHubClientProvider gitHub) {
+        this(unknownCommands, commandExecutor, gitHub, new ForkJournal(null));
+    }
+
+    public IrcListener(File unknownCommands, CommandExecutor commandExecutor, GitHubClientProvider gitHub, ForkJournal forkJournal) {
+        this(new BotServices(unknownCommands, commandExecutor, gitHub, forkJournal), IrcNetwork.getDefault());
+    }
+
+    /**
+     * Creates the listener of a network.
+     * @param services Clients and caches shared with the listeners of the other networks
+     * @since 2.0-SNAPSHOT
+     */
+    public IrcListener(BotServices services, IrcNetwork network) {
+        this.network = network;
+        this.unknownCommands = services.getUnknownCommands();
+        this.commandExecutor = services.getCommandExecutor();
+        this.gitHub = services.getGitHub();
+        this.gitHubTeams = services.getGitHubTeams();
+        this.issueSummaries = services.getIssueSummaries();
+        this.lifecycle = services.getLifecycle();
+        this.outbound = services.createOutbound();
+        this.forks = new ForkWorkflow(gitHub, services.getForkJournal(), services.getGitHubAwaiter(), FanOut.GITHUB,
+                (out, r, entry) -> getOrCreateRepoLocalTeam(out, gitHub.get(), gitHub.getOrganization(), r, entry.getMaintainers()),
+                (out, r, entry) -> setupRepository(r, entry.isUseGHIssues()));
+        this.health = new BotHealth(commandExecutor::getPendingCount, IrcBotConfig.HEALTH_MAX_DISCONNECTED_SEC, System::currentTimeMillis);
+        health.addProbe(BotMetrics.JIRA, () -> {
+            JiraHelper.getClient();
+            return JiraHelper.getClientProvider().isHealthy();
+        });
+        health.addProbe(BotMetrics.GITHUB, gitHub::isHealthy);
+        health.setReadyListener(millis -> {
+            LOGGER.info("Ready in {} after {} ms", network, millis);
+            metrics.timeToReady(network.getName(), millis);
+        });
+        lifecycle.addStep("flush messages to " + network.getName(), () -> {
+            outbound.flush(10, TimeUnit.SECONDS);
+            outbound.close();
+        });
+        registerDefaultCommands();
+        config.addListener(configListener);
+        lifecycle.addStep("stop applying configuration to " + network.getName(), () -> config.removeListener(configListener));
+    }
+
+    /**
+     * Gets the direct commands of the bot.
+     * Additional commands can be registered here, they are tried after the default ones sharing the same keyword.
+     */
+    public CommandRegistry getCommands() {
+        return commands;
+    }
+
+    /**
+     * Gets the health of the bot.
+     */
+    public BotHealth getHealth() {
+        return health;
+    }
+
+    /**
+     * Gets the shutdown sequence of the bot.
+     */
+    public BotLifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    /**
+     * Gets the network this listener serves.
+     * @since 2.0-SNAPSHOT
+     */
+    public IrcNetwork getNetwork() {
+        return network;
+    }
+
+    private void registerDefaultCommands() {
+        commands.register(CommandRegistry.Command.withOutcome("createRepository", CREATE_REPO,
+                (channel, sender, m) -> createGitHubRepository(channel,sender,m.group(1),m.group(2),m.group(3) != null && m.group(3).toLowerCase().contains("github")),
+                "create", "make", "add"));
+        commands.register(CommandRegistry.Command.async("forkRepository", FORK_REPO,
+                (channel, sender, m) -> forkGitHub(channel,sender,m.group(1),m.group(2),m.group(3), emptyList(), m.group(4).toLowerCase().contains("github")),
+                "fork"));
+        commands.register(CommandRegistry.Command.withOutcome("renameRepository", RENAME_REPO,
+                (channel, sender, m) -> renameGitHubRepo(channel,sender,m.group(1),m.group(2)),
+                "rename"));
+        commands.register(CommandRegistry.Command.withOutcome("addCommitter", ADD_COMMITTER,
+                (channel, sender, m) -> addGitHubCommitter(channel,sender,m.group(1),collectGroups(m, 2)),
+                "make", "give", "grant", "add"));
+        commands.register(CommandRegistry.Command.withOutcome("removeCommitter", REMOVE_COMMITTER,
+                (channel, sender, m) -> removeGitHubCommitter(channel,sender,m.group(1),collectGroups(m, 2)),
+                "remove", "revoke"));
+        commands.register(CommandRegistry.Command.withOutcome("addMaintainer", ADD_MAINTAINER,
+                (channel, sender, m) -> makeGitHubTeamMaintainer(channel, sender, m.group(1), collectGroups(m, 2)),
+                "make", "give", "grant", "add"));
+        commands.register(CommandRegistry.Command.withOutcome("makeTeamVisible", MAKE_TEAM_VISIBLE,
+                (channel, sender, m) -> makeGitHubTeamVisible(channel, sender, collectGroups(m, 1)),
+                "make"));
+        commands.register(CommandRegistry.Command.withOutcome("createComponent", CREATE_COMPONENT,
+                (channel, sender, m) -> createComponent(channel, sender, m.group(1), m.group(2)),
+                "create", "make", "add"));
+        commands.register(CommandRegistry.Command.withOutcome("deleteComponent", DELETE_COMPONENT,
+                (channel, sender, m) -> deleteComponent(channel, sender, m.group(1), m.group(2)),
+                "rem", "remove", "del", "delete"));
+        commands.register(CommandRegistry.Command.withOutcome("renameComponent", RENAME_COMPONENT,
+                (channel, sender, m) -> renameComponent(channel, sender, m.group(1), m.group(2)),
+                "rename"));
+        commands.register(CommandRegistry.Command.withOutcome("removeDefaultAssignee", REMOVE_DEFAULT_ASSIGNEE,
+                (channel, sender, m) -> removeDefaultAssignee(channel, sender, collectGroups(m, 1)),
+                "rem", "remove"));
+        commands.register(CommandRegistry.Command.withOutcome("setDefaultAssignee", SET_DEFAULT_ASSIGNEE,
+                (channel, sender, m) -> setDefaultAssignee(channel, sender, collectGroups(m, 2), m.group(1)),
+                "make", "set"));
+        commands.register(CommandRegistry.Command.withOutcome("setComponentDescription", SET_DESCRIPTION,
+                (channel, sender, m) -> setComponentDescription(channel, sender, m.group(1) , m.group(2)),
+                "set"));
+        commands.register(CommandRegistry.Command.withOutcome("removeComponentDescription", REMOVE_DESCRIPTION,
+                (channel, sender, m) -> setComponentDescription(channel, sender, m.group(1) , null),
+                "rem", "remove"));
+        commands.register(new CommandRegistry.Command("grantVoice", GRANT_VOICE,
+                (channel, sender, m) -> grantAutoVoice(channel,sender,m.group(1)),
+                "make", "give", "grant", "add"));
+        commands.register(new CommandRegistry.Command("removeVoice", REMOVE_VOICE,
+                (channel, sender, m) -> removeAutoVoice(channel,sender,m.group(1)),
+                "rem", "remove", "ungrant", "del", "delete"));
+        commands.register(new CommandRegistry.Command("kick", KICK,
+                (channel, sender, m) -> kickUser(channel,sender,m.group(1)),
+                "kick"));
+        commands.register(new CommandRegistry.Command("setTopic", SET_TOPIC,
+                (channel, sender, m) -> setTopic(channel,sender,m.group(1)),
+                "set"));
+        commands.register(CommandRegistry.Command.withOutcome("version", VERSION,
+                (channel, sender, m) -> version(channel),
+                "version"));
+        commands.register(new CommandRegistry.Command("help", HELP,
+                (channel, sender, m) -> help(channel),
+                "help"));
+        commands.register(new CommandRegistry.Command("refresh", REFRESH,
+                (channel, sender, m) -> refreshMemberList(channel),
+                "refresh"));
+        commands.register(new CommandRegistry.Command("botsnack", BOTSNACK,
+                (channel, sender, m) -> sendBotsnackMessage(channel, sender),
+                "botsnack"));
+        commands.register(new CommandRegistry.Command("restart", RESTART,
+                (channel, sender, m) -> restart(channel,sender),
+                "restart"));
+        commands.register(CommandRegistry.Command.withOutcome("reloadConfig", RELOAD_CONFIG,
+                (channel, sender, m) -> reloadConfig(channel,sender),
+                "reload"));
     }
 
     @Override
@@ -95,9 +373,11 @@ public class IrcListener extends ListenerAdapter {
         String message = e.getMessage();
 
         String senderNick = sender.getNick();
+        RuntimeConfig current = config.get();
+        health.messageReceived();
 
-        if (!IrcBotConfig.getChannels().contains(channel.getName()))     return; // not in this channel
-        if (senderNick.equals("jenkinsci_builds") || senderNick.equals("jenkins-admin") || senderNick.startsWith("ircbot-"))
+        if (!network.getChannels(current).contains(channel.getName()))     return; // not in this channel
+        if (current.getIgnoredNicks().matches(senderNick))
             return; // ignore messages from other bots
         final String directMessagePrefix = e.getBot().getNick() + ":";
 
@@ -106,183 +386,198 @@ public class IrcListener extends ListenerAdapter {
             if (message.startsWith(directMessagePrefix)) { // Direct command to the bot
                 // remove prefixes, trim whitespaces
                 String payload = message.substring(directMessagePrefix.length()).trim();
-                payload = payload.replaceAll("\\s+", " ");
+                payload = WHITESPACES.matcher(payload).replaceAll(" ");
                 handleDirectCommand(channel, sender, payload);
+            } else {
+                List<String> tickets = issueKeys.find(message);
+                if (!tickets.isEmpty()) {
+                    replyBugStatus(channel, tickets);
+                }
             }
         } catch (RuntimeException ex) { // Catch unhandled runtime issues
-            ex.printStackTrace();
-            channel.send().message("An error ocurred. Please submit a ticket to the Jenkins infra helpdesk with the following exception:");
-            channel.send().message("https://github.com/jenkins-infra/helpdesk/issues/new?assignees=&labels=triage,irc&template=1-report-issue.yml");
-            channel.send().message(ex.getMessage());
+            reportUnhandledError(channel, ex);
             throw ex; // Propagate the error to the caller in order to let it log and handle the issue
         }
     }
 
-    /**
-     * Handles direct commands coming to the bot.
-     * The handler presumes the external trimming of the payload.
-     */
-    void handleDirectCommand(Channel channel, User sender, String payload) {
-        Matcher m;
-
-        m = Pattern.compile("(?:create|make|add) (\\S+)(?: repository)? (?:on|in) github(?: for (\\S+))?(?: with (jira|github issues))?",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            createGitHubRepository(channel,sender,m.group(1),m.group(2),m.group(3) != null && m.group(3).toLowerCase().contains("github"));
-            return;
-        }
-
-        m = Pattern.compile("fork (?:https://github\\.com/)?(\\S+)/(\\S+)(?: on github)?(?: as (\\S+))?(?: with (jira|github issues))?",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            forkGitHub(channel,sender,m.group(1),m.group(2),m.group(3), emptyList(), m.group(4).toLowerCase().contains("github"));
-            return;
-        }
-
-        m = Pattern.compile("rename (?:github )repo (\\S+) to (\\S+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            renameGitHubRepo(channel,sender,m.group(1),m.group(2));
-            return;
-        }
-
-        m = Pattern.compile("(?:make|give|grant|add) (\\S+)(?: as)? (?:a )?(?:committ?er|commit access) (?:of|on|to|at) (.+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            List<String> repos = collectGroups(m, 2);
-            addGitHubCommitter(channel,sender,m.group(1),repos);
-            return;
+    @Override
+    public void onConnect(ConnectEvent e) {
+        bot = e.getBot();
+        reconnect.connected();
+        health.connected();
+        for (String line : joinCommands(network.getChannels(config.get()).getChannels())) {
+            e.getBot().sendRaw().rawLineNow(line);
         }
+    }
 
-        m = Pattern.compile("(?:remove|revoke) (\\S+)(?: as)? (?:a )?(committ?er|member) (?:from|on) (.+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            List<String> repos = collectGroups(m, 2);
-            removeGitHubCommitter(channel,sender,m.group(1),repos);
-            return;
+    /**
+     * Creates the commands joining the channels, as few as the line length allows.
+     * Joining every channel separately takes a message delay per channel after every reconnection.
+     * @since 2.0-SNAPSHOT
+     */
+    static List<String> joinCommands(Collection<String> channels) {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (String channel : channels) {
+            if (line.length() > 0 && utf8Length(line) + 1 + utf8Length(channel) > MAX_LINE_BYTES) {
+                lines.add(line.toString());
+                line.setLength(0);
+            }
+            line.append(line.length() == 0 ? "JOIN " : ",").append(channel);
         }
-
-        m = Pattern.compile("(?:make|give|grant|add) (\\S+)(?: as)? (?:a )?(?:maintainer) on (.+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            List<String> repos = collectGroups(m, 2);
-            makeGitHubTeamMaintainer(channel, sender, m.group(1), repos);
-            return;
+        if (line.length() > 0) {
+            lines.add(line.toString());
         }
+        return lines;
+    }
 
-        m = Pattern.compile("(?:make) (.*) team(?:s)? visible",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            List<String> teams = collectGroups(m, 1);
-            makeGitHubTeamVisible(channel, sender, teams);
-            return;
-        }
+    private static int utf8Length(CharSequence text) {
+        return text.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
 
-        m = Pattern.compile("(?:create|make|add) (\\S+)(?: component)? in (?:the )?(?:issue|bug)(?: tracker| database)? for (\\S+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            createComponent(channel, sender, m.group(1), m.group(2));
-            return;
-        }
+    @Override
+    public void onDisconnect(DisconnectEvent e) {
+        health.disconnected();
+        authorizations.clear();
+    }
 
-        m = Pattern.compile("(?:rem|remove|del|delete) component (\\S+) and move its issues to (\\S+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            deleteComponent(channel, sender, m.group(1), m.group(2));
-            return;
-        }
+    @Override
+    public void onOp(OpEvent e) {
+        authorizations.invalidate(e.getChannel().getName(), e.getRecipientHostmask().getNick());
+    }
 
-        m = Pattern.compile("rename component (\\S+) to (\\S+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            renameComponent(channel, sender, m.group(1), m.group(2));
-            return;
-        }
+    @Override
+    public void onVoice(VoiceEvent e) {
+        authorizations.invalidate(e.getChannel().getName(), e.getRecipientHostmask().getNick());
+    }
 
-        m = Pattern.compile("(?:rem|remove) (?:the )?(?:lead|default assignee) (?:for|of|from) (.+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            List<String> subcomponents = collectGroups(m,1);
-            removeDefaultAssignee(channel, sender, subcomponents);
-            return;
+    @Override
+    public void onJoin(JoinEvent e) {
+        authorizations.invalidate(e.getChannel().getName(), e.getUserHostmask().getNick());
+        if (isBot(e.getBot(), e.getUserHostmask().getNick())) {
+            health.joined(e.getChannel().getName());
+            resumeForks(e.getChannel());
         }
+    }
 
-        m = Pattern.compile("(?:make|set) (\\S+) (?:the |as )?(?:lead|default assignee) (?:for|of) (.+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            List<String> subcomponents = collectGroups(m, 2);
-            setDefaultAssignee(channel, sender, subcomponents, m.group(1));
-            return;
+    /**
+     * Resumes the forks requested in the channel, which have been interrupted by a restart.
+     */
+    private void resumeForks(Channel channel) {
+        for (ForkJournal.Entry entry : forks.takePending(network.getName(), channel.getName())) {
+            if (!commandExecutor.submitAsync(orderingKey(channel), () -> forks.resume(outbound.to(channel), entry))) {
+                LOGGER.warn("Cannot resume the fork of {} now, it will be resumed after the next restart", entry);
+            }
         }
+    }
 
-        m = Pattern.compile("set (?:the )?description (?:for|of) (?:component )?(\\S+) to \\\"(.*)\\\"",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            setComponentDescription(channel, sender, m.group(1) , m.group(2));
-            return;
+    @Override
+    public void onPart(PartEvent e) {
+        authorizations.invalidate(e.getChannel().getName(), e.getUserHostmask().getNick());
+        if (isBot(e.getBot(), e.getUserHostmask().getNick())) {
+            authorizations.forget(e.getChannel().getName());
+            health.left(e.getChannel().getName());
         }
+    }
 
-        m = Pattern.compile("(?:rem|remove) (?:the )?description (?:for|of) (?:component )?(\\S+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            setComponentDescription(channel, sender, m.group(1) , null);
-            return;
+    @Override
+    public void onKick(KickEvent e) {
+        authorizations.invalidate(e.getChannel().getName(), e.getRecipientHostmask().getNick());
+        if (isBot(e.getBot(), e.getRecipientHostmask().getNick())) {
+            authorizations.forget(e.getChannel().getName());
+            health.left(e.getChannel().getName());
         }
+    }
 
-        m = Pattern.compile("(?:make|give|grant|add) (\\S+) voice(?: on irc)?",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            grantAutoVoice(channel,sender,m.group(1));
-            return;
-        }
+    @Override
+    public void onQuit(QuitEvent e) {
+        authorizations.invalidate(e.getUserHostmask().getNick());
+    }
 
-        m = Pattern.compile("(?:rem|remove|ungrant|del|delete) (\\S+) voice(?: on irc)?",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            removeAutoVoice(channel,sender,m.group(1));
-            return;
-        }
+    @Override
+    public void onNickChange(NickChangeEvent e) {
+        authorizations.invalidate(e.getOldNick());
+        authorizations.invalidate(e.getNewNick());
+    }
 
-        m = Pattern.compile("(?:kick) (\\S+)",CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            kickUser(channel,sender,m.group(1));
-            return;
-        }
+    @Override
+    public void onUserList(UserListEvent e) {
+        authorizations.memberList(e.getChannel().getName());
+    }
 
-        m = Pattern.compile("(?:set) (?:topic) (.*)", CASE_INSENSITIVE).matcher(payload);
-        if (m.matches()) {
-            setTopic(channel,sender,m.group(1));
-            return;
-        }
+    /**
+     * Gets the key ordering the commands of the channel, the executor is shared by the networks
+     * and the channels of the same name in different networks are independent.
+     */
+    private String orderingKey(Channel channel) {
+        return network.getName() + " " + channel.getName();
+    }
 
-        if (payload.equalsIgnoreCase("version")) {
-            version(channel);
-            return;
-        }
+    private static boolean isBot(PircBotX bot, String nick) {
+        return ChannelAllowList.normalize(bot.getNick()).equals(ChannelAllowList.normalize(nick));
+    }
 
-        if (payload.equalsIgnoreCase("help")) {
-            help(channel);
-            return;
-        }
+    private void reportUnhandledError(Channel channel, RuntimeException ex) {
+        LOGGER.warn("Unhandled failure of a command in {}", channel.getName(), ex);
+        outbound.to(channel).message("An error ocurred. Please submit a ticket to the Jenkins infra helpdesk with the following exception:");
+        outbound.to(channel).message("https://github.com/jenkins-infra/helpdesk/issues/new?assignees=&labels=triage,irc&template=1-report-issue.yml");
+        outbound.to(channel).message(ex.getMessage());
+    }
 
-        if (payload.equalsIgnoreCase("refresh")) {
-            // get the updated list
-            channel.getBot().sendRaw().rawLineNow("NAMES " + channel);
+    /**
+     * Handles direct commands coming to the bot.
+     * The handler presumes the external trimming of the payload.
+     * Recognized commands are executed by {@link CommandExecutor}, in the order they were sent to the channel.
+     */
+    void handleDirectCommand(Channel channel, User sender, String payload) {
+        if (lifecycle.isStopping()) {
+            outbound.to(channel).ack("I'm restarting, please try again in a minute.");
             return;
         }
 
-        if(payload.equalsIgnoreCase("botsnack")) {
-            sendBotsnackMessage(channel, sender);
+        final CommandRegistry.Match match = commands.find(payload);
+        if (match != null) {
+            final CommandRegistry.OutcomeHandler handler = match.getCommand().getOutcomeHandler();
+            final CommandRegistry.AsyncHandler asyncHandler = match.getCommand().getAsyncHandler();
+            final String name = match.getCommand().getName();
+            final boolean accepted = commandExecutor.submitAsync(orderingKey(channel), () -> {
+                final long start = metrics.commandStarted();
+                boolean success = false;
+                try {
+                    if (asyncHandler != null) {
+                        // completes later, the following commands in the channel wait for it
+                        return asyncHandler.handle(channel, sender, match.getMatcher()).whenComplete((result, ex) -> {
+                            if (ex != null) {
+                                reportUnhandledError(channel, ex instanceof RuntimeException ? (RuntimeException) ex : new CompletionException(ex));
+                            }
+                            // the handler has reported the failure to the channel already
+                            metrics.commandCompleted(name, start, ex == null && !Boolean.FALSE.equals(result));
+                        });
+                    }
+                    success = handler.handle(channel, sender, match.getMatcher());
+                } catch (RuntimeException ex) {
+                    reportUnhandledError(channel, ex);
+                }
+                metrics.commandCompleted(name, start, success);
+                return null;
+            });
+            if (!accepted) {
+                metrics.commandRejected(name);
+                outbound.to(channel).ack("I'm busy with other commands right now, please try again in a minute.");
+            }
             return;
         }
 
-        if (payload.equalsIgnoreCase("restart")) {
-            restart(channel,sender);
-        }
-
         sendFallbackMessage(channel, payload, sender);
-
-        try {
-            Writer w = new OutputStreamWriter(new FileOutputStream(unknownCommands), StandardCharsets.UTF_8);
-            w.append(payload);
-            w.close();
-        } catch (IOException e) {// if we fail to write, let it be.
-            e.printStackTrace();
-        }
+        unknownCommands.record(channel.getName(), sender.getNick(), payload);
     }
 
     private void sendBotsnackMessage(Channel channel, User sender) {
-        OutputChannel out = channel.send();
-        out.message((new BotsnackMessage().answer()));
+        outbound.to(channel).ack(new BotsnackMessage().answer());
     }
 
     private void sendFallbackMessage(Channel channel, String payload, User sender) {
-        OutputChannel out = channel.send();
-        out.message(new FallbackMessage(payload, sender.getNick()).answer());
+        outbound.to(channel).ack(new FallbackMessage(payload, sender.getNick()).answer());
     }
 
     /**
@@ -291,19 +586,62 @@ public class IrcListener extends ListenerAdapter {
      * We just need to quit, and docker container manager will automatically restart
      * another one. We've seen for some reasons sometimes jenkins-admin loses its +o flag,
      * and when that happens a restart fixes it quickly.
+     * Commands already running are completed first, see {@link BotLifecycle}.
      */
-    @SuppressFBWarnings(
-            value="DM_EXIT",
-            justification="Intentionally restarting the app"
-    )
     private void restart(Channel channel, User sender) {
         if (!isSenderAuthorized(channel,sender)) {
             insufficientPermissionError(channel);
             return;
         }
 
-        channel.send().message("I'll quit and come back");
-        System.exit(0);
+        outbound.to(channel).ack("I'll quit and come back");
+        lifecycle.restart();
+    }
+
+    /**
+     * Reloads the configuration, see {@link RuntimeConfigManager#reload()}.
+     */
+    private boolean reloadConfig(Channel channel, User sender) {
+        if (!isSenderAuthorized(channel, sender, false)) {
+            insufficientPermissionError(channel, false);
+            return false;
+        }
+
+        ChannelOutput out = outbound.to(channel);
+        try {
+            out.message("Configuration reloaded: " + config.reload());
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to reload the configuration", e);
+            out.message("Failed to reload the configuration, keeping the current one: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Applies the configuration change to the caches and clients built from the previous settings.
+     */
+    private void applyConfig(RuntimeConfig previous, RuntimeConfig current) {
+        if (!previous.getIssueProjects().equals(current.getIssueProjects())) {
+            issueKeys = new IssueKeyDetector(current.getIssueProjects());
+        }
+        if (!previous.getGitHubOrganization().equals(current.getGitHubOrganization())) {
+            gitHubTeams.invalidate();
+        }
+        if (previous.getOutboundBurst() != current.getOutboundBurst()
+                || previous.getOutboundIntervalMs() != current.getOutboundIntervalMs()) {
+            outbound.setRate(current.getOutboundBurst(), current.getOutboundIntervalMs(), TimeUnit.MILLISECONDS);
+        }
+
+        PircBotX connected = bot;
+        if (connected != null && !network.hasOwnChannels()) {
+            for (String line : joinCommands(current.getChannels().without(previous.getChannels()))) {
+                connected.sendRaw().rawLine(line);
+            }
+            for (String removed : previous.getChannels().without(current.getChannels())) {
+                connected.sendRaw().rawLine("PART " + removed);
+            }
+        }
     }
 
     private void kickUser(Channel channel, User sender, String target) {
@@ -312,10 +650,10 @@ public class IrcListener extends ListenerAdapter {
             return;
         }
 
-        OutputChannel out = channel.send();
+        ChannelOutput out = outbound.to(channel);
         for (User u : channel.getUsers()) {
             if (u.getNick().equalsIgnoreCase(target)) {
-                out.kick(u, "kicked");
+                out.rawLine("KICK " + channel.getName() + " " + u.getNick() + " :kicked");
                 out.message("Kicked user " + target);
                 break;
             }
@@ -327,25 +665,47 @@ public class IrcListener extends ListenerAdapter {
             insufficientPermissionError(channel);
             return;
         }
-        channel.send().setTopic(newTopic);
+        outbound.to(channel).rawLine("TOPIC " + channel.getName() + " :" + newTopic);
     }
 
-    private void replyBugStatus(Channel channel, String ticket) {
-        Long time = recentIssues.get(ticket);
-
-        recentIssues.put(ticket,System.currentTimeMillis());
-
-        if (time!=null) {
-            if (System.currentTimeMillis()-time < 60*1000) {
-                return; // already mentioned recently. don't repeat
+    private void replyBugStatus(Channel channel, List<String> tickets) {
+        // Request all summaries at once, so that they are fetched by a single search
+        Map<String, CompletableFuture<String>> summaries = new LinkedHashMap<>();
+        for (String ticket : tickets) {
+            if (recentIssues.put(channel.getName() + " " + ticket, Boolean.TRUE) != null) {
+                continue; // already mentioned recently. don't repeat
             }
+            summaries.put(ticket, issueSummaries.get(ticket));
         }
-
-        try {
-            channel.send().message(JiraHelper.getSummary(ticket));
-        } catch (Exception e) {
-            e.printStackTrace();
+        if (summaries.isEmpty()) {
+            return;
         }
+
+        // Reply in the order of the mentions once all summaries are there, no thread waits for them meanwhile.
+        // The summaries are fetched concurrently, so they take a single timeout at most.
+        commandExecutor.submitAsync(orderingKey(channel), () -> {
+            long timeout = RuntimeConfig.current().getJiraTimeoutSec();
+            List<CompletableFuture<String>> replies = new ArrayList<>();
+            for (Map.Entry<String, CompletableFuture<String>> summary : summaries.entrySet()) {
+                // the copy times out, the cached summary is still completed for the next mentions
+                replies.add(summary.getValue().copy().orTimeout(timeout, TimeUnit.SECONDS).handle((text, ex) -> {
+                    if (ex != null) {
+                        LOGGER.warn("Failed to get the summary of {}", summary.getKey(), ex);
+                        return null;
+                    }
+                    return text;
+                }));
+            }
+            return CompletableFuture.allOf(replies.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+                ChannelOutput out = outbound.to(channel);
+                for (CompletableFuture<String> reply : replies) {
+                    String text = reply.join();
+                    if (text != null) {
+                        out.message(text);
+                    }
+                }
+            });
+        });
     }
 
     /**
@@ -359,23 +719,24 @@ public class IrcListener extends ListenerAdapter {
 
     private boolean isSenderAuthorized(Channel channel, User sender, boolean acceptVoice) {
         return (IrcBotConfig.TEST_SUPERUSER != null && IrcBotConfig.TEST_SUPERUSER.equals(sender.getNick()))
-                || sender.getUserLevels(channel).stream().anyMatch(e -> e == UserLevel.OP
-                || (acceptVoice && e == UserLevel.VOICE));
+                || authorizations.isAuthorized(channel, sender, acceptVoice);
     }
 
     private void help(Channel channel) {
-        channel.send().message("See https://jenkins.io/projects/infrastructure/ircbot/");
+        outbound.to(channel).message("See https://jenkins.io/projects/infrastructure/ircbot/");
     }
 
-    private void version(Channel channel) {
-        OutputChannel out = channel.send();
+    private boolean version(Channel channel) {
+        ChannelOutput out = outbound.to(channel);
         try {
             IrcBotBuildInfo buildInfo = IrcBotBuildInfo.readResourceFile("/versionInfo.properties");
             out.message("My version is "+buildInfo);
             out.message("Build URL: "+buildInfo.getBuildURL());
+            return true;
         } catch (IOException e) {
-            e.printStackTrace();
+            LOGGER.warn("Failed to read the version information", e);
             out.message("I don't know who I am");
+            return false;
         }
     }
 
@@ -384,12 +745,22 @@ public class IrcListener extends ListenerAdapter {
     }
 
     private void insufficientPermissionError(Channel channel, boolean acceptVoice ) {
-        OutputChannel out = channel.send();
+        ChannelOutput out = outbound.to(channel);
         final String requiredPrefix = acceptVoice ? "+ or @" : "@";
-        out.message("Only people with "+requiredPrefix+" can run this command.");
-        // I noticed that sometimes the bot just get out of sync, so ask the sender to retry
-        channel.getBot().sendRaw().rawLineNow("NAMES "+channel);
-        out.message("I'll refresh the member list, so if you think this is an error, try again in a few seconds.");
+        out.ack("Only people with "+requiredPrefix+" can run this command.");
+        // I noticed that sometimes the bot just get out of sync, so ask the sender to retry.
+        refreshMemberList(channel);
+        out.ack("I'll refresh the member list, so if you think this is an error, try again in a few seconds.");
+    }
+
+    /**
+     * Gets the updated member list of the channel.
+     * Several people may retry at once, so the refreshes are coalesced and the server is not flooded.
+     */
+    private void refreshMemberList(Channel channel) {
+        if (authorizations.shouldRefresh(channel.getName())) {
+            channel.getBot().sendRaw().rawLineNow("NAMES "+channel.getName());
+        }
     }
 
     /**
@@ -401,28 +772,27 @@ public class IrcListener extends ListenerAdapter {
             return false;
         }
 
-        OutputChannel out = channel.send();
+        ChannelOutput out = outbound.to(channel);
+        final String project = RuntimeConfig.current().getJiraDefaultProject();
 
         out.message(String.format("Adding a new JIRA subcomponent %s to the %s project, owned by %s",
-                subcomponent, IrcBotConfig.JIRA_DEFAULT_PROJECT, owner));
+                subcomponent, project, owner));
 
         boolean result = false;
         JiraRestClient client = null;
         try {
-            client = JiraHelper.createJiraClient();
+            client = JiraHelper.getClient();
             final ComponentRestClient componentClient = client.getComponentClient();
-            final Promise<Component> createComponent = componentClient.createComponent(IrcBotConfig.JIRA_DEFAULT_PROJECT,
+            final Promise<Component> createComponent = componentClient.createComponent(project,
                     new ComponentInput(subcomponent, "subcomponent", owner, AssigneeType.COMPONENT_LEAD));
-            final Component component = JiraHelper.wait(createComponent);
+            final Component component = JiraHelper.wait("createComponent", createComponent);
+            JiraHelper.invalidateComponents(project);
             out.message("New component created. URL is " + component.getSelf().toURL());
             result = true;
         } catch (Exception e) {
             out.message("Failed to create a new component: "+e.getMessage());
-            e.printStackTrace();
-        } finally {
-            if(!JiraHelper.close(client)) {
-                out.message("Failed to close JIRA client, possible leaked file descriptors");
-            }
+            LOGGER.warn("Failed to create the component {}", subcomponent, e);
+            JiraHelper.reportFailure(client, e);
         }
 
         return result;
@@ -431,140 +801,142 @@ public class IrcListener extends ListenerAdapter {
     /**
      * Renames an issue tracker component.
      */
-    private void renameComponent(Channel channel, User sender, String oldName, String newName) {
+    private boolean renameComponent(Channel channel, User sender, String oldName, String newName) {
         if (!isSenderAuthorized(channel,sender)) {
             insufficientPermissionError(channel);
-            return;
+            return false;
         }
 
-        OutputChannel out = channel.send();
+        ChannelOutput out = outbound.to(channel);
+        final String project = RuntimeConfig.current().getJiraDefaultProject();
         out.message(String.format("Renaming subcomponent %s to %s", oldName, newName));
 
         JiraRestClient client = null;
         try {
-            client = JiraHelper.createJiraClient();
-            final Component component = JiraHelper.getComponent(client, IrcBotConfig.JIRA_DEFAULT_PROJECT, oldName);
-            final ComponentRestClient componentClient = JiraHelper.createJiraClient().getComponentClient();
+            client = JiraHelper.getClient();
+            final Component component = JiraHelper.getComponent(client, project, oldName);
+            final ComponentRestClient componentClient = client.getComponentClient();
             Promise<Component> updateComponent = componentClient.updateComponent(component.getSelf(),
                     new ComponentInput(newName, null, null, null));
-            JiraHelper.wait(updateComponent);
+            JiraHelper.wait("updateComponent", updateComponent);
+            JiraHelper.invalidateComponents(project);
             out.message("The component has been renamed");
+            return true;
         } catch (Exception e) {
             out.message(e.getMessage());
-            e.printStackTrace();
-        } finally {
-            if(!JiraHelper.close(client)) {
-                out.message("Failed to close JIRA client, possible leaked file descriptors");
-            }
+            LOGGER.warn("Failed to rename the component {} to {}", oldName, newName, e);
+            JiraHelper.reportFailure(client, e);
+            return false;
         }
     }
 
     /**
      * Deletes an issue tracker component.
      */
-    private void deleteComponent(Channel channel, User sender, String deletedComponent, String backupComponent) {
+    private boolean deleteComponent(Channel channel, User sender, String deletedComponent, String backupComponent) {
         if (!isSenderAuthorized(channel,sender)) {
             insufficientPermissionError(channel);
-            return;
+            return false;
         }
 
-        OutputChannel out = channel.send();
+        ChannelOutput out = outbound.to(channel);
+        final String project = RuntimeConfig.current().getJiraDefaultProject();
 
         out.message(String.format("Deleting the subcomponent %s. All issues will be moved to %s", deletedComponent, backupComponent));
 
         JiraRestClient client = null;
         try {
-            client = JiraHelper.createJiraClient();
-            final Component component = JiraHelper.getComponent(client, IrcBotConfig.JIRA_DEFAULT_PROJECT, deletedComponent);
-            final Component componentBackup = JiraHelper.getComponent(client, IrcBotConfig.JIRA_DEFAULT_PROJECT, backupComponent);
+            client = JiraHelper.getClient();
+            final Component component = JiraHelper.getComponent(client, project, deletedComponent);
+            final Component componentBackup = JiraHelper.getComponent(client, project, backupComponent);
             Promise<Void> removeComponent = client.getComponentClient().removeComponent(component.getSelf(), componentBackup.getSelf());
-            JiraHelper.wait(removeComponent);
+            JiraHelper.wait("removeComponent", removeComponent);
+            JiraHelper.invalidateComponents(project);
             out.message("The component has been deleted");
+            return true;
         } catch (Exception e) {
             out.message(e.getMessage());
-            e.printStackTrace();
-        } finally {
-            if(!JiraHelper.close(client)) {
-                out.message("Failed to close JIRA client, possible leaked file descriptors");
-            }
+            LOGGER.warn("Failed to delete the component {}", deletedComponent, e);
+            JiraHelper.reportFailure(client, e);
+            return false;
         }
     }
 
     /**
      * Deletes an assignee from the specified component
      */
-    private void removeDefaultAssignee(Channel channel, User sender, List<String> subcomponents) {
-        setDefaultAssignee(channel, sender, subcomponents, null);
+    private boolean removeDefaultAssignee(Channel channel, User sender, List<String> subcomponents) {
+        return setDefaultAssignee(channel, sender, subcomponents, null);
     }
 
     /**
      * Creates an issue tracker component.
      * @param owner User ID or null if the owner should be removed
      */
-    private void setDefaultAssignee(Channel channel, User sender, List<String> subcomponents,
+    private boolean setDefaultAssignee(Channel channel, User sender, List<String> subcomponents,
                                     @CheckForNull String owner) {
         if (!isSenderAuthorized(channel, sender)) {
             insufficientPermissionError(channel);
-            return;
+            return false;
         }
 
-        OutputChannel out = channel.send();
-        JiraRestClient client = null;
+        ChannelOutput out = outbound.to(channel);
+        final String project = RuntimeConfig.current().getJiraDefaultProject();
+        final JiraRestClient client;
         try {
-            client = JiraHelper.createJiraClient();
-            for (String subcomponent : subcomponents) {
-                try {
-                    out.message(String.format("Changing default assignee of subcomponent %s to %s", subcomponent, owner));
-                    final Component component = JiraHelper.getComponent(client, IrcBotConfig.JIRA_DEFAULT_PROJECT, subcomponent);
-                    Promise<Component> updateComponent = client.getComponentClient().updateComponent(component.getSelf(),
-                            new ComponentInput(null, null, owner != null ? owner : "", AssigneeType.COMPONENT_LEAD));
-                    JiraHelper.wait(updateComponent);
-                    out.message(owner != null ? String.format("Default assignee set to %s for %s", owner, subcomponent)
-                            : "Default assignee has been removed for " + subcomponent);
-                } catch(ExecutionException | TimeoutException | InterruptedException | IOException e) {
-                    out.message(String.format("Failed to set default assignee for %s: %s", subcomponent, e.getMessage()));
-                    e.printStackTrace();
-                }
-            }
-        } catch (Throwable e) {
+            client = JiraHelper.getClient();
+        } catch (IOException e) {
             out.message("Failed to connect to Jira: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            if (!JiraHelper.close(client)) {
-                out.message("Failed to close JIRA client, possible leaked file descriptors");
-            }
+            LOGGER.warn("Failed to connect to JIRA", e);
+            return false;
         }
+
+        List<FanOut.Result> results = FanOut.JIRA.run(subcomponents, subcomponent -> {
+            try {
+                final Component component = JiraHelper.getComponent(client, project, subcomponent);
+                Promise<Component> updateComponent = client.getComponentClient().updateComponent(component.getSelf(),
+                        new ComponentInput(null, null, owner != null ? owner : "", AssigneeType.COMPONENT_LEAD));
+                JiraHelper.wait("updateComponent", updateComponent);
+            } catch (ExecutionException | TimeoutException e) {
+                JiraHelper.reportFailure(client, e);
+                throw e;
+            }
+        });
+        out.message(FanOut.summarize(
+                owner != null ? String.format("Default assignee set to %s for", owner) : "Default assignee has been removed for",
+                "Failed to set default assignee for", results));
+        return allSucceeded(results);
     }
 
     /**
      * Sets the component description.
      * @param description Component description. Use null to remove the description
      */
-    private void setComponentDescription(Channel channel, User sender, String componentName, @CheckForNull String description) {
+    private boolean setComponentDescription(Channel channel, User sender, String componentName, @CheckForNull String description) {
         if (!isSenderAuthorized(channel,sender)) {
             insufficientPermissionError(channel);
-            return;
+            return false;
         }
 
-        OutputChannel out = channel.send();
+        ChannelOutput out = outbound.to(channel);
+        final String project = RuntimeConfig.current().getJiraDefaultProject();
 
         out.message(String.format("Updating the description of component %s", componentName));
 
         JiraRestClient client = null;
         try {
-            client = JiraHelper.createJiraClient();
-            final Component component = JiraHelper.getComponent(client, IrcBotConfig.JIRA_DEFAULT_PROJECT, componentName);
+            client = JiraHelper.getClient();
+            final Component component = JiraHelper.getComponent(client, project, componentName);
             Promise<Component> updateComponent = client.getComponentClient().updateComponent(component.getSelf(),
                     new ComponentInput(null, description != null ? description : "", null, null));
-            JiraHelper.wait(updateComponent);
+            JiraHelper.wait("updateComponent", updateComponent);
             out.message("The component description has been " + (description != null ? "updated" : "removed"));
+            return true;
         } catch (Exception e) {
             out.message(e.getMessage());
-            e.printStackTrace();
-        } finally {
-            if(!JiraHelper.close(client)) {
-                out.message("Failed to close JIRA client, possible leaked file descriptors");
-            }
+            LOGGER.warn("Failed to update the description of the component {}", componentName, e);
+            JiraHelper.reportFailure(client, e);
+            return false;
         }
     }
 
@@ -574,10 +946,10 @@ public class IrcListener extends ListenerAdapter {
           return;
         }
 
-        OutputIRC out = channel.getBot().sendIRC();
-        out.message("CHANSERV", "flags " + channel.getName() + " " + target + " +V");
-        out.message("CHANSERV", "voice " + channel.getName() + " " + target);
-        channel.send().message("Voice privilege (+V) added for " + target);
+        ChannelOutput out = outbound.to(channel);
+        out.rawLine("PRIVMSG CHANSERV :flags " + channel.getName() + " " + target + " +V");
+        out.rawLine("PRIVMSG CHANSERV :voice " + channel.getName() + " " + target);
+        out.message("Voice privilege (+V) added for " + target);
     }
 
     private void removeAutoVoice(Channel channel, User sender, String target) {
@@ -586,31 +958,34 @@ public class IrcListener extends ListenerAdapter {
             return;
         }
 
-        OutputIRC out = channel.getBot().sendIRC();
-        out.message("CHANSERV", "flags " + channel.getName() + " " + target + " -V");
-        out.message("CHANSERV", "devoice " + channel.getName() + " " + target);
-        channel.send().message("Voice privilege (-V) removed for " + target);
+        ChannelOutput out = outbound.to(channel);
+        out.rawLine("PRIVMSG CHANSERV :flags " + channel.getName() + " " + target + " -V");
+        out.rawLine("PRIVMSG CHANSERV :devoice " + channel.getName() + " " + target);
+        out.message("Voice privilege (-V) removed for " + target);
     }
 
-    private void createGitHubRepository(Channel channel, User sender, String name, String collaborator, boolean useGHIssues) {
-        OutputChannel out = channel.send();
+    private boolean createGitHubRepository(Channel channel, User sender, String name, String collaborator, boolean useGHIssues) {
+        ChannelOutput out = outbound.to(channel);
         try {
             if (!isSenderAuthorized(channel,sender)) {
                 insufficientPermissionError(channel);
-                return;
+                return false;
             }
 
-            GitHub github = GitHub.connect();
-            GHOrganization org = github.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION);
+            GitHub github = gitHub.get();
+            GHOrganization org = gitHub.getOrganization();
             GHRepository r = org.createRepository(name).private_(false).create();
             setupRepository(r, useGHIssues);
 
             getOrCreateRepoLocalTeam(out, github, org, r, singletonList(collaborator));
 
             out.message("New github repository created at "+r.getUrl());
+            return true;
         } catch (IOException e) {
             out.message("Failed to create a repository: "+e.getMessage());
-            e.printStackTrace();
+            LOGGER.warn("Failed to create the repository {}", name, e);
+            gitHub.reportFailure(e);
+            return false;
         }
     }
 
@@ -620,34 +995,29 @@ public class IrcListener extends ListenerAdapter {
      * @param teams
      *      teams to make visible
      */
-    private void makeGitHubTeamVisible(Channel channel, User sender, List<String> teams) {
+    private boolean makeGitHubTeamVisible(Channel channel, User sender, List<String> teams) {
         if (!isSenderAuthorized(channel, sender)) {
             insufficientPermissionError(channel);
-            return;
+            return false;
         }
-        OutputChannel out = channel.send();
+        ChannelOutput out = outbound.to(channel);
         try {
-            GitHub github = GitHub.connect();
-            GHOrganization o = github.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION);
-
-            for (String team : teams) {
-                try {
-                    final GHTeam ghTeam = o.getTeamByName(team);
-                    if (ghTeam == null) {
-                        out.message("No team for " + team);
-                        continue;
-                    }
-
-                    ghTeam.setPrivacy(GHTeam.Privacy.CLOSED);
+            GHOrganization o = gitHub.getOrganization();
 
-                    out.message("Made GitHub team " + team + " visible");
-                } catch (IOException e) {
-                    out.message("Failed to make GitHub team " + team + " visible: " + e.getMessage());
-                    e.printStackTrace();
+            List<FanOut.Result> results = FanOut.GITHUB.run(teams, team -> {
+                final GHTeam ghTeam = o.getTeamByName(team);
+                if (ghTeam == null) {
+                    throw new IOException("no such team");
                 }
-            }
+                ghTeam.setPrivacy(GHTeam.Privacy.CLOSED);
+            });
+            out.message(FanOut.summarize("Made GitHub teams visible:", "Failed to make GitHub teams visible:", results));
+            return allSucceeded(results);
         } catch(IOException e) {
             out.message("Failed to connect to GitHub or retrieve organization information: " + e.getMessage());
+            LOGGER.warn("Failed to make the teams {} visible", teams, e);
+            gitHub.reportFailure(e);
+            return false;
         }
     }
 
@@ -657,35 +1027,32 @@ public class IrcListener extends ListenerAdapter {
      * @param teams
      *      make user a maintainer of one oe more teams.
      */
-    private void makeGitHubTeamMaintainer(Channel channel, User sender, String newTeamMaintainer, List<String> teams) {
+    private boolean makeGitHubTeamMaintainer(Channel channel, User sender, String newTeamMaintainer, List<String> teams) {
         if (!isSenderAuthorized(channel, sender)) {
             insufficientPermissionError(channel);
-            return;
+            return false;
         }
-        OutputChannel out = channel.send();
+        ChannelOutput out = outbound.to(channel);
         try {
-            GitHub github = GitHub.connect();
-            GHOrganization o = github.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION);
-            for (String team : teams) {
-                try {
-                    GHUser c = github.getUser(newTeamMaintainer);
-
-                    final GHTeam ghTeam = o.getTeamByName(team);
-                    if (ghTeam == null) {
-                        out.message("No team for " + team);
-                        continue;
-                    }
-
-                    ghTeam.add(c, GHTeam.Role.MAINTAINER);
-                    out.message("Added " + newTeamMaintainer + " as a GitHub maintainer for team " + team);
-                } catch (IOException e) {
-                    out.message("Failed to make user maintainer of one or more teams: " + e.getMessage());
-                    e.printStackTrace();
+            GitHub github = gitHub.get();
+            GHOrganization o = gitHub.getOrganization();
+            GHUser c = github.getUser(newTeamMaintainer);
+
+            List<FanOut.Result> results = FanOut.GITHUB.run(teams, team -> {
+                final GHTeam ghTeam = o.getTeamByName(team);
+                if (ghTeam == null) {
+                    throw new IOException("no such team");
                 }
-            }
+                ghTeam.add(c, GHTeam.Role.MAINTAINER);
+            });
+            out.message(FanOut.summarize("Added " + newTeamMaintainer + " as a GitHub maintainer for teams",
+                    "Failed to make " + newTeamMaintainer + " maintainer of teams", results));
+            return allSucceeded(results);
         } catch (IOException e) {
             out.message("Failed to connect to GitHub or get organization information: " + e.getMessage());
-            e.printStackTrace();
+            LOGGER.warn("Failed to make {} a maintainer of the teams {}", newTeamMaintainer, teams, e);
+            gitHub.reportFailure(e);
+            return false;
         }
     }
 
@@ -695,104 +1062,98 @@ public class IrcListener extends ListenerAdapter {
      * @param repos
      *      List of repositories to add the collaborator to.
      */
-    private void addGitHubCommitter(Channel channel, User sender, String collaborator, List<String> repos) {
+    private boolean addGitHubCommitter(Channel channel, User sender, String collaborator, List<String> repos) {
         if (!isSenderAuthorized(channel,sender)) {
             insufficientPermissionError(channel);
-            return;
+            return false;
         }
-        OutputChannel out = channel.send();
+        ChannelOutput out = outbound.to(channel);
 
         if (repos == null || repos.isEmpty()) {
             // legacy command
             out.message("I'm not longer managing the Everyone team. Please add committers to specific repos.");
-            return;
+            return false;
         }
 
         try {
-            GitHub github = GitHub.connect();
+            GitHub github = gitHub.get();
             GHUser c = github.getUser(collaborator);
-            GHOrganization o = github.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION);
-
-            for(String repo : repos) {
-                try {
-                    final GHTeam t;
-                    GHRepository forThisRepo = o.getRepository(repo);
-                    if (forThisRepo == null) {
-                        out.message("Could not find repository:  " + repo);
-                        continue;
-                    }
+            GHOrganization o = gitHub.getOrganization();
 
-                    t = getOrCreateRepoLocalTeam(out, github, o, forThisRepo, emptyList());
-                    t.add(c);
-                    out.message(String.format("Added %s as a GitHub committer for repository %s", collaborator, repo));
-                } catch(IOException e) {
-                    out.message("Failed to add user to team: "+e.getMessage());
-                    e.printStackTrace();
+            List<FanOut.Result> results = FanOut.GITHUB.run(repos, repo -> {
+                GHRepository forThisRepo = o.getRepository(repo);
+                if (forThisRepo == null) {
+                    throw new IOException("no such repository");
                 }
-            }
+                getOrCreateRepoLocalTeam(out, github, o, forThisRepo, emptyList()).add(c);
+            });
+            out.message(FanOut.summarize(String.format("Added %s as a GitHub committer for repositories", collaborator),
+                    String.format("Failed to add %s to the teams of repositories", collaborator), results));
+            return allSucceeded(results);
         } catch (IOException e) {
             out.message("Failed to connect to GitHub or get organization/user information: "+e.getMessage());
-            e.printStackTrace();
+            LOGGER.warn("Failed to add {} as a committer of {}", collaborator, repos, e);
+            gitHub.reportFailure(e);
+            return false;
         }
     }
 
-    private void removeGitHubCommitter(Channel channel, User sender, String collaborator, List<String> repos) {
+    private boolean removeGitHubCommitter(Channel channel, User sender, String collaborator, List<String> repos) {
         if (!isSenderAuthorized(channel,sender)) {
             insufficientPermissionError(channel);
-            return;
+            return false;
         }
-        OutputChannel out = channel.send();
+        ChannelOutput out = outbound.to(channel);
         try {
-            GitHub github = GitHub.connect();
+            GitHub github = gitHub.get();
             GHUser githubUser = github.getUser(collaborator);
-            GHOrganization githubOrganization = github.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION);
-            for(String repo : repos) {
-                try {
-                    final GHTeam ghTeam;
-                    GHRepository forThisRepo = githubOrganization.getRepository(repo);
-                    if (forThisRepo == null) {
-                        out.message("Could not find repository:  " + repo);
-                        continue;
-                    }
+            GHOrganization githubOrganization = gitHub.getOrganization();
 
-                    ghTeam = getOrCreateRepoLocalTeam(out, github, githubOrganization, forThisRepo, emptyList());
-                    ghTeam.remove(githubUser);
-                    out.message("Removed " + collaborator + " as a GitHub committer for repository " + repo);
-                } catch(IOException e) {
-                    out.message("Failed to remove user from team: "+e.getMessage());
-                    e.printStackTrace();
+            List<FanOut.Result> results = FanOut.GITHUB.run(repos, repo -> {
+                GHRepository forThisRepo = githubOrganization.getRepository(repo);
+                if (forThisRepo == null) {
+                    throw new IOException("no such repository");
                 }
-            }
+                getOrCreateRepoLocalTeam(out, github, githubOrganization, forThisRepo, emptyList()).remove(githubUser);
+            });
+            out.message(FanOut.summarize("Removed " + collaborator + " as a GitHub committer for repositories",
+                    "Failed to remove " + collaborator + " from the teams of repositories", results));
+            return allSucceeded(results);
         } catch (IOException e) {
             out.message("Failed to connect to GitHub or retrieve organization or user information: "+e.getMessage());
-            e.printStackTrace();
+            LOGGER.warn("Failed to remove {} as a committer of {}", collaborator, repos, e);
+            gitHub.reportFailure(e);
+            return false;
         }
     }
 
-    private void renameGitHubRepo(Channel channel, User sender, String repo, String newName) {
-        OutputChannel out = channel.send();
+    private boolean renameGitHubRepo(Channel channel, User sender, String repo, String newName) {
+        ChannelOutput out = outbound.to(channel);
         try {
             if (!isSenderAuthorized(channel, sender, false)) {
                 insufficientPermissionError(channel, false);
-                return;
+                return false;
             }
 
             out.message("Renaming " + repo + " to " + newName);
 
-            GitHub github = GitHub.connect();
-            GHOrganization o = github.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION);
+            GitHub github = gitHub.get();
+            GHOrganization o = gitHub.getOrganization();
 
             GHRepository orig = o.getRepository(repo);
             if (orig == null) {
                 out.message("No such repository: " + repo);
-                return;
+                return false;
             }
 
             orig.renameTo(newName);
-            out.message("The repository has been renamed: https://github.com/" + IrcBotConfig.GITHUB_ORGANIZATION+"/"+newName);
+            out.message("The repository has been renamed: https://github.com/" + RuntimeConfig.current().getGitHubOrganization()+"/"+newName);
+            return true;
         } catch (IOException e) {
             out.message("Failed to rename a repository: " + e.getMessage());
-            e.printStackTrace();
+            LOGGER.warn("Failed to rename the repository {} to {}", repo, newName, e);
+            gitHub.reportFailure(e);
+            return false;
         }
     }
 
@@ -800,21 +1161,21 @@ public class IrcListener extends ListenerAdapter {
      * @param newName
      *      If not null, rename a repository after a fork.
      */
-    boolean forkGitHub(Channel channel, User sender, String owner, String repo, String newName, List<String> maintainers, boolean useGHIssues) {
-        boolean result = false;
-        OutputChannel out = channel.send();
+    CompletableFuture<Boolean> forkGitHub(Channel channel, User sender, String owner, String repo, String newName, List<String> maintainers, boolean useGHIssues) {
+        CompletableFuture<Boolean> result = CompletableFuture.completedFuture(false);
+        ChannelOutput out = outbound.to(channel);
         try {
             if (!isSenderAuthorized(channel,sender)) {
                 insufficientPermissionError(channel);
-                return false;
+                return CompletableFuture.completedFuture(false);
             }
 
-            GitHub github = GitHub.connect();
-            GHOrganization org = github.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION);
+            GitHub github = gitHub.get();
+            GHOrganization org = gitHub.getOrganization();
             GHRepository check = org.getRepository(newName);
             if(check != null) {
-                out.message("Repository with name "+newName+" already exists in "+IrcBotConfig.GITHUB_ORGANIZATION);
-                return false;
+                out.message("Repository with name "+newName+" already exists in "+RuntimeConfig.current().getGitHubOrganization());
+                return CompletableFuture.completedFuture(false);
             }
 
             // check if there is an existing real (not-renamed) repository with the name
@@ -822,8 +1183,8 @@ public class IrcListener extends ListenerAdapter {
             // we just want to make sure we don't fork to an current repository name.
             check = org.getRepository(repo);
             if(check != null && check.getName().equalsIgnoreCase(repo)) {
-                out.message("Repository " + repo + " can't be forked, an existing repository with that name already exists in " + IrcBotConfig.GITHUB_ORGANIZATION);
-                return false;
+                out.message("Repository " + repo + " can't be forked, an existing repository with that name already exists in " + RuntimeConfig.current().getGitHubOrganization());
+                return CompletableFuture.completedFuture(false);
             }
 
             out.message("Forking "+repo);
@@ -831,66 +1192,20 @@ public class IrcListener extends ListenerAdapter {
             GHUser user = github.getUser(owner);
             if (user==null) {
                 out.message("No such user: "+owner);
-                return false;
+                return CompletableFuture.completedFuture(false);
             }
             GHRepository orig = user.getRepository(repo);
             if (orig==null) {
                 out.message("No such repository: "+repo);
-                return false;
-            }
-
-            GHRepository r;
-            try {
-                r = orig.forkTo(org);
-            } catch (IOException e) {
-                // we started seeing 500 errors, presumably due to time out.
-                // give it a bit of time, and see if the repository is there
-                LOGGER.warn("GitHub reported that it failed to fork {}/{}. But we aren't trusting", owner, repo);
-                r = null;
-                for (int i=0; r==null && i<5; i++) {
-                    Thread.sleep(1000);
-                    r = org.getRepository(repo);
-                }
-                if (r==null)
-                    throw e;
-            }
-            if (newName!=null) {
-                r.renameTo(newName);
-
-                r = null;
-                for (int i=0; r==null && i<5; i++) {
-                    Thread.sleep(1000);
-                    r = org.getRepository(newName);
-                }
-                if (r==null)
-                    throw new IOException(repo+" renamed to "+newName+" but not finding the new repository");
-            }
-
-            // GitHub adds a lot of teams to this repo by default, which we don't want
-            Set<GHTeam> legacyTeams = r.getTeams();
-
-            try {
-                getOrCreateRepoLocalTeam(out, github, org, r, maintainers.isEmpty() ? singletonList(user.getName()) : maintainers);
-            } catch (IOException e) {
-                // if 'user' is an org, the above command would fail
-                out.message("Failed to add "+user+" to the new repository. Maybe an org?: "+e.getMessage());
-                // fall through
+                return CompletableFuture.completedFuture(false);
             }
-            setupRepository(r, useGHIssues);
-
-            out.message("Created https://github.com/" + IrcBotConfig.GITHUB_ORGANIZATION + "/" + (newName != null ? newName : repo));
-
-            // remove all the existing teams
-            for (GHTeam team : legacyTeams)
-                team.remove(r);
 
-            result = true;
-        } catch (InterruptedException e) {
-            out.message("Failed to fork a repository: "+e.getMessage());
-            e.printStackTrace();
+            result = forks.start(out, network.getName(), channel.getName(), owner, repo, orig, newName,
+                    maintainers.isEmpty() ? singletonList(owner) : maintainers, useGHIssues);
         } catch (IOException e) {
             out.message("Failed to fork a repository: "+e.getMessage());
-            e.printStackTrace();
+            LOGGER.warn("Failed to fork the repository {}/{}", owner, repo, e);
+            gitHub.reportFailure(e);
         }
 
         return result;
@@ -907,9 +1222,9 @@ public class IrcListener extends ListenerAdapter {
     /**
      * Creates a repository local team, and grants access to the repository.
      */
-    private static GHTeam getOrCreateRepoLocalTeam(OutputChannel out, GitHub github, GHOrganization org, GHRepository r, List<String> githubUsers) throws IOException {
+    private GHTeam getOrCreateRepoLocalTeam(ChannelOutput out, GitHub github, GHOrganization org, GHRepository r, List<String> githubUsers) throws IOException {
         String teamName = r.getName() + " Developers";
-        GHTeam t = org.getTeams().get(teamName);
+        GHTeam t = gitHubTeams.get(teamName);
         if (t == null) {
             GHTeamBuilder ghCreateTeamBuilder = org.createTeam(teamName).privacy(GHTeam.Privacy.CLOSED);
             List<String> maintainers = emptyList();
@@ -921,6 +1236,7 @@ public class IrcListener extends ListenerAdapter {
                 ghCreateTeamBuilder = ghCreateTeamBuilder.maintainers(maintainers.toArray(new String[0]));
             }
             t = ghCreateTeamBuilder.create();
+            gitHubTeams.put(teamName, t);
 
             List<String> usersNotInMaintainers = new ArrayList<>(githubUsers);
             usersNotInMaintainers.removeAll(maintainers);
@@ -934,13 +1250,13 @@ public class IrcListener extends ListenerAdapter {
         return t;
     }
 
-    private static Consumer<String> addUserToTeam(OutputChannel out, GitHub github, GHTeam team) {
+    private static Consumer<String> addUserToTeam(ChannelOutput out, GitHub github, GHTeam team) {
         return user -> {
             try {
                 team.add(github.getUser(user));
             } catch (IOException e) {
                 out.message(String.format("Failed to add user %s to team %s, error was:  %s", user, team.getName(), e.getMessage()));
-                e.printStackTrace();
+                LOGGER.warn("Failed to add {} to the team {}", user, team.getName(), e);
             }
         };
     }
@@ -950,38 +1266,93 @@ public class IrcListener extends ListenerAdapter {
             GHUser ghUser = gitHub.getUser(user);
             return org.hasMember(ghUser);
         } catch (IOException e) {
-            e.printStackTrace();
+            LOGGER.warn("Failed to check whether {} is a member of the organization", user, e);
             return false;
         }
     }
 
+    private static boolean allSucceeded(List<FanOut.Result> results) {
+        return results.stream().allMatch(FanOut.Result::isSuccess);
+    }
+
     private static List<String> collectGroups(Matcher m, int startingGroup) {
         List<String> items = new ArrayList<>(
-                Arrays.asList(m.group(startingGroup).split("\\s*,\\s*")));
+                Arrays.asList(LIST_SEPARATOR.split(m.group(startingGroup))));
 
         return items;
     }
 
-    public static void main(String[] args) throws Exception {
+    /**
+     * Creates the configuration of the bot connecting to the network of the listener and joining its channels.
+     * @param saslPassword Password authenticating the bot with SASL, {@code null} to connect without authentication
+     * @since 2.0-SNAPSHOT
+     */
+    static Configuration.Builder configure(IrcListener listener, @CheckForNull String saslPassword) {
+        IrcNetwork network = listener.getNetwork();
         Configuration.Builder builder = new Configuration.Builder()
                 .setName(IrcBotConfig.NAME)
-                .addServer(IrcBotConfig.SERVER, 6667)
+                .addServer(network.getServer(), network.getPort())
                 .setAutoReconnect(true)
-                .addListener(new IrcListener(new File("unknown-commands.txt")));
+                .setAutoReconnectDelay(listener.reconnect)
+                .setAutoReconnectAttempts(listener.reconnect.getMaxAttempts())
+                .addListener(listener);
 
-        for(String channel : IrcBotConfig.getChannels()) {
-            builder.addAutoJoinChannel(channel);
+        if (network.isTls()) {
+            // shared by the reconnections and the networks, so that the TLS sessions are resumed
+            builder.setSocketFactory(TlsSocketFactory.getDefault());
         }
+        // the channels are joined by onConnect() at once
 
-        if(args.length>0) {
+        if(saslPassword != null) {
             builder.setCapEnabled(true)
-                   .addCapHandler(new SASLCapHandler(IrcBotConfig.NAME, args[0]));
+                   .addCapHandler(new SASLCapHandler(IrcBotConfig.NAME, saslPassword));
         }
+        return builder;
+    }
 
-        LOGGER.info("Connecting to {} as {}.", IrcBotConfig.SERVER, IrcBotConfig.NAME);
-        LOGGER.info("GitHub organization: {}", IrcBotConfig.GITHUB_ORGANIZATION);
+    public static void main(String[] args) throws Exception {
+        String saslPassword = args.length>0 ? args[0] : null;
+        // one bot per network, all of them share the clients and the command executor
+        BotServices services = new BotServices(new File("unknown-commands.txt"));
+        MultiBotManager manager = new MultiBotManager();
+        List<IrcListener> listeners = new ArrayList<>();
+        for (IrcNetwork network : IrcNetwork.configured()) {
+            IrcListener listener = new IrcListener(services, network);
+            listeners.add(listener);
+            manager.addBot(configure(listener, saslPassword).buildConfiguration());
+            LOGGER.info("Connecting to {} as {}.", network, IrcBotConfig.NAME);
+        }
+        LOGGER.info("GitHub organization: {}", RuntimeConfig.current().getGitHubOrganization());
+
+        BotLifecycle lifecycle = services.getLifecycle();
+        lifecycle.addStep("quit IRC", () -> {
+            for (PircBotX bot : manager.getBots()) {
+                bot.stopBotReconnect();
+                if (bot.isConnected()) {
+                    bot.sendIRC().quitServer("Restarting");
+                }
+            }
+        });
+        lifecycle.addStep("close JIRA client", JiraHelper.getClientProvider()::close);
+        lifecycle.addStep("close GitHub client", services.getGitHub()::close);
+
+        if (IrcBotConfig.HTTP_PORT >= 0) {
+            StatusServer status = new StatusServer(IrcBotConfig.HTTP_PORT, BotMetrics.get());
+            ScheduledExecutorService probes = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "ircbot-health");
+                t.setDaemon(true);
+                return t;
+            });
+            for (IrcListener listener : listeners) {
+                status.addHealth(listener.getNetwork().getName(), listener.getHealth());
+                listener.getHealth().startProbes(probes, IrcBotConfig.HEALTH_PROBE_INTERVAL_SEC);
+            }
+            status.start();
+            lifecycle.addStep("stop HTTP server", status::stop);
+        }
+        lifecycle.installShutdownHook();
 
-        PircBotX bot = new PircBotX(builder.buildConfiguration());
-        bot.startBot();
+        // the bots run in the threads of the manager, which keep the JVM alive
+        manager.start();
     }
 }
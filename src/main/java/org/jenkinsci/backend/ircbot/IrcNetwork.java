@@ -0,0 +1,144 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * IRC network the bot connects to.
+ *
+ * One process can serve several networks, e.g. Libera.Chat and a staging network,
+ * every network gets its own {@link IrcListener} and connection while the clients, caches and executors
+ * are shared, see {@link BotServices}.
+ * A network either declares its channels or uses the ones of {@link RuntimeConfig}, which can be reloaded.
+ * @since 2.0-SNAPSHOT
+ */
+public final class IrcNetwork {
+
+    /**
+     * Name of the network configured by {@link IrcBotConfig#SERVER}.
+     */
+    public static final String DEFAULT_NAME = "default";
+
+    private static final String PREFIX = "ircbot.network.";
+    private static final Pattern NAME = Pattern.compile("[\\w.-]+");
+
+    private final String name;
+    private final String server;
+    private final int port;
+    private final boolean tls;
+    @CheckForNull
+    private final ChannelAllowList channels;
+
+    /**
+     * @param channels Channels of the network, {@code null} to use the channels of {@link RuntimeConfig}
+     */
+    public IrcNetwork(@Nonnull String name, @Nonnull String server, int port, boolean tls, @CheckForNull ChannelAllowList channels) {
+        this.name = name;
+        this.server = server;
+        this.port = port;
+        this.tls = tls;
+        this.channels = channels;
+    }
+
+    /**
+     * Gets the network configured by {@link IrcBotConfig#SERVER}, {@link IrcBotConfig#PORT} and {@link IrcBotConfig#TLS}.
+     */
+    @Nonnull
+    public static IrcNetwork getDefault() {
+        return new IrcNetwork(DEFAULT_NAME, IrcBotConfig.SERVER, IrcBotConfig.PORT, IrcBotConfig.TLS, null);
+    }
+
+    /**
+     * Gets the networks listed in {@link IrcBotConfig#NETWORKS}, or the default network if the list is not set.
+     * @throws IllegalArgumentException A network is not configured properly
+     */
+    @Nonnull
+    public static List<IrcNetwork> configured() {
+        return parse(IrcBotConfig.NETWORKS, System.getProperties());
+    }
+
+    /**
+     * Reads the networks from the {@code ircbot.network.<name>.*} properties.
+     * @param names Comma-separated network names, if empty the default network is returned
+     * @throws IllegalArgumentException A network is not configured properly
+     */
+    @Nonnull
+    static List<IrcNetwork> parse(@CheckForNull String names, @Nonnull Properties properties) {
+        List<IrcNetwork> networks = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String name : names == null ? new String[0] : names.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Invalid network name " + name + ", only letters, digits, '_', '.' and '-' are allowed");
+            }
+            if (!seen.add(name)) {
+                throw new IllegalArgumentException("Network " + name + " is listed twice");
+            }
+            String prefix = PREFIX + name + ".";
+            String server = properties.getProperty(prefix + "server");
+            if (server == null || server.trim().isEmpty()) {
+                throw new IllegalArgumentException("Server of network " + name + " is not set, see " + prefix + "server");
+            }
+            boolean tls = Boolean.parseBoolean(properties.getProperty(prefix + "tls", String.valueOf(IrcBotConfig.TLS)));
+            int port;
+            try {
+                port = Integer.parseInt(properties.getProperty(prefix + "port", tls ? "6697" : "6667").trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid port of network " + name + ": " + properties.getProperty(prefix + "port"), e);
+            }
+            String channelList = properties.getProperty(prefix + "channels");
+            networks.add(new IrcNetwork(name, server.trim(), port, tls,
+                    channelList == null ? null : ChannelAllowList.parse(channelList, String.join(",", IrcBotConfig.DEFAULT_CHANNELS))));
+        }
+        return networks.isEmpty() ? Collections.singletonList(getDefault()) : networks;
+    }
+
+    @Nonnull
+    public String getName() {
+        return name;
+    }
+
+    @Nonnull
+    public String getServer() {
+        return server;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public boolean isTls() {
+        return tls;
+    }
+
+    /**
+     * Checks whether the network declares its channels, they are not changed by a configuration reload then.
+     */
+    public boolean hasOwnChannels() {
+        return channels != null;
+    }
+
+    /**
+     * Gets the channels the bot serves in this network.
+     * @param config Current runtime configuration, used unless the network declares its channels
+     */
+    @Nonnull
+    public ChannelAllowList getChannels(@Nonnull RuntimeConfig config) {
+        return channels != null ? channels : config.getChannels();
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + server + ":" + port + (tls ? ", TLS" : "") + ")";
+    }
+}
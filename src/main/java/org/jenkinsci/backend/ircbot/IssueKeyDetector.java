@@ -0,0 +1,94 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * Finds JIRA issue keys like {@code JENKINS-12345} in chat messages.
+ * Only the keys of the configured projects are reported.
+ *
+ * Most messages do not mention any issue, so the scan is a plain loop over the characters
+ * which starts only if the message contains a dash, and which allocates nothing until a key is found.
+ * @since 2.0-SNAPSHOT
+ */
+public class IssueKeyDetector {
+
+    private final Set<String> projects;
+    private final int maxProjectLength;
+
+    /**
+     * @param projects Keys of the JIRA projects, e.g. "JENKINS"
+     */
+    public IssueKeyDetector(@Nonnull Collection<String> projects) {
+        this.projects = Collections.unmodifiableSet(new HashSet<>(projects));
+        int max = 0;
+        for (String project : projects) {
+            max = Math.max(max, project.length());
+        }
+        this.maxProjectLength = max;
+    }
+
+    /**
+     * Finds the issue keys in the message.
+     * @return Distinct issue keys in the order of their appearance
+     */
+    @Nonnull
+    public List<String> find(@Nonnull String message) {
+        int dash = message.indexOf('-');
+        if (dash < 0) {
+            return Collections.emptyList();
+        }
+
+        List<String> keys = null;
+        for (; dash >= 0; dash = message.indexOf('-', dash + 1)) {
+            int start = dash;
+            while (start > 0 && dash - start < maxProjectLength && isProjectChar(message.charAt(start - 1))) {
+                start--;
+            }
+            if (start == dash || (start > 0 && isWordChar(message.charAt(start - 1))) || !isUpperCase(message.charAt(start))) {
+                continue;
+            }
+
+            int end = dash + 1;
+            while (end < message.length() && isDigit(message.charAt(end))) {
+                end++;
+            }
+            if (end == dash + 1 || (end < message.length() && isWordChar(message.charAt(end)))) {
+                continue;
+            }
+
+            if (!projects.contains(message.substring(start, dash))) {
+                continue;
+            }
+            String key = message.substring(start, end);
+            if (keys == null) {
+                keys = new ArrayList<>(1);
+            }
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return keys != null ? keys : Collections.<String>emptyList();
+    }
+
+    private static boolean isProjectChar(char c) {
+        return isUpperCase(c) || isDigit(c) || c == '_';
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+    }
+
+    private static boolean isUpperCase(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
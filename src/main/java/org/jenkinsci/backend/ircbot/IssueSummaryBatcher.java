@@ -0,0 +1,184 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merges the lookups of issue summaries requested within a short window into a single JIRA search.
+ * If the search fails, e.g. because one of the issues does not exist, the issues are fetched one by one,
+ * so that a single bad key does not fail the entire batch.
+ * The single fetches run concurrently outside of the scheduler thread, so they do not delay the following batches.
+ * @since 2.0-SNAPSHOT
+ */
+public class IssueSummaryBatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IssueSummaryBatcher.class);
+
+    /**
+     * Searches for the summaries of several issues.
+     */
+    @FunctionalInterface
+    public interface Search {
+        /**
+         * @return Summaries by the issue keys, issues may be missing
+         */
+        @Nonnull
+        Map<String, String> search(@Nonnull List<String> issueKeys) throws Exception;
+    }
+
+    /**
+     * Fetches the summary of a single issue.
+     */
+    @FunctionalInterface
+    public interface Fetch {
+        @Nonnull
+        String fetch(@Nonnull String issueKey) throws Exception;
+    }
+
+    private final Search search;
+    private final Fetch fetch;
+    private final ScheduledExecutorService scheduler;
+    private final Executor fetchExecutor;
+    private final long windowMillis;
+    private final int maxBatchSize;
+
+    /**
+     * Issues waiting for the next search, guarded by {@code this}.
+     */
+    private final Map<String, CompletableFuture<String>> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    /**
+     * Creates the batcher which uses the shared JIRA client.
+     */
+    public IssueSummaryBatcher() {
+        this(JiraHelper::getSummaries, JiraHelper::getSummary, Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ircbot-jira-issues");
+            t.setDaemon(true);
+            return t;
+        }), FanOut.JIRA, IrcBotConfig.JIRA_ISSUE_BATCH_WINDOW_MS, IrcBotConfig.JIRA_ISSUE_BATCH_SIZE);
+    }
+
+    /**
+     * @param search Search for several issues
+     * @param fetch Fetch of a single issue, used if the search fails or does not return the issue
+     * @param scheduler Runs the searches
+     * @param fetchExecutor Runs the single fetches
+     * @param windowMillis Time for which the lookups are collected before the search
+     * @param maxBatchSize Number of collected lookups which triggers the search immediately
+     */
+    public IssueSummaryBatcher(@Nonnull Search search, @Nonnull Fetch fetch, @Nonnull ScheduledExecutorService scheduler,
+                               @Nonnull Executor fetchExecutor, long windowMillis, int maxBatchSize) {
+        this.search = search;
+        this.fetch = fetch;
+        this.scheduler = scheduler;
+        this.fetchExecutor = fetchExecutor;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * Requests the summary of the issue.
+     * @return Summary, completed once the batch with the issue is processed
+     */
+    @Nonnull
+    public CompletableFuture<String> get(@Nonnull String issueKey) {
+        CompletableFuture<String> result;
+        synchronized (this) {
+            result = pending.computeIfAbsent(issueKey, k -> new CompletableFuture<>());
+            if (!flushScheduled) {
+                schedule(pending.size() >= maxBatchSize ? 0 : windowMillis);
+            } else if (pending.size() == maxBatchSize) {
+                // do not wait for the end of the window once the batch is full
+                schedule(0);
+            }
+        }
+        return result;
+    }
+
+    private void schedule(long delayMillis) {
+        try {
+            scheduler.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+            flushScheduled = true;
+        } catch (RejectedExecutionException e) {
+            RejectedExecutionException failure = new RejectedExecutionException("Issue lookups are not accepted anymore", e);
+            pending.values().forEach(f -> f.completeExceptionally(failure));
+            pending.clear();
+        }
+    }
+
+    /**
+     * Processes the collected lookups.
+     */
+    void flush() {
+        Map<String, CompletableFuture<String>> batch = new LinkedHashMap<>();
+        synchronized (this) {
+            flushScheduled = false;
+            Iterator<Map.Entry<String, CompletableFuture<String>>> it = pending.entrySet().iterator();
+            while (it.hasNext() && batch.size() < maxBatchSize) {
+                Map.Entry<String, CompletableFuture<String>> entry = it.next();
+                batch.put(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+            if (!pending.isEmpty()) {
+                schedule(pending.size() >= maxBatchSize ? 0 : windowMillis);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(batch.keySet());
+        Map<String, String> summaries;
+        try {
+            summaries = keys.size() == 1 ? null : search.search(keys);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.values().forEach(f -> f.completeExceptionally(e));
+            return;
+        } catch (Exception e) {
+            // Typically, one of the issues does not exist
+            LOGGER.debug("Search for {} failed, fetching the issues one by one", keys, e);
+            summaries = null;
+        }
+
+        for (Map.Entry<String, CompletableFuture<String>> entry : batch.entrySet()) {
+            String summary = summaries != null ? summaries.get(entry.getKey()) : null;
+            if (summary != null) {
+                entry.getValue().complete(summary);
+            } else {
+                fetch(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void fetch(String issueKey, CompletableFuture<String> result) {
+        try {
+            fetchExecutor.execute(() -> {
+                try {
+                    result.complete(fetch.fetch(issueKey));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
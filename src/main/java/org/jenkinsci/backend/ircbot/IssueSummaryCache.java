@@ -0,0 +1,62 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.backend.ircbot.util.ExpiringCache;
+
+/**
+ * Caches the summaries of JIRA issues mentioned in the channels.
+ * Concurrent requests for the same issue share a single fetch, failures are not cached.
+ * @since 2.0-SNAPSHOT
+ */
+public class IssueSummaryCache {
+
+    /**
+     * Fetches the summary of the issue.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        @Nonnull
+        CompletableFuture<String> load(@Nonnull String issueKey);
+    }
+
+    private final Loader loader;
+    private final ExpiringCache<String, CompletableFuture<String>> summaries;
+
+    public IssueSummaryCache(@Nonnull Loader loader, @Nonnull ExpiringCache<String, CompletableFuture<String>> summaries) {
+        this.loader = loader;
+        this.summaries = summaries;
+    }
+
+    /**
+     * Gets the summary, fetches it unless it is cached or being fetched already.
+     * The method does not block, the fetch is performed by the loader.
+     * @return Summary or the fetch failure
+     */
+    @Nonnull
+    public CompletableFuture<String> get(@Nonnull String issueKey) {
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> existing = summaries.putIfAbsent(issueKey, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        CompletableFuture<String> loaded;
+        try {
+            loaded = loader.load(issueKey);
+        } catch (RuntimeException e) {
+            loaded = new CompletableFuture<>();
+            loaded.completeExceptionally(e);
+        }
+        loaded.whenComplete((summary, failure) -> {
+            if (failure != null) {
+                summaries.remove(issueKey, created);
+                created.completeExceptionally(failure);
+            } else {
+                created.complete(summary);
+            }
+        });
+        return created;
+    }
+}
@@ -0,0 +1,250 @@
+package org.jenkinsci.backend.ircbot;
+
+import com.atlassian.jira.rest.client.api.JiraRestClient;
+import com.atlassian.jira.rest.client.api.RestClientException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the JIRA client shared by all commands.
+ * The client is created on the first use and kept open, so its HTTP connection pool is reused between commands.
+ * If the client has not been verified for a while, its health is checked before handing it out,
+ * and it gets recreated after connection failures reported via {@link #reportFailure(JiraRestClient, Throwable)}.
+ *
+ * A recreated client is retired rather than closed, because other commands may still be waiting for its responses.
+ * It is closed once the requests started before have timed out, or when the provider is closed.
+ * @since 2.0-SNAPSHOT
+ */
+public class JiraClientProvider implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JiraClientProvider.class);
+
+    /**
+     * Creates new JIRA clients.
+     */
+    @FunctionalInterface
+    public interface Factory {
+        @Nonnull
+        JiraRestClient create() throws IOException;
+    }
+
+    private static final class Retired {
+        private final JiraRestClient client;
+        private final long closeAt;
+
+        Retired(JiraRestClient client, long closeAt) {
+            this.client = client;
+            this.closeAt = closeAt;
+        }
+    }
+
+    private final Factory factory;
+    private final long healthCheckIntervalMillis;
+    private final LongSupplier retireDelayMillis;
+    private final LongSupplier clock;
+
+    // guarded by this
+    @CheckForNull
+    private JiraRestClient client;
+    private long lastVerified;
+    private boolean verifying;
+    private boolean closed;
+    private final List<Retired> retired = new ArrayList<>();
+
+    /**
+     * @param factory Client factory
+     * @param healthCheckIntervalSec The client is verified before use if it has not been verified for this time
+     */
+    public JiraClientProvider(@Nonnull Factory factory, long healthCheckIntervalSec) {
+        // the requests are waited for up to the timeout, see JiraHelper.wait()
+        this(factory, healthCheckIntervalSec, () -> TimeUnit.SECONDS.toMillis(2L * RuntimeConfig.current().getJiraTimeoutSec()),
+                System::currentTimeMillis);
+    }
+
+    /**
+     * @param factory Client factory
+     * @param healthCheckIntervalSec The client is verified before use if it has not been verified for this time
+     * @param retireDelayMillis Time a recreated client is kept open for the requests in flight
+     * @param clock Current time in milliseconds
+     */
+    JiraClientProvider(@Nonnull Factory factory, long healthCheckIntervalSec, @Nonnull LongSupplier retireDelayMillis,
+                       @Nonnull LongSupplier clock) {
+        this.factory = factory;
+        this.healthCheckIntervalMillis = TimeUnit.SECONDS.toMillis(healthCheckIntervalSec);
+        this.retireDelayMillis = retireDelayMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the shared client.
+     * The client must not be closed by the caller.
+     * If the client is due for the health check, the check runs in the calling thread without blocking the other callers,
+     * which get the current client meanwhile.
+     * @return Shared client
+     * @throws IOException Client creation failure or the provider has been closed
+     */
+    @Nonnull
+    public JiraRestClient get() throws IOException {
+        closeRetired(false);
+        final JiraRestClient toVerify;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("JIRA client has been already closed");
+            }
+            if (client == null) {
+                client = factory.create();
+                lastVerified = clock.getAsLong();
+                return client;
+            }
+            if (verifying || clock.getAsLong() - lastVerified <= healthCheckIntervalMillis) {
+                return client;
+            }
+            verifying = true;
+            toVerify = client;
+        }
+        boolean healthy = false;
+        try {
+            healthy = isHealthy(toVerify);
+        } finally {
+            synchronized (this) {
+                verifying = false;
+            }
+        }
+        verified(toVerify, healthy);
+        return get();
+    }
+
+    /**
+     * Reports the failure of the operation performed with the client.
+     * If the failure is not a regular error response of JIRA, the client is retired and recreated on the next use.
+     * @param failedClient Client, which has been used. May be {@code null} if the client has not been retrieved
+     * @param failure Operation failure
+     */
+    public void reportFailure(@CheckForNull JiraRestClient failedClient, @Nonnull Throwable failure) {
+        if (failedClient == null || !isConnectionFailure(failure)) {
+            return;
+        }
+        synchronized (this) {
+            if (client == failedClient) {
+                LOGGER.warn("JIRA request failed, the client will be recreated", failure);
+                retire();
+            }
+        }
+    }
+
+    /**
+     * Checks whether JIRA is reachable using the current client.
+     * The client is recreated on the next use if the check fails.
+     * @return {@code false} if the check failed or the client has not been created yet
+     */
+    public boolean isHealthy() {
+        final JiraRestClient current;
+        synchronized (this) {
+            current = client;
+        }
+        if (current == null) {
+            return false;
+        }
+        boolean healthy = isHealthy(current);
+        verified(current, healthy);
+        closeRetired(false);
+        return healthy;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            retire();
+        }
+        closeRetired(true);
+    }
+
+    /**
+     * Gets the number of the retired clients, which have not been closed yet.
+     */
+    synchronized int getRetiredCount() {
+        return retired.size();
+    }
+
+    private synchronized void verified(JiraRestClient checked, boolean healthy) {
+        if (client != checked) {
+            return;
+        }
+        if (healthy) {
+            lastVerified = clock.getAsLong();
+        } else {
+            LOGGER.warn("JIRA client health check failed, recreating the client");
+            retire();
+        }
+    }
+
+    // guarded by this
+    private void retire() {
+        if (client != null) {
+            retired.add(new Retired(client, clock.getAsLong() + retireDelayMillis.getAsLong()));
+            client = null;
+        }
+    }
+
+    /**
+     * Closes the retired clients, outside the lock as closing waits for the I/O threads.
+     * @param all {@code true} to close them all, {@code false} to close the ones with no requests in flight
+     */
+    private void closeRetired(boolean all) {
+        List<JiraRestClient> toClose = new ArrayList<>();
+        synchronized (this) {
+            long now = clock.getAsLong();
+            for (Iterator<Retired> it = retired.iterator(); it.hasNext(); ) {
+                Retired r = it.next();
+                if (all || now - r.closeAt >= 0) {
+                    toClose.add(r.client);
+                    it.remove();
+                }
+            }
+        }
+        for (JiraRestClient c : toClose) {
+            if (!JiraHelper.close(c)) {
+                LOGGER.warn("Failed to close JIRA client, possible leaked file descriptors");
+            }
+        }
+    }
+
+    private static boolean isHealthy(JiraRestClient client) {
+        try {
+            JiraHelper.wait("serverInfo", client.getMetadataClient().getServerInfo());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            LOGGER.debug("JIRA health check failed", e);
+            return false;
+        }
+    }
+
+    private static boolean isConnectionFailure(Throwable failure) {
+        if (failure instanceof TimeoutException) {
+            return true;
+        }
+        if (failure instanceof ExecutionException) {
+            Throwable cause = failure.getCause();
+            // Error responses of JIRA have the status code, the connection itself is fine then
+            return !(cause instanceof RestClientException)
+                    || !((RestClientException) cause).getStatusCode().isPresent();
+        }
+        return false;
+    }
+}
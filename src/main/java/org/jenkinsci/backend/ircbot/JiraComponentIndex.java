@@ -0,0 +1,147 @@
+package org.jenkinsci.backend.ircbot;
+
+import com.atlassian.jira.rest.client.api.JiraRestClient;
+import com.atlassian.jira.rest.client.api.domain.BasicComponent;
+import com.atlassian.jira.rest.client.api.domain.Project;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+
+/**
+ * Caches the components of JIRA projects, so that the lookup of a component by its name
+ * does not fetch the entire project each time.
+ * Entries expire after the configured time, and they should be invalidated explicitly
+ * when the bot creates, renames or deletes components.
+ * @since 2.0-SNAPSHOT
+ */
+class JiraComponentIndex {
+
+    /**
+     * If a component is missing in the index, the project is fetched again to catch components created outside of the bot.
+     * This is the minimal age of the index entry for such refresh, so that typos do not cause repeated fetches.
+     */
+    private static final long MISS_REFRESH_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final class Entry {
+        private final Map<String, BasicComponent> byName;
+        private final long loadedAt;
+
+        private Entry(Map<String, BasicComponent> byName, long loadedAt) {
+            this.byName = byName;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final class ProjectState {
+        /**
+         * Serializes the fetches of the project, the other projects are fetched independently.
+         */
+        private final Lock loading = new ReentrantLock();
+        /**
+         * Cached components, guarded by {@code this}.
+         */
+        private Entry entry;
+        /**
+         * Incremented by every invalidation, guarded by {@code this}.
+         * A fetch which has started before an invalidation may miss the change, so its result is not cached.
+         */
+        private long generation;
+
+        private synchronized Entry getEntry() {
+            return entry;
+        }
+    }
+
+    private final Map<String, ProjectState> projects = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    JiraComponentIndex(long ttlSec) {
+        this(ttlSec, System::currentTimeMillis);
+    }
+
+    JiraComponentIndex(long ttlSec, @Nonnull LongSupplier clock) {
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSec);
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the component by its name.
+     * @throws IOException The component does not exist
+     */
+    @Nonnull
+    BasicComponent get(@Nonnull JiraRestClient client, @Nonnull String projectId, @Nonnull String componentName)
+            throws ExecutionException, TimeoutException, InterruptedException, IOException {
+        ProjectState project = projects.computeIfAbsent(projectId, k -> new ProjectState());
+        Entry entry = project.getEntry();
+        if (entry == null || isOlderThan(entry, ttlMillis)) {
+            entry = load(client, projectId, project, entry);
+        }
+        BasicComponent component = entry.byName.get(componentName);
+        if (component == null && isOlderThan(entry, MISS_REFRESH_MILLIS)) {
+            entry = load(client, projectId, project, entry);
+            component = entry.byName.get(componentName);
+        }
+        if (component == null) {
+            throw new IOException("Unable to find component " + componentName + " in the " + projectId + " issue tracker");
+        }
+        return component;
+    }
+
+    /**
+     * Drops the cached components of the project, including the ones being fetched right now.
+     */
+    void invalidate(@Nonnull String projectId) {
+        ProjectState project = projects.get(projectId);
+        if (project != null) {
+            synchronized (project) {
+                project.generation++;
+                project.entry = null;
+            }
+        }
+    }
+
+    private boolean isOlderThan(Entry entry, long millis) {
+        return clock.getAsLong() - entry.loadedAt > millis;
+    }
+
+    /**
+     * Fetches the project unless another thread has already refreshed the stale entry.
+     */
+    private Entry load(JiraRestClient client, String projectId, ProjectState project, Entry stale)
+            throws ExecutionException, TimeoutException, InterruptedException {
+        project.loading.lockInterruptibly();
+        try {
+            long generation;
+            synchronized (project) {
+                if (project.entry != null && project.entry != stale) {
+                    return project.entry;
+                }
+                generation = project.generation;
+            }
+            Project fetched = JiraHelper.wait("getProject", client.getProjectClient().getProject(projectId));
+            Map<String, BasicComponent> byName = new HashMap<>();
+            for (BasicComponent component : fetched.getComponents()) {
+                byName.put(component.getName(), component);
+            }
+            Entry entry = new Entry(Collections.unmodifiableMap(byName), clock.getAsLong());
+            synchronized (project) {
+                if (project.generation == generation) {
+                    project.entry = entry;
+                }
+            }
+            return entry;
+        } finally {
+            project.loading.unlock();
+        }
+    }
+}
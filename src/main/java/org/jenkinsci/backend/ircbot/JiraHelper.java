@@ -28,10 +28,17 @@ import com.atlassian.jira.rest.client.api.domain.BasicComponent;
 import com.atlassian.jira.rest.client.api.domain.Component;
 import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.atlassian.jira.rest.client.api.domain.IssueField;
-import com.atlassian.jira.rest.client.api.domain.Project;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
 import com.atlassian.jira.rest.client.api.domain.Transition;
 import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientFactory;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -51,6 +58,47 @@ import org.jenkinsci.backend.ircbot.util.ConnectionInfo;
  */
 public class JiraHelper {
 
+    private static final JiraClientProvider CLIENT_PROVIDER =
+            new JiraClientProvider(JiraHelper::createJiraClient, IrcBotConfig.JIRA_HEALTH_CHECK_INTERVAL_SEC);
+
+    /**
+     * Fields retrieved by the issue searches.
+     * Only the summary and the status are rendered, the rest is required by the client to parse the issues.
+     */
+    private static final Set<String> SUMMARY_FIELDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "summary", "status", "issuetype", "created", "updated", "project")));
+
+    private static final JiraComponentIndex COMPONENT_INDEX = new JiraComponentIndex(IrcBotConfig.JIRA_COMPONENT_CACHE_TTL_SEC);
+
+    /**
+     * Gets the JIRA client shared by all commands.
+     * The client must not be closed by the caller, report failures via {@link #reportFailure(JiraRestClient, Throwable)} instead.
+     * @return Shared client with configured authentication settings.
+     * @throws IOException Client creation failure
+     */
+    @Nonnull
+    static JiraRestClient getClient() throws IOException {
+        return CLIENT_PROVIDER.get();
+    }
+
+    /**
+     * Reports the failure of the operation, so that the shared client gets recreated after connection issues.
+     * @param client Client, which has been used. {@code null} if it has not been retrieved
+     * @param failure Failure
+     */
+    static void reportFailure(@CheckForNull JiraRestClient client, @Nonnull Throwable failure) {
+        CLIENT_PROVIDER.reportFailure(client, failure);
+    }
+
+    /**
+     * Gets the provider of the shared JIRA client.
+     * It should be closed on shutdown.
+     */
+    @Nonnull
+    static JiraClientProvider getClientProvider() {
+        return CLIENT_PROVIDER;
+    }
+
     /**
      * Creates JIRA client using settings from {@link ConnectionInfo} and {@link IrcBotConfig}.
      * @return Created client with configured authentication settings.
@@ -71,12 +119,37 @@ public class JiraHelper {
      * @return Operation result
      * @throws InterruptedException Operation interrupted externally
      * @throws ExecutionException Execution failure
-     * @throws TimeoutException Timeout (configured by {@link IrcBotConfig#JIRA_TIMEOUT_SEC}) 
+     * @throws TimeoutException Timeout (configured by {@link RuntimeConfig#getJiraTimeoutSec()}) 
      */
     @Nonnull
     static <T> T wait(Promise<T> promise)
             throws InterruptedException, ExecutionException, TimeoutException {
-        return promise.get(IrcBotConfig.JIRA_TIMEOUT_SEC, TimeUnit.SECONDS);
+        return wait("request", promise);
+    }
+
+    /**
+     * Waits till the completion of the synchronized command, and records its duration in {@link BotMetrics}.
+     * @param <T> Type of the promise
+     * @param operation Kind of the operation reported in the metrics
+     * @param promise Ongoing operation
+     * @return Operation result
+     * @throws InterruptedException Operation interrupted externally
+     * @throws ExecutionException Execution failure
+     * @throws TimeoutException Timeout (configured by {@link RuntimeConfig#getJiraTimeoutSec()})
+     */
+    @Nonnull
+    static <T> T wait(String operation, Promise<T> promise)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        final BotMetrics metrics = BotMetrics.get();
+        final long start = metrics.remoteCallStarted(BotMetrics.JIRA);
+        boolean success = false;
+        try {
+            T result = promise.get(RuntimeConfig.current().getJiraTimeoutSec(), TimeUnit.SECONDS);
+            success = true;
+            return result;
+        } finally {
+            metrics.remoteCallCompleted(BotMetrics.JIRA, operation, start, success);
+        }
     }
     
     static boolean close(JiraRestClient client) {
@@ -90,23 +163,29 @@ public class JiraHelper {
         return true;
     }
 
+    /**
+     * Gets the component by its name.
+     * Components are looked up in the cached index of the project, see {@link #invalidateComponents(String)}.
+     */
     @Nonnull
     static BasicComponent getBasicComponent(JiraRestClient client, String projectId, String componentName) 
             throws ExecutionException, TimeoutException, InterruptedException, IOException {
-        Project project = wait(client.getProjectClient().getProject(projectId));
-        for (BasicComponent component : project.getComponents()) {
-            if (component.getName().equals(componentName)) {
-                return component;
-            }
-        }
-        throw new IOException("Unable to find component " + componentName + " in the " + projectId + " issue tracker");
+        return COMPONENT_INDEX.get(client, projectId, componentName);
+    }
+
+    /**
+     * Drops the cached components of the project.
+     * Should be called after the components have been created, renamed or deleted.
+     */
+    static void invalidateComponents(String projectId) {
+        COMPONENT_INDEX.invalidate(projectId);
     }
     
     @Nonnull
     static Component getComponent(JiraRestClient client, String projectName, String componentName) 
             throws ExecutionException, TimeoutException, InterruptedException, IOException {
         BasicComponent bc = getBasicComponent(client, projectName, componentName);
-        return wait(client.getComponentClient().getComponent(bc.getSelf()));
+        return wait("getComponent", client.getComponentClient().getComponent(bc.getSelf()));
     }
     
     /**
@@ -115,16 +194,57 @@ public class JiraHelper {
      * @return Summary string for the issue
      * @throws IOException Operation failure
      * @throws InterruptedException Operation has been interrupted
-     * @throws TimeoutException Timeout violation. See {@link IrcBotConfig#JIRA_TIMEOUT_SEC}.
+     * @throws TimeoutException Timeout violation. See {@link RuntimeConfig#getJiraTimeoutSec()}.
      */
     static String getSummary(String ticket) throws IOException, ExecutionException, TimeoutException, InterruptedException {
-        String result;
-        JiraRestClient client = createJiraClient();
-        Issue issue = client.getIssueClient().getIssue(ticket).get(IrcBotConfig.JIRA_TIMEOUT_SEC, TimeUnit.SECONDS);
-        result = String.format("%s:%s (%s) %s",
+        JiraRestClient client = getClient();
+        try {
+            Issue issue = wait("getIssue", client.getIssueClient().getIssue(ticket));
+            return formatSummary(issue, ticket);
+        } catch (ExecutionException | TimeoutException e) {
+            reportFailure(client, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets summary strings of several issues with a single search.
+     * Only the fields needed for the summary are retrieved.
+     * @param tickets Tickets to be retrieved
+     * @return Summary strings by the requested ticket keys.
+     *         Moved issues are reported under their new keys, so they may be missing in the result.
+     * @throws IOException Client creation failure
+     * @throws InterruptedException Operation has been interrupted
+     * @throws ExecutionException Operation failure, e.g. one of the issues does not exist
+     * @throws TimeoutException Timeout violation. See {@link RuntimeConfig#getJiraTimeoutSec()}.
+     */
+    static Map<String, String> getSummaries(Collection<String> tickets) throws IOException, ExecutionException, TimeoutException, InterruptedException {
+        StringBuilder jql = new StringBuilder("key in (");
+        for (String ticket : tickets) {
+            if (jql.charAt(jql.length() - 1) != '(') {
+                jql.append(',');
+            }
+            jql.append('"').append(ticket.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        jql.append(')');
+
+        JiraRestClient client = getClient();
+        try {
+            SearchResult result = wait("search", client.getSearchClient().searchJql(jql.toString(), tickets.size(), 0, SUMMARY_FIELDS));
+            Map<String, String> summaries = new HashMap<>();
+            for (Issue issue : result.getIssues()) {
+                summaries.put(issue.getKey(), formatSummary(issue, issue.getKey()));
+            }
+            return summaries;
+        } catch (ExecutionException | TimeoutException e) {
+            reportFailure(client, e);
+            throw e;
+        }
+    }
+
+    private static String formatSummary(Issue issue, String ticket) {
+        return String.format("%s:%s (%s) %s",
                 issue.getKey(), issue.getSummary(), issue.getStatus().getName(),
                 IrcBotConfig.JIRA_URL + "/browse/" + ticket);
-        close(client);
-        return result;
     }
 }
@@ -0,0 +1,67 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Matches nicks against a list of names and prefixes, for example the other bots in the channels.
+ * The list is parsed once, names are compared with the {@code rfc1459} casemapping.
+ * @since 2.0-SNAPSHOT
+ */
+public final class NickMatcher {
+
+    private static final Pattern SEPARATOR = Pattern.compile("\\s*,\\s*");
+
+    private final Set<String> names;
+    private final String[] prefixes;
+
+    private NickMatcher(Set<String> names, String[] prefixes) {
+        this.names = names;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * Parses a comma-separated list of nicks.
+     * Entries ending with {@code *} match all nicks starting with the rest of the entry.
+     */
+    @Nonnull
+    public static NickMatcher parse(@CheckForNull String list) {
+        Set<String> names = new HashSet<>();
+        List<String> prefixes = new ArrayList<>();
+        if (list != null) {
+            for (String entry : SEPARATOR.split(list.trim())) {
+                if (entry.isEmpty()) {
+                    continue;
+                }
+                String normalized = ChannelAllowList.normalize(entry);
+                if (normalized.endsWith("*")) {
+                    prefixes.add(normalized.substring(0, normalized.length() - 1));
+                } else {
+                    names.add(normalized);
+                }
+            }
+        }
+        return new NickMatcher(names, prefixes.toArray(new String[0]));
+    }
+
+    /**
+     * Checks whether the nick is in the list.
+     */
+    public boolean matches(@Nonnull String nick) {
+        String normalized = ChannelAllowList.normalize(nick);
+        if (names.contains(normalized)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (normalized.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,318 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.backend.ircbot.util.TokenBucket;
+import org.pircbotx.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the channel messages of the bot without exceeding the flood limits of the server.
+ *
+ * Messages are queued and sent by a background thread at the rate given by a token bucket,
+ * see {@link RuntimeConfig#getOutboundBurst()} and {@link RuntimeConfig#getOutboundIntervalMs()}.
+ * Consecutive messages to the same channel are merged into a single line as long as it fits
+ * into {@link IrcBotConfig#OUTBOUND_MAX_LINE_BYTES}, so that batch commands need only a few lines,
+ * and longer messages are split into several lines.
+ * Acknowledgements and the channel commands, like kicks and voice changes, go ahead of the bulk output.
+ *
+ * The lines bypass the message delay of PircBotX, otherwise it would allow one line per second regardless of the burst,
+ * so every line the bot sends to a channel goes through the scheduler.
+ * @since 2.0-SNAPSHOT
+ */
+public class OutboundScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboundScheduler.class);
+
+    /**
+     * Separates the merged messages.
+     */
+    static final String SEPARATOR = " | ";
+
+    /**
+     * Sends a raw IRC line concerning the channel.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void send(@Nonnull Channel channel, @Nonnull String line);
+    }
+
+    private static final class Line {
+        private final Channel channel;
+        private final String text;
+        /**
+         * {@code true} if the text is a complete IRC line, which is never merged with the others.
+         */
+        private final boolean raw;
+
+        private Line(Channel channel, String text, boolean raw) {
+            this.channel = channel;
+            this.text = text;
+            this.raw = raw;
+        }
+    }
+
+    private final Sink sink;
+    private volatile TokenBucket bucket;
+    private final int maxLineBytes;
+    private final int maxQueued;
+
+    // guarded by this
+    private final Deque<Line> acks = new ArrayDeque<>();
+    private final Deque<Line> bulk = new ArrayDeque<>();
+    private long enqueued;
+    private long processed;
+    private long dropped;
+
+    private final Thread sender;
+    private volatile boolean closed;
+
+    /**
+     * Creates the scheduler with the limits configured in {@link RuntimeConfig} and {@link IrcBotConfig}.
+     */
+    public OutboundScheduler() {
+        this((channel, line) -> channel.getBot().sendRaw().rawLineNow(line),
+                new TokenBucket(RuntimeConfig.current().getOutboundBurst(), RuntimeConfig.current().getOutboundIntervalMs(), TimeUnit.MILLISECONDS),
+                IrcBotConfig.OUTBOUND_MAX_LINE_BYTES, IrcBotConfig.OUTBOUND_MAX_QUEUED, true);
+    }
+
+    /**
+     * @param sink Sends the lines
+     * @param bucket Rate limit of the lines
+     * @param maxLineBytes Maximum length of the merged lines in bytes
+     * @param maxQueued Maximum number of queued messages, further messages are dropped
+     * @param start Start the background sender. If {@code false}, lines are sent by {@link #sendNext()} only.
+     */
+    OutboundScheduler(@Nonnull Sink sink, @Nonnull TokenBucket bucket, int maxLineBytes, int maxQueued, boolean start) {
+        this.sink = sink;
+        this.bucket = bucket;
+        this.maxLineBytes = maxLineBytes;
+        this.maxQueued = maxQueued;
+        if (start) {
+            sender = new Thread(this::run, "ircbot-outbound");
+            sender.setDaemon(true);
+            sender.start();
+        } else {
+            sender = null;
+        }
+    }
+
+    /**
+     * Gets the output to the channel.
+     */
+    @Nonnull
+    public ChannelOutput to(@Nonnull Channel channel) {
+        return new ChannelOutput(this, channel);
+    }
+
+    void enqueue(@Nonnull Channel channel, @Nonnull String message, boolean ack) {
+        List<Line> lines = new ArrayList<>();
+        for (String line : split(message, maxLineBytes)) {
+            lines.add(new Line(channel, line, false));
+        }
+        enqueue(lines, ack ? acks : bulk);
+    }
+
+    void enqueueRaw(@Nonnull Channel channel, @Nonnull String line) {
+        enqueue(Collections.singletonList(new Line(channel, line, true)), acks);
+    }
+
+    private void enqueue(List<Line> lines, Deque<Line> queue) {
+        long total;
+        synchronized (this) {
+            if (!closed && acks.size() + bulk.size() + lines.size() <= maxQueued) {
+                queue.addAll(lines);
+                enqueued += lines.size();
+                notifyAll();
+                return;
+            }
+            total = ++dropped;
+        }
+        if (total == 1 || total % 100 == 0) {
+            LOGGER.warn("Outbound queue is full or closed, dropped {} messages so far", total);
+        }
+    }
+
+    /**
+     * Replaces the rate limit, e.g. after a configuration change.
+     * The new limit starts with a full burst.
+     */
+    public void setRate(int burst, long interval, @Nonnull TimeUnit unit) {
+        bucket = new TokenBucket(burst, interval, unit);
+    }
+
+    /**
+     * Gets the number of messages waiting to be sent.
+     */
+    public synchronized int getQueuedCount() {
+        return acks.size() + bulk.size();
+    }
+
+    /**
+     * Gets the number of messages dropped because the queue was full.
+     */
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * Waits until the messages queued so far are sent.
+     * @return {@code false} if the timeout expired first
+     */
+    public boolean flush(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this) {
+            long target = enqueued;
+            while (processed < target) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0 || sender == null || !sender.isAlive()) {
+                    return false;
+                }
+                wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the sender, messages which have not been sent yet are discarded.
+     */
+    public void close() {
+        closed = true;
+        if (sender != null) {
+            sender.interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                synchronized (this) {
+                    while (acks.isEmpty() && bulk.isEmpty()) {
+                        wait();
+                    }
+                }
+                TokenBucket limit = bucket;
+                long delay;
+                while ((delay = limit.nanosUntilAvailable()) > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                if (limit.tryAcquire()) {
+                    sendNext();
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    /**
+     * Sends the next line, which merges the consecutive messages to the same channel from the head of the queue.
+     * Acknowledgements are sent first.
+     * @return {@code false} if there is nothing to send
+     */
+    boolean sendNext() {
+        Channel channel;
+        String line;
+        int count = 1;
+        synchronized (this) {
+            Deque<Line> queue = !acks.isEmpty() ? acks : bulk;
+            Line first = queue.poll();
+            if (first == null) {
+                return false;
+            }
+            channel = first.channel;
+            StringBuilder merged = new StringBuilder(first.text);
+            int bytes = utf8Length(first.text);
+            Line next;
+            while (!first.raw && (next = queue.peek()) != null && !next.raw && next.channel.getName().equals(channel.getName())) {
+                int length = bytes + SEPARATOR.length() + utf8Length(next.text);
+                if (length > maxLineBytes) {
+                    break;
+                }
+                merged.append(SEPARATOR).append(next.text);
+                bytes = length;
+                queue.poll();
+                count++;
+            }
+            line = first.raw ? first.text : "PRIVMSG " + channel.getName() + " :" + merged;
+        }
+
+        try {
+            sink.send(channel, line);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to send a message to {}", channel.getName(), e);
+        }
+
+        synchronized (this) {
+            processed += count;
+            notifyAll();
+        }
+        return true;
+    }
+
+    /**
+     * Splits the message into lines which fit into the limit, at the last space if there is one.
+     */
+    static List<String> split(@Nonnull String message, int maxBytes) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        while (utf8Length(message.substring(start)) > maxBytes) {
+            int end = start;
+            int bytes = 0;
+            int lastSpace = -1;
+            while (true) {
+                int c = message.codePointAt(end);
+                int length = utf8Length(new String(Character.toChars(c)));
+                if (bytes + length > maxBytes) {
+                    break;
+                }
+                if (c == ' ') {
+                    lastSpace = end;
+                }
+                bytes += length;
+                end += Character.charCount(c);
+            }
+            if (lastSpace > start) {
+                end = lastSpace;
+            } else if (end == start) {
+                // a limit shorter than a character, send it on its own
+                end += Character.charCount(message.codePointAt(start));
+            }
+            lines.add(message.substring(start, end));
+            start = end;
+            while (start < message.length() && message.charAt(start) == ' ') {
+                start++;
+            }
+        }
+        if (start < message.length() || lines.isEmpty()) {
+            lines.add(message.substring(start));
+        }
+        return lines;
+    }
+
+    private static int utf8Length(String s) {
+        int bytes = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
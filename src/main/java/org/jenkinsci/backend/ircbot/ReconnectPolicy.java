@@ -0,0 +1,79 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.backend.ircbot.util.Backoff;
+import org.pircbotx.delay.Delay;
+
+/**
+ * Delays between the reconnections to the IRC server, which grow exponentially with a random part.
+ *
+ * The bot reconnects shortly after the connection is lost, so a netsplit costs seconds rather than minutes,
+ * while a server which is down is not hammered and the bots disconnected at once do not reconnect at once.
+ * The delays start over once the bot has connected, see {@link #connected()}.
+ *
+ * PircBotX reads the delay a few times before it sleeps, so the failed attempt is counted by the first read
+ * and the reads until the sleep is half over return the same delay.
+ * @since 2.0-SNAPSHOT
+ */
+public class ReconnectPolicy implements Delay {
+
+    private final Backoff backoff;
+    private final LongSupplier clock;
+
+    // guarded by this
+    private int failedAttempts;
+    private long delayMillis;
+    private long delayReadAt;
+
+    /**
+     * @param backoff Delays by the number of the failed attempts
+     * @param clock Current time in milliseconds
+     */
+    public ReconnectPolicy(@Nonnull Backoff backoff, @Nonnull LongSupplier clock) {
+        this.backoff = backoff;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates the policy configured by {@link IrcBotConfig#RECONNECT_INITIAL_DELAY_MS} and the related properties.
+     */
+    @Nonnull
+    public static ReconnectPolicy createDefault() {
+        return new ReconnectPolicy(new Backoff(IrcBotConfig.RECONNECT_ATTEMPTS, IrcBotConfig.RECONNECT_INITIAL_DELAY_MS,
+                IrcBotConfig.RECONNECT_MAX_DELAY_MS, TimeUnit.MILLISECONDS, IrcBotConfig.RECONNECT_JITTER_PERCENT / 100.0),
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Gets the number of the failed connection attempts in a row, after which PircBotX stops reconnecting.
+     */
+    public int getMaxAttempts() {
+        return backoff.getMaxAttempts();
+    }
+
+    /**
+     * Gets the delay before the next connection attempt.
+     * @return Delay in milliseconds
+     */
+    @Override
+    public synchronized long getDelay() {
+        long now = clock.getAsLong();
+        if (failedAttempts == 0 || now - delayReadAt > delayMillis / 2) {
+            failedAttempts++;
+            // the attempt after the first failure is the second one
+            delayMillis = backoff.nextDelayMillis(failedAttempts + 1);
+        }
+        delayReadAt = now;
+        return delayMillis;
+    }
+
+    /**
+     * Records that the bot has connected, the next reconnection starts with the initial delay.
+     */
+    public synchronized void connected() {
+        failedAttempts = 0;
+    }
+}
@@ -0,0 +1,152 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Settings of the bot which can be changed without reconnecting, see {@link RuntimeConfigManager}.
+ *
+ * The snapshot is immutable. The values come from the configuration file ({@link IrcBotConfig#CONFIG_FILE}),
+ * which uses the same keys as the system properties, e.g. {@code ircbot.jira.requestTimeout=60}.
+ * Settings missing in the file keep the values of {@link IrcBotConfig}.
+ * @since 2.0-SNAPSHOT
+ */
+public final class RuntimeConfig {
+
+    private static final String PREFIX = "ircbot.";
+
+    private final ChannelAllowList channels;
+    private final NickMatcher ignoredNicks;
+    private final Set<String> issueProjects;
+    private final String jiraDefaultProject;
+    private final int jiraTimeoutSec;
+    private final String gitHubOrganization;
+    private final int outboundBurst;
+    private final int outboundIntervalMs;
+
+    private RuntimeConfig(@Nonnull Properties props) throws IOException {
+        this.channels = IrcBotConfig.CHANNELS_FILE != null || props.getProperty(PREFIX + "channels") == null
+                ? IrcBotConfig.loadChannels()
+                : ChannelAllowList.parse(props.getProperty(PREFIX + "channels"), IrcBotConfig.CHANNELS_LIST);
+        this.ignoredNicks = NickMatcher.parse(props.getProperty(PREFIX + "ignoredNicks", IrcBotConfig.IGNORED_NICKS));
+        this.issueProjects = Collections.unmodifiableSet(IrcBotConfig.parseList(
+                props.getProperty(PREFIX + "jira.issueProjects", IrcBotConfig.JIRA_ISSUE_PROJECTS)));
+        this.jiraDefaultProject = props.getProperty(PREFIX + "jira.defaultProject", IrcBotConfig.JIRA_DEFAULT_PROJECT);
+        this.jiraTimeoutSec = getInt(props, "jira.requestTimeout", IrcBotConfig.JIRA_TIMEOUT_SEC);
+        this.gitHubOrganization = props.getProperty(PREFIX + "github.organization", IrcBotConfig.GITHUB_ORGANIZATION);
+        this.outboundBurst = getInt(props, "outbound.burst", IrcBotConfig.OUTBOUND_BURST);
+        this.outboundIntervalMs = getInt(props, "outbound.interval", IrcBotConfig.OUTBOUND_INTERVAL_MS);
+    }
+
+    /**
+     * Loads the configuration.
+     * @param file Configuration file. If {@code null} or missing, the settings of {@link IrcBotConfig} are used.
+     * @throws IOException The file or the channel list cannot be read, or a value is invalid
+     */
+    @Nonnull
+    public static RuntimeConfig load(@CheckForNull File file) throws IOException {
+        Properties props = new Properties();
+        if (file != null && file.exists()) {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                props.load(in);
+            }
+        }
+        return new RuntimeConfig(props);
+    }
+
+    /**
+     * Gets the current configuration of the bot.
+     */
+    @Nonnull
+    public static RuntimeConfig current() {
+        return RuntimeConfigManager.getDefault().get();
+    }
+
+    private static int getInt(Properties props, String key, int defaultValue) throws IOException {
+        String value = props.getProperty(PREFIX + key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid value of " + PREFIX + key + ": " + value, e);
+        }
+    }
+
+    /**
+     * Channels the bot joins and answers in.
+     */
+    @Nonnull
+    public ChannelAllowList getChannels() {
+        return channels;
+    }
+
+    /**
+     * Nicks whose messages are ignored.
+     */
+    @Nonnull
+    public NickMatcher getIgnoredNicks() {
+        return ignoredNicks;
+    }
+
+    /**
+     * Keys of the JIRA projects whose issues are recognized in the channel messages.
+     */
+    @Nonnull
+    public Set<String> getIssueProjects() {
+        return issueProjects;
+    }
+
+    /**
+     * JIRA project, which components are managed by the bot.
+     */
+    @Nonnull
+    public String getJiraDefaultProject() {
+        return jiraDefaultProject;
+    }
+
+    /**
+     * Timeout of the JIRA requests in seconds.
+     */
+    public int getJiraTimeoutSec() {
+        return jiraTimeoutSec;
+    }
+
+    /**
+     * GitHub organization managed by the bot.
+     */
+    @Nonnull
+    public String getGitHubOrganization() {
+        return gitHubOrganization;
+    }
+
+    /**
+     * Number of lines the bot may send at once.
+     */
+    public int getOutboundBurst() {
+        return outboundBurst;
+    }
+
+    /**
+     * Sustained rate of the outbound lines: one line per this interval in milliseconds.
+     */
+    public int getOutboundIntervalMs() {
+        return outboundIntervalMs;
+    }
+
+    @Override
+    public String toString() {
+        return "channels=" + channels + ", jira.defaultProject=" + jiraDefaultProject
+                + ", jira.requestTimeout=" + jiraTimeoutSec + ", jira.issueProjects=" + String.join(",", issueProjects)
+                + ", github.organization=" + gitHubOrganization
+                + ", outbound=" + outboundBurst + "/" + outboundIntervalMs + "ms";
+    }
+}
@@ -0,0 +1,200 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the current {@link RuntimeConfig} and replaces it when the configuration file is reloaded.
+ *
+ * The configuration is swapped atomically, readers get either the previous or the new snapshot.
+ * Components depending on the settings register a {@link Listener} to rebuild their caches and clients.
+ * If the file cannot be read, the previous configuration stays in effect.
+ * @since 2.0-SNAPSHOT
+ */
+public class RuntimeConfigManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RuntimeConfigManager.class);
+
+    /**
+     * The file is reloaded once it has not been modified for this time.
+     */
+    private static final long SETTLE_MILLIS = 500;
+
+    /**
+     * Gets notified about the configuration changes.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called after the new configuration has been installed.
+         * @param previous Replaced configuration
+         * @param current New configuration
+         */
+        void onChange(@Nonnull RuntimeConfig previous, @Nonnull RuntimeConfig current);
+    }
+
+    private static final class DefaultHolder {
+        private static final RuntimeConfigManager INSTANCE = createDefault();
+    }
+
+    @CheckForNull
+    private final File file;
+    private final AtomicReference<RuntimeConfig> config;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @CheckForNull
+    private WatchService watchService;
+
+    /**
+     * @param file Configuration file, {@code null} if there is none
+     * @throws IOException The initial configuration cannot be loaded
+     */
+    public RuntimeConfigManager(@CheckForNull File file) throws IOException {
+        this.file = file;
+        this.config = new AtomicReference<>(RuntimeConfig.load(file));
+    }
+
+    /**
+     * Gets the manager of the configuration file set by {@link IrcBotConfig#CONFIG_FILE}.
+     */
+    @Nonnull
+    public static RuntimeConfigManager getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static RuntimeConfigManager createDefault() {
+        try {
+            RuntimeConfigManager manager = new RuntimeConfigManager(
+                    IrcBotConfig.CONFIG_FILE != null ? new File(IrcBotConfig.CONFIG_FILE) : null);
+            if (IrcBotConfig.CONFIG_WATCH) {
+                manager.watch();
+            }
+            return manager;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load the configuration", e);
+        }
+    }
+
+    /**
+     * Gets the current configuration.
+     */
+    @Nonnull
+    public RuntimeConfig get() {
+        return config.get();
+    }
+
+    public void addListener(@Nonnull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@Nonnull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads the configuration again and notifies the listeners.
+     * @return New configuration
+     * @throws IOException The configuration cannot be read, the previous one stays in effect
+     */
+    @Nonnull
+    public synchronized RuntimeConfig reload() throws IOException {
+        RuntimeConfig loaded = RuntimeConfig.load(file);
+        RuntimeConfig previous = config.getAndSet(loaded);
+        LOGGER.info("Configuration reloaded: {}", loaded);
+        for (Listener listener : listeners) {
+            try {
+                listener.onChange(previous, loaded);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to apply the configuration change", e);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Starts reloading the configuration when the file is modified.
+     * Does nothing if there is no configuration file.
+     * @throws IOException The file cannot be watched
+     */
+    public synchronized void watch() throws IOException {
+        if (file == null || watchService != null) {
+            return;
+        }
+        Path path = file.getAbsoluteFile().toPath();
+        Path dir = path.getParent();
+        WatchService service = FileSystems.getDefault().newWatchService();
+        dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watchService = service;
+
+        Thread watcher = new Thread(() -> watch(service, dir, path.getFileName()), "ircbot-config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        LOGGER.info("Watching {} for configuration changes", path);
+    }
+
+    private void watch(WatchService service, Path dir, Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = isChanged(key, fileName);
+                // Editors and deployment tools write the file in several steps, wait until it settles
+                while (key.reset() && changed && (key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    isChanged(key, fileName);
+                }
+                if (key != null && !key.isValid()) {
+                    LOGGER.warn("{} is no longer watched", dir);
+                    return;
+                }
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IOException e) {
+                        LOGGER.warn("Failed to reload the configuration from {}, keeping the previous one", dir.resolve(fileName), e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+
+    private static boolean isChanged(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Stops watching the configuration file.
+     */
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to stop watching the configuration", e);
+            }
+            watchService = null;
+        }
+    }
+}
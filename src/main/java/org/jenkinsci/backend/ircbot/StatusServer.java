@@ -0,0 +1,137 @@
+package org.jenkinsci.backend.ircbot;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP endpoint of the bot, see {@link IrcBotConfig#HTTP_PORT}.
+ * It serves the metrics in the Prometheus text format on {@code /metrics},
+ * and the liveness and readiness of the bot on {@code /health} and {@code /ready}, see {@link BotHealth}.
+ * When the bot serves several networks, it is alive and ready if it is so in every network.
+ * @since 2.0-SNAPSHOT
+ */
+public class StatusServer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatusServer.class);
+
+    static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // guarded by itself
+    private final Map<String, BotHealth> healths = new LinkedHashMap<>();
+
+    /**
+     * Creates the server, it does not accept connections until {@link #start()}.
+     * @param port Port to listen on, {@code 0} picks a free port
+     * @param metrics Exposed metrics
+     * @throws IOException The port cannot be bound
+     */
+    public StatusServer(int port, @Nonnull BotMetrics metrics) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ircbot-http");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", exchange -> respond(exchange, 200, PROMETHEUS_CONTENT_TYPE, metrics.scrape()));
+    }
+
+    /**
+     * Adds the {@code /health} and {@code /ready} endpoints.
+     * They respond with {@code 503} if the bot is not alive or not ready respectively.
+     */
+    public void addHealth(@Nonnull BotHealth health) {
+        addHealth(IrcNetwork.DEFAULT_NAME, health);
+    }
+
+    /**
+     * Adds the health of a network to the {@code /health} and {@code /ready} endpoints.
+     * With several networks, the endpoints report the state of every network in the {@code networks} object.
+     */
+    public void addHealth(@Nonnull String network, @Nonnull BotHealth health) {
+        synchronized (healths) {
+            if (healths.isEmpty()) {
+                server.createContext("/health", exchange -> respondHealth(exchange, BotHealth::isAlive));
+                server.createContext("/ready", exchange -> respondHealth(exchange, BotHealth::isReady));
+            }
+            healths.put(network, health);
+        }
+    }
+
+    private void respondHealth(HttpExchange exchange, Predicate<BotHealth> check) throws IOException {
+        Map<String, BotHealth> current;
+        synchronized (healths) {
+            current = new LinkedHashMap<>(healths);
+        }
+        if (current.size() == 1) {
+            BotHealth health = current.values().iterator().next();
+            respond(exchange, check.test(health) ? 200 : 503, JSON_CONTENT_TYPE, health.toJson());
+            return;
+        }
+        boolean alive = current.values().stream().allMatch(BotHealth::isAlive);
+        boolean ready = current.values().stream().allMatch(BotHealth::isReady);
+        StringBuilder json = new StringBuilder("{\"alive\":").append(alive).append(",\"ready\":").append(ready).append(",\"networks\":{");
+        boolean first = true;
+        for (Map.Entry<String, BotHealth> entry : current.entrySet()) {
+            // network names are restricted to characters which need no escaping, see IrcNetwork
+            json.append(first ? "" : ",").append('"').append(entry.getKey()).append("\":").append(entry.getValue().toJson());
+            first = false;
+        }
+        json.append("}}");
+        respond(exchange, current.values().stream().allMatch(check) ? 200 : 503, JSON_CONTENT_TYPE, json.toString());
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("Serving metrics and health on port {}", getPort());
+    }
+
+    /**
+     * Gets the port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
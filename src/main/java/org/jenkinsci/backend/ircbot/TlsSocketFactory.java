@@ -0,0 +1,117 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import javax.annotation.Nonnull;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Creates the TLS connections to the IRC servers.
+ *
+ * All the connections use one {@link SSLContext}, so its session cache survives the reconnections
+ * and the bot resumes the previous TLS session instead of a full handshake after a netsplit.
+ * Unlike {@link SSLSocketFactory#getDefault()}, the server certificate is checked to match the host name.
+ * @since 2.0-SNAPSHOT
+ */
+public class TlsSocketFactory extends SSLSocketFactory {
+
+    private static final int SESSION_CACHE_SIZE = 64;
+
+    private static final class DefaultHolder {
+        static final TlsSocketFactory INSTANCE = create(IrcBotConfig.TLS_SESSION_TIMEOUT_SEC);
+    }
+
+    private final SSLContext context;
+    private final SSLSocketFactory delegate;
+
+    public TlsSocketFactory(@Nonnull SSLContext context, int sessionTimeoutSec) {
+        this.context = context;
+        this.delegate = context.getSocketFactory();
+        SSLSessionContext sessions = context.getClientSessionContext();
+        sessions.setSessionCacheSize(SESSION_CACHE_SIZE);
+        sessions.setSessionTimeout(sessionTimeoutSec);
+    }
+
+    /**
+     * Gets the factory shared by the networks, see {@link IrcBotConfig#TLS_SESSION_TIMEOUT_SEC}.
+     */
+    @Nonnull
+    public static TlsSocketFactory getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static TlsSocketFactory create(int sessionTimeoutSec) {
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, null, null);
+            return new TlsSocketFactory(context, sessionTimeoutSec);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("TLS is not available", e);
+        }
+    }
+
+    /**
+     * Gets the sessions which can be resumed.
+     */
+    @Nonnull
+    public SSLSessionContext getSessions() {
+        return context.getClientSessionContext();
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+        return delegate.getDefaultCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return delegate.getSupportedCipherSuites();
+    }
+
+    @Override
+    public Socket createSocket() throws IOException {
+        return configure(delegate.createSocket());
+    }
+
+    @Override
+    public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+        return configure(delegate.createSocket(socket, host, port, autoClose));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        return configure(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        return configure(delegate.createSocket(host, port, localHost, localPort));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        return configure(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+        return configure(delegate.createSocket(address, port, localAddress, localPort));
+    }
+
+    /**
+     * Enables the host name verification, the handshake starts with the first read or write, so it is not too late.
+     */
+    private static Socket configure(Socket socket) {
+        SSLSocket tls = (SSLSocket) socket;
+        SSLParameters parameters = tls.getSSLParameters();
+        parameters.setEndpointIdentificationAlgorithm("HTTPS");
+        tls.setSSLParameters(parameters);
+        return tls;
+    }
+}
@@ -0,0 +1,231 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of the commands the bot did not understand.
+ * We use it to decide which commands should be added next.
+ *
+ * Records are queued and written in batches by a background thread, so that the IRC event processing never waits for the disk.
+ * Each record is a line of tab-separated timestamp, channel, sender and command.
+ * Once the file grows over the size limit, it is rotated to {@code <name>.1}, {@code <name>.2}, etc.
+ * If the queue is full, records are dropped.
+ * @since 2.0-SNAPSHOT
+ */
+public class UnknownCommandJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnknownCommandJournal.class);
+
+    private static final int MAX_BATCH = 256;
+
+    @CheckForNull
+    private final File file;
+    private final long maxBytes;
+    private final int backups;
+    private final BlockingQueue<String> queue;
+
+    /**
+     * Number of records accepted to the queue.
+     */
+    private final AtomicLong accepted = new AtomicLong();
+    /**
+     * Number of records processed by the writer, guarded by {@code this}.
+     */
+    private long processed;
+    private final AtomicLong dropped = new AtomicLong();
+
+    @CheckForNull
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Creates the journal with the limits configured in {@link IrcBotConfig}.
+     * @param file Journal file. If {@code null}, the journal is disabled.
+     */
+    public UnknownCommandJournal(@CheckForNull File file) {
+        this(file, IrcBotConfig.UNKNOWN_COMMANDS_QUEUE_SIZE, IrcBotConfig.UNKNOWN_COMMANDS_MAX_SIZE_KB * 1024L,
+                IrcBotConfig.UNKNOWN_COMMANDS_BACKUPS);
+    }
+
+    /**
+     * @param file Journal file. If {@code null}, the journal is disabled.
+     * @param queueSize Maximum number of records waiting to be written
+     * @param maxBytes Size of the file which triggers the rotation
+     * @param backups Number of rotated files to be kept
+     */
+    public UnknownCommandJournal(@CheckForNull File file, int queueSize, long maxBytes, int backups) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.backups = backups;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        if (file != null) {
+            writer = new Thread(this::run, "ircbot-unknown-commands");
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            writer = null;
+        }
+    }
+
+    /**
+     * Queues the record, never blocks.
+     * @return {@code false} if the record has not been accepted, because the journal is disabled, closed or full
+     */
+    public boolean record(@Nonnull String channel, @Nonnull String sender, @Nonnull String command) {
+        if (file == null || closed) {
+            return false;
+        }
+        String line = Instant.now() + "\t" + sanitize(channel) + "\t" + sanitize(sender) + "\t" + sanitize(command) + "\n";
+        if (!queue.offer(line)) {
+            long total = dropped.incrementAndGet();
+            if (total == 1 || total % 1000 == 0) {
+                LOGGER.warn("Unknown command journal is full, dropped {} records so far", total);
+            }
+            return false;
+        }
+        if (closed && queue.remove(line)) {
+            // close() has started meanwhile and the writer may have already drained the queue
+            return false;
+        }
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Gets the number of records dropped because the queue was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits until all records accepted so far are written.
+     * @return {@code false} if the timeout expired first
+     */
+    public boolean flush(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        long target = accepted.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this) {
+            while (processed < target) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0 || writer == null || !writer.isAlive()) {
+                    return false;
+                }
+                wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting records, writes the queued ones and stops the writer.
+     */
+    public void close() {
+        closed = true;
+        if (writer == null) {
+            return;
+        }
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            writeAll();
+        } finally {
+            // wakes up flush(), nothing will be processed anymore
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private void writeAll() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                if (closed) {
+                    queue.drainTo(batch);
+                    if (batch.isEmpty()) {
+                        return;
+                    }
+                } else {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+            } catch (InterruptedException e) {
+                // close() wakes us up, write whatever is left
+                continue;
+            }
+            write(batch);
+            synchronized (this) {
+                processed += batch.size();
+                notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<String> batch) {
+        try {
+            if (file.length() >= maxBytes) {
+                rotate();
+            }
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+                for (String line : batch) {
+                    w.write(line);
+                }
+            }
+        } catch (IOException e) {
+            // if we fail to write, let it be.
+            LOGGER.warn("Failed to write {} records to {}", batch.size(), file, e);
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (backups <= 0) {
+            Files.deleteIfExists(file.toPath());
+            return;
+        }
+        Files.deleteIfExists(backup(backups).toPath());
+        for (int i = backups - 1; i >= 1; i--) {
+            File from = backup(i);
+            if (from.exists()) {
+                Files.move(from.toPath(), backup(i + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file.toPath(), backup(1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private File backup(int index) {
+        return new File(file.getPath() + "." + index);
+    }
+
+    private static String sanitize(String value) {
+        return value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+}
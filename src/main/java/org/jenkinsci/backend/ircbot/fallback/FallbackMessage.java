@@ -10,6 +10,19 @@ import org.pircbotx.User;
  * So... Main rule below is to be creative with answers :-).
  */
 public class FallbackMessage {
+    private static final WeightedRandomAnswer THANKS_ANSWERS = new WeightedRandomAnswer()
+            .addAnswer("You're welcome", 5)
+            .addAnswer("my pleasure", 3)
+            .addAnswer("no worries, mate", 2)
+            .addAnswer("no drama, mate", 1); // https://www.daytranslations.com/blog/2013/01/australian-slang-a-unique-way-of-saying-and-describing-things-524/
+
+    private static final WeightedRandomAnswer UNKNOWN_ANSWERS = new WeightedRandomAnswer()
+            .addAnswer("I didn't understand the command", 4)
+            .addAnswer("Say it again?", 3)
+            .addAnswer("Come again?", 2)
+            .addAnswer("Wut?", 2)
+            .addAnswer("Gnih?", 1);
+
     private final String payload;
     private final String sender;
 
@@ -20,25 +33,14 @@ public class FallbackMessage {
 
     public String answer() {
         if (StringUtils.containsIgnoreCase(payload, "thank")) {
-            return new WeightedRandomAnswer()
-                    .addAnswer("You're welcome", 5)
-                    .addAnswer("my pleasure", 3)
-                    .addAnswer("no worries, mate", 2)
-                    .addAnswer("no drama, mate", 1) // https://www.daytranslations.com/blog/2013/01/australian-slang-a-unique-way-of-saying-and-describing-things-524/
-                    .get();
+            return THANKS_ANSWERS.get();
         }
 
         if (StringUtils.startsWithIgnoreCase(payload, "hello")) {
             return "Hello, " + sender + "!";
         }
 
-        return new WeightedRandomAnswer()
-                .addAnswer("I didn't understand the command", 4)
-                .addAnswer("Say it again?", 3)
-                .addAnswer("Come again?", 2)
-                .addAnswer("Wut?", 2)
-                .addAnswer("Gnih?", 1)
-                .get();
+        return UNKNOWN_ANSWERS.get();
     }
 
 }
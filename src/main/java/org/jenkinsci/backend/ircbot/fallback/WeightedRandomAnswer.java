@@ -1,32 +1,76 @@
 package org.jenkinsci.backend.ircbot.fallback;
 
 
-import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Provides a random answer based on the relative weight of each answer this was constructed with.
+ * The cumulative weights are computed when answers are added, so {@link #get()} does not allocate
+ * and the instances can be shared once they are set up.
  */
 class WeightedRandomAnswer {
-    private final SecureRandom random = new SecureRandom();
-    Map<String, Integer> answers = new LinkedHashMap<>();
+    private final Map<String, Integer> answers = new LinkedHashMap<>();
+    private volatile Table table = new Table(new String[0], new int[0]);
 
     public WeightedRandomAnswer addAnswer(String answer, int weight) {
-        answers.put(answer, weight);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight " + weight + " of " + answer);
+        }
+        synchronized (answers) {
+            answers.put(answer, weight);
+            String[] values = new String[answers.size()];
+            int[] cumulative = new int[answers.size()];
+            int i = 0;
+            int total = 0;
+            for (Map.Entry<String, Integer> entry : answers.entrySet()) {
+                total = Math.addExact(total, entry.getValue());
+                values[i] = entry.getKey();
+                cumulative[i] = total;
+                i++;
+            }
+            table = new Table(values, cumulative);
+        }
         return this;
     }
 
     public String get() {
-        List<String> possibleAnswers = new ArrayList<>();
-        answers.entrySet().stream().forEach(entrySet ->
-                possibleAnswers.addAll(Collections.nCopies(entrySet.getValue(), entrySet.getKey()))
-        );
+        Table current = table;
+        return current.pick(ThreadLocalRandom.current().nextInt(current.total()));
+    }
+
+    /**
+     * Answers with the running totals of their weights.
+     */
+    private static final class Table {
+        private final String[] values;
+        private final int[] cumulative;
+
+        private Table(String[] values, int[] cumulative) {
+            this.values = values;
+            this.cumulative = cumulative;
+        }
+
+        int total() {
+            return cumulative.length == 0 ? 0 : cumulative[cumulative.length - 1];
+        }
 
-        return possibleAnswers.get(random.nextInt(possibleAnswers.size()));
+        /**
+         * Finds the first answer whose running total exceeds the given point.
+         */
+        String pick(int point) {
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] > point) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return values[low];
+        }
     }
 }
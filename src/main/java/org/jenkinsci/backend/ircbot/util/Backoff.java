@@ -0,0 +1,93 @@
+package org.jenkinsci.backend.ircbot.util;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import javax.annotation.Nonnull;
+
+/**
+ * Delays between the attempts of remote operations, which grow exponentially.
+ * The first attempt is made immediately, then the delay doubles after every attempt up to the maximum.
+ * A random part of the delay is subtracted, so that the clients started at the same time do not poll in lockstep.
+ * @since 2.0-SNAPSHOT
+ */
+public class Backoff {
+
+    /**
+     * Single attempt of the operation.
+     */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T call() throws IOException;
+    }
+
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final double jitter;
+    private final DoubleSupplier random;
+
+    /**
+     * @param maxAttempts Maximum number of attempts, including the first one
+     * @param initialDelay Delay before the second attempt
+     * @param maxDelay Maximum delay between the attempts
+     * @param unit Unit of the delays
+     * @param jitter Randomized part of the delays, between {@code 0} and {@code 1}
+     */
+    public Backoff(int maxAttempts, long initialDelay, long maxDelay, @Nonnull TimeUnit unit, double jitter) {
+        this(maxAttempts, unit.toMillis(initialDelay), unit.toMillis(maxDelay), jitter, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * @param maxAttempts Maximum number of attempts, including the first one
+     * @param initialDelayMillis Delay before the second attempt
+     * @param maxDelayMillis Maximum delay between the attempts
+     * @param jitter Randomized part of the delays, between {@code 0} and {@code 1}
+     * @param random Random numbers between {@code 0} (inclusive) and {@code 1} (exclusive)
+     */
+    public Backoff(int maxAttempts, long initialDelayMillis, long maxDelayMillis, double jitter, @Nonnull DoubleSupplier random) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is needed: " + maxAttempts);
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1: " + jitter);
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMillis = Math.max(0, initialDelayMillis);
+        this.maxDelayMillis = Math.max(this.initialDelayMillis, maxDelayMillis);
+        this.jitter = jitter;
+        this.random = random;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Gets the delay before the attempt without the jitter.
+     * @param attempt Number of the attempt, starting with {@code 1}
+     * @return Delay in milliseconds, {@code 0} for the first attempt
+     */
+    public long getDelayMillis(int attempt) {
+        if (attempt <= 1) {
+            return 0;
+        }
+        long delay = initialDelayMillis;
+        for (int i = 2; i < attempt && delay < maxDelayMillis; i++) {
+            delay *= 2;
+        }
+        return Math.min(delay, maxDelayMillis);
+    }
+
+    /**
+     * Gets the delay before the attempt with the jitter applied.
+     * The jitter only shortens the delay, {@link #getDelayMillis(int)} is the upper bound.
+     * @param attempt Number of the attempt, starting with {@code 1}
+     * @return Delay in milliseconds, {@code 0} for the first attempt
+     */
+    public long nextDelayMillis(int attempt) {
+        long delay = getDelayMillis(attempt);
+        return delay - (long) (delay * jitter * random.getAsDouble());
+    }
+}
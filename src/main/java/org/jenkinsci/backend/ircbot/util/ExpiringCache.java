@@ -0,0 +1,129 @@
+package org.jenkinsci.backend.ircbot.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Small cache whose entries expire after a fixed time since they were last written.
+ * The number of entries is bounded, the least recently used ones are evicted first.
+ * @param <K> Key type
+ * @param <V> Value type
+ * @since 2.0-SNAPSHOT
+ */
+public class ExpiringCache<K, V> {
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries;
+
+    /**
+     * @param ttl Time to live of the entries
+     * @param unit Unit of the time to live
+     * @param maxSize Maximum number of entries
+     */
+    public ExpiringCache(long ttl, @Nonnull TimeUnit unit, int maxSize) {
+        this(ttl, unit, maxSize, System::currentTimeMillis);
+    }
+
+    /**
+     * @param ttl Time to live of the entries
+     * @param unit Unit of the time to live
+     * @param maxSize Maximum number of entries
+     * @param clock Current time in milliseconds
+     */
+    public ExpiringCache(long ttl, @Nonnull TimeUnit unit, final int maxSize, @Nonnull LongSupplier clock) {
+        this.ttlMillis = unit.toMillis(ttl);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return Value or {@code null} if it is missing or expired
+     */
+    @CheckForNull
+    public synchronized V get(@Nonnull K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry)) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Stores the value, which restarts its expiration.
+     * @return Previous value or {@code null} if it was missing or expired
+     */
+    @CheckForNull
+    public synchronized V put(@Nonnull K key, @Nonnull V value) {
+        Entry<V> previous = entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMillis));
+        return previous == null || isExpired(previous) ? null : previous.value;
+    }
+
+    /**
+     * Stores the value unless there is a live one.
+     * @return Current value or {@code null} if the given value has been stored
+     */
+    @CheckForNull
+    public synchronized V putIfAbsent(@Nonnull K key, @Nonnull V value) {
+        V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMillis));
+        return null;
+    }
+
+    /**
+     * Removes the entry if it holds the given value.
+     * @return {@code true} if the entry has been removed
+     */
+    public synchronized boolean remove(@Nonnull K key, @Nonnull V value) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.value.equals(value)) {
+            entries.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the entry.
+     */
+    public synchronized void invalidate(@Nonnull K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Gets the number of entries, including the expired ones which have not been evicted yet.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return clock.getAsLong() - entry.expiresAt >= 0;
+    }
+}
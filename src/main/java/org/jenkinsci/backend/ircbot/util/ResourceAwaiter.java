@@ -0,0 +1,134 @@
+package org.jenkinsci.backend.ircbot.util;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+/**
+ * Waits for remote resources without blocking a thread between the attempts,
+ * e.g. for a repository which GitHub creates asynchronously.
+ *
+ * The attempts are scheduled with the delays of a {@link Backoff} and run on the given executor,
+ * the scheduler thread only keeps the time.
+ * @since 2.0-SNAPSHOT
+ */
+public class ResourceAwaiter {
+
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final Backoff backoff;
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates the awaiter with its own scheduler thread.
+     * @param executor Runs the attempts, e.g. {@code FanOut.GITHUB}
+     * @param backoff Delays between the attempts
+     */
+    public ResourceAwaiter(@Nonnull Executor executor, @Nonnull Backoff backoff) {
+        this(Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ircbot-await");
+            t.setDaemon(true);
+            return t;
+        }), executor, backoff);
+    }
+
+    /**
+     * @param scheduler Schedules the attempts
+     * @param executor Runs the attempts
+     * @param backoff Delays between the attempts
+     */
+    public ResourceAwaiter(@Nonnull ScheduledExecutorService scheduler, @Nonnull Executor executor, @Nonnull Backoff backoff) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.backoff = backoff;
+    }
+
+    /**
+     * Polls until the resource is available.
+     * Failures of the attempts other than the last one are treated as a missing resource.
+     * @param probe Gets the resource, returns {@code null} if it is not available yet
+     * @return First available resource, or {@code null} if there was none.
+     *         Fails with the failure of the last attempt.
+     */
+    @Nonnull
+    public <T> CompletableFuture<T> await(@Nonnull Backoff.Attempt<T> probe) {
+        return start(probe, true);
+    }
+
+    /**
+     * Runs the operation until it succeeds. Only use it for idempotent operations.
+     * @return Result of the first successful attempt. Fails with the failure of the last attempt.
+     */
+    @Nonnull
+    public <T> CompletableFuture<T> retry(@Nonnull Backoff.Attempt<T> operation) {
+        return start(operation, false);
+    }
+
+    /**
+     * Stops the scheduler, the pending waits fail.
+     */
+    public void close() {
+        scheduler.shutdownNow();
+        for (CompletableFuture<?> result : pending) {
+            result.completeExceptionally(new RejectedExecutionException("Stopped waiting"));
+        }
+    }
+
+    private <T> CompletableFuture<T> start(Backoff.Attempt<T> call, boolean untilAvailable) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        pending.add(result);
+        result.whenComplete((r, e) -> pending.remove(result));
+        schedule(1, call, untilAvailable, result);
+        return result;
+    }
+
+    private <T> void schedule(int attempt, Backoff.Attempt<T> call, boolean untilAvailable, CompletableFuture<T> result) {
+        Runnable run = () -> {
+            if (result.isDone()) {
+                // cancelled
+                return;
+            }
+            boolean last = attempt >= backoff.getMaxAttempts();
+            try {
+                T value = call.call();
+                if (value != null || !untilAvailable || last) {
+                    result.complete(value);
+                    return;
+                }
+            } catch (IOException e) {
+                if (last) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            schedule(attempt + 1, call, untilAvailable, result);
+        };
+
+        try {
+            long delay = backoff.nextDelayMillis(attempt);
+            if (delay <= 0) {
+                executor.execute(run);
+            } else {
+                scheduler.schedule(() -> {
+                    try {
+                        executor.execute(run);
+                    } catch (RejectedExecutionException e) {
+                        result.completeExceptionally(e);
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
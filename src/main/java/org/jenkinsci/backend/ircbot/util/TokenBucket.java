@@ -0,0 +1,78 @@
+package org.jenkinsci.backend.ircbot.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+
+/**
+ * Token bucket rate limiter.
+ * The bucket holds up to {@code capacity} tokens, and a new token is added every {@code interval}.
+ * @since 2.0-SNAPSHOT
+ */
+public class TokenBucket {
+
+    private final int capacity;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+
+    // guarded by this
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * @param capacity Maximum number of tokens, i.e. the size of the burst
+     * @param interval Time needed to add a token
+     * @param unit Unit of the interval
+     */
+    public TokenBucket(int capacity, long interval, @Nonnull TimeUnit unit) {
+        this(capacity, interval, unit, System::nanoTime);
+    }
+
+    /**
+     * @param capacity Maximum number of tokens, i.e. the size of the burst
+     * @param interval Time needed to add a token
+     * @param unit Unit of the interval
+     * @param nanoClock Time source in nanoseconds, see {@link System#nanoTime()}
+     */
+    public TokenBucket(int capacity, long interval, @Nonnull TimeUnit unit, @Nonnull LongSupplier nanoClock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, unit.toNanos(interval));
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes a token if there is one.
+     * @return {@code true} if the token has been taken
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the time until a token is available.
+     * @return Time in nanoseconds, {@code 0} if a token is available now
+     */
+    public synchronized long nanosUntilAvailable() {
+        refill();
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * intervalNanos);
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - refilledAt;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + (double) elapsed / intervalNanos);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.kohsuke.github;
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+
+/**
+ * Requests a fork without waiting for GitHub to create it.
+ *
+ * {@link GHRepository#forkTo(GHOrganization)} polls for the fork with {@link Thread#sleep(long)} for up to 30 seconds,
+ * which holds the calling thread. The request API of the library is package-private, hence the package of this class.
+ * @since 2.0-SNAPSHOT
+ */
+public final class AsyncForkRequest {
+
+    private AsyncForkRequest() {
+    }
+
+    /**
+     * Requests the fork of the repository into the organization.
+     * Forking again is harmless, GitHub returns the existing fork.
+     * @param github Client sending the request
+     */
+    public static void send(@Nonnull GitHub github, @Nonnull GHRepository origin, @Nonnull GHOrganization org) throws IOException {
+        github.createRequest()
+                .method("POST")
+                .with("organization", org.getLogin())
+                .withUrlPath("/repos/" + origin.getOwnerName() + "/" + origin.getName() + "/forks")
+                .send();
+    }
+}
@@ -0,0 +1,96 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BotHealth}.
+ */
+public class BotHealthTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final BotHealth health = new BotHealth(() -> 3, 300, now::get);
+
+    @Test
+    public void testReadiness() {
+        assertFalse(health.isReady());
+        health.connected();
+        assertFalse(health.isReady(), "No channel joined yet");
+        health.joined("#jenkins-hosting");
+        assertTrue(health.isReady());
+
+        health.left("#Jenkins-Hosting");
+        assertFalse(health.isReady());
+
+        health.joined("#jenkins-hosting");
+        health.disconnected();
+        assertFalse(health.isReady());
+        health.connected();
+        assertFalse(health.isReady(), "Channels must be joined again after reconnecting");
+    }
+
+    @Test
+    public void testLiveness() {
+        assertTrue(health.isAlive(), "The bot is connecting");
+        now.addAndGet(TimeUnit.SECONDS.toMillis(301));
+        assertFalse(health.isAlive());
+
+        health.connected();
+        assertTrue(health.isAlive());
+        health.disconnected();
+        now.addAndGet(TimeUnit.SECONDS.toMillis(299));
+        assertTrue(health.isAlive(), "The bot is reconnecting");
+        now.addAndGet(TimeUnit.SECONDS.toMillis(2));
+        assertFalse(health.isAlive());
+    }
+
+    @Test
+    public void testTimeToReady() {
+        List<Long> times = new ArrayList<>();
+        health.setReadyListener(times::add);
+        now.addAndGet(1500);
+        health.connected();
+        now.addAndGet(500);
+        health.joined("#jenkins-hosting");
+        health.joined("#jenkins-infra");
+        assertEquals(Collections.singletonList(2000L), times);
+
+        health.disconnected();
+        now.addAndGet(3000);
+        // failed attempts do not restart the measurement
+        health.disconnected();
+        health.connected();
+        now.addAndGet(250);
+        health.joined("#jenkins-hosting");
+        assertEquals(Arrays.asList(2000L, 3250L), times);
+        assertTrue(health.toJson().contains("\"lastTimeToReadySeconds\":3.250"), health.toJson());
+    }
+
+    @Test
+    public void testJson() {
+        health.connected();
+        health.joined("#jenkins-infra");
+        health.joined("#jenkins-hosting");
+        health.messageReceived();
+        now.addAndGet(TimeUnit.SECONDS.toMillis(42));
+        health.addProbe("jira", () -> true);
+        health.addProbe("github", () -> {
+            throw new IOException("unreachable");
+        });
+        health.probe();
+
+        assertEquals("{\"alive\":true,\"ready\":true,\"connected\":true,"
+                + "\"channels\":[\"#jenkins-hosting\",\"#jenkins-infra\"],\"lastMessageAgeSeconds\":42,"
+                + "\"lastTimeToReadySeconds\":0.000,\"pendingCommands\":3,\"upstream\":{\"github\":false,\"jira\":true}}", health.toJson());
+    }
+}
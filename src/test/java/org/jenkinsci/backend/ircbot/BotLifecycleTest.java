@@ -0,0 +1,57 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BotLifecycle}.
+ */
+public class BotLifecycleTest {
+
+    @Test
+    public void testStepsInOrder() {
+        BotLifecycle lifecycle = new BotLifecycle();
+        List<String> executed = new CopyOnWriteArrayList<>();
+        lifecycle.addStep("drain", () -> {
+            assertTrue(lifecycle.isStopping());
+            executed.add("drain");
+        });
+        lifecycle.addStep("failing", () -> {
+            throw new IllegalStateException("failed");
+        });
+        lifecycle.addStep("quit", () -> executed.add("quit"));
+
+        assertFalse(lifecycle.isStopping());
+        lifecycle.shutdown();
+        assertEquals(asList("drain", "quit"), executed);
+
+        // e.g. the shutdown hook after the restart
+        lifecycle.shutdown();
+        assertEquals(asList("drain", "quit"), executed);
+    }
+
+    @Test
+    public void testConcurrentShutdownWaits() throws Exception {
+        BotLifecycle lifecycle = new BotLifecycle();
+        List<String> executed = new CopyOnWriteArrayList<>();
+        lifecycle.addStep("slow", () -> {
+            Thread.sleep(200);
+            executed.add("slow");
+        });
+
+        Thread first = new Thread(lifecycle::shutdown);
+        first.start();
+        while (!lifecycle.isStopping()) {
+            Thread.yield();
+        }
+        lifecycle.shutdown();
+        assertEquals(asList("slow"), executed, "The second caller returns once the shutdown completed");
+        first.join();
+    }
+}
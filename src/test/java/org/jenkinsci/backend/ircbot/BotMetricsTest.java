@@ -0,0 +1,58 @@
+package org.jenkinsci.backend.ircbot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link BotMetrics}.
+ */
+public class BotMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BotMetrics metrics = new BotMetrics(registry);
+
+    @Test
+    public void testCommands() {
+        long start = metrics.commandStarted();
+        assertEquals(1.0, registry.get("ircbot.commands.in.flight").gauge().value());
+        metrics.commandCompleted("version", start, true);
+        metrics.commandCompleted("version", metrics.commandStarted(), false);
+        metrics.commandCompleted("version", metrics.commandStarted(), true);
+        metrics.commandRejected("addCommitter");
+
+        assertEquals(0.0, registry.get("ircbot.commands.in.flight").gauge().value());
+        assertEquals(2, registry.get("ircbot.command.duration")
+                .tag("command", "version").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("ircbot.command.duration")
+                .tag("command", "version").tag("outcome", "failure").timer().count());
+        assertEquals(1.0, registry.get("ircbot.commands.rejected").tag("command", "addCommitter").counter().count());
+    }
+
+    @Test
+    public void testRemoteCalls() {
+        long start = metrics.remoteCallStarted(BotMetrics.JIRA);
+        assertEquals(1.0, registry.get("ircbot.remote.in.flight").tag("service", "jira").gauge().value());
+        metrics.remoteCallCompleted(BotMetrics.JIRA, "search", start, false);
+
+        assertEquals(0.0, registry.get("ircbot.remote.in.flight").tag("service", "jira").gauge().value());
+        assertEquals(1, registry.get("ircbot.remote.duration")
+                .tag("service", "jira").tag("operation", "search").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    public void testGauges() {
+        assertEquals(-1.0, registry.get("ircbot.github.ratelimit.remaining").gauge().value());
+        metrics.gitHubRateLimitRemaining(4999);
+        assertEquals(4999.0, registry.get("ircbot.github.ratelimit.remaining").gauge().value());
+
+        Deque<String> queue = new ArrayDeque<>();
+        metrics.gauge("test.queue", "Test queue", queue, Deque::size);
+        queue.add("a");
+        queue.add("b");
+        assertEquals(2.0, registry.get("test.queue").gauge().value());
+    }
+}
@@ -0,0 +1,31 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BotServices}.
+ */
+public class BotServicesTest {
+
+    @Test
+    public void testListenersShareServices() {
+        CommandExecutor executor = new CommandExecutor(1, 10, false);
+        BotServices services = new BotServices(null, executor, new GitHubClientProvider(() -> {
+            throw new IOException("GitHub is not available in the tests");
+        }), new ForkJournal(null));
+        IrcListener libera = new IrcListener(services, new IrcNetwork("libera", "irc.libera.chat", 6697, true, null));
+        IrcListener staging = new IrcListener(services, new IrcNetwork("staging", "irc.example.org", 6667, false, null));
+        assertSame(libera.getLifecycle(), staging.getLifecycle());
+        assertTrue(executor.submit("#jenkins-hosting", () -> { }));
+
+        // a restart requested in one network stops the commands of all of them
+        staging.getLifecycle().shutdown();
+        assertTrue(libera.getLifecycle().isStopping());
+        assertFalse(executor.submit("#jenkins-hosting", () -> { }));
+    }
+}
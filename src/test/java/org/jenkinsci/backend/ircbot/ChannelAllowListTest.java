@@ -0,0 +1,50 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.util.Collections.singleton;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link ChannelAllowList}.
+ */
+public class ChannelAllowListTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    public void testCaseMapping() {
+        ChannelAllowList channels = ChannelAllowList.parse("#jenkins-hosting, #Jenkins[infra]", "#jenkins");
+        assertTrue(channels.contains("#jenkins-hosting"));
+        assertTrue(channels.contains("#JENKINS-HOSTING"));
+        assertTrue(channels.contains("#jenkins{infra}"));
+        assertTrue(channels.contains("#JENKINS[INFRA]"));
+        assertFalse(channels.contains("#jenkins"));
+    }
+
+    @Test
+    public void testDefault() {
+        assertEquals(singleton("#jenkins"), ChannelAllowList.parse("jenkins-hosting,", "#jenkins").getChannels());
+        assertEquals(singleton("#jenkins"), ChannelAllowList.parse(null, "#jenkins").getChannels());
+    }
+
+    @Test
+    public void testLoadAndCompare() throws Exception {
+        File file = tmp.resolve("channels.txt").toFile();
+        Files.write(file.toPath(), "#jenkins-hosting\n#jenkins-infra\n\n".getBytes(StandardCharsets.UTF_8));
+
+        ChannelAllowList previous = ChannelAllowList.parse("#jenkins-hosting,#jenkins", "#jenkins");
+        ChannelAllowList reloaded = ChannelAllowList.load(file, "#jenkins");
+        assertTrue(reloaded.contains("#jenkins-infra"));
+        assertEquals(singleton("#jenkins-infra"), reloaded.without(previous));
+        assertEquals(singleton("#jenkins"), previous.without(reloaded));
+    }
+}
@@ -0,0 +1,148 @@
+package org.jenkinsci.backend.ircbot;
+
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pircbotx.Channel;
+import org.pircbotx.User;
+import org.pircbotx.UserLevel;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ChannelAuthorizations}.
+ */
+public class ChannelAuthorizationsTest {
+
+    private static final String CHANNEL = "#jenkins-hosting";
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private ChannelAuthorizations authorizations;
+    private Channel channel;
+
+    @BeforeEach
+    public void setUp() {
+        authorizations = new ChannelAuthorizations(10, now::get);
+        channel = mock(Channel.class);
+        when(channel.getName()).thenReturn(CHANNEL);
+    }
+
+    @Test
+    public void testLevelsMemoized() {
+        User voiced = user("voiced", UserLevel.VOICE);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(authorizations.isAuthorized(channel, voiced, true));
+            assertFalse(authorizations.isAuthorized(channel, voiced, false));
+        }
+        verify(voiced, times(1)).getUserLevels(channel);
+    }
+
+    @Test
+    public void testModeChanges() {
+        User user = user("alice");
+        assertFalse(authorizations.isAuthorized(channel, user, true));
+
+        // PircBotX updates the member list before it dispatches the event
+        levels(user, UserLevel.VOICE);
+        authorizations.invalidate(CHANNEL, "Alice");
+        assertTrue(authorizations.isAuthorized(channel, user, true));
+        assertFalse(authorizations.isAuthorized(channel, user, false));
+
+        levels(user, UserLevel.OP);
+        authorizations.invalidate("#Jenkins-Hosting", "alice");
+        assertTrue(authorizations.isAuthorized(channel, user, false));
+    }
+
+    @Test
+    public void testEventsInAnyOrder() {
+        User user = user("alice", UserLevel.OP);
+        assertTrue(authorizations.isAuthorized(channel, user, false));
+
+        // +o then -o, whose events are dispatched in the reverse order
+        levels(user);
+        authorizations.invalidate(CHANNEL, "alice");
+        authorizations.invalidate(CHANNEL, "alice");
+        assertFalse(authorizations.isAuthorized(channel, user, true));
+    }
+
+    @Test
+    public void testMembershipChanges() {
+        User op = user("bob", UserLevel.OP);
+        assertTrue(authorizations.isAuthorized(channel, op, false));
+
+        // The new holder of the nick does not inherit the status
+        levels(op);
+        authorizations.invalidate(CHANNEL, "bob");
+        assertFalse(authorizations.isAuthorized(channel, op, false));
+
+        User renamed = user("bob[away]", UserLevel.VOICE);
+        assertTrue(authorizations.isAuthorized(channel, renamed, true));
+        levels(renamed);
+        authorizations.invalidate("BOB{AWAY}");
+        assertFalse(authorizations.isAuthorized(channel, renamed, true), "Nicks use the rfc1459 casemapping");
+    }
+
+    @Test
+    public void testMemberList() {
+        User carol = user("carol");
+        assertFalse(authorizations.isAuthorized(channel, carol, true));
+
+        levels(carol, UserLevel.VOICE);
+        authorizations.memberList(CHANNEL);
+        assertTrue(authorizations.isAuthorized(channel, carol, true));
+    }
+
+    @Test
+    public void testStateDroppedOnDisconnect() {
+        User frank = user("frank", UserLevel.OP);
+        assertTrue(authorizations.isAuthorized(channel, frank, false));
+
+        levels(frank);
+        authorizations.clear();
+        assertFalse(authorizations.isAuthorized(channel, frank, false));
+        levels(frank, UserLevel.OP);
+        authorizations.forget("#Jenkins-Hosting");
+        assertTrue(authorizations.isAuthorized(channel, frank, false));
+    }
+
+    @Test
+    public void testRefreshesCoalesced() {
+        assertTrue(authorizations.shouldRefresh(CHANNEL));
+        assertFalse(authorizations.shouldRefresh(CHANNEL));
+        assertTrue(authorizations.shouldRefresh("#jenkins"), "Channels are refreshed independently");
+
+        // Refresh completed, but the interval has not elapsed yet
+        authorizations.memberList(CHANNEL);
+        now.addAndGet(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(authorizations.shouldRefresh(CHANNEL));
+        now.addAndGet(TimeUnit.SECONDS.toMillis(5));
+        assertTrue(authorizations.shouldRefresh(CHANNEL));
+
+        // No reply, the refresh is still in flight
+        now.addAndGet(TimeUnit.SECONDS.toMillis(30));
+        assertFalse(authorizations.shouldRefresh(CHANNEL));
+        now.addAndGet(TimeUnit.SECONDS.toMillis(30));
+        assertTrue(authorizations.shouldRefresh(CHANNEL), "Lost refreshes are retried");
+    }
+
+    private static User user(String nick, UserLevel... levels) {
+        User user = mock(User.class);
+        when(user.getNick()).thenReturn(nick);
+        levels(user, levels);
+        return user;
+    }
+
+    private static void levels(User user, UserLevel... levels) {
+        when(user.getUserLevels(any(Channel.class)))
+                .thenReturn(ImmutableSortedSet.copyOf(asList(levels)));
+    }
+}
@@ -0,0 +1,137 @@
+package org.jenkinsci.backend.ircbot;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link CommandExecutor}.
+ */
+public class CommandExecutorTest {
+
+    @Test
+    public void testSameKeyOrdering() throws Exception {
+        CommandExecutor executor = new CommandExecutor(4, 16, false);
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(10);
+        try {
+            for (int i = 0; i < 10; i++) {
+                final int id = i;
+                assertTrue(executor.submit("#channel", () -> {
+                    executed.add(id);
+                    done.countDown();
+                }));
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), executed);
+        } finally {
+            executor.close();
+        }
+    }
+
+    @Test
+    public void testRejectWhenFull() throws Exception {
+        CommandExecutor executor = new CommandExecutor(1, 1, false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            assertTrue(executor.submit("#a", () -> {
+                started.countDown();
+                await(release);
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertTrue(executor.submit("#b", () -> {}));
+            assertFalse(executor.submit("#c", () -> {}), "The queue is full, the command should be rejected");
+            assertEquals(2, executor.getPendingCount());
+        } finally {
+            release.countDown();
+            executor.close();
+        }
+    }
+
+    @Test
+    public void testDrainAfterClose() throws Exception {
+        CommandExecutor executor = new CommandExecutor(1, 4, false);
+        List<String> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        assertTrue(executor.submit("#a", () -> {
+            await(release);
+            executed.add("first");
+        }));
+        assertTrue(executor.submit("#a", () -> executed.add("queued")));
+
+        executor.close();
+        assertFalse(executor.submit("#a", () -> executed.add("rejected")));
+        assertFalse(executor.awaitTermination(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(asList("first", "queued"), executed);
+    }
+
+    @Test
+    public void testAsyncTaskKeepsKeyBusy() throws Exception {
+        CommandExecutor executor = new CommandExecutor(1, 4, false);
+        List<String> executed = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> fork = new CompletableFuture<>();
+        CountDownLatch other = new CountDownLatch(1);
+        assertTrue(executor.submitAsync("#a", () -> {
+            executed.add("fork started");
+            return fork;
+        }));
+        assertTrue(executor.submit("#a", () -> executed.add("next")));
+        // the only thread is not held by the pending task
+        assertTrue(executor.submit("#b", other::countDown));
+        assertTrue(other.await(10, TimeUnit.SECONDS));
+        assertEquals(asList("fork started"), executed);
+
+        executor.close();
+        assertFalse(executor.awaitTermination(100, TimeUnit.MILLISECONDS));
+        executed.add("fork completed");
+        fork.complete(null);
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(asList("fork started", "fork completed", "next"), executed);
+    }
+
+    @Test
+    public void testRejectWhenClosed() {
+        CommandExecutor executor = new CommandExecutor(1, 1, false);
+        executor.close();
+        assertFalse(executor.submit("#a", () -> {}));
+    }
+
+    @Test
+    public void testDirectExecutor() throws Exception {
+        CommandExecutor executor = new CommandExecutor(MoreExecutors.newDirectExecutorService(), 2);
+        List<String> executed = new CopyOnWriteArrayList<>();
+        assertTrue(executor.submit("#a", () -> executed.add("a")));
+        assertEquals(asList("a"), executed, "The task should run in the submitting thread");
+        assertEquals(0, executor.getPendingCount());
+
+        CompletableFuture<Void> fork = new CompletableFuture<>();
+        assertTrue(executor.submitAsync("#b", () -> fork));
+        assertTrue(executor.submit("#b", () -> executed.add("b")));
+        assertEquals(asList("a"), executed);
+        fork.complete(null);
+        assertEquals(asList("a", "b"), executed);
+
+        executor.close();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
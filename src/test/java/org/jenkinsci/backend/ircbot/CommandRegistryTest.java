@@ -0,0 +1,98 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link CommandRegistry}.
+ */
+public class CommandRegistryTest {
+
+    private static final CommandRegistry.Handler NOOP = (channel, sender, m) -> {};
+
+    @Test
+    public void testKeywordRouting() {
+        CommandRegistry registry = new CommandRegistry()
+                .register(new CommandRegistry.Command("voice",
+                        Pattern.compile("(?:make|add) (\\S+) voice", Pattern.CASE_INSENSITIVE), NOOP, "make", "add"))
+                .register(new CommandRegistry.Command("kick",
+                        Pattern.compile("kick (\\S+)", Pattern.CASE_INSENSITIVE), NOOP, "kick"));
+
+        CommandRegistry.Match match = registry.find("Make foo voice");
+        assertNotNull(match);
+        assertEquals("voice", match.getCommand().getName());
+        assertEquals("foo", match.getMatcher().group(1));
+
+        match = registry.find("KICK bar");
+        assertNotNull(match);
+        assertEquals("kick", match.getCommand().getName());
+
+        assertNull(registry.find("make foo a sandwich"));
+        assertNull(registry.find("hello there"));
+        assertNull(registry.find(""));
+    }
+
+    @Test
+    public void testRegistrationOrderWithinKeyword() {
+        CommandRegistry registry = new CommandRegistry()
+                .register(new CommandRegistry.Command("specific",
+                        Pattern.compile("set topic (.*)"), NOOP, "set"))
+                .register(new CommandRegistry.Command("generic",
+                        Pattern.compile("set (.*)"), NOOP, "set"));
+
+        assertEquals("specific", registry.find("set topic hello").getCommand().getName());
+        assertEquals("generic", registry.find("set something").getCommand().getName());
+    }
+
+    @Test
+    public void testDispatch() {
+        final boolean[] invoked = new boolean[1];
+        CommandRegistry registry = new CommandRegistry()
+                .register(new CommandRegistry.Command("help",
+                        Pattern.compile("help", Pattern.CASE_INSENSITIVE), (channel, sender, m) -> invoked[0] = true, "help"));
+
+        assertFalse(registry.dispatch(null, null, "helpme"));
+        assertFalse(invoked[0]);
+        assertTrue(registry.dispatch(null, null, "Help"));
+        assertTrue(invoked[0]);
+    }
+
+    @Test
+    public void testOutcome() {
+        CommandRegistry.Command plain = new CommandRegistry.Command("help", Pattern.compile("help"), NOOP, "help");
+        assertTrue(plain.getOutcomeHandler().handle(null, null, null));
+
+        final boolean[] invoked = new boolean[1];
+        CommandRegistry.Command failing = CommandRegistry.Command.withOutcome("rename",
+                Pattern.compile("rename (\\S+)"), (channel, sender, m) -> false, "rename");
+        assertFalse(failing.getOutcomeHandler().handle(null, null, null));
+        assertNull(failing.getAsyncHandler());
+
+        CommandRegistry registry = new CommandRegistry().register(CommandRegistry.Command.withOutcome("reload",
+                Pattern.compile("reload"), (channel, sender, m) -> invoked[0] = true, "reload"));
+        assertTrue(registry.dispatch(null, null, "reload"));
+        assertTrue(invoked[0]);
+    }
+
+    @Test
+    public void testDefaultCommandsAreRegistered() {
+        IrcListener listener = new IrcListener(null);
+        CommandRegistry.Match match = listener.getCommands().find("make foo a committer on bar, baz");
+        assertNotNull(match);
+        assertEquals("addCommitter", match.getCommand().getName());
+
+        match = listener.getCommands().find("make foo lead for bar");
+        assertNotNull(match);
+        assertEquals("setDefaultAssignee", match.getCommand().getName());
+
+        match = listener.getCommands().find("set topic Welcome!");
+        assertNotNull(match);
+        assertEquals("setTopic", match.getCommand().getName());
+    }
+}
@@ -0,0 +1,81 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link FanOut}.
+ */
+public class FanOutTest {
+
+    @Test
+    public void testResultsKeepItemOrder() {
+        FanOut fanOut = new FanOut("test", 3);
+        List<FanOut.Result> results = fanOut.run(asList("a", "missing", "b"), item -> {
+            if (item.equals("missing")) {
+                throw new IOException("no such repository");
+            }
+        });
+
+        assertEquals(3, results.size());
+        assertEquals("a", results.get(0).getItem());
+        assertTrue(results.get(0).isSuccess());
+        assertNull(results.get(0).getError());
+        assertEquals("missing", results.get(1).getItem());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("no such repository", results.get(1).getError());
+        assertEquals("b", results.get(2).getItem());
+        assertTrue(results.get(2).isSuccess());
+    }
+
+    @Test
+    public void testItemsRunConcurrently() {
+        FanOut fanOut = new FanOut("test", 3);
+        CountDownLatch allStarted = new CountDownLatch(3);
+        List<FanOut.Result> results = fanOut.run(asList("a", "b", "c"), item -> {
+            allStarted.countDown();
+            if (!allStarted.await(10, TimeUnit.SECONDS)) {
+                throw new IOException("items were not processed concurrently");
+            }
+        });
+        results.forEach(r -> assertTrue(r.isSuccess(), r.getItem() + ": " + r.getError()));
+    }
+
+    @Test
+    public void testRepeatedItemsProcessedOnce() {
+        FanOut fanOut = new FanOut("test", 3);
+        List<String> processed = new CopyOnWriteArrayList<>();
+        List<FanOut.Result> results = fanOut.run(asList("foo-plugin", "bar-plugin", "Foo-Plugin", "foo-plugin"), processed::add);
+
+        assertEquals(2, results.size());
+        assertEquals("foo-plugin", results.get(0).getItem());
+        assertEquals("bar-plugin", results.get(1).getItem());
+        assertEquals(2, processed.size());
+        assertTrue(processed.containsAll(asList("foo-plugin", "bar-plugin")));
+    }
+
+    @Test
+    public void testSummarize() {
+        FanOut fanOut = new FanOut("test", 2);
+        List<FanOut.Result> results = fanOut.run(asList("a", "b", "c"), item -> {
+            if (item.equals("b")) {
+                throw new IOException("no such repository");
+            }
+        });
+        assertEquals("Added foo to a, c. Failed to add foo to b (no such repository).",
+                FanOut.summarize("Added foo to", "Failed to add foo to", results));
+
+        results = fanOut.run(asList("a", "b"), item -> {});
+        assertEquals("Added foo to a, b.", FanOut.summarize("Added foo to", "Failed to add foo to", results));
+    }
+}
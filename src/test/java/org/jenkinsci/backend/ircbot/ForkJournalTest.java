@@ -0,0 +1,120 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link ForkJournal}.
+ */
+public class ForkJournalTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    public void testUnfinishedWorkflowsAreResumed() throws Exception {
+        File file = tmp.resolve("fork-journal.txt").toFile();
+        ForkJournal journal = new ForkJournal(file);
+        ForkJournal.Entry done = journal.begin("libera", "#jenkins-hosting", "someone", "foo-plugin", null, singletonList("someone"), false);
+        journal.completed(done, ForkWorkflow.FORK, null);
+        journal.finished(done, true);
+        ForkJournal.Entry interrupted = journal.begin("libera", "#jenkins-hosting", "other", "bar", "bar-plugin",
+                Arrays.asList("other", "friend"), true);
+        journal.completed(interrupted, ForkWorkflow.FORK, null);
+        journal.completed(interrupted, ForkWorkflow.LEGACY_TEAMS, "owners,contributors");
+
+        ForkJournal reopened = new ForkJournal(file);
+        assertEquals(1, reopened.getPendingCount());
+        assertTrue(reopened.takePending("libera", "#jenkins").isEmpty());
+        List<ForkJournal.Entry> pending = reopened.takePending("libera", "#Jenkins-Hosting");
+        assertEquals(1, pending.size());
+        ForkJournal.Entry entry = pending.get(0);
+        assertEquals("other", entry.getOwner());
+        assertEquals("bar", entry.getRepo());
+        assertEquals("bar-plugin", entry.getTargetName());
+        assertEquals(Arrays.asList("other", "friend"), entry.getMaintainers());
+        assertTrue(entry.isUseGHIssues());
+        assertTrue(entry.isCompleted(ForkWorkflow.FORK));
+        assertFalse(entry.isCompleted(ForkWorkflow.RENAME));
+        assertEquals("owners,contributors", entry.getData(ForkWorkflow.LEGACY_TEAMS));
+
+        // taken only once
+        assertTrue(reopened.takePending("libera", "#jenkins-hosting").isEmpty());
+
+        // new workflows do not reuse the ids
+        ForkJournal.Entry next = reopened.begin("libera", "#jenkins-hosting", "third", "baz", null, emptyList(), false);
+        assertTrue(next.getId() > entry.getId());
+    }
+
+    @Test
+    public void testWorkflowsAreBoundToNetwork() throws Exception {
+        File file = tmp.resolve("fork-journal.txt").toFile();
+        ForkJournal journal = new ForkJournal(file);
+        journal.begin("libera", "#jenkins-hosting", "someone", "foo", null, emptyList(), false);
+        // written before the networks were introduced
+        Files.write(file.toPath(), "7\tstart\t#jenkins-hosting\tother\tbar\t\tfalse\tother\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        ForkJournal reopened = new ForkJournal(file);
+        assertTrue(reopened.takePending("staging", "#jenkins-hosting").isEmpty());
+        List<ForkJournal.Entry> pending = reopened.takePending("libera", "#jenkins-hosting");
+        assertEquals(1, pending.size());
+        assertEquals("libera", pending.get(0).getNetwork());
+        assertEquals("foo", pending.get(0).getRepo());
+        pending = reopened.takePending(IrcNetwork.DEFAULT_NAME, "#jenkins-hosting");
+        assertEquals(1, pending.size());
+        assertEquals("bar", pending.get(0).getRepo());
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        File file = tmp.resolve("fork-journal.txt").toFile();
+        ForkJournal journal = new ForkJournal(file);
+        for (int i = 0; i < 10; i++) {
+            ForkJournal.Entry entry = journal.begin("libera", "#jenkins-hosting", "someone", "repo" + i, null, emptyList(), false);
+            journal.completed(entry, ForkWorkflow.FORK, null);
+            journal.finished(entry, i % 2 == 0);
+        }
+        journal.begin("libera", "#jenkins-hosting", "someone", "pending", null, emptyList(), false);
+
+        assertEquals(1, new ForkJournal(file).getPendingCount());
+        assertEquals(1, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws Exception {
+        File file = tmp.resolve("fork-journal.txt").toFile();
+        ForkJournal journal = new ForkJournal(file);
+        ForkJournal.Entry entry = journal.begin("libera", "#jenkins-hosting", "someone", "foo", null, emptyList(), false);
+        journal.completed(entry, ForkWorkflow.FORK, null);
+        Files.write(file.toPath(), (entry.getId() + "\tstep\tren").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        List<ForkJournal.Entry> pending = new ForkJournal(file).takePending("libera", "#jenkins-hosting");
+        assertEquals(1, pending.size());
+        assertTrue(pending.get(0).isCompleted(ForkWorkflow.FORK));
+        assertNull(pending.get(0).getData(ForkWorkflow.RENAME));
+    }
+
+    @Test
+    public void testDisabled() {
+        ForkJournal journal = new ForkJournal(null);
+        ForkJournal.Entry entry = journal.begin("libera", "#jenkins-hosting", "someone", "foo", null, emptyList(), false);
+        journal.completed(entry, ForkWorkflow.FORK, "");
+        assertTrue(entry.isCompleted(ForkWorkflow.FORK));
+        assertEquals(0, journal.getPendingCount());
+    }
+}
@@ -0,0 +1,241 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.OkHttpClient;
+import org.jenkinsci.backend.ircbot.fake.FakeGitHubServer;
+import org.jenkinsci.backend.ircbot.util.Backoff;
+import org.jenkinsci.backend.ircbot.util.ResourceAwaiter;
+import org.jenkinsci.backend.ircbot.util.TokenBucket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kohsuke.github.GHOrganization;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHTeam;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.extras.okhttp3.OkHttpGitHubConnector;
+import org.pircbotx.Channel;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ForkWorkflow}.
+ */
+public class ForkWorkflowTest {
+
+    @TempDir
+    Path tmp;
+
+    private final GitHub github = mock(GitHub.class);
+    private final GHOrganization org = mock(GHOrganization.class);
+    private final AtomicInteger forkRequests = new AtomicInteger();
+    private volatile IOException forkFailure;
+    private final GitHubClientProvider gitHub = new GitHubClientProvider(() -> github) {
+        @Override
+        public void requestFork(GHRepository origin, GHOrganization org) throws IOException {
+            forkRequests.incrementAndGet();
+            if (forkFailure != null) {
+                throw forkFailure;
+            }
+        }
+    };
+    private final FanOut fanOut = new FanOut("test", 2);
+    private final ResourceAwaiter awaiter = new ResourceAwaiter(fanOut, new Backoff(4, 1, 10, 0, () -> 0));
+
+    private final List<String> sent = new ArrayList<>();
+    private final OutboundScheduler scheduler = new OutboundScheduler(
+            (channel, line) -> sent.add(line.substring(line.indexOf(" :") + 2)),
+            new TokenBucket(100, 1, TimeUnit.SECONDS), 400, 100, false);
+    private final ChannelOutput out = scheduler.to(channel("#jenkins-hosting"));
+
+    private final AtomicInteger teams = new AtomicInteger();
+    private final AtomicInteger settings = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        when(github.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION)).thenReturn(org);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        awaiter.close();
+    }
+
+    @Test
+    public void testForkAndRename() throws Exception {
+        GHRepository origin = mock(GHRepository.class);
+        GHRepository fork = mock(GHRepository.class);
+        GHTeam legacy = mock(GHTeam.class);
+        when(legacy.getSlug()).thenReturn("legacy");
+        when(org.getRepository("bar")).thenReturn(fork);
+        when(fork.getTeams()).thenReturn(Collections.singleton(legacy));
+        // the renamed repository shows up after a while
+        when(org.getRepository("bar-plugin")).thenReturn(null, null, fork);
+
+        File file = tmp.resolve("fork-journal.txt").toFile();
+        ForkWorkflow workflow = workflow(new ForkJournal(file));
+        assertTrue(workflow.start(out, "libera", "#jenkins-hosting", "someone", "bar", origin, "bar-plugin", singletonList("someone"), false).join());
+
+        assertEquals(1, forkRequests.get());
+        verify(fork).renameTo("bar-plugin");
+        verify(org, times(3)).getRepository("bar-plugin");
+        verify(legacy).remove(fork);
+        assertEquals(1, teams.get());
+        assertEquals(1, settings.get());
+        assertEquals(0, new ForkJournal(file).getPendingCount());
+    }
+
+    @Test
+    public void testFailedForkIsPolled() throws Exception {
+        GHRepository origin = mock(GHRepository.class);
+        GHRepository fork = mock(GHRepository.class);
+        forkFailure = new IOException("502 Bad Gateway");
+        when(org.getRepository("bar")).thenReturn(null, fork);
+
+        ForkWorkflow workflow = workflow(new ForkJournal(null));
+        assertTrue(workflow.start(out, "libera", "#jenkins-hosting", "someone", "bar", origin, null, singletonList("someone"), false).join());
+        verify(org, times(2)).getRepository("bar");
+        assertEquals(1, settings.get());
+    }
+
+    @Test
+    public void testResumeSkipsCompletedSteps() throws Exception {
+        File file = tmp.resolve("fork-journal.txt").toFile();
+        ForkJournal journal = new ForkJournal(file);
+        ForkJournal.Entry interrupted = journal.begin("libera", "#jenkins-hosting", "someone", "bar", "bar-plugin", singletonList("someone"), false);
+        journal.completed(interrupted, ForkWorkflow.FORK, null);
+        journal.completed(interrupted, ForkWorkflow.RENAME, null);
+        journal.completed(interrupted, ForkWorkflow.LEGACY_TEAMS, "legacy");
+        journal.completed(interrupted, ForkWorkflow.TEAM, null);
+
+        GHRepository fork = mock(GHRepository.class);
+        GHTeam legacy = mock(GHTeam.class);
+        when(org.getRepository("bar-plugin")).thenReturn(fork);
+        when(org.getTeamBySlug("legacy")).thenReturn(legacy);
+
+        ForkWorkflow workflow = workflow(new ForkJournal(file));
+        List<ForkJournal.Entry> pending = workflow.takePending("libera", "#jenkins-hosting");
+        assertEquals(1, pending.size());
+        assertTrue(workflow.resume(out, pending.get(0)).join());
+
+        verify(github, never()).getUser(anyString());
+        verify(fork, never()).renameTo(anyString());
+        verify(fork, never()).getTeams();
+        verify(legacy).remove(fork);
+        assertEquals(0, teams.get());
+        assertEquals(1, settings.get());
+        assertEquals(0, new ForkJournal(file).getPendingCount());
+    }
+
+    @Test
+    public void testTeamAndSettingsInParallel() throws Exception {
+        GHRepository origin = mock(GHRepository.class);
+        GHRepository fork = mock(GHRepository.class);
+        when(org.getRepository("bar")).thenReturn(fork);
+
+        CountDownLatch both = new CountDownLatch(2);
+        ForkWorkflow.Setup await = (out, r, entry) -> {
+            both.countDown();
+            try {
+                if (!both.await(10, TimeUnit.SECONDS)) {
+                    throw new IOException("not running in parallel");
+                }
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        };
+        ForkWorkflow workflow = new ForkWorkflow(gitHub, new ForkJournal(null), awaiter, fanOut, await, await);
+        assertTrue(workflow.start(out, "libera", "#jenkins-hosting", "someone", "bar", origin, null, singletonList("someone"), false).join());
+        assertEquals(0, both.getCount());
+    }
+
+    @Test
+    public void testSettingsRetriedThenFailed() throws Exception {
+        GHRepository origin = mock(GHRepository.class);
+        GHRepository fork = mock(GHRepository.class);
+        when(org.getRepository("bar")).thenReturn(fork);
+        doThrow(new IOException("403 Forbidden")).when(fork).enableWiki(false);
+
+        File file = tmp.resolve("fork-journal.txt").toFile();
+        ForkWorkflow workflow = new ForkWorkflow(gitHub, new ForkJournal(file), awaiter, fanOut,
+                (out, r, entry) -> teams.incrementAndGet(),
+                (out, r, entry) -> r.enableWiki(false));
+        assertFalse(workflow.start(out, "libera", "#jenkins-hosting", "someone", "bar", origin, null, singletonList("someone"), false).join());
+
+        verify(fork, times(4)).enableWiki(false);
+        assertEquals(1, teams.get());
+        while (scheduler.sendNext()) {
+            // send everything
+        }
+        assertEquals(singletonList("Failed to fork a repository: 403 Forbidden"), sent);
+        // failed workflows are not resumed
+        assertEquals(0, new ForkJournal(file).getPendingCount());
+    }
+
+    @Test
+    public void testForkWithFakeGitHub() throws Exception {
+        try (FakeGitHubServer server = new FakeGitHubServer("ircbot")) {
+            server.addOrganization(IrcBotConfig.GITHUB_ORGANIZATION);
+            server.addUser("someone");
+            server.addRepository("someone", "bar");
+            server.start();
+            GitHubClientProvider client = new GitHubClientProvider(() -> new GitHubBuilder()
+                    .withEndpoint(server.getUri().toString())
+                    .withOAuthToken("secret")
+                    .withConnector(new OkHttpGitHubConnector(new OkHttpClient()))
+                    .build());
+            ForkWorkflow workflow = new ForkWorkflow(client, new ForkJournal(null), awaiter, fanOut,
+                    (out, r, entry) -> client.getOrganization().createTeam(r.getName() + " Developers").create()
+                            .add(r, GHOrganization.Permission.ADMIN),
+                    (out, r, entry) -> {
+                        r.enableIssueTracker(entry.isUseGHIssues());
+                        r.enableWiki(false);
+                    });
+
+            GHRepository origin = client.get().getUser("someone").getRepository("bar");
+            assertTrue(workflow.start(out, "libera", "#jenkins-hosting", "someone", "bar", origin, "bar-plugin", singletonList("someone"), false).join());
+
+            assertEquals(1, server.getRequestCount("POST", "/repos/someone/bar/forks"));
+            assertTrue(server.hasRepository(IrcBotConfig.GITHUB_ORGANIZATION, "bar-plugin"));
+            assertArrayEquals(new boolean[] {false, false}, server.getRepositorySettings(IrcBotConfig.GITHUB_ORGANIZATION, "bar-plugin"));
+            assertEquals(singletonList("bar-plugin Developers"), server.getTeams(IrcBotConfig.GITHUB_ORGANIZATION, "bar-plugin"));
+            while (scheduler.sendNext()) {
+                // send everything
+            }
+            assertEquals(singletonList("Created https://github.com/" + IrcBotConfig.GITHUB_ORGANIZATION + "/bar-plugin"), sent);
+        }
+    }
+
+    private ForkWorkflow workflow(ForkJournal journal) {
+        return new ForkWorkflow(gitHub, journal, awaiter, fanOut,
+                (out, r, entry) -> teams.incrementAndGet(),
+                (out, r, entry) -> settings.incrementAndGet());
+    }
+
+    private static Channel channel(String name) {
+        Channel channel = mock(Channel.class);
+        when(channel.getName()).thenReturn(name);
+        return channel;
+    }
+}
@@ -0,0 +1,124 @@
+package org.jenkinsci.backend.ircbot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import org.jenkinsci.backend.ircbot.fake.FakeGitHubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.GitHubRateLimitHandler;
+import org.kohsuke.github.HttpException;
+import org.kohsuke.github.extras.okhttp3.OkHttpGitHubConnector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link GitHubClientProvider} with the HTTP client of the default provider against {@link FakeGitHubServer}.
+ */
+public class GitHubClientProviderTest {
+
+    @TempDir
+    Path tmp;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<GitHub> created = new CopyOnWriteArrayList<>();
+    private FakeGitHubServer server;
+    private OkHttpClient httpClient;
+    private GitHubClientProvider provider;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeGitHubServer("ircbot");
+        server.addOrganization(IrcBotConfig.GITHUB_ORGANIZATION);
+        server.addUser("someone");
+        server.addRepository("someone", "bar");
+        server.start();
+        httpClient = GitHubClientProvider.createHttpClient(tmp.toFile(), 1024 * 1024, new BotMetrics(registry));
+        provider = new GitHubClientProvider(() -> {
+            GitHub github = new GitHubBuilder()
+                    .withEndpoint(server.getUri().toString())
+                    .withOAuthToken("secret")
+                    .withConnector(new OkHttpGitHubConnector(httpClient))
+                    .withRateLimitHandler(GitHubRateLimitHandler.FAIL)
+                    .build();
+            created.add(github);
+            return github;
+        });
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        provider.close();
+        httpClient.cache().close();
+        server.close();
+    }
+
+    @Test
+    public void testRevalidationDoesNotUseRateLimit() throws Exception {
+        server.setRateLimit(10, 1, TimeUnit.HOURS);
+        assertEquals("bar", provider.get().getRepository("someone/bar").getName());
+        assertEquals("bar", provider.get().getRepository("someone/bar").getName());
+
+        assertEquals(2, server.getRequestCount("GET", "/repos/someone/bar"));
+        assertEquals(1, httpClient.cache().hitCount(), "The second response should be a 304 served from the cache");
+        assertEquals(9.0, registry.get("ircbot.github.ratelimit.remaining").gauge().value());
+        assertEquals(2, registry.get("ircbot.remote.duration")
+                .tag("service", "github").tag("operation", "GET").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    public void testFailedCallsRecorded() throws Exception {
+        server.setErrorRate(1, 502);
+        assertThrows(IOException.class, () -> provider.get().getUser("someone"));
+        server.setErrorRate(0, 502);
+        assertEquals("someone", provider.get().getUser("someone").getLogin());
+
+        assertTrue(registry.get("ircbot.remote.duration")
+                .tag("service", "github").tag("operation", "GET").tag("outcome", "failure").timer().count() > 0);
+    }
+
+    @Test
+    public void testRecreatedAfterConnectionFailure() throws Exception {
+        GitHub first = provider.get();
+        assertSame(first, provider.get());
+        assertEquals(IrcBotConfig.GITHUB_ORGANIZATION, provider.getOrganization().getLogin());
+
+        // GitHub has responded, the connection is fine
+        provider.reportFailure(new HttpException("Bad Gateway", 502, "Bad Gateway", server.getUri().toString()));
+        assertSame(first, provider.get());
+
+        provider.reportFailure(new SocketTimeoutException("timeout"));
+        GitHub second = provider.get();
+        assertNotSame(first, second);
+        assertEquals(IrcBotConfig.GITHUB_ORGANIZATION, provider.getOrganization().getLogin());
+        assertEquals(2, server.getRequestCount("GET", "/orgs/" + IrcBotConfig.GITHUB_ORGANIZATION));
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    public void testHealthCheck() throws Exception {
+        GitHub first = provider.get();
+        assertTrue(provider.isHealthy());
+        assertSame(first, provider.get());
+
+        server.setErrorRate(1, 502);
+        assertFalse(provider.isHealthy());
+        server.setErrorRate(0, 502);
+        assertNotSame(first, provider.get());
+        assertTrue(provider.isHealthy());
+    }
+}
@@ -0,0 +1,111 @@
+package org.jenkinsci.backend.ircbot;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.FileNotFoundException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GHOrganization;
+import org.kohsuke.github.GHTeam;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.PagedIterable;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link GitHubTeamIndex}.
+ */
+public class GitHubTeamIndexTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private GHOrganization org;
+    private GHTeam foo;
+    private GitHubTeamIndex index;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        foo = team("foo-plugin Developers");
+        PagedIterable<GHTeam> listing = mock(PagedIterable.class);
+        when(listing.withPageSize(anyInt())).thenReturn(listing);
+        when(listing.toList()).thenReturn(asList(foo, team("bar-plugin Developers")));
+
+        org = mock(GHOrganization.class);
+        when(org.listTeams()).thenReturn(listing);
+        GitHub gh = mock(GitHub.class);
+        when(gh.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION)).thenReturn(org);
+
+        index = new GitHubTeamIndex(new GitHubClientProvider(() -> gh), 3600, now::get,
+                MoreExecutors.newDirectExecutorService());
+    }
+
+    @Test
+    public void testTeamsListedOnce() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            assertSame(foo, index.get("foo-plugin Developers"));
+            assertSame(foo, index.get("FOO-plugin developers"));
+        }
+        verify(org, times(1)).listTeams();
+        verify(org, never()).getTeamBySlug(anyString());
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        index.get("foo-plugin Developers");
+        now.addAndGet(TimeUnit.SECONDS.toMillis(3600));
+        index.get("foo-plugin Developers");
+        verify(org, times(1)).listTeams();
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(1));
+        index.get("foo-plugin Developers");
+        verify(org, times(2)).listTeams();
+    }
+
+    @Test
+    public void testMissingTeamLookedUpBySlug() throws Exception {
+        GHTeam baz = team("baz.plugin Developers");
+        when(org.getTeamBySlug("baz-plugin-developers")).thenReturn(baz);
+
+        assertSame(baz, index.get("baz.plugin Developers"));
+        assertSame(baz, index.get("baz.plugin Developers"));
+        verify(org, times(1)).getTeamBySlug("baz-plugin-developers");
+    }
+
+    @Test
+    public void testNoSuchTeam() throws Exception {
+        when(org.getTeamBySlug("qux-developers")).thenThrow(new FileNotFoundException());
+        assertNull(index.get("qux Developers"));
+    }
+
+    @Test
+    public void testCreatedTeamIndexed() throws Exception {
+        index.get("foo-plugin Developers");
+        GHTeam created = mock(GHTeam.class);
+        index.put("new-plugin Developers", created);
+        assertSame(created, index.get("new-plugin Developers"));
+        verify(org, never()).getTeamBySlug(anyString());
+    }
+
+    @Test
+    public void testSlug() {
+        assertEquals("foo-plugin-developers", GitHubTeamIndex.slugOf("foo-plugin Developers"));
+        assertEquals("foo-bar-developers", GitHubTeamIndex.slugOf("foo.bar  Developers"));
+    }
+
+    private static GHTeam team(String name) {
+        GHTeam team = mock(GHTeam.class);
+        when(team.getName()).thenReturn(name);
+        return team;
+    }
+}
@@ -0,0 +1,109 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jenkinsci.backend.ircbot.fake.FakeIrcServer;
+import org.jenkinsci.backend.ircbot.fake.IrcLoadGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.pircbotx.PircBotX;
+import org.pircbotx.exception.IrcException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end tests of the bot connected to {@link FakeIrcServer}.
+ *
+ * The throughput test runs with {@code -Dircbot.loadTest=true} only. The load is set by
+ * {@code ircbot.loadTest.users} (users per channel), {@code ircbot.loadTest.rate} (commands per second)
+ * and {@code ircbot.loadTest.duration} (seconds), the channels are the ones of {@code ircbot.channels}.
+ */
+public class IrcBotLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IrcBotLoadTest.class);
+
+    private static final String PASSWORD = "secret";
+
+    private FakeIrcServer server;
+    private IrcListener listener;
+    private PircBotX bot;
+    private Thread botThread;
+    private List<String> channels;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeIrcServer();
+        server.setSaslCredentials(IrcBotConfig.NAME, PASSWORD);
+        // like real networks, disconnects the bot if its outbound rate limit is not effective
+        server.setFloodLimit(20, 5);
+        server.start();
+
+        BotServices services = new BotServices(null, new CommandExecutor(2, 100, false),
+                new GitHubClientProvider(() -> {
+                    throw new IOException("GitHub is not available in the tests");
+                }), new ForkJournal(null));
+        listener = new IrcListener(services,
+                new IrcNetwork("fake", InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), false, null));
+        bot = new PircBotX(IrcListener.configure(listener, PASSWORD).buildConfiguration());
+        botThread = new Thread(() -> {
+            try {
+                bot.startBot();
+            } catch (IOException | IrcException e) {
+                throw new IllegalStateException("Bot failed", e);
+            }
+        }, "ircbot-test");
+        botThread.start();
+        channels = new ArrayList<>(RuntimeConfig.current().getChannels().getChannels());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        bot.stopBotReconnect();
+        if (bot.isConnected()) {
+            bot.sendIRC().quitServer("Done");
+        }
+        botThread.join(TimeUnit.SECONDS.toMillis(10));
+        listener.getLifecycle().shutdown();
+        server.close();
+    }
+
+    @Test
+    public void testCommandsAreAnswered() throws Exception {
+        IrcLoadGenerator generator = new IrcLoadGenerator(server, IrcBotConfig.NAME);
+        List<List<String>> users = generator.joinUsers(channels, 10, 30, TimeUnit.SECONDS);
+
+        // every user greets the bot once
+        IrcLoadGenerator.Result result = generator.run(channels, users, 10 * channels.size(), 1, 30, TimeUnit.SECONDS);
+        assertTrue(result.getSent() >= 10 * channels.size(), result.toString());
+        assertEquals(result.getSent(), result.getAnswered(), result.toString());
+        assertEquals(0, server.getFloodDisconnects());
+        assertTrue(bot.isConnected());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "ircbot.loadTest", matches = "true")
+    public void testThroughput() throws Exception {
+        int usersPerChannel = Integer.getInteger("ircbot.loadTest.users", 50);
+        int rate = Integer.getInteger("ircbot.loadTest.rate", 20);
+        int duration = Integer.getInteger("ircbot.loadTest.duration", 60);
+
+        IrcLoadGenerator generator = new IrcLoadGenerator(server, IrcBotConfig.NAME);
+        List<List<String>> users = generator.joinUsers(channels, usersPerChannel, 30, TimeUnit.SECONDS);
+        long received = server.getReceivedLines();
+        IrcLoadGenerator.Result result = generator.run(channels, users, rate, duration, 60, TimeUnit.SECONDS);
+        String summary = "Load test with " + usersPerChannel + " users in " + channels + " at " + rate + " commands/s: "
+                + result + ", lines sent by the bot: " + (server.getReceivedLines() - received);
+        LOGGER.info(summary);
+
+        assertTrue(result.getAnswered() > 0, summary);
+        assertEquals(0, server.getFloodDisconnects(), "The bot has been disconnected for flooding. " + summary);
+    }
+}
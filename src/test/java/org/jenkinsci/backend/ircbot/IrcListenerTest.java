@@ -1,23 +1,34 @@
 package org.jenkinsci.backend.ircbot;
 
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.AfterAll;
 import org.kohsuke.github.*;
 import org.mockito.Mockito;
-import org.mockito.MockedStatic;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.pircbotx.Channel;
+import org.pircbotx.PircBotX;
 import org.pircbotx.User;
 import org.pircbotx.UserLevel;
 import org.pircbotx.output.OutputChannel;
+import org.pircbotx.output.OutputRaw;
 
 import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -25,12 +36,6 @@ import static org.mockito.Mockito.when;
  * Created by slide on 11/14/2016.
  */
 public class IrcListenerTest {
-    static MockedStatic<GitHub> utilities = Mockito.mockStatic(GitHub.class);
-
-    @AfterAll
-    public static void afterClass() throws Exception {
-        utilities.closeOnDemand();
-    }
 
     @Test
     public void testForkGithubExistingRepo() throws Exception {
@@ -41,7 +46,6 @@ public class IrcListenerTest {
         final String from = "foobar";
 
         GitHub gh = mock(GitHub.class);
-        utilities.when(GitHub::connect).thenReturn(gh);
 
         GHRepository repo = mock(GHRepository.class);
 
@@ -52,7 +56,7 @@ public class IrcListenerTest {
 
         System.setProperty("ircbot.testSuperUser", botUser);
 
-        IrcListener ircListener = new IrcListener(null);
+        IrcListener ircListener = new IrcListener(null, new CommandExecutor(), new GitHubClientProvider(() -> gh));
         User sender = mock(User.class);
         when(sender.getNick()).thenReturn(botUser);
 
@@ -66,7 +70,7 @@ public class IrcListenerTest {
         builder.add(UserLevel.VOICE);
         when(sender.getUserLevels(chan)).thenReturn(builder.build());
 
-        assertFalse(ircListener.forkGitHub(chan, sender, owner, from, repoName, emptyList(), false));
+        assertFalse(ircListener.forkGitHub(chan, sender, owner, from, repoName, emptyList(), false).join());
     }
 
     @Test
@@ -78,7 +82,6 @@ public class IrcListenerTest {
         final String from = "jenkins";
 
         GitHub gh = mock(GitHub.class);
-        utilities.when(GitHub::connect).thenReturn(gh);
 
         GHRepository originRepo = mock(GHRepository.class);
         final GHRepository newRepo = mock(GHRepository.class);
@@ -95,7 +98,6 @@ public class IrcListenerTest {
 
         when(gh.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION)).thenReturn(gho);
 
-        when(originRepo.forkTo(gho)).thenReturn(newRepo);
         when(newRepo.getName()).thenReturn(repoName);
 
         Mockito.doAnswer(new Answer<Void>() {
@@ -115,7 +117,7 @@ public class IrcListenerTest {
 
         System.setProperty("ircbot.testSuperUser", botUser);
 
-        IrcListener ircListener = new IrcListener(null);
+        IrcListener ircListener = new IrcListener(null, new CommandExecutor(), new GitHubClientProvider(() -> gh));
         User sender = mock(User.class);
         when(sender.getNick()).thenReturn(botUser);
 
@@ -128,7 +130,7 @@ public class IrcListenerTest {
         ImmutableSortedSet.Builder<UserLevel> builder = ImmutableSortedSet.naturalOrder();
         builder.add(UserLevel.VOICE);
         when(sender.getUserLevels(chan)).thenReturn(builder.build());
-        assertFalse(ircListener.forkGitHub(chan, sender, owner, from, repoName, emptyList(), false));
+        assertFalse(ircListener.forkGitHub(chan, sender, owner, from, repoName, emptyList(), false).join());
     }
 
     @Test
@@ -140,7 +142,6 @@ public class IrcListenerTest {
         final String from = "jenkins";
 
         GitHub gh = mock(GitHub.class);
-        utilities.when(GitHub::connect).thenReturn(gh);
 
         GHRepository originRepo = mock(GHRepository.class);
         final GHRepository newRepo = mock(GHRepository.class);
@@ -157,7 +158,6 @@ public class IrcListenerTest {
 
         when(gh.getOrganization(IrcBotConfig.GITHUB_ORGANIZATION)).thenReturn(gho);
 
-        when(originRepo.forkTo(gho)).thenReturn(newRepo);
         when(newRepo.getName()).thenReturn(repoName);
 
         Mockito.doAnswer(new Answer<Void>() {
@@ -184,7 +184,14 @@ public class IrcListenerTest {
 
         System.setProperty("ircbot.testSuperUser", botUser);
 
-        IrcListener ircListener = new IrcListener(null);
+        GitHubClientProvider gitHub = new GitHubClientProvider(() -> gh) {
+            @Override
+            public void requestFork(GHRepository origin, GHOrganization org) {
+                // the fork takes the name the renamed repository had
+                when(gho.getRepository(from)).thenReturn(newRepo);
+            }
+        };
+        IrcListener ircListener = new IrcListener(null, new CommandExecutor(), gitHub);
         User sender = mock(User.class);
         when(sender.getNick()).thenReturn(botUser);
 
@@ -197,21 +204,17 @@ public class IrcListenerTest {
         ImmutableSortedSet.Builder<UserLevel> builder = ImmutableSortedSet.naturalOrder();
         builder.add(UserLevel.VOICE);
         when(sender.getUserLevels(chan)).thenReturn(builder.build());
-        assertTrue(ircListener.forkGitHub(chan, sender, owner, from, repoName, emptyList(), false));
+        assertTrue(ircListener.forkGitHub(chan, sender, owner, from, repoName, emptyList(), false).join());
     }
 
     @Test
     public void testCreateRepoWithNoIssueTracker() throws Exception {
         // see https://github.com/jenkins-infra/ircbot/issues/101
 
-        final String repoName = "memkins";
         final String channel = "#dummy";
         final String botUser = "bot-user";
-        final String owner = "bar";
-        final String from = "foobar";
 
         GitHub gh = mock(GitHub.class);
-        utilities.when(GitHub::connect).thenReturn(gh);
 
         GHUser awesomeUser = mock(GHUser.class);
         when(gh.getUser("awesome-user")).thenReturn(awesomeUser);
@@ -240,7 +243,9 @@ public class IrcListenerTest {
 
         System.setProperty("ircbot.testSuperUser", botUser);
 
-        IrcListener ircListener = new IrcListener(null);
+        // runs the command in the test thread
+        CommandExecutor executor = new CommandExecutor(MoreExecutors.newDirectExecutorService(), 16);
+        IrcListener ircListener = new IrcListener(null, executor, new GitHubClientProvider(() -> gh));
         User sender = mock(User.class);
         when(sender.getNick()).thenReturn(botUser);
 
@@ -255,6 +260,77 @@ public class IrcListenerTest {
         when(sender.getUserLevels(chan)).thenReturn(builder.build());
 
         ircListener.handleDirectCommand(chan, sender, "Create memkins on github for awesome-user");
-        //assertFalse(ircListener.forkGitHub(chan, sender, owner, from, repoName, emptyList(), false));
+        assertEquals(0, executor.getPendingCount());
+
+        verify(repositoryBuilder).create();
+        verify(repo).enableIssueTracker(false);
+        verify(repo).enableWiki(false);
+        verify(teamBuilder).maintainers("awesome-user");
+        verify(team).add(repo, GHOrganization.Permission.ADMIN);
+    }
+
+    @Test
+    public void testFailedCommandIsRecorded() throws Exception {
+        final String botUser = "bot-user";
+        GitHub gh = mock(GitHub.class);
+        when(gh.getOrganization(anyString())).thenThrow(new IOException("GitHub is down"));
+        System.setProperty("ircbot.testSuperUser", botUser);
+
+        CommandExecutor executor = new CommandExecutor(MoreExecutors.newDirectExecutorService(), 16);
+        IrcListener ircListener = new IrcListener(null, executor, new GitHubClientProvider(() -> gh));
+        User sender = mock(User.class);
+        when(sender.getNick()).thenReturn(botUser);
+        Channel chan = mock(Channel.class);
+        when(chan.getName()).thenReturn("#dummy");
+
+        long failures = commandCount("renameRepository", "failure");
+        ircListener.handleDirectCommand(chan, sender, "rename github repo foo to bar");
+        assertEquals(failures + 1, commandCount("renameRepository", "failure"),
+                "The handler reports the failure to the channel, it should still be counted");
+    }
+
+    @Test
+    public void testRefreshCoalesced() throws Exception {
+        CommandExecutor executor = new CommandExecutor(MoreExecutors.newDirectExecutorService(), 16);
+        IrcListener ircListener = new IrcListener(null, executor, new GitHubClientProvider(() -> mock(GitHub.class)));
+        User sender = mock(User.class);
+        when(sender.getNick()).thenReturn("someone");
+        Channel chan = mock(Channel.class);
+        when(chan.getName()).thenReturn("#dummy");
+        PircBotX bot = mock(PircBotX.class);
+        OutputRaw raw = mock(OutputRaw.class);
+        when(chan.<PircBotX>getBot()).thenReturn(bot);
+        when(bot.sendRaw()).thenReturn(raw);
+
+        ircListener.handleDirectCommand(chan, sender, "refresh");
+        ircListener.handleDirectCommand(chan, sender, "refresh");
+        verify(raw, times(1)).rawLineNow("NAMES #dummy");
+    }
+
+    @Test
+    public void testJoinCommands() {
+        assertEquals(emptyList(), IrcListener.joinCommands(emptyList()));
+        assertEquals(Collections.singletonList("JOIN #jenkins-hosting,#jenkins-infra"),
+                IrcListener.joinCommands(Arrays.asList("#jenkins-hosting", "#jenkins-infra")));
+
+        List<String> channels = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            channels.add("#jenkins-channel-" + i);
+        }
+        List<String> lines = IrcListener.joinCommands(channels);
+        assertEquals(4, lines.size());
+        List<String> joined = new ArrayList<>();
+        for (String line : lines) {
+            assertTrue(line.length() <= 510, line);
+            assertTrue(line.startsWith("JOIN #"), line);
+            joined.addAll(Arrays.asList(line.substring("JOIN ".length()).split(",")));
+        }
+        assertEquals(channels, joined);
+    }
+
+    private static long commandCount(String command, String outcome) {
+        Timer timer = BotMetrics.get().getRegistry().find("ircbot.command.duration")
+                .tag("command", command).tag("outcome", outcome).timer();
+        return timer != null ? timer.count() : 0;
     }
 }
@@ -0,0 +1,73 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link IrcNetwork}.
+ */
+public class IrcNetworkTest {
+
+    @Test
+    public void testDefaultNetwork() {
+        List<IrcNetwork> networks = IrcNetwork.parse(null, new Properties());
+        assertEquals(1, networks.size());
+        IrcNetwork network = networks.get(0);
+        assertEquals(IrcNetwork.DEFAULT_NAME, network.getName());
+        assertEquals(IrcBotConfig.SERVER, network.getServer());
+        assertEquals(IrcBotConfig.PORT, network.getPort());
+        assertFalse(network.hasOwnChannels());
+        RuntimeConfig config = RuntimeConfig.current();
+        assertSame(config.getChannels(), network.getChannels(config));
+
+        assertEquals(1, IrcNetwork.parse(" , ", new Properties()).size());
+    }
+
+    @Test
+    public void testSeveralNetworks() {
+        Properties properties = new Properties();
+        properties.setProperty("ircbot.network.libera.server", "irc.libera.chat");
+        properties.setProperty("ircbot.network.libera.tls", "true");
+        properties.setProperty("ircbot.network.staging.server", " irc.example.org ");
+        properties.setProperty("ircbot.network.staging.port", "6668");
+        properties.setProperty("ircbot.network.staging.tls", "false");
+        properties.setProperty("ircbot.network.staging.channels", "#ircbot-test, #ircbot-staging");
+
+        List<IrcNetwork> networks = IrcNetwork.parse("libera, staging", properties);
+        assertEquals(2, networks.size());
+        IrcNetwork libera = networks.get(0);
+        assertEquals("libera (irc.libera.chat:6697, TLS)", libera.toString());
+        assertTrue(libera.isTls());
+        assertFalse(libera.hasOwnChannels());
+
+        IrcNetwork staging = networks.get(1);
+        assertEquals("staging (irc.example.org:6668)", staging.toString());
+        assertFalse(staging.isTls());
+        assertTrue(staging.hasOwnChannels());
+        assertEquals(new LinkedHashSet<>(Arrays.asList("#ircbot-test", "#ircbot-staging")),
+                staging.getChannels(RuntimeConfig.current()).getChannels());
+        assertFalse(staging.getChannels(RuntimeConfig.current()).contains("#jenkins-hosting"));
+    }
+
+    @Test
+    public void testInvalidNetworks() {
+        Properties properties = new Properties();
+        properties.setProperty("ircbot.network.libera.server", "irc.libera.chat");
+        properties.setProperty("ircbot.network.staging.port", "ircd");
+
+        assertThrows(IllegalArgumentException.class, () -> IrcNetwork.parse("libera,staging", properties));
+        properties.setProperty("ircbot.network.staging.server", "irc.example.org");
+        assertThrows(IllegalArgumentException.class, () -> IrcNetwork.parse("libera,staging", properties));
+        assertThrows(IllegalArgumentException.class, () -> IrcNetwork.parse("libera,libera", properties));
+        assertThrows(IllegalArgumentException.class, () -> IrcNetwork.parse("libera,\"quoted\"", properties));
+    }
+}
@@ -0,0 +1,36 @@
+package org.jenkinsci.backend.ircbot;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link IssueKeyDetector}.
+ */
+public class IssueKeyDetectorTest {
+
+    private final IssueKeyDetector detector = new IssueKeyDetector(asList("JENKINS", "INFRA"));
+
+    @Test
+    public void testKeysFound() {
+        assertEquals(singletonList("JENKINS-12345"), detector.find("JENKINS-12345"));
+        assertEquals(asList("JENKINS-12345", "INFRA-1"), detector.find("JENKINS-12345 looks like a duplicate of INFRA-1."));
+        assertEquals(singletonList("JENKINS-1"), detector.find("see (JENKINS-1), JENKINS-1 again"));
+        assertEquals(singletonList("INFRA-42"), detector.find("https://issues.jenkins.io/browse/INFRA-42"));
+    }
+
+    @Test
+    public void testNoKeys() {
+        assertEquals(emptyList(), detector.find("nothing to see here"));
+        assertEquals(emptyList(), detector.find("ircbot-foo and jenkins-admin"));
+        assertEquals(emptyList(), detector.find("SECURITY-123 is not tracked"));
+        assertEquals(emptyList(), detector.find("JENKINS- is not a key"));
+        assertEquals(emptyList(), detector.find("XJENKINS-123"));
+        assertEquals(emptyList(), detector.find("JENKINS-123abc"));
+        assertEquals(emptyList(), detector.find("jenkins-123"));
+        assertEquals(emptyList(), detector.find("-"));
+    }
+}
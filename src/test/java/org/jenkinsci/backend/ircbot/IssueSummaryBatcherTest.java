@@ -0,0 +1,124 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link IssueSummaryBatcher}.
+ * Batches are flushed explicitly instead of waiting for the scheduler.
+ */
+public class IssueSummaryBatcherTest {
+
+    private final List<List<String>> searches = new ArrayList<>();
+    private final List<String> fetches = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+
+    @Test
+    public void testLookupsMerged() throws Exception {
+        IssueSummaryBatcher batcher = new IssueSummaryBatcher(this::search, this::fetch, scheduler, Runnable::run, 200, 50);
+        CompletableFuture<String> first = batcher.get("JENKINS-1");
+        CompletableFuture<String> second = batcher.get("INFRA-2");
+        CompletableFuture<String> duplicate = batcher.get("JENKINS-1");
+        verify(scheduler, times(1)).schedule(any(Runnable.class), eq(200L), eq(TimeUnit.MILLISECONDS));
+
+        batcher.flush();
+        assertEquals("JENKINS-1 (searched)", first.get());
+        assertEquals("INFRA-2 (searched)", second.get());
+        assertEquals("JENKINS-1 (searched)", duplicate.get());
+        assertEquals(asList(asList("JENKINS-1", "INFRA-2")), searches);
+        assertTrue(fetches.isEmpty());
+    }
+
+    @Test
+    public void testFullBatchFlushedImmediately() throws Exception {
+        IssueSummaryBatcher batcher = new IssueSummaryBatcher(this::search, this::fetch, scheduler, Runnable::run, 200, 2);
+        batcher.get("JENKINS-1");
+        batcher.get("JENKINS-2");
+        verify(scheduler, times(1)).schedule(any(Runnable.class), eq(0L), eq(TimeUnit.MILLISECONDS));
+        CompletableFuture<String> third = batcher.get("JENKINS-3");
+
+        batcher.flush();
+        assertEquals(asList(asList("JENKINS-1", "JENKINS-2")), searches);
+        batcher.flush();
+        assertEquals("JENKINS-3 (fetched)", third.get(), "Single issues are fetched directly");
+    }
+
+    @Test
+    public void testFallbackToSingleFetches() throws Exception {
+        IssueSummaryBatcher batcher = new IssueSummaryBatcher(keys -> {
+            throw new IOException("An issue with key 'JENKINS-404' does not exist");
+        }, this::fetch, scheduler, Runnable::run, 200, 50);
+        CompletableFuture<String> existing = batcher.get("JENKINS-1");
+        CompletableFuture<String> missing = batcher.get("JENKINS-404");
+
+        batcher.flush();
+        assertEquals("JENKINS-1 (fetched)", existing.get());
+        assertThrows(ExecutionException.class, missing::get);
+    }
+
+    @Test
+    public void testMovedIssueFetched() throws Exception {
+        IssueSummaryBatcher batcher = new IssueSummaryBatcher(keys -> {
+            Map<String, String> result = new HashMap<>();
+            result.put("JENKINS-1", "JENKINS-1 (searched)");
+            result.put("INFRA-5", "INFRA-5 (searched)");
+            return result;
+        }, this::fetch, scheduler, Runnable::run, 200, 50);
+        CompletableFuture<String> first = batcher.get("JENKINS-1");
+        CompletableFuture<String> moved = batcher.get("JENKINS-2");
+
+        batcher.flush();
+        assertEquals("JENKINS-1 (searched)", first.get());
+        assertEquals("JENKINS-2 (fetched)", moved.get());
+    }
+
+    @Test
+    public void testFetchesOutsideOfScheduler() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        IssueSummaryBatcher batcher = new IssueSummaryBatcher(keys -> {
+            throw new IOException("An issue with key 'JENKINS-404' does not exist");
+        }, this::fetch, scheduler, tasks::add, 200, 50);
+        CompletableFuture<String> existing = batcher.get("JENKINS-1");
+        CompletableFuture<String> missing = batcher.get("JENKINS-404");
+
+        batcher.flush();
+        assertTrue(fetches.isEmpty(), "The scheduler thread does not wait for the single fetches");
+        assertEquals(2, tasks.size());
+        tasks.forEach(Runnable::run);
+        assertEquals("JENKINS-1 (fetched)", existing.get());
+        assertThrows(ExecutionException.class, missing::get);
+    }
+
+    private Map<String, String> search(List<String> keys) {
+        searches.add(new ArrayList<>(keys));
+        Map<String, String> result = new HashMap<>();
+        keys.forEach(key -> result.put(key, key + " (searched)"));
+        return result;
+    }
+
+    private String fetch(String key) throws IOException {
+        fetches.add(key);
+        if (key.endsWith("-404")) {
+            throw new IOException("Issue does not exist");
+        }
+        return key + " (fetched)";
+    }
+}
@@ -0,0 +1,58 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jenkinsci.backend.ircbot.util.ExpiringCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link IssueSummaryCache}.
+ */
+public class IssueSummaryCacheTest {
+
+    @Test
+    public void testSummaryFetchedOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> fetch = new CompletableFuture<>();
+        IssueSummaryCache summaries = new IssueSummaryCache(key -> {
+            loads.incrementAndGet();
+            return fetch;
+        }, new ExpiringCache<>(60, TimeUnit.SECONDS, 10));
+
+        CompletableFuture<String> first = summaries.get("JENKINS-1");
+        CompletableFuture<String> second = summaries.get("JENKINS-1");
+        assertSame(first, second, "Concurrent requests share the fetch");
+        assertFalse(first.isDone());
+
+        fetch.complete("JENKINS-1: summary");
+        assertEquals("JENKINS-1: summary", first.get());
+        assertEquals("JENKINS-1: summary", summaries.get("JENKINS-1").get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testFailureNotCached() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        IssueSummaryCache summaries = new IssueSummaryCache(key -> {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            if (loads.incrementAndGet() == 1) {
+                result.completeExceptionally(new IOException("JIRA is down"));
+            } else {
+                result.complete(key + ": summary");
+            }
+            return result;
+        }, new ExpiringCache<>(60, TimeUnit.SECONDS, 10));
+
+        assertThrows(ExecutionException.class, () -> summaries.get("JENKINS-1").get());
+        assertEquals("JENKINS-1: summary", summaries.get("JENKINS-1").get());
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,129 @@
+package org.jenkinsci.backend.ircbot;
+
+import com.atlassian.jira.rest.client.api.JiraRestClient;
+import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientFactory;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jenkinsci.backend.ircbot.fake.FakeJiraServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link JiraClientProvider} against {@link FakeJiraServer}.
+ */
+public class JiraClientProviderTest {
+
+    private static final String SERVER_INFO = "/rest/api/latest/serverInfo";
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final List<JiraRestClient> created = new CopyOnWriteArrayList<>();
+    private FakeJiraServer server;
+    private JiraClientProvider provider;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeJiraServer();
+        server.start();
+        provider = new JiraClientProvider(() -> {
+            JiraRestClient client = new AsynchronousJiraRestClientFactory()
+                    .createWithBasicHttpAuthentication(server.getUri(), "ircbot", "secret");
+            // records close() and passes the requests to the real client
+            JiraRestClient recorded = mock(JiraRestClient.class, delegatesTo(client));
+            created.add(recorded);
+            return recorded;
+        }, 60, () -> TimeUnit.SECONDS.toMillis(30), now::get);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        provider.close();
+        server.close();
+    }
+
+    @Test
+    public void testClientIsReused() throws Exception {
+        JiraRestClient client = provider.get();
+        assertSame(client, provider.get());
+        assertEquals(1, created.size());
+        assertEquals(0, server.getRequestCount("GET", SERVER_INFO));
+    }
+
+    @Test
+    public void testRecreatedAfterConnectionFailure() throws Exception {
+        JiraRestClient first = provider.get();
+
+        // regular error responses do not affect the client
+        server.failNext(1, 500);
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> first.getMetadataClient().getServerInfo().get(10, TimeUnit.SECONDS));
+        provider.reportFailure(first, error);
+        assertSame(first, provider.get());
+
+        provider.reportFailure(first, new TimeoutException());
+        JiraRestClient second = provider.get();
+        assertNotSame(first, second);
+        // the other requests of the first client may still be in flight
+        verify(first, never()).close();
+        assertEquals(1, provider.getRetiredCount());
+        provider.reportFailure(first, new TimeoutException());
+        assertSame(second, provider.get());
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(30));
+        provider.get();
+        verify(first).close();
+        assertEquals(0, provider.getRetiredCount());
+    }
+
+    @Test
+    public void testHealthCheckInterval() throws Exception {
+        JiraRestClient client = provider.get();
+        now.addAndGet(TimeUnit.SECONDS.toMillis(60));
+        assertSame(client, provider.get());
+        assertEquals(0, server.getRequestCount("GET", SERVER_INFO));
+
+        now.addAndGet(1);
+        assertSame(client, provider.get());
+        assertEquals(1, server.getRequestCount("GET", SERVER_INFO));
+        assertSame(client, provider.get(), "The client has been verified just now");
+        assertEquals(1, server.getRequestCount("GET", SERVER_INFO));
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(61));
+        server.failNext(1, 502);
+        JiraRestClient recreated = provider.get();
+        assertNotSame(client, recreated);
+        assertEquals(2, server.getRequestCount("GET", SERVER_INFO));
+        assertTrue(provider.isHealthy());
+        assertEquals(3, server.getRequestCount("GET", SERVER_INFO));
+    }
+
+    @Test
+    public void testClosedProvider() throws Exception {
+        assertFalse(provider.isHealthy(), "No client has been created yet");
+        JiraRestClient first = provider.get();
+        provider.reportFailure(first, new TimeoutException());
+        JiraRestClient second = provider.get();
+
+        provider.close();
+        verify(first).close();
+        verify(second).close();
+        assertThrows(IOException.class, provider::get);
+        assertEquals(2, created.size());
+    }
+}
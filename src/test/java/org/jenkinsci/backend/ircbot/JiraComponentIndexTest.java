@@ -0,0 +1,162 @@
+package org.jenkinsci.backend.ircbot;
+
+import com.atlassian.jira.rest.client.api.JiraRestClient;
+import com.atlassian.jira.rest.client.api.ProjectRestClient;
+import com.atlassian.jira.rest.client.api.domain.BasicComponent;
+import com.atlassian.jira.rest.client.api.domain.Project;
+import io.atlassian.util.concurrent.Promise;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link JiraComponentIndex}.
+ */
+public class JiraComponentIndexTest {
+
+    private static final String PROJECT = "JENKINS";
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private JiraRestClient client;
+    private ProjectRestClient projectClient;
+    private BasicComponent core;
+    private BasicComponent git;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        core = component("core");
+        git = component("git-plugin");
+        Project project = mock(Project.class);
+        when(project.getComponents()).thenReturn(Arrays.asList(core, git));
+        Promise<Project> promise = mock(Promise.class);
+        when(promise.get(anyLong(), any(TimeUnit.class))).thenReturn(project);
+
+        projectClient = mock(ProjectRestClient.class);
+        when(projectClient.getProject(PROJECT)).thenReturn(promise);
+        client = mock(JiraRestClient.class);
+        when(client.getProjectClient()).thenReturn(projectClient);
+    }
+
+    @Test
+    public void testProjectFetchedOnce() throws Exception {
+        JiraComponentIndex index = new JiraComponentIndex(600, now::get);
+        for (int i = 0; i < 20; i++) {
+            assertSame(core, index.get(client, PROJECT, "core"));
+            assertSame(git, index.get(client, PROJECT, "git-plugin"));
+        }
+        verify(projectClient, times(1)).getProject(PROJECT);
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        JiraComponentIndex index = new JiraComponentIndex(600, now::get);
+        index.get(client, PROJECT, "core");
+        now.addAndGet(TimeUnit.SECONDS.toMillis(599));
+        index.get(client, PROJECT, "core");
+        verify(projectClient, times(1)).getProject(PROJECT);
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(2));
+        index.get(client, PROJECT, "core");
+        verify(projectClient, times(2)).getProject(PROJECT);
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        JiraComponentIndex index = new JiraComponentIndex(600, now::get);
+        index.get(client, PROJECT, "core");
+        index.invalidate(PROJECT);
+        index.get(client, PROJECT, "core");
+        verify(projectClient, times(2)).getProject(PROJECT);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInvalidationDuringFetch() throws Exception {
+        JiraComponentIndex index = new JiraComponentIndex(600, now::get);
+        Project project = mock(Project.class);
+        when(project.getComponents()).thenReturn(Arrays.asList(core, git));
+        Promise<Project> promise = mock(Promise.class);
+        // The component gets created while the project is being fetched
+        when(promise.get(anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+            index.invalidate(PROJECT);
+            return project;
+        }).thenReturn(project);
+        when(projectClient.getProject(PROJECT)).thenReturn(promise);
+
+        assertSame(core, index.get(client, PROJECT, "core"));
+        assertSame(core, index.get(client, PROJECT, "core"));
+        verify(projectClient, times(2)).getProject(PROJECT);
+        assertSame(core, index.get(client, PROJECT, "core"));
+        verify(projectClient, times(2)).getProject(PROJECT);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSlowProjectDoesNotBlockOthers() throws Exception {
+        JiraComponentIndex index = new JiraComponentIndex(600, now::get);
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Project slow = mock(Project.class);
+        when(slow.getComponents()).thenReturn(Collections.singletonList(git));
+        Promise<Project> promise = mock(Promise.class);
+        when(promise.get(anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+            fetching.countDown();
+            release.await();
+            return slow;
+        });
+        when(projectClient.getProject("SLOW")).thenReturn(promise);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<BasicComponent> slowLookup = executor.submit(() -> index.get(client, "SLOW", "git-plugin"));
+            assertTrue(fetching.await(10, TimeUnit.SECONDS));
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertSame(core, index.get(client, PROJECT, "core")));
+            release.countDown();
+            assertSame(git, slowLookup.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMissingComponent() throws Exception {
+        JiraComponentIndex index = new JiraComponentIndex(600, now::get);
+        assertThrows(IOException.class, () -> index.get(client, PROJECT, "no-such-component"));
+        // A fresh index is not refreshed on miss
+        assertThrows(IOException.class, () -> index.get(client, PROJECT, "no-such-component"));
+        verify(projectClient, times(1)).getProject(PROJECT);
+
+        // ... but an older one is, the component might have been created outside of the bot
+        now.addAndGet(TimeUnit.SECONDS.toMillis(60));
+        assertThrows(IOException.class, () -> index.get(client, PROJECT, "no-such-component"));
+        verify(projectClient, times(2)).getProject(PROJECT);
+    }
+
+    private static BasicComponent component(String name) {
+        BasicComponent component = mock(BasicComponent.class);
+        when(component.getName()).thenReturn(name);
+        return component;
+    }
+}
@@ -0,0 +1,70 @@
+package org.jenkinsci.backend.ircbot;
+
+import com.atlassian.jira.rest.client.api.JiraRestClient;
+import com.atlassian.jira.rest.client.api.domain.Component;
+import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientFactory;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import org.jenkinsci.backend.ircbot.fake.FakeJiraServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link JiraHelper} against {@link FakeJiraServer}.
+ */
+public class JiraHelperTest {
+
+    private static final String PROJECT = "HELPERTEST";
+
+    private FakeJiraServer server;
+    private JiraRestClient client;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeJiraServer();
+        server.addProject(PROJECT, "Helper Test");
+        server.addComponent(PROJECT, "core", null);
+        server.addComponent(PROJECT, "git-plugin", "someone");
+        server.start();
+        client = new AsynchronousJiraRestClientFactory().createWithBasicHttpAuthentication(server.getUri(), "ircbot", "secret");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        // the component index is shared by all clients
+        JiraHelper.invalidateComponents(PROJECT);
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void testComponentsAreLookedUpInIndex() throws Exception {
+        Component git = JiraHelper.getComponent(client, PROJECT, "git-plugin");
+        assertEquals("someone", git.getLead().getName());
+        assertEquals("core", JiraHelper.getBasicComponent(client, PROJECT, "core").getName());
+        assertEquals(1, server.getRequestCount("GET", "/rest/api/latest/project/" + PROJECT));
+
+        server.addComponent(PROJECT, "foo-plugin", null);
+        JiraHelper.invalidateComponents(PROJECT);
+        assertEquals("foo-plugin", JiraHelper.getBasicComponent(client, PROJECT, "foo-plugin").getName());
+        assertEquals(2, server.getRequestCount("GET", "/rest/api/latest/project/" + PROJECT));
+    }
+
+    @Test
+    public void testMissingComponentAndProject() throws Exception {
+        IOException missing = assertThrows(IOException.class, () -> JiraHelper.getBasicComponent(client, PROJECT, "no-such-plugin"));
+        assertTrue(missing.getMessage().contains("no-such-plugin"), missing.getMessage());
+        assertThrows(ExecutionException.class, () -> JiraHelper.getBasicComponent(client, "NOSUCHPROJECT", "core"));
+    }
+
+    @Test
+    public void testServerFailureIsReported() {
+        server.failNext(1, 502);
+        assertThrows(ExecutionException.class, () -> JiraHelper.getBasicComponent(client, PROJECT, "core"));
+    }
+}
@@ -0,0 +1,30 @@
+package org.jenkinsci.backend.ircbot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link NickMatcher}.
+ */
+public class NickMatcherTest {
+
+    @Test
+    public void testNamesAndPrefixes() {
+        NickMatcher matcher = NickMatcher.parse("jenkinsci_builds, jenkins-admin,ircbot-*");
+        assertTrue(matcher.matches("jenkins-admin"));
+        assertTrue(matcher.matches("Jenkins-Admin"));
+        assertTrue(matcher.matches("ircbot-test"));
+        assertTrue(matcher.matches("IRCBOT-"));
+        assertFalse(matcher.matches("jenkins-admin2"));
+        assertFalse(matcher.matches("ircbot"));
+        assertFalse(matcher.matches("alice"));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertFalse(NickMatcher.parse("").matches("alice"));
+        assertFalse(NickMatcher.parse(null).matches("alice"));
+    }
+}
@@ -0,0 +1,163 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jenkinsci.backend.ircbot.util.TokenBucket;
+import org.junit.jupiter.api.Test;
+import org.pircbotx.Channel;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link OutboundScheduler}.
+ * The background sender is not started, lines are sent explicitly.
+ */
+public class OutboundSchedulerTest {
+
+    private final List<String> sent = new ArrayList<>();
+    private final Channel hosting = channel("#jenkins-hosting");
+    private final Channel infra = channel("#jenkins-infra");
+
+    @Test
+    public void testConsecutiveMessagesMerged() {
+        OutboundScheduler scheduler = scheduler(400);
+        ChannelOutput out = scheduler.to(hosting);
+        out.message("Added foo as a committer for a");
+        out.message("Added foo as a committer for b");
+        scheduler.to(infra).message("unrelated");
+        out.message("Failed to add foo to c");
+
+        while (scheduler.sendNext()) {
+            // send everything
+        }
+        assertEquals(asList(
+                "#jenkins-hosting: Added foo as a committer for a | Added foo as a committer for b",
+                "#jenkins-infra: unrelated",
+                "#jenkins-hosting: Failed to add foo to c"), sent);
+    }
+
+    @Test
+    public void testLineLengthLimit() {
+        OutboundScheduler scheduler = scheduler(20);
+        ChannelOutput out = scheduler.to(hosting);
+        out.message("0123456789");
+        out.message("abcdefg");
+        out.message("ü");
+
+        assertTrue(scheduler.sendNext());
+        assertEquals("#jenkins-hosting: 0123456789 | abcdefg", sent.get(0));
+        assertTrue(scheduler.sendNext());
+        assertEquals("#jenkins-hosting: ü", sent.get(1));
+        assertFalse(scheduler.sendNext());
+    }
+
+    @Test
+    public void testLongMessageSplit() {
+        OutboundScheduler scheduler = scheduler(20);
+        scheduler.to(hosting).message("Created jenkinsci/foo-plugin and forked jenkinsci/bar");
+        scheduler.to(hosting).message("abcdefghijklmnopqrstuvwxyz");
+
+        while (scheduler.sendNext()) {
+            // send everything
+        }
+        assertEquals(asList(
+                "#jenkins-hosting: Created",
+                "#jenkins-hosting: jenkinsci/foo-plugin",
+                "#jenkins-hosting: and forked",
+                "#jenkins-hosting: jenkinsci/bar",
+                "#jenkins-hosting: abcdefghijklmnopqrst",
+                "#jenkins-hosting: uvwxyz"), sent);
+    }
+
+    @Test
+    public void testSplitKeepsCharactersWhole() {
+        assertEquals(asList("üüü", "üü"), OutboundScheduler.split("üüüüü", 7));
+        assertEquals(asList("a\uD83D\uDE00", "\uD83D\uDE00"), OutboundScheduler.split("a\uD83D\uDE00\uD83D\uDE00", 6));
+        assertEquals(asList(""), OutboundScheduler.split("", 20));
+    }
+
+    @Test
+    public void testAcknowledgementsFirst() {
+        OutboundScheduler scheduler = scheduler(400);
+        scheduler.to(hosting).message("bulk output");
+        scheduler.to(infra).ack("Only people with + or @ can run this command.");
+
+        scheduler.sendNext();
+        scheduler.sendNext();
+        assertEquals(asList("#jenkins-infra: Only people with + or @ can run this command.",
+                "#jenkins-hosting: bulk output"), sent);
+    }
+
+    @Test
+    public void testRawLines() {
+        OutboundScheduler scheduler = scheduler(400);
+        ChannelOutput out = scheduler.to(hosting);
+        out.message("bulk output");
+        out.rawLine("KICK #jenkins-hosting spammer :kicked");
+        out.rawLine("PRIVMSG CHANSERV :voice #jenkins-hosting someone");
+        out.message("Kicked user spammer");
+
+        while (scheduler.sendNext()) {
+            // send everything
+        }
+        assertEquals(asList(
+                "KICK #jenkins-hosting spammer :kicked",
+                "PRIVMSG CHANSERV :voice #jenkins-hosting someone",
+                "#jenkins-hosting: bulk output | Kicked user spammer"), sent);
+    }
+
+    @Test
+    public void testQueueLimit() {
+        OutboundScheduler scheduler = new OutboundScheduler(this::send, bucket(), 400, 2, false);
+        ChannelOutput out = scheduler.to(hosting);
+        out.message("1");
+        out.message("2");
+        out.message("3");
+        out.rawLine("KICK #jenkins-hosting spammer :kicked");
+        assertEquals(2, scheduler.getDroppedCount());
+    }
+
+    @Test
+    public void testBackgroundSender() throws Exception {
+        OutboundScheduler scheduler = new OutboundScheduler(this::send, bucket(), 400, 100, true);
+        try {
+            scheduler.to(hosting).message("hello");
+            assertTrue(scheduler.flush(10, TimeUnit.SECONDS));
+            synchronized (sent) {
+                assertEquals(asList("#jenkins-hosting: hello"), sent);
+            }
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    private OutboundScheduler scheduler(int maxLineBytes) {
+        return new OutboundScheduler(this::send, bucket(), maxLineBytes, 100, false);
+    }
+
+    private static TokenBucket bucket() {
+        return new TokenBucket(10, 1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the messages by the channel and the other lines as they are.
+     */
+    private void send(Channel channel, String line) {
+        String prefix = "PRIVMSG " + channel.getName() + " :";
+        synchronized (sent) {
+            sent.add(line.startsWith(prefix) ? channel.getName() + ": " + line.substring(prefix.length()) : line);
+        }
+    }
+
+    private static Channel channel(String name) {
+        Channel channel = mock(Channel.class);
+        when(channel.getName()).thenReturn(name);
+        return channel;
+    }
+}
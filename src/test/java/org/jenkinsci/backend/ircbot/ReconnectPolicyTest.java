@@ -0,0 +1,62 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.jenkinsci.backend.ircbot.util.Backoff;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link ReconnectPolicy}.
+ */
+public class ReconnectPolicyTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final double[] random = {0};
+    private final ReconnectPolicy policy = new ReconnectPolicy(new Backoff(20, 1000, 8000, 0.5, () -> random[0]), now::get);
+
+    @Test
+    public void testDelaysGrowWithFailedAttempts() {
+        assertEquals(1000, attempt());
+        assertEquals(2000, attempt());
+        assertEquals(4000, attempt());
+        assertEquals(8000, attempt());
+        assertEquals(8000, attempt());
+        assertEquals(20, policy.getMaxAttempts());
+    }
+
+    @Test
+    public void testRepeatedReadsReturnSameDelay() {
+        random[0] = 0.5;
+        assertEquals(750, policy.getDelay());
+        random[0] = 0;
+        now.addAndGet(1);
+        assertEquals(750, policy.getDelay());
+        assertEquals(750, policy.getDelay());
+
+        // the next attempt starts after the sleep
+        now.addAndGet(750);
+        assertEquals(2000, policy.getDelay());
+    }
+
+    @Test
+    public void testConnectionResetsDelays() {
+        attempt();
+        attempt();
+        attempt();
+        policy.connected();
+        now.addAndGet(60000);
+        assertEquals(1000, attempt());
+        assertEquals(2000, attempt());
+    }
+
+    /**
+     * Reads the delay like PircBotX does before an attempt, then sleeps.
+     */
+    private long attempt() {
+        long delay = policy.getDelay();
+        assertEquals(delay, policy.getDelay());
+        now.addAndGet(delay);
+        return delay;
+    }
+}
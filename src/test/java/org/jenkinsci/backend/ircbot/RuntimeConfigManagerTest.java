@@ -0,0 +1,90 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link RuntimeConfigManager}.
+ */
+public class RuntimeConfigManagerTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    public void testDefaults() throws Exception {
+        RuntimeConfig config = new RuntimeConfigManager(null).get();
+        assertEquals(IrcBotConfig.JIRA_TIMEOUT_SEC, config.getJiraTimeoutSec());
+        assertEquals(IrcBotConfig.GITHUB_ORGANIZATION, config.getGitHubOrganization());
+        assertEquals(IrcBotConfig.getIssueProjects(), config.getIssueProjects());
+        assertTrue(config.getIgnoredNicks().matches("jenkins-admin"));
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        File file = tmp.resolve("ircbot.properties").toFile();
+        write(file, "ircbot.jira.requestTimeout=5\nircbot.channels=#jenkins-hosting\n");
+        RuntimeConfigManager manager = new RuntimeConfigManager(file);
+        assertEquals(5, manager.get().getJiraTimeoutSec());
+
+        List<RuntimeConfig> notified = new ArrayList<>();
+        manager.addListener((previous, current) -> {
+            assertEquals(5, previous.getJiraTimeoutSec());
+            notified.add(current);
+        });
+        write(file, "ircbot.jira.requestTimeout=60\nircbot.channels=#jenkins-hosting,#jenkins-infra\n"
+                + "ircbot.ignoredNicks=someone-else\n");
+        RuntimeConfig reloaded = manager.reload();
+
+        assertSame(reloaded, manager.get());
+        assertEquals(1, notified.size());
+        assertSame(reloaded, notified.get(0));
+        assertEquals(60, reloaded.getJiraTimeoutSec());
+        assertTrue(reloaded.getChannels().contains("#jenkins-infra"));
+        assertFalse(reloaded.getIgnoredNicks().matches("jenkins-admin"));
+    }
+
+    @Test
+    public void testRemoveListener() throws Exception {
+        RuntimeConfigManager manager = new RuntimeConfigManager(null);
+        List<RuntimeConfig> notified = new ArrayList<>();
+        RuntimeConfigManager.Listener listener = (previous, current) -> notified.add(current);
+        manager.addListener(listener);
+        manager.reload();
+        assertEquals(1, notified.size());
+
+        manager.removeListener(listener);
+        manager.reload();
+        assertEquals(1, notified.size());
+    }
+
+    @Test
+    public void testInvalidConfigurationKept() throws Exception {
+        File file = tmp.resolve("ircbot.properties").toFile();
+        write(file, "ircbot.outbound.burst=10\n");
+        RuntimeConfigManager manager = new RuntimeConfigManager(file);
+        RuntimeConfig initial = manager.get();
+
+        write(file, "ircbot.outbound.burst=many\n");
+        assertThrows(IOException.class, manager::reload);
+        assertSame(initial, manager.get());
+        assertEquals(10, manager.get().getOutboundBurst());
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
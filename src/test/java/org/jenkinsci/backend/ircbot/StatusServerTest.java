@@ -0,0 +1,99 @@
+package org.jenkinsci.backend.ircbot;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link StatusServer}.
+ */
+public class StatusServerTest {
+
+    private BotMetrics metrics;
+    private BotHealth health;
+    private StatusServer server;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        metrics = new BotMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        health = new BotHealth(() -> 0, 300, System::currentTimeMillis);
+        server = new StatusServer(0, metrics);
+        server.addHealth(health);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        metrics.commandCompleted("version", metrics.commandStarted(), true);
+
+        HttpURLConnection connection = open("/metrics");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(StatusServer.PROMETHEUS_CONTENT_TYPE, connection.getContentType());
+        String body;
+        try (InputStream in = connection.getInputStream()) {
+            body = IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+        assertTrue(body.contains("ircbot_commands_in_flight 0.0"), body);
+        assertTrue(body.contains("ircbot_command_duration_seconds_count{command=\"version\",outcome=\"success\""), body);
+    }
+
+    @Test
+    public void testHealth() throws Exception {
+        assertEquals(200, open("/health").getResponseCode());
+        assertEquals(503, open("/ready").getResponseCode());
+
+        health.connected();
+        health.joined("#jenkins-hosting");
+        HttpURLConnection connection = open("/ready");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(StatusServer.JSON_CONTENT_TYPE, connection.getContentType());
+        try (InputStream in = connection.getInputStream()) {
+            assertTrue(IOUtils.toString(in, StandardCharsets.UTF_8).contains("\"channels\":[\"#jenkins-hosting\"]"));
+        }
+    }
+
+    @Test
+    public void testSeveralNetworks() throws Exception {
+        BotHealth staging = new BotHealth(() -> 0, 300, System::currentTimeMillis);
+        server.addHealth("staging", staging);
+        health.connected();
+        health.joined("#jenkins-hosting");
+        HttpURLConnection connection = open("/ready");
+        assertEquals(503, connection.getResponseCode());
+        try (InputStream in = connection.getErrorStream()) {
+            String body = IOUtils.toString(in, StandardCharsets.UTF_8);
+            assertTrue(body.startsWith("{\"alive\":true,\"ready\":false,\"networks\":{\"default\":{"), body);
+            assertTrue(body.contains("\"staging\":{"), body);
+        }
+
+        staging.connected();
+        staging.joined("#jenkins-infra");
+        assertEquals(200, open("/ready").getResponseCode());
+    }
+
+    @Test
+    public void testMethodNotAllowed() throws Exception {
+        HttpURLConnection connection = open("/metrics");
+        connection.setRequestMethod("POST");
+        assertEquals(405, connection.getResponseCode());
+    }
+
+    private HttpURLConnection open(String path) throws Exception {
+        return (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+    }
+}
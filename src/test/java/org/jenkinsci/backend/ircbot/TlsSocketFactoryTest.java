@@ -0,0 +1,40 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for {@link TlsSocketFactory}.
+ */
+public class TlsSocketFactoryTest {
+
+    @Test
+    public void testSessionsAreShared() throws Exception {
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(null, null, null);
+        TlsSocketFactory factory = new TlsSocketFactory(context, 600);
+        assertSame(context.getClientSessionContext(), factory.getSessions());
+        assertEquals(600, factory.getSessions().getSessionTimeout());
+        assertSame(TlsSocketFactory.getDefault(), TlsSocketFactory.getDefault());
+    }
+
+    @Test
+    public void testHostNameIsVerified() throws Exception {
+        TlsSocketFactory factory = TlsSocketFactory.getDefault();
+        try (SSLSocket socket = (SSLSocket) factory.createSocket()) {
+            assertEquals("HTTPS", socket.getSSLParameters().getEndpointIdentificationAlgorithm());
+        }
+        // the handshake has not started yet when the connected socket is returned
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket socket = factory.createSocket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+            assertEquals("HTTPS", ((SSLSocket) socket).getSSLParameters().getEndpointIdentificationAlgorithm());
+        }
+    }
+}
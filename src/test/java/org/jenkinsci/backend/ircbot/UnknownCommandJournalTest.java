@@ -0,0 +1,105 @@
+package org.jenkinsci.backend.ircbot;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link UnknownCommandJournal}.
+ */
+public class UnknownCommandJournalTest {
+
+    @TempDir
+    File tmp;
+
+    @Test
+    public void testRecordsAppended() throws Exception {
+        File file = new File(tmp, "unknown-commands.txt");
+        UnknownCommandJournal journal = new UnknownCommandJournal(file, 100, 1024 * 1024, 2);
+        assertTrue(journal.record("#jenkins-infra", "alice", "make me a sandwich"));
+        assertTrue(journal.record("#jenkins", "bob", "what\tis\nthis"));
+        assertTrue(journal.flush(10, TimeUnit.SECONDS));
+        journal.close();
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        String[] first = lines.get(0).split("\t");
+        assertEquals(4, first.length);
+        assertEquals("#jenkins-infra", first[1]);
+        assertEquals("alice", first[2]);
+        assertEquals("make me a sandwich", first[3]);
+        assertTrue(lines.get(1).endsWith("\t#jenkins\tbob\twhat is this"), lines.get(1));
+
+        // Reopening the journal keeps the history
+        journal = new UnknownCommandJournal(file, 100, 1024 * 1024, 2);
+        journal.record("#jenkins", "carol", "hello");
+        journal.close();
+        assertEquals(3, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void testRotation() throws Exception {
+        File file = new File(tmp, "unknown-commands.txt");
+        UnknownCommandJournal journal = new UnknownCommandJournal(file, 100, 10, 2);
+        for (int i = 0; i < 5; i++) {
+            journal.record("#jenkins", "alice", "command " + i);
+            assertTrue(journal.flush(10, TimeUnit.SECONDS));
+        }
+        journal.close();
+
+        assertTrue(Files.readAllLines(file.toPath()).get(0).endsWith("command 4"));
+        assertTrue(Files.readAllLines(new File(tmp, "unknown-commands.txt.1").toPath()).get(0).endsWith("command 3"));
+        assertTrue(Files.readAllLines(new File(tmp, "unknown-commands.txt.2").toPath()).get(0).endsWith("command 2"));
+        assertFalse(new File(tmp, "unknown-commands.txt.3").exists());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        UnknownCommandJournal journal = new UnknownCommandJournal(null, 100, 1024, 2);
+        assertFalse(journal.record("#jenkins", "alice", "hello"));
+        journal.close();
+    }
+
+    @Test
+    public void testClosed() throws Exception {
+        File file = new File(tmp, "unknown-commands.txt");
+        UnknownCommandJournal journal = new UnknownCommandJournal(file, 100, 1024, 2);
+        journal.close();
+        assertFalse(journal.record("#jenkins", "alice", "hello"));
+    }
+
+    @Test
+    public void testRecordsDuringClose() throws Exception {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            File file = new File(tmp, "unknown-commands-" + attempt + ".txt");
+            UnknownCommandJournal journal = new UnknownCommandJournal(file, 10000, 1024 * 1024, 2);
+            AtomicInteger accepted = new AtomicInteger();
+            Thread sender = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (journal.record("#jenkins", "alice", "command " + i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            sender.start();
+            journal.close();
+            sender.join();
+
+            // every accepted record is written, none is waited for in vain
+            long start = System.nanoTime();
+            assertTrue(journal.flush(10, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            int written = file.exists() ? Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size() : 0;
+            assertEquals(accepted.get(), written);
+        }
+    }
+}
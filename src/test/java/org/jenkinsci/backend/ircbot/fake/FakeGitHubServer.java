@@ -0,0 +1,439 @@
+package org.jenkinsci.backend.ircbot.fake;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * Stand-in for the GitHub REST API used by {@code IrcListener} and {@code ForkWorkflow}:
+ * users, organizations and their members, repositories with forks and renames, and teams with their members and repositories.
+ * Lists are paginated with the {@code Link} header like on GitHub.
+ * Forks appear after the delay set by {@link #setForkDelay(long, TimeUnit)}, like the asynchronous forks of GitHub.
+ * Renamed repositories stay reachable under their old names.
+ */
+public class FakeGitHubServer extends FakeHttpServer {
+
+    private static final String TEAM = "/(?:organizations/\\d+/team|teams)/(\\d+)";
+
+    private static final class Account {
+        private final long id;
+        private final String login;
+        private final boolean organization;
+        private final Set<String> members = ConcurrentHashMap.newKeySet();
+
+        Account(long id, String login, boolean organization) {
+            this.id = id;
+            this.login = login;
+            this.organization = organization;
+        }
+    }
+
+    private static final class Repository {
+        private final long id;
+        private final Account owner;
+        private volatile String name;
+        @CheckForNull
+        private final Repository parent;
+        private final long visibleAt;
+        private volatile boolean hasIssues = true;
+        private volatile boolean hasWiki = true;
+
+        Repository(long id, Account owner, String name, @CheckForNull Repository parent, long visibleAt) {
+            this.id = id;
+            this.owner = owner;
+            this.name = name;
+            this.parent = parent;
+            this.visibleAt = visibleAt;
+        }
+
+        String getFullName() {
+            return owner.login + "/" + name;
+        }
+    }
+
+    private static final class Team {
+        private final long id;
+        private final Account organization;
+        private final String name;
+        private final String slug;
+        private volatile String privacy;
+        private final Map<String, String> members = new ConcurrentHashMap<>();
+        private final Map<Long, String> repositories = new ConcurrentHashMap<>();
+
+        Team(long id, Account organization, String name, String privacy) {
+            this.id = id;
+            this.organization = organization;
+            this.name = name;
+            this.slug = name.toLowerCase(Locale.ENGLISH).replaceAll("[^a-z0-9]+", "-");
+            this.privacy = privacy;
+        }
+    }
+
+    private final AtomicLong ids = new AtomicLong(1000);
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    /**
+     * Repositories by their lower-case full names, including the old names of the renamed repositories.
+     */
+    private final Map<String, Repository> repositories = new ConcurrentHashMap<>();
+    private final Map<Long, Team> teams = new ConcurrentHashMap<>();
+    private final String myself;
+    private volatile long forkDelayMillis;
+
+    /**
+     * @param myself Login of the authenticated user, which becomes a member of the created teams like on GitHub
+     */
+    public FakeGitHubServer(@Nonnull String myself) throws IOException {
+        super("fake-github");
+        this.myself = myself;
+        addUser(myself);
+
+        route("GET", "/user", r -> Response.json(200, account(accounts.get(key(myself)))));
+        route("GET", "/users/([^/]+)", r -> withAccount(r.group(1), false, a -> Response.json(200, account(a))));
+        route("GET", "/orgs/([^/]+)", r -> withAccount(r.group(1), true, a -> Response.json(200, account(a))));
+        route("GET", "/orgs/([^/]+)/members/([^/]+)", r -> withAccount(r.group(1), true, o ->
+                Response.empty(o.members.contains(key(r.group(2))) ? 204 : 404)));
+        route("GET", "/orgs/([^/]+)/teams", r -> withAccount(r.group(1), true, o ->
+                page(r, "/orgs/" + o.login + "/teams", teams.values().stream()
+                        .filter(t -> t.organization == o)
+                        .sorted((a, b) -> Long.compare(a.id, b.id))
+                        .collect(Collectors.toList()), this::team)));
+        route("GET", "/orgs/([^/]+)/teams/([^/]+)", r -> withAccount(r.group(1), true, o -> {
+            for (Team t : teams.values()) {
+                if (t.organization == o && t.slug.equals(r.group(2))) {
+                    return Response.json(200, team(t));
+                }
+            }
+            return error(404, "Not Found");
+        }));
+        route("POST", "/orgs/([^/]+)/teams", this::createTeam);
+        route("POST", "/orgs/([^/]+)/repos", this::createRepository);
+        route("GET", "/repos/([^/]+)/([^/]+)", r -> withRepository(r, repo -> Response.json(200, repository(repo))));
+        route("PATCH", "/repos/([^/]+)/([^/]+)", this::editRepository);
+        route("POST", "/repos/([^/]+)/([^/]+)/forks", this::fork);
+        route("GET", "/repos/([^/]+)/([^/]+)/teams", r -> withRepository(r, repo ->
+                page(r, "/repos/" + repo.getFullName() + "/teams", teams.values().stream()
+                        .filter(t -> t.repositories.containsKey(repo.id))
+                        .sorted((a, b) -> Long.compare(a.id, b.id))
+                        .collect(Collectors.toList()), this::team)));
+        route("PATCH", TEAM, r -> withTeam(r, t -> {
+            JSONObject input = r.json();
+            if (input.has("privacy")) {
+                t.privacy = input.getString("privacy");
+            }
+            return Response.json(200, team(t));
+        }));
+        route("PUT", TEAM + "/memberships/([^/]+)", r -> withTeam(r, t -> withAccount(r.group(2), false, u -> {
+            String role = r.json().optString("role", "member");
+            t.members.put(u.login, role);
+            return Response.json(200, new JSONObject().put("state", "active").put("role", role));
+        })));
+        route("DELETE", TEAM + "/memberships/([^/]+)", r -> withTeam(r, t ->
+                Response.empty(t.members.remove(r.group(2)) != null ? 204 : 404)));
+        route("PUT", TEAM + "/repos/([^/]+)/([^/]+)", r -> withTeam(r, t -> withRepository(r.group(2), r.group(3), repo -> {
+            t.repositories.put(repo.id, r.json().optString("permission", "push"));
+            return Response.empty(204);
+        })));
+        route("DELETE", TEAM + "/repos/([^/]+)/([^/]+)", r -> withTeam(r, t -> withRepository(r.group(2), r.group(3), repo ->
+                Response.empty(t.repositories.remove(repo.id) != null ? 204 : 404))));
+    }
+
+    public void addUser(@Nonnull String login) {
+        accounts.put(key(login), new Account(ids.incrementAndGet(), login, false));
+    }
+
+    /**
+     * Adds the organization, the authenticated user is its member.
+     */
+    public void addOrganization(@Nonnull String login) {
+        Account organization = new Account(ids.incrementAndGet(), login, true);
+        organization.members.add(key(myself));
+        accounts.put(key(login), organization);
+    }
+
+    public void addMember(@Nonnull String organization, @Nonnull String login) {
+        account(organization).members.add(key(login));
+    }
+
+    /**
+     * Adds the repository of an existing user or organization.
+     */
+    public void addRepository(@Nonnull String owner, @Nonnull String name) {
+        repositories.put(key(owner + "/" + name), new Repository(ids.incrementAndGet(), account(owner), name, null, 0));
+    }
+
+    /**
+     * Adds the team, which has the given repositories.
+     * @param repositories Names of the repositories of the organization
+     */
+    public void addTeam(@Nonnull String organization, @Nonnull String name, @Nonnull String... repositories) {
+        Team team = new Team(ids.incrementAndGet(), account(organization), name, "closed");
+        for (String repository : repositories) {
+            team.repositories.put(repository(organization, repository).id, "admin");
+        }
+        teams.put(team.id, team);
+    }
+
+    /**
+     * Delays the appearance of the forks, like GitHub does for the large repositories.
+     */
+    public void setForkDelay(long delay, @Nonnull TimeUnit unit) {
+        this.forkDelayMillis = unit.toMillis(delay);
+    }
+
+    /**
+     * Checks whether the repository exists under its current name.
+     */
+    public boolean hasRepository(@Nonnull String owner, @Nonnull String name) {
+        Repository repository = repositories.get(key(owner + "/" + name));
+        return repository != null && repository.name.equals(name);
+    }
+
+    /**
+     * Gets the settings of the repository.
+     * @return Whether the issues and the wiki are enabled, in this order
+     */
+    @Nonnull
+    public boolean[] getRepositorySettings(@Nonnull String owner, @Nonnull String name) {
+        Repository repository = repository(owner, name);
+        return new boolean[] {repository.hasIssues, repository.hasWiki};
+    }
+
+    /**
+     * Gets the names of the teams having the repository.
+     */
+    @Nonnull
+    public List<String> getTeams(@Nonnull String owner, @Nonnull String name) {
+        Repository repository = repository(owner, name);
+        return teams.values().stream()
+                .filter(t -> t.repositories.containsKey(repository.id))
+                .map(t -> t.name)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the members of the team with their roles.
+     */
+    @Nonnull
+    public Map<String, String> getTeamMembers(@Nonnull String organization, @Nonnull String name) {
+        Account o = account(organization);
+        return teams.values().stream()
+                .filter(t -> t.organization == o && t.name.equals(name))
+                .findFirst()
+                .map(t -> Map.copyOf(t.members))
+                .orElseThrow(() -> new IllegalArgumentException("No such team: " + name));
+    }
+
+    @Override
+    protected Response error(int status, String message) {
+        try {
+            return Response.json(status, new JSONObject()
+                    .put("message", message)
+                    .put("documentation_url", "https://docs.github.com/rest"));
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Responds like GitHub does when the primary rate limit is exceeded.
+     */
+    @Override
+    protected Response rateLimitExceeded(long resetEpochSeconds) {
+        return error(403, "API rate limit exceeded for user ID 1.");
+    }
+
+    private Response createTeam(Request r) throws JSONException {
+        return withAccount(r.group(1), true, o -> {
+            JSONObject input = r.json();
+            String name = input.getString("name");
+            if (teams.values().stream().anyMatch(t -> t.organization == o && t.name.equalsIgnoreCase(name))) {
+                return error(422, "Name must be unique for this org");
+            }
+            Team team = new Team(ids.incrementAndGet(), o, name, input.optString("privacy", "secret"));
+            team.members.put(myself, "maintainer");
+            JSONArray maintainers = input.optJSONArray("maintainers");
+            for (int i = 0; maintainers != null && i < maintainers.length(); i++) {
+                team.members.put(maintainers.getString(i), "maintainer");
+            }
+            teams.put(team.id, team);
+            return Response.json(201, team(team));
+        });
+    }
+
+    private Response createRepository(Request r) throws JSONException {
+        return withAccount(r.group(1), true, o -> {
+            String name = r.json().getString("name");
+            if (repositories.containsKey(key(o.login + "/" + name))) {
+                return error(422, "Repository creation failed.");
+            }
+            Repository repository = new Repository(ids.incrementAndGet(), o, name, null, 0);
+            repositories.put(key(repository.getFullName()), repository);
+            return Response.json(201, repository(repository));
+        });
+    }
+
+    private Response editRepository(Request r) throws JSONException {
+        JSONObject input = r.json();
+        return withRepository(r, repo -> {
+            if (input.has("name") && !input.getString("name").equals(repo.name)) {
+                String name = input.getString("name");
+                Repository existing = repositories.get(key(repo.owner.login + "/" + name));
+                if (existing != null && existing != repo) {
+                    return error(422, "name already exists on this account");
+                }
+                repo.name = name;
+                repositories.put(key(repo.getFullName()), repo);
+            }
+            if (input.has("has_issues")) {
+                repo.hasIssues = Boolean.parseBoolean(String.valueOf(input.get("has_issues")));
+            }
+            if (input.has("has_wiki")) {
+                repo.hasWiki = Boolean.parseBoolean(String.valueOf(input.get("has_wiki")));
+            }
+            return Response.json(200, repository(repo));
+        });
+    }
+
+    private Response fork(Request r) throws JSONException {
+        String organization = r.json().optString("organization", myself);
+        return withRepository(r, origin -> withAccount(organization, false, owner -> {
+            Repository fork = repositories.computeIfAbsent(key(owner.login + "/" + origin.name), k ->
+                    new Repository(ids.incrementAndGet(), owner, origin.name, origin, System.currentTimeMillis() + forkDelayMillis));
+            return Response.json(202, repository(fork));
+        }));
+    }
+
+    @FunctionalInterface
+    private interface Action<T> {
+        Response apply(T target) throws JSONException;
+    }
+
+    @FunctionalInterface
+    private interface ToJson<T> {
+        JSONObject apply(T target) throws JSONException;
+    }
+
+    private Response withAccount(String login, boolean organization, Action<Account> action) throws JSONException {
+        Account account = accounts.get(key(login));
+        if (account == null || organization && !account.organization) {
+            return error(404, "Not Found");
+        }
+        return action.apply(account);
+    }
+
+    private Response withRepository(Request r, Action<Repository> action) throws JSONException {
+        return withRepository(r.group(1), r.group(2), action);
+    }
+
+    private Response withRepository(String owner, String name, Action<Repository> action) throws JSONException {
+        Repository repository = repositories.get(key(owner + "/" + name));
+        if (repository == null || System.currentTimeMillis() < repository.visibleAt) {
+            return error(404, "Not Found");
+        }
+        return action.apply(repository);
+    }
+
+    private Response withTeam(Request r, Action<Team> action) throws JSONException {
+        Team team = teams.get(Long.parseLong(r.group(1)));
+        if (team == null) {
+            return error(404, "Not Found");
+        }
+        return action.apply(team);
+    }
+
+    /**
+     * Responds with a page of the list, see the {@code per_page} and {@code page} parameters of the GitHub API.
+     */
+    private <T> Response page(Request r, String path, List<T> all, ToJson<T> toJson) throws JSONException {
+        int perPage = Math.min(100, r.intParam("per_page", 30));
+        int page = Math.max(1, r.intParam("page", 1));
+        JSONArray items = new JSONArray();
+        for (int i = (page - 1) * perPage; i < all.size() && i < page * perPage; i++) {
+            items.put(toJson.apply(all.get(i)));
+        }
+        Response response = Response.json(200, items);
+        int last = Math.max(1, (all.size() + perPage - 1) / perPage);
+        if (page < last) {
+            String url = getUri() + path + "?per_page=" + perPage + "&page=";
+            response.header("Link", "<" + url + (page + 1) + ">; rel=\"next\", <" + url + last + ">; rel=\"last\"");
+        }
+        return response;
+    }
+
+    private JSONObject account(Account account) throws JSONException {
+        String type = account.organization ? "Organization" : "User";
+        return new JSONObject()
+                .put("login", account.login)
+                .put("id", account.id)
+                .put("type", type)
+                .put("url", getUri() + (account.organization ? "/orgs/" : "/users/") + account.login)
+                .put("html_url", getUri() + "/" + account.login);
+    }
+
+    private JSONObject repository(Repository repository) throws JSONException {
+        JSONObject json = new JSONObject()
+                .put("id", repository.id)
+                .put("name", repository.name)
+                .put("full_name", repository.getFullName())
+                .put("owner", account(repository.owner))
+                .put("private", false)
+                .put("fork", repository.parent != null)
+                .put("url", getUri() + "/repos/" + repository.getFullName())
+                .put("html_url", getUri() + "/" + repository.getFullName())
+                .put("has_issues", repository.hasIssues)
+                .put("has_wiki", repository.hasWiki)
+                .put("default_branch", "main");
+        if (repository.parent != null) {
+            json.put("parent", new JSONObject()
+                    .put("id", repository.parent.id)
+                    .put("name", repository.parent.name)
+                    .put("full_name", repository.parent.getFullName())
+                    .put("owner", account(repository.parent.owner)));
+        }
+        return json;
+    }
+
+    private JSONObject team(Team team) throws JSONException {
+        return new JSONObject()
+                .put("id", team.id)
+                .put("name", team.name)
+                .put("slug", team.slug)
+                .put("privacy", team.privacy)
+                .put("permission", "pull")
+                .put("url", getUri() + "/teams/" + team.id)
+                .put("organization", account(team.organization));
+    }
+
+    private Account account(String login) {
+        Account account = accounts.get(key(login));
+        if (account == null) {
+            throw new IllegalArgumentException("No such user or organization: " + login);
+        }
+        return account;
+    }
+
+    private Repository repository(String owner, String name) {
+        Repository repository = repositories.get(key(owner + "/" + name));
+        if (repository == null) {
+            throw new IllegalArgumentException("No such repository: " + owner + "/" + name);
+        }
+        return repository;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,123 @@
+package org.jenkinsci.backend.ircbot.fake;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kohsuke.github.GHOrganization;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHTeam;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.GitHubRateLimitHandler;
+import org.kohsuke.github.extras.okhttp3.OkHttpGitHubConnector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link FakeGitHubServer} with the GitHub client used by the bot.
+ */
+public class FakeGitHubServerTest {
+
+    @TempDir
+    Path tmp;
+
+    private FakeGitHubServer server;
+    private OkHttpClient httpClient;
+    private GitHub github;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeGitHubServer("ircbot");
+        server.addOrganization("jenkinsci");
+        server.addUser("someone");
+        server.addMember("jenkinsci", "someone");
+        server.addRepository("someone", "bar");
+        server.start();
+        httpClient = new OkHttpClient.Builder().cache(new Cache(tmp.toFile(), 1024 * 1024)).build();
+        github = new GitHubBuilder()
+                .withEndpoint(server.getUri().toString())
+                .withOAuthToken("secret")
+                .withConnector(new OkHttpGitHubConnector(httpClient))
+                .withRateLimitHandler(GitHubRateLimitHandler.FAIL)
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        httpClient.cache().close();
+        server.close();
+    }
+
+    @Test
+    public void testForkRenameAndSetup() throws Exception {
+        GHOrganization org = github.getOrganization("jenkinsci");
+        GHRepository origin = github.getUser("someone").getRepository("bar");
+        GHRepository fork = origin.forkTo(org);
+        assertTrue(fork.isFork());
+
+        fork.renameTo("bar-plugin");
+        assertTrue(server.hasRepository("jenkinsci", "bar-plugin"));
+        // the old name still resolves to the renamed repository
+        assertEquals("bar-plugin", org.getRepository("bar").getName());
+        assertNull(org.getRepository("foo"));
+
+        GHRepository renamed = org.getRepository("bar-plugin");
+        renamed.enableIssueTracker(false);
+        renamed.enableWiki(false);
+        assertArrayEquals(new boolean[] {false, false}, server.getRepositorySettings("jenkinsci", "bar-plugin"));
+
+        GHTeam team = org.createTeam("bar-plugin Developers").privacy(GHTeam.Privacy.CLOSED).maintainers("someone").create();
+        team.add(renamed, GHOrganization.Permission.ADMIN);
+        team.remove(github.getMyself());
+        assertEquals(Collections.singletonList("bar-plugin Developers"), server.getTeams("jenkinsci", "bar-plugin"));
+        assertEquals(Collections.singletonMap("someone", "maintainer"), server.getTeamMembers("jenkinsci", "bar-plugin Developers"));
+        assertEquals("bar-plugin-developers", renamed.getTeams().iterator().next().getSlug());
+    }
+
+    @Test
+    public void testMembersAndPagination() throws Exception {
+        server.addRepository("jenkinsci", "core");
+        for (int i = 0; i < 250; i++) {
+            server.addTeam("jenkinsci", "Team " + i, "core");
+        }
+        GHOrganization org = github.getOrganization("jenkinsci");
+        assertEquals(250, org.listTeams().withPageSize(100).toList().size());
+        assertEquals(3, server.getRequestCount("GET", "/orgs/jenkinsci/teams"));
+        assertEquals("Team 42", org.getTeamBySlug("team-42").getName());
+
+        server.addUser("stranger");
+        assertTrue(org.hasMember(github.getUser("someone")));
+        assertFalse(org.hasMember(github.getUser("stranger")));
+    }
+
+    @Test
+    public void testConditionalRequestsDoNotCountAgainstRateLimit() throws Exception {
+        server.setRateLimit(1, 1, TimeUnit.HOURS);
+        assertEquals("bar", github.getRepository("someone/bar").getName());
+        // revalidated with the ETag, the 304 response is served from the response cache even with the exhausted limit
+        assertEquals("bar", github.getRepository("someone/bar").getName());
+        assertEquals(2, server.getRequestCount("GET", "/repos/someone/bar"));
+
+        assertThrows(IOException.class, () -> github.getOrganization("jenkinsci"));
+    }
+
+    @Test
+    public void testServerErrors() throws Exception {
+        server.setErrorRate(1, 502);
+        assertThrows(IOException.class, () -> github.getUser("someone"));
+        server.setErrorRate(0, 502);
+        assertEquals("someone", github.getUser("someone").getLogin());
+    }
+}
@@ -0,0 +1,399 @@
+package org.jenkinsci.backend.ircbot.fake;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * In-process HTTP server standing in for a remote service in tests.
+ * Subclasses register the routes of the emulated API, this class adds the behaviour of a real remote service:
+ * <ul>
+ *     <li>latency of every response, see {@link #setLatency(long, TimeUnit)}</li>
+ *     <li>random or scheduled failures, see {@link #setErrorRate(double, int)} and {@link #failNext(int, int)}</li>
+ *     <li>rate limit reported in the {@code X-RateLimit-*} headers, see {@link #setRateLimit(int, long, TimeUnit)}</li>
+ *     <li>{@code ETag} validation of {@code GET} requests, {@code 304} responses do not count against the rate limit
+ *     and are served even when it is exhausted</li>
+ * </ul>
+ * Requests are handled by a pool of threads, so that concurrent clients see the latency in parallel.
+ */
+public abstract class FakeHttpServer implements Closeable {
+
+    static final String JSON_CONTENT_TYPE = "application/json;charset=utf-8";
+
+    /**
+     * Received request.
+     */
+    protected static final class Request {
+        private final String method;
+        private final Matcher path;
+        private final Map<String, String> query;
+        private final String body;
+
+        Request(String method, Matcher path, Map<String, String> query, String body) {
+            this.method = method;
+            this.path = path;
+            this.query = query;
+            this.body = body;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * Gets the group of the route pattern, e.g. the name of the requested repository.
+         */
+        public String group(int group) {
+            return path.group(group);
+        }
+
+        @CheckForNull
+        public String param(String name) {
+            return query.get(name);
+        }
+
+        public int intParam(String name, int defaultValue) {
+            String value = query.get(name);
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        }
+
+        /**
+         * Parses the body as a JSON object, an empty body is an empty object.
+         */
+        @Nonnull
+        public JSONObject json() throws JSONException {
+            return body.isEmpty() ? new JSONObject() : new JSONObject(body);
+        }
+    }
+
+    /**
+     * Response to be sent.
+     */
+    protected static final class Response {
+        private final int status;
+        @CheckForNull
+        private final String body;
+        private final Map<String, String> headers = new HashMap<>();
+
+        Response(int status, @CheckForNull String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public static Response json(int status, Object json) {
+            return new Response(status, json.toString());
+        }
+
+        public static Response empty(int status) {
+            return new Response(status, null);
+        }
+
+        public Response header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * Handles the requests of a route.
+     */
+    @FunctionalInterface
+    protected interface Handler {
+        @Nonnull
+        Response handle(@Nonnull Request request) throws JSONException;
+    }
+
+    private static final class Route {
+        private final String method;
+        private final Pattern path;
+        private final Handler handler;
+
+        Route(String method, Pattern path, Handler handler) {
+            this.method = method;
+            this.path = path;
+            this.handler = handler;
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<Route> routes = new CopyOnWriteArrayList<>();
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+    private final AtomicInteger scheduledFailures = new AtomicInteger();
+    private volatile int scheduledFailureStatus = 503;
+
+    private int rateLimit;
+    private long rateLimitWindowMillis;
+    private int rateLimitUsed;
+    private long rateLimitResetMillis;
+
+    /**
+     * Creates the server on a free port of the loopback interface, it does not accept connections until {@link #start()}.
+     * @param name Name of the handler threads
+     */
+    protected FakeHttpServer(@Nonnull String name) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::dispatch);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Gets the base URI of the server, without the trailing slash.
+     */
+    @Nonnull
+    public URI getUri() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    /**
+     * Delays all responses.
+     */
+    public void setLatency(long latency, @Nonnull TimeUnit unit) {
+        this.latencyMillis = unit.toMillis(latency);
+    }
+
+    /**
+     * Fails the given part of the requests randomly.
+     * @param rate Part of the failed requests, between {@code 0} and {@code 1}
+     * @param status Status of the failed responses, e.g. {@code 502}
+     */
+    public void setErrorRate(double rate, int status) {
+        this.errorRate = rate;
+        this.errorStatus = status;
+    }
+
+    /**
+     * Fails the next requests regardless of the error rate.
+     */
+    public void failNext(int count, int status) {
+        this.scheduledFailureStatus = status;
+        scheduledFailures.set(count);
+    }
+
+    /**
+     * Limits the number of the requests in a time window, {@code 0} disables the limit.
+     * The rate limit headers are only sent while a limit is set.
+     */
+    public synchronized void setRateLimit(int limit, long window, @Nonnull TimeUnit unit) {
+        this.rateLimit = limit;
+        this.rateLimitWindowMillis = unit.toMillis(window);
+        this.rateLimitUsed = 0;
+        this.rateLimitResetMillis = System.currentTimeMillis() + rateLimitWindowMillis;
+    }
+
+    /**
+     * Gets the number of all received requests, including the failed ones.
+     */
+    public long getRequestCount() {
+        return requests.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Gets the number of the received requests.
+     * @param method HTTP method, e.g. {@code GET}
+     * @param path Path without the query
+     */
+    public long getRequestCount(@Nonnull String method, @Nonnull String path) {
+        LongAdder count = requests.get(method + " " + path);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * Adds the route, the routes are matched in the order of their registration.
+     * @param method HTTP method
+     * @param path Regular expression matching the whole path
+     */
+    protected void route(@Nonnull String method, @Nonnull String path, @Nonnull Handler handler) {
+        routes.add(new Route(method, Pattern.compile(path), handler));
+    }
+
+    /**
+     * Creates the error response in the format of the emulated API.
+     */
+    @Nonnull
+    protected Response error(int status, @Nonnull String message) {
+        try {
+            return Response.json(status, new JSONObject().put("message", message));
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates the response to the requests over the rate limit.
+     * @param resetEpochSeconds When the limit resets
+     */
+    @Nonnull
+    protected Response rateLimitExceeded(long resetEpochSeconds) {
+        return error(429, "Rate limit exceeded")
+                .header("Retry-After", Long.toString(Math.max(1, resetEpochSeconds - System.currentTimeMillis() / 1000)));
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String override = exchange.getRequestHeaders().getFirst("X-HTTP-Method-Override");
+            if ("POST".equals(method) && override != null) {
+                method = override;
+            }
+            String path = exchange.getRequestURI().getRawPath();
+            requests.computeIfAbsent(method + " " + path, k -> new LongAdder()).increment();
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            respond(exchange, handle(exchange, method, path, body));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | JSONException e) {
+            respond(exchange, error(500, String.valueOf(e)));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response handle(HttpExchange exchange, String method, String path, String body) throws JSONException {
+        if (scheduledFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            return error(scheduledFailureStatus, "Scheduled failure");
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return error(errorStatus, "Random failure");
+        }
+        boolean limited;
+        long resetMillis;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (rateLimit > 0 && now >= rateLimitResetMillis) {
+                rateLimitUsed = 0;
+                rateLimitResetMillis = now + rateLimitWindowMillis;
+            }
+            limited = rateLimit > 0 && rateLimitUsed >= rateLimit;
+            resetMillis = rateLimitResetMillis;
+        }
+        String etag = exchange.getRequestHeaders().getFirst("If-None-Match");
+        boolean conditional = "GET".equals(method) && etag != null;
+        if (limited && !conditional) {
+            return withRateLimit(rateLimitExceeded(resetMillis / 1000));
+        }
+
+        Response response = null;
+        for (Route route : routes) {
+            Matcher matcher = route.path.matcher(path);
+            if (route.method.equals(method) && matcher.matches()) {
+                response = route.handler.handle(new Request(method, matcher, parseQuery(exchange.getRequestURI().getRawQuery()), body));
+                break;
+            }
+        }
+        if (response == null) {
+            response = error(404, "Not Found");
+        }
+
+        if ("GET".equals(method) && response.status == 200 && response.body != null) {
+            String current = '"' + Integer.toHexString(response.body.hashCode()) + '"';
+            if (current.equals(etag)) {
+                return withRateLimit(Response.empty(304).header("ETag", current));
+            }
+            response.header("ETag", current);
+        }
+        if (limited) {
+            return withRateLimit(rateLimitExceeded(resetMillis / 1000));
+        }
+        synchronized (this) {
+            rateLimitUsed++;
+        }
+        return withRateLimit(response);
+    }
+
+    private synchronized Response withRateLimit(Response response) {
+        if (rateLimit > 0) {
+            response.header("X-RateLimit-Limit", Integer.toString(rateLimit))
+                    .header("X-RateLimit-Remaining", Integer.toString(Math.max(0, rateLimit - rateLimitUsed)))
+                    .header("X-RateLimit-Used", Integer.toString(Math.min(rateLimit, rateLimitUsed)))
+                    .header("X-RateLimit-Reset", Long.toString(rateLimitResetMillis / 1000))
+                    .header("X-RateLimit-Resource", "core");
+        }
+        return response;
+    }
+
+    private static void respond(HttpExchange exchange, Response response) throws IOException {
+        response.headers.forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        if (response.body == null) {
+            exchange.sendResponseHeaders(response.status, -1);
+            return;
+        }
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(@CheckForNull String query) {
+        if (query == null || query.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> params = new HashMap<>();
+        for (String param : query.split("&")) {
+            int eq = param.indexOf('=');
+            String name = eq < 0 ? param : param.substring(0, eq);
+            String value = eq < 0 ? "" : param.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
@@ -0,0 +1,1084 @@
+package org.jenkinsci.backend.ircbot.fake;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * In-process IRC server the bot can connect to in tests.
+ * It implements the subset of the protocol used by PircBotX:
+ * <ul>
+ *     <li>registration with {@code NICK} and {@code USER}, capability negotiation and {@code SASL PLAIN} authentication</li>
+ *     <li>{@code JOIN}, {@code PART}, {@code NAMES}, {@code WHO}, {@code WHOIS}, {@code MODE}, {@code KICK} and {@code TOPIC}</li>
+ *     <li>{@code PRIVMSG} and {@code NOTICE} to channels and nicks, {@code PING} and {@code QUIT}</li>
+ * </ul>
+ * Besides the socket clients, the server hosts virtual users driven by the test through {@link #join(String, String)}
+ * and {@link #say(String, String, String)}, so that many users and channels can be simulated without opening connections.
+ * Like a real server, it may disconnect the clients exceeding a flood limit, see {@link #setFloodLimit(int, int)}.
+ *
+ * All the state is owned by a single selector thread, the public methods hand their work over to it.
+ */
+public class FakeIrcServer implements Closeable {
+
+    /**
+     * Name of the server, used as the prefix of the numeric replies.
+     */
+    public static final String NAME = "fake.irc";
+
+    /**
+     * Receives the messages sent to channels and nicks.
+     * It is called in the server thread and should return quickly.
+     */
+    @FunctionalInterface
+    public interface MessageListener {
+        void onMessage(@Nonnull String sender, @Nonnull String target, @Nonnull String text);
+    }
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Commands accepted after the registration.
+     */
+    private static final Set<String> COMMANDS = new TreeSet<>(Arrays.asList(
+            "JOIN", "PART", "PRIVMSG", "NOTICE", "NAMES", "WHO", "WHOIS", "MODE", "KICK", "TOPIC", "MOTD"));
+
+    /**
+     * IRC user, either connected with a socket or virtual.
+     */
+    private final class Client {
+        @CheckForNull
+        private final SocketChannel socket;
+        private final Deque<ByteBuffer> output = new ArrayDeque<>();
+        private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+        private final Set<String> channels = new TreeSet<>();
+        private final Set<String> capabilities = new TreeSet<>();
+        private String nick;
+        private String user;
+        private String realName;
+        private String account;
+        private boolean negotiating;
+        private boolean authenticating;
+        private boolean registered;
+        private boolean closing;
+        private double floodTokens;
+        private long floodUpdated;
+
+        private Client(@CheckForNull SocketChannel socket) {
+            this.socket = socket;
+            this.floodTokens = floodBurst;
+            this.floodUpdated = System.nanoTime();
+        }
+
+        private String prefix() {
+            return nick + "!" + user + "@" + (socket == null ? "virtual.irc" : "127.0.0.1");
+        }
+
+        private void send(String line) {
+            if (socket == null || closing) {
+                return;
+            }
+            output.add(ByteBuffer.wrap((line + "\r\n").getBytes(StandardCharsets.UTF_8)));
+            sentLines.increment();
+            flush();
+        }
+
+        private void reply(String numeric, String... params) {
+            StringBuilder line = new StringBuilder(":").append(NAME).append(' ').append(numeric)
+                    .append(' ').append(nick == null ? "*" : nick);
+            for (int i = 0; i < params.length; i++) {
+                line.append(' ');
+                if (i == params.length - 1 && (params[i].isEmpty() || params[i].contains(" ") || params[i].startsWith(":"))) {
+                    line.append(':');
+                }
+                line.append(params[i]);
+            }
+            send(line.toString());
+        }
+
+        private void flush() {
+            try {
+                while (!output.isEmpty()) {
+                    ByteBuffer buffer = output.peek();
+                    socket.write(buffer);
+                    if (buffer.hasRemaining()) {
+                        socket.keyFor(selector).interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    output.poll();
+                }
+                SelectionKey key = socket.keyFor(selector);
+                if (key != null && key.isValid()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } catch (IOException e) {
+                // a no-op if the client is being disconnected already
+                disconnect(this, "Write error: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Consumes a token of the flood limit.
+         * @return {@code false} if the client exceeded the limit
+         */
+        private boolean takeFloodToken() {
+            if (floodRate <= 0) {
+                return true;
+            }
+            long now = System.nanoTime();
+            floodTokens = Math.min(floodBurst, floodTokens + (now - floodUpdated) * floodRate / 1e9);
+            floodUpdated = now;
+            floodTokens -= 1;
+            return floodTokens >= 0;
+        }
+    }
+
+    /**
+     * IRC channel.
+     */
+    private static final class Channel {
+        private final String name;
+        private final long created = System.currentTimeMillis() / 1000;
+        /**
+         * Members with their prefixes, in the join order.
+         */
+        private final Map<Client, StringBuilder> members = new LinkedHashMap<>();
+        private String topic;
+        private String topicSetBy;
+        private long topicSetAt;
+
+        private Channel(String name) {
+            this.name = name;
+        }
+
+        private boolean isOperator(Client client) {
+            StringBuilder modes = members.get(client);
+            return modes != null && modes.indexOf("@") >= 0;
+        }
+
+        private void broadcast(String line, @CheckForNull Client except) {
+            for (Client member : members.keySet()) {
+                if (member != except) {
+                    member.send(line);
+                }
+            }
+        }
+    }
+
+    private final Map<String, Client> nicks = new HashMap<>();
+    private final Map<String, Channel> channels = new HashMap<>();
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final List<MessageListener> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder receivedLines = new LongAdder();
+    private final LongAdder sentLines = new LongAdder();
+    private final LongAdder floodDisconnects = new LongAdder();
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    // accessed in the server thread only
+    private String saslAccount;
+    private String saslPassword;
+    private int floodBurst;
+    private double floodRate;
+
+    /**
+     * Creates the server listening on a free port of the loopback interface.
+     */
+    public FakeIrcServer() throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::run, "fake-irc");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts accepting the connections.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    /**
+     * Requires {@code SASL PLAIN} authentication with the given credentials.
+     * Without it, any credentials are accepted.
+     */
+    public void setSaslCredentials(@Nonnull String account, @Nonnull String password) {
+        execute(() -> {
+            saslAccount = account;
+            saslPassword = password;
+        });
+    }
+
+    /**
+     * Disconnects the clients sending more than {@code burst} lines at once or more than {@code linesPerSecond} in average,
+     * like the flood protection of real servers.
+     * @param linesPerSecond Sustained rate, {@code 0} disables the limit
+     */
+    public void setFloodLimit(int burst, int linesPerSecond) {
+        execute(() -> {
+            floodBurst = burst;
+            floodRate = linesPerSecond;
+            // the connected clients start with a full burst too
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Client) {
+                    Client client = (Client) key.attachment();
+                    client.floodTokens = burst;
+                    client.floodUpdated = System.nanoTime();
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a listener of the messages sent by all the users.
+     */
+    public void addListener(@Nonnull MessageListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Joins the channel as a virtual user, which is created if needed.
+     */
+    public void join(@Nonnull String nick, @Nonnull String channel) {
+        execute(() -> join(virtualUser(nick), channel));
+    }
+
+    /**
+     * Sends a message to the channel or the nick on behalf of a virtual user, which is created if needed.
+     * Like other users, it has to join a channel before sending messages there.
+     */
+    public void say(@Nonnull String nick, @Nonnull String target, @Nonnull String text) {
+        execute(() -> message(virtualUser(nick), "PRIVMSG", target, text));
+    }
+
+    /**
+     * Gives the operator status to the channel member, as the server does for the services.
+     */
+    public void op(@Nonnull String channel, @Nonnull String nick) {
+        execute(() -> {
+            Channel chan = channels.get(key(channel));
+            Client client = nicks.get(key(nick));
+            if (chan != null && client != null && chan.members.containsKey(client) && !chan.isOperator(client)) {
+                chan.members.get(client).insert(0, '@');
+                chan.broadcast(":" + NAME + " MODE " + chan.name + " +o " + client.nick, null);
+            }
+        });
+    }
+
+    /**
+     * Kicks the user from the channel on behalf of the server.
+     */
+    public void kick(@Nonnull String channel, @Nonnull String nick, @Nonnull String reason) {
+        execute(() -> {
+            Channel chan = channels.get(key(channel));
+            Client client = nicks.get(key(nick));
+            if (chan != null && client != null && chan.members.containsKey(client)) {
+                chan.broadcast(":" + NAME + " KICK " + chan.name + " " + client.nick + " :" + reason, null);
+                leave(client, chan);
+            }
+        });
+    }
+
+    /**
+     * Gets the nicks of the channel members, in the join order.
+     */
+    @Nonnull
+    public List<String> getMembers(@Nonnull String channel) throws IOException {
+        return call(() -> {
+            Channel chan = channels.get(key(channel));
+            List<String> members = new ArrayList<>();
+            if (chan != null) {
+                for (Client member : chan.members.keySet()) {
+                    members.add(member.nick);
+                }
+            }
+            return members;
+        });
+    }
+
+    /**
+     * Gets the topic of the channel.
+     */
+    @CheckForNull
+    public String getTopic(@Nonnull String channel) throws IOException {
+        return call(() -> {
+            Channel chan = channels.get(key(channel));
+            return chan == null ? null : chan.topic;
+        });
+    }
+
+    /**
+     * Waits until the nick joins the channel.
+     * @return {@code false} if the timeout expired first
+     */
+    public boolean awaitMember(@Nonnull String channel, @Nonnull String nick, long timeout, @Nonnull TimeUnit unit)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!getMembers(channel).contains(nick)) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of lines received from the socket clients.
+     */
+    public long getReceivedLines() {
+        return receivedLines.sum();
+    }
+
+    /**
+     * Gets the number of lines sent to the socket clients.
+     */
+    public long getSentLines() {
+        return sentLines.sum();
+    }
+
+    /**
+     * Gets the number of clients disconnected for exceeding the flood limit.
+     */
+    public long getFloodDisconnects() {
+        return floodDisconnects.sum();
+    }
+
+    private Client virtualUser(String nick) {
+        Client client = nicks.get(key(nick));
+        if (client == null) {
+            client = new Client(null);
+            client.nick = nick;
+            client.user = nick;
+            client.realName = nick;
+            client.registered = true;
+            nicks.put(key(nick), client);
+        }
+        return client;
+    }
+
+    private void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    private <T> T call(Supplier<T> task) throws IOException {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(() -> result.complete(task.get()));
+        try {
+            return result.get(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IOException("Server did not respond", e);
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                selector.select(1000);
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Client client = (Client) key.attachment();
+                        if (key.isWritable()) {
+                            client.flush();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            read(client);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!closed) {
+                throw new IllegalStateException("Fake IRC server failed", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel socket = server.accept();
+        if (socket == null) {
+            return;
+        }
+        socket.configureBlocking(false);
+        socket.socket().setTcpNoDelay(true);
+        socket.register(selector, SelectionKey.OP_READ, new Client(socket));
+    }
+
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+    private void read(Client client) {
+        readBuffer.clear();
+        int read;
+        try {
+            read = client.socket.read(readBuffer);
+        } catch (IOException e) {
+            disconnect(client, "Read error: " + e.getMessage());
+            return;
+        }
+        if (read < 0) {
+            disconnect(client, "Connection closed");
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining() && !client.closing) {
+            byte b = readBuffer.get();
+            if (b == '\n') {
+                String line = new String(client.partialLine.toByteArray(), StandardCharsets.UTF_8);
+                client.partialLine.reset();
+                if (line.endsWith("\r")) {
+                    line = line.substring(0, line.length() - 1);
+                }
+                if (!line.isEmpty()) {
+                    receivedLines.increment();
+                    if (!client.takeFloodToken()) {
+                        floodDisconnects.increment();
+                        client.send("ERROR :Closing Link: 127.0.0.1 (Excess Flood)");
+                        disconnect(client, "Excess Flood");
+                        return;
+                    }
+                    handle(client, line);
+                }
+            } else {
+                client.partialLine.write(b);
+            }
+        }
+    }
+
+    /**
+     * Splits the line into the command and its parameters, the prefix sent by the client is ignored.
+     */
+    static List<String> parse(String line) {
+        List<String> parts = new ArrayList<>();
+        String rest = line;
+        if (rest.startsWith(":")) {
+            int space = rest.indexOf(' ');
+            rest = space < 0 ? "" : rest.substring(space + 1);
+        }
+        while (!rest.isEmpty()) {
+            if (rest.startsWith(":")) {
+                parts.add(rest.substring(1));
+                break;
+            }
+            int space = rest.indexOf(' ');
+            if (space < 0) {
+                parts.add(rest);
+                break;
+            }
+            if (space > 0) {
+                parts.add(rest.substring(0, space));
+            }
+            rest = rest.substring(space + 1);
+        }
+        if (!parts.isEmpty()) {
+            parts.set(0, parts.get(0).toUpperCase(Locale.ENGLISH));
+        }
+        return parts;
+    }
+
+    private void handle(Client client, String line) {
+        List<String> parts = parse(line);
+        if (parts.isEmpty()) {
+            return;
+        }
+        String command = parts.get(0);
+        List<String> params = parts.subList(1, parts.size());
+        switch (command) {
+            case "CAP":
+                cap(client, params);
+                return;
+            case "AUTHENTICATE":
+                authenticate(client, params);
+                return;
+            case "PASS":
+                return;
+            case "NICK":
+                nick(client, params);
+                return;
+            case "USER":
+                if (params.size() < 4) {
+                    client.reply("461", "USER", "Not enough parameters");
+                    return;
+                }
+                client.user = params.get(0);
+                client.realName = params.get(3);
+                register(client);
+                return;
+            case "PING":
+                client.send(":" + NAME + " PONG " + NAME + " :" + (params.isEmpty() ? "" : params.get(0)));
+                return;
+            case "PONG":
+                return;
+            case "QUIT":
+                client.send("ERROR :Closing Link: 127.0.0.1 (Quit: " + (params.isEmpty() ? "" : params.get(0)) + ")");
+                disconnect(client, params.isEmpty() ? "Quit" : "Quit: " + params.get(0));
+                return;
+            default:
+                break;
+        }
+        if (!client.registered) {
+            client.reply("451", command, "You have not registered");
+            return;
+        }
+        if (!COMMANDS.contains(command)) {
+            client.reply("421", command, "Unknown command");
+            return;
+        }
+        if (params.isEmpty() && !command.equals("MOTD")) {
+            client.reply("461", command, "Not enough parameters");
+            return;
+        }
+        switch (command) {
+            case "JOIN":
+                for (String channel : params.get(0).split(",")) {
+                    join(client, channel);
+                }
+                break;
+            case "PART":
+                for (String channel : params.get(0).split(",")) {
+                    part(client, channel, params.size() > 1 ? params.get(1) : null);
+                }
+                break;
+            case "PRIVMSG":
+            case "NOTICE":
+                if (params.size() < 2) {
+                    client.reply("412", "No text to send");
+                    return;
+                }
+                for (String target : params.get(0).split(",")) {
+                    message(client, command, target, params.get(1));
+                }
+                break;
+            case "NAMES":
+                for (String channel : params.get(0).split(",")) {
+                    names(client, channels.get(key(channel)), channel);
+                }
+                break;
+            case "WHO":
+                who(client, params.get(0));
+                break;
+            case "WHOIS":
+                whois(client, params.get(params.size() - 1));
+                break;
+            case "MODE":
+                mode(client, params);
+                break;
+            case "KICK":
+                kick(client, params);
+                break;
+            case "TOPIC":
+                topic(client, params);
+                break;
+            default:
+                motd(client);
+                break;
+        }
+    }
+
+    private void cap(Client client, List<String> params) {
+        String subcommand = params.isEmpty() ? "" : params.get(0).toUpperCase(Locale.ENGLISH);
+        switch (subcommand) {
+            case "LS":
+                if (!client.registered) {
+                    client.negotiating = true;
+                }
+                client.send(":" + NAME + " CAP " + (client.nick == null ? "*" : client.nick) + " LS :multi-prefix sasl");
+                break;
+            case "LIST":
+                client.send(":" + NAME + " CAP " + (client.nick == null ? "*" : client.nick) + " LIST :" + String.join(" ", client.capabilities));
+                break;
+            case "REQ":
+                if (!client.registered) {
+                    client.negotiating = true;
+                }
+                String requested = params.size() > 1 ? params.get(1).trim() : "";
+                List<String> accepted = new ArrayList<>();
+                for (String capability : requested.split(" +")) {
+                    String name = capability.startsWith("-") ? capability.substring(1) : capability;
+                    if (!name.equals("multi-prefix") && !name.equals("sasl")) {
+                        client.send(":" + NAME + " CAP " + (client.nick == null ? "*" : client.nick) + " NAK :" + requested);
+                        return;
+                    }
+                    accepted.add(capability);
+                }
+                for (String capability : accepted) {
+                    if (capability.startsWith("-")) {
+                        client.capabilities.remove(capability.substring(1));
+                    } else {
+                        client.capabilities.add(capability);
+                    }
+                }
+                client.send(":" + NAME + " CAP " + (client.nick == null ? "*" : client.nick) + " ACK :" + requested);
+                break;
+            case "END":
+                client.negotiating = false;
+                register(client);
+                break;
+            default:
+                client.reply("410", subcommand, "Invalid CAP command");
+                break;
+        }
+    }
+
+    private void authenticate(Client client, List<String> params) {
+        if (!client.capabilities.contains("sasl") || params.isEmpty()) {
+            client.reply("904", "SASL authentication failed");
+            return;
+        }
+        String param = params.get(0);
+        if (param.equals("*")) {
+            client.authenticating = false;
+            client.reply("906", "SASL authentication aborted");
+        } else if (!client.authenticating) {
+            if (param.equalsIgnoreCase("PLAIN")) {
+                client.authenticating = true;
+                client.send("AUTHENTICATE +");
+            } else {
+                client.reply("908", "PLAIN", "are available SASL mechanisms");
+                client.reply("904", "SASL authentication failed");
+            }
+        } else {
+            client.authenticating = false;
+            String[] credentials;
+            try {
+                credentials = new String(Base64.getDecoder().decode(param), StandardCharsets.UTF_8).split("\0", -1);
+            } catch (IllegalArgumentException e) {
+                client.reply("904", "SASL authentication failed");
+                return;
+            }
+            if (credentials.length != 3
+                    || (saslAccount != null && !(saslAccount.equals(credentials[1]) && saslPassword.equals(credentials[2])))) {
+                client.reply("904", "SASL authentication failed");
+                return;
+            }
+            client.account = credentials[1];
+            client.reply("900", (client.nick == null ? "*" : client.nick) + "!" + (client.user == null ? "*" : client.user) + "@127.0.0.1",
+                    client.account, "You are now logged in as " + client.account);
+            client.reply("903", "SASL authentication successful");
+        }
+    }
+
+    private void nick(Client client, List<String> params) {
+        if (params.isEmpty()) {
+            client.reply("431", "No nickname given");
+            return;
+        }
+        String nick = params.get(0);
+        Client existing = nicks.get(key(nick));
+        if (existing != null && existing != client) {
+            client.reply("433", nick, "Nickname is already in use");
+            return;
+        }
+        if (client.nick != null) {
+            nicks.remove(key(client.nick));
+        }
+        if (client.registered) {
+            String line = ":" + client.prefix() + " NICK :" + nick;
+            client.send(line);
+            for (Client peer : peers(client)) {
+                peer.send(line);
+            }
+        }
+        client.nick = nick;
+        nicks.put(key(nick), client);
+        register(client);
+    }
+
+    private void register(Client client) {
+        if (client.registered || client.negotiating || client.nick == null || client.user == null) {
+            return;
+        }
+        client.registered = true;
+        client.reply("001", "Welcome to the Fake IRC Network " + client.prefix());
+        client.reply("002", "Your host is " + NAME + ", running version fake-1.0");
+        client.reply("003", "This server was created today");
+        client.reply("004", NAME, "fake-1.0", "iowx", "bklmnopstv");
+        client.reply("005", "CHANTYPES=#", "PREFIX=(ov)@+", "CHANMODES=b,k,l,imnpst", "NETWORK=Fake", "CASEMAPPING=rfc1459",
+                "are supported by this server");
+        client.reply("251", "There are " + nicks.size() + " users on 1 server");
+        motd(client);
+    }
+
+    private void motd(Client client) {
+        client.reply("375", "- " + NAME + " Message of the day - ");
+        client.reply("372", "- This server is for tests only");
+        client.reply("376", "End of /MOTD command.");
+    }
+
+    private void join(Client client, String name) {
+        if (!name.startsWith("#") || name.length() < 2) {
+            client.reply("403", name, "No such channel");
+            return;
+        }
+        Channel channel = channels.computeIfAbsent(key(name), k -> new Channel(name));
+        if (channel.members.containsKey(client)) {
+            return;
+        }
+        // the first member becomes the channel operator
+        channel.members.put(client, new StringBuilder(channel.members.isEmpty() ? "@" : ""));
+        client.channels.add(key(name));
+        channel.broadcast(":" + client.prefix() + " JOIN " + channel.name, null);
+        if (channel.topic != null) {
+            client.reply("332", channel.name, channel.topic);
+            client.reply("333", channel.name, channel.topicSetBy, Long.toString(channel.topicSetAt));
+        }
+        names(client, channel, name);
+    }
+
+    private void part(Client client, String name, @CheckForNull String reason) {
+        Channel channel = channels.get(key(name));
+        if (channel == null || !channel.members.containsKey(client)) {
+            client.reply("442", name, "You're not on that channel");
+            return;
+        }
+        channel.broadcast(":" + client.prefix() + " PART " + channel.name + (reason == null ? "" : " :" + reason), null);
+        leave(client, channel);
+    }
+
+    private void leave(Client client, Channel channel) {
+        channel.members.remove(client);
+        client.channels.remove(key(channel.name));
+        if (channel.members.isEmpty()) {
+            channels.remove(key(channel.name));
+        }
+    }
+
+    private void message(Client client, String command, String target, String text) {
+        String line = ":" + client.prefix() + " " + command + " " + target + " :" + text;
+        if (target.startsWith("#")) {
+            Channel channel = channels.get(key(target));
+            if (channel == null) {
+                client.reply("403", target, "No such channel");
+                return;
+            }
+            if (!channel.members.containsKey(client)) {
+                client.reply("404", target, "Cannot send to channel");
+                return;
+            }
+            channel.broadcast(line, client);
+        } else {
+            Client recipient = nicks.get(key(target));
+            if (recipient == null) {
+                client.reply("401", target, "No such nick/channel");
+                return;
+            }
+            recipient.send(line);
+        }
+        for (MessageListener listener : listeners) {
+            listener.onMessage(client.nick, target, text);
+        }
+    }
+
+    private void names(Client client, @CheckForNull Channel channel, String name) {
+        if (channel != null) {
+            boolean multiPrefix = client.capabilities.contains("multi-prefix");
+            StringBuilder line = new StringBuilder();
+            for (Map.Entry<Client, StringBuilder> member : channel.members.entrySet()) {
+                String prefixes = member.getValue().toString();
+                if (!multiPrefix && prefixes.length() > 1) {
+                    prefixes = prefixes.substring(0, 1);
+                }
+                if (line.length() > 0) {
+                    line.append(' ');
+                }
+                line.append(prefixes).append(member.getKey().nick);
+                if (line.length() > 400) {
+                    client.reply("353", "=", channel.name, line.toString());
+                    line.setLength(0);
+                }
+            }
+            if (line.length() > 0) {
+                client.reply("353", "=", channel.name, line.toString());
+            }
+        }
+        client.reply("366", channel == null ? name : channel.name, "End of /NAMES list.");
+    }
+
+    private void who(Client client, String mask) {
+        Channel channel = channels.get(key(mask));
+        if (channel != null) {
+            for (Map.Entry<Client, StringBuilder> member : channel.members.entrySet()) {
+                whoReply(client, channel.name, member.getKey(), member.getValue().toString());
+            }
+        } else {
+            Client user = nicks.get(key(mask));
+            if (user != null) {
+                whoReply(client, "*", user, "");
+            }
+        }
+        client.reply("315", mask, "End of /WHO list.");
+    }
+
+    private void whoReply(Client client, String channel, Client member, String prefixes) {
+        String host = member.prefix().substring(member.prefix().indexOf('@') + 1);
+        client.reply("352", channel, member.user, host, NAME, member.nick,
+                "H" + (prefixes.isEmpty() ? "" : prefixes.substring(0, 1)), "0 " + member.realName);
+    }
+
+    private void whois(Client client, String nick) {
+        Client user = nicks.get(key(nick));
+        if (user == null) {
+            client.reply("401", nick, "No such nick/channel");
+        } else {
+            String host = user.prefix().substring(user.prefix().indexOf('@') + 1);
+            client.reply("311", user.nick, user.user, host, "*", user.realName);
+            if (!user.channels.isEmpty()) {
+                List<String> names = new ArrayList<>();
+                for (String channel : user.channels) {
+                    Channel chan = channels.get(channel);
+                    names.add((chan.isOperator(user) ? "@" : "") + chan.name);
+                }
+                client.reply("319", user.nick, String.join(" ", names) + " ");
+            }
+            client.reply("312", user.nick, NAME, "Fake IRC server");
+            if (user.account != null) {
+                client.reply("330", user.nick, user.account, "is logged in as");
+            }
+        }
+        client.reply("318", nick, "End of /WHOIS list.");
+    }
+
+    private void mode(Client client, List<String> params) {
+        String target = params.get(0);
+        if (!target.startsWith("#")) {
+            if (!target.equalsIgnoreCase(client.nick)) {
+                client.reply("502", "Can't change mode for other users");
+            } else if (params.size() > 1) {
+                client.send(":" + client.prefix() + " MODE " + client.nick + " :" + params.get(1));
+            } else {
+                client.reply("221", "+i");
+            }
+            return;
+        }
+        Channel channel = channels.get(key(target));
+        if (channel == null) {
+            client.reply("403", target, "No such channel");
+            return;
+        }
+        if (params.size() == 1) {
+            client.reply("324", channel.name, "+nt");
+            client.reply("329", channel.name, Long.toString(channel.created));
+            return;
+        }
+        String modes = params.get(1);
+        if (modes.equals("b") || (modes.equals("+b") && params.size() == 2)) {
+            client.reply("368", channel.name, "End of Channel Ban List");
+            return;
+        }
+        if (!channel.isOperator(client)) {
+            client.reply("482", channel.name, "You're not channel operator");
+            return;
+        }
+        boolean adding = true;
+        int arg = 2;
+        for (char mode : modes.toCharArray()) {
+            if (mode == '+' || mode == '-') {
+                adding = mode == '+';
+                continue;
+            }
+            if (mode != 'o' && mode != 'v') {
+                client.reply("472", String.valueOf(mode), "is unknown mode char to me");
+                continue;
+            }
+            if (arg >= params.size()) {
+                client.reply("461", "MODE", "Not enough parameters");
+                return;
+            }
+            String nick = params.get(arg++);
+            Client member = nicks.get(key(nick));
+            if (member == null || !channel.members.containsKey(member)) {
+                client.reply("441", nick, channel.name, "They aren't on that channel");
+                continue;
+            }
+            StringBuilder prefixes = channel.members.get(member);
+            char prefix = mode == 'o' ? '@' : '+';
+            int index = prefixes.indexOf(String.valueOf(prefix));
+            if (adding && index < 0) {
+                // the operator prefix goes first
+                prefixes.insert(mode == 'o' ? 0 : prefixes.length(), prefix);
+            } else if (!adding && index >= 0) {
+                prefixes.deleteCharAt(index);
+            } else {
+                continue;
+            }
+            channel.broadcast(":" + client.prefix() + " MODE " + channel.name + " " + (adding ? "+" : "-") + mode + " " + member.nick, null);
+        }
+    }
+
+    private void kick(Client client, List<String> params) {
+        if (params.size() < 2) {
+            client.reply("461", "KICK", "Not enough parameters");
+            return;
+        }
+        Channel channel = channels.get(key(params.get(0)));
+        if (channel == null) {
+            client.reply("403", params.get(0), "No such channel");
+            return;
+        }
+        if (!channel.isOperator(client)) {
+            client.reply("482", channel.name, "You're not channel operator");
+            return;
+        }
+        Client member = nicks.get(key(params.get(1)));
+        if (member == null || !channel.members.containsKey(member)) {
+            client.reply("441", params.get(1), channel.name, "They aren't on that channel");
+            return;
+        }
+        String reason = params.size() > 2 ? params.get(2) : client.nick;
+        channel.broadcast(":" + client.prefix() + " KICK " + channel.name + " " + member.nick + " :" + reason, null);
+        leave(member, channel);
+    }
+
+    private void topic(Client client, List<String> params) {
+        Channel channel = channels.get(key(params.get(0)));
+        if (channel == null) {
+            client.reply("403", params.get(0), "No such channel");
+            return;
+        }
+        if (params.size() == 1) {
+            if (channel.topic == null) {
+                client.reply("331", channel.name, "No topic is set.");
+            } else {
+                client.reply("332", channel.name, channel.topic);
+                client.reply("333", channel.name, channel.topicSetBy, Long.toString(channel.topicSetAt));
+            }
+            return;
+        }
+        // channels are +t
+        if (!channel.isOperator(client)) {
+            client.reply("482", channel.name, "You're not channel operator");
+            return;
+        }
+        channel.topic = params.get(1);
+        channel.topicSetBy = client.nick;
+        channel.topicSetAt = System.currentTimeMillis() / 1000;
+        channel.broadcast(":" + client.prefix() + " TOPIC " + channel.name + " :" + channel.topic, null);
+    }
+
+    /**
+     * Gets the other users sharing a channel with the client.
+     */
+    private Set<Client> peers(Client client) {
+        Set<Client> peers = Collections.newSetFromMap(new LinkedHashMap<>());
+        for (String name : client.channels) {
+            peers.addAll(channels.get(name).members.keySet());
+        }
+        peers.remove(client);
+        return peers;
+    }
+
+    private void disconnect(Client client, String reason) {
+        if (client.closing || client.socket == null) {
+            return;
+        }
+        client.closing = true;
+        if (client.registered) {
+            String line = ":" + client.prefix() + " QUIT :" + reason;
+            for (Client peer : peers(client)) {
+                peer.send(line);
+            }
+            for (String name : new ArrayList<>(client.channels)) {
+                leave(client, channels.get(name));
+            }
+        }
+        if (client.nick != null && nicks.get(key(client.nick)) == client) {
+            nicks.remove(key(client.nick));
+        }
+        // the pending output, e.g. the ERROR line, is flushed on a best effort basis
+        client.flush();
+        try {
+            client.socket.close();
+        } catch (IOException e) {
+            // ignored, the connection is gone anyway
+        }
+    }
+
+    /**
+     * Gets the case-insensitive key of the nick or channel.
+     * The {@code rfc1459} case mapping treats the square brackets, the backslash and the tilde
+     * as the upper case of the curly brackets, the pipe and the caret.
+     */
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ENGLISH).replace('[', '{').replace(']', '}').replace('\\', '|').replace('~', '^');
+    }
+
+    @Override
+    public String toString() {
+        return "FakeIrcServer[127.0.0.1:" + getPort() + "]";
+    }
+}
@@ -0,0 +1,245 @@
+package org.jenkinsci.backend.ircbot.fake;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link FakeIrcServer} and {@link IrcLoadGenerator} with a plain socket client.
+ */
+public class FakeIrcServerTest {
+
+    private FakeIrcServer server;
+    private Socket socket;
+    private BufferedReader in;
+    private Writer out;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeIrcServer();
+        server.start();
+        socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setSoTimeout(10000);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        socket.close();
+        server.close();
+    }
+
+    @Test
+    public void testSaslRegistration() throws Exception {
+        server.setSaslCredentials("bot", "secret");
+        send("CAP LS", "NICK bot", "USER bot 0 * :Test bot");
+        assertEquals(":fake.irc CAP * LS :multi-prefix sasl", in.readLine());
+        send("CAP REQ :sasl");
+        assertEquals(":fake.irc CAP bot ACK :sasl", in.readLine());
+        send("AUTHENTICATE PLAIN");
+        assertEquals("AUTHENTICATE +", in.readLine());
+        send("AUTHENTICATE " + Base64.getEncoder().encodeToString("bot\0bot\0wrong".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(":fake.irc 904 bot :SASL authentication failed", in.readLine());
+
+        send("AUTHENTICATE PLAIN");
+        assertEquals("AUTHENTICATE +", in.readLine());
+        send("AUTHENTICATE " + Base64.getEncoder().encodeToString("bot\0bot\0secret".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(readUntil(" 903 ").endsWith(":SASL authentication successful"));
+        // the registration completes after the capability negotiation
+        send("CAP END");
+        assertEquals(":fake.irc 001 bot :Welcome to the Fake IRC Network bot!bot@127.0.0.1", in.readLine());
+        readUntil(" 376 ");
+    }
+
+    @Test
+    public void testChannels() throws Exception {
+        register("bot");
+        send("JOIN #jenkins,#jenkins-hosting");
+        assertEquals(":bot!bot@127.0.0.1 JOIN #jenkins", in.readLine());
+        assertEquals(":fake.irc 353 bot = #jenkins @bot", in.readLine());
+        readUntil(" 366 bot #jenkins-hosting ");
+
+        server.join("alice", "#jenkins");
+        assertEquals(":alice!alice@virtual.irc JOIN #jenkins", in.readLine());
+        send("MODE #jenkins +v alice");
+        assertEquals(":bot!bot@127.0.0.1 MODE #jenkins +v alice", in.readLine());
+        send("NAMES #jenkins");
+        assertEquals(":fake.irc 353 bot = #jenkins :@bot +alice", in.readLine());
+        assertEquals(":fake.irc 366 bot #jenkins :End of /NAMES list.", in.readLine());
+        send("WHO #jenkins");
+        assertEquals(":fake.irc 352 bot #jenkins bot 127.0.0.1 fake.irc bot H@ :0 Test bot", in.readLine());
+        assertEquals(":fake.irc 352 bot #jenkins alice virtual.irc fake.irc alice H+ :0 alice", in.readLine());
+        readUntil(" 315 ");
+
+        send("TOPIC #jenkins");
+        assertEquals(":fake.irc 331 bot #jenkins :No topic is set.", in.readLine());
+        send("TOPIC #jenkins :Welcome!");
+        assertEquals(":bot!bot@127.0.0.1 TOPIC #jenkins :Welcome!", in.readLine());
+        assertEquals("Welcome!", server.getTopic("#jenkins"));
+
+        send("KICK #jenkins alice :Bye");
+        assertEquals(":bot!bot@127.0.0.1 KICK #jenkins alice :Bye", in.readLine());
+        assertEquals(Collections.singletonList("bot"), server.getMembers("#jenkins"));
+
+        send("PART #jenkins-hosting");
+        assertEquals(":bot!bot@127.0.0.1 PART #jenkins-hosting", in.readLine());
+        assertEquals(Collections.emptyList(), server.getMembers("#jenkins-hosting"));
+        assertNull(server.getTopic("#jenkins-hosting"));
+    }
+
+    @Test
+    public void testOperatorsOnly() throws Exception {
+        server.join("alice", "#jenkins");
+        register("bot");
+        send("JOIN #jenkins");
+        readUntil(" 366 ");
+        send("KICK #jenkins alice");
+        assertEquals(":fake.irc 482 bot #jenkins :You're not channel operator", in.readLine());
+        send("TOPIC #jenkins :Welcome!");
+        assertEquals(":fake.irc 482 bot #jenkins :You're not channel operator", in.readLine());
+
+        server.op("#jenkins", "bot");
+        assertEquals(":fake.irc MODE #jenkins +o bot", in.readLine());
+        send("MODE #jenkins");
+        assertEquals(":fake.irc 324 bot #jenkins +nt", in.readLine());
+        assertTrue(in.readLine().startsWith(":fake.irc 329 bot #jenkins "));
+        send("MODE #jenkins b");
+        assertEquals(":fake.irc 368 bot #jenkins :End of Channel Ban List", in.readLine());
+        send("KICK #jenkins alice");
+        assertEquals(":bot!bot@127.0.0.1 KICK #jenkins alice :bot", in.readLine());
+    }
+
+    @Test
+    public void testMessages() throws Exception {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        server.addListener((sender, target, text) -> received.add(sender + " " + target + " " + text));
+        register("bot");
+        send("JOIN #jenkins");
+        readUntil(" 366 ");
+        server.join("alice", "#jenkins");
+        readUntil("JOIN #jenkins");
+
+        server.say("alice", "#jenkins", "bot: hello");
+        assertEquals(":alice!alice@virtual.irc PRIVMSG #jenkins :bot: hello", in.readLine());
+        server.say("alice", "bot", "psst");
+        assertEquals(":alice!alice@virtual.irc PRIVMSG bot :psst", in.readLine());
+        send("PRIVMSG #jenkins :Hello, alice!", "PRIVMSG #nowhere :Hi", "PING :token");
+        assertEquals(":fake.irc 403 bot #nowhere :No such channel", in.readLine());
+        assertEquals(":fake.irc PONG fake.irc :token", in.readLine());
+        assertEquals(Arrays.asList("alice #jenkins bot: hello", "alice bot psst", "bot #jenkins Hello, alice!"), received);
+    }
+
+    @Test
+    public void testRegistrationErrors() throws Exception {
+        server.join("alice", "#jenkins");
+        send("JOIN #jenkins");
+        assertEquals(":fake.irc 451 * JOIN :You have not registered", in.readLine());
+        send("NICK alice");
+        assertEquals(":fake.irc 433 * alice :Nickname is already in use", in.readLine());
+        register("bot");
+        send("FOO");
+        assertEquals(":fake.irc 421 bot FOO :Unknown command", in.readLine());
+    }
+
+    @Test
+    public void testFloodLimit() throws Exception {
+        register("bot");
+        server.setFloodLimit(5, 1);
+        // the limit applies to the lines received after the change
+        send("PING :1");
+        assertEquals(":fake.irc PONG fake.irc :1", in.readLine());
+        send("PING :2", "PING :3", "PING :4", "PING :5", "PING :6", "PING :7");
+        readUntil("ERROR :Closing Link: 127.0.0.1 (Excess Flood)");
+        assertNull(in.readLine());
+        assertEquals(1, server.getFloodDisconnects());
+    }
+
+    @Test
+    public void testLoadGenerator() throws Exception {
+        register("bot");
+        send("JOIN #a,#b");
+        readUntil(" 366 bot #b ");
+        IrcLoadGenerator generator = new IrcLoadGenerator(server, "bot");
+        List<String> channels = Arrays.asList("#a", "#b");
+        List<List<String>> users = generator.joinUsers(channels, 3, 10, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("bot", "user0x0", "user0x1", "user0x2"), server.getMembers("#a"));
+
+        // answers like the bot, merging two replies into one line
+        Thread responder = new Thread(() -> {
+            try {
+                Map<String, String> pending = new HashMap<>();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.endsWith(" :bot: hello")) {
+                        continue;
+                    }
+                    String channel = line.split(" ")[2];
+                    String reply = "Hello, " + line.substring(1, line.indexOf('!')) + "!";
+                    String previous = pending.remove(channel);
+                    if (previous == null) {
+                        pending.put(channel, reply);
+                    } else {
+                        send("PRIVMSG " + channel + " :" + previous + " | " + reply);
+                    }
+                }
+            } catch (IOException e) {
+                // closed by the test
+            }
+        });
+        responder.setDaemon(true);
+        responder.start();
+
+        IrcLoadGenerator.Result result = generator.run(channels, users, 100, 1, 5, TimeUnit.SECONDS);
+        assertTrue(result.getSent() > 50, result.toString());
+        // the last command of every channel may wait for another one forever
+        assertTrue(result.getAnswered() >= result.getSent() - channels.size(), result.toString());
+        assertTrue(result.getLatencyMillis(50) >= 0, result.toString());
+        assertFalse(result.getLatencyMillis(50) > result.getLatencyMillis(100), result.toString());
+    }
+
+    private void register(String nick) throws IOException {
+        send("NICK " + nick, "USER " + nick + " 0 * :Test bot");
+        readUntil(" 376 ");
+    }
+
+    private void send(String... lines) throws IOException {
+        synchronized (out) {
+            for (String line : lines) {
+                out.write(line + "\r\n");
+            }
+            out.flush();
+        }
+    }
+
+    private String readUntil(String fragment) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.contains(fragment)) {
+                return line;
+            }
+        }
+        throw new IOException("Connection closed before " + fragment);
+    }
+}
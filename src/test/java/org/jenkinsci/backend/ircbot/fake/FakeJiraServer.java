@@ -0,0 +1,388 @@
+package org.jenkinsci.backend.ircbot.fake;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * Stand-in for the JIRA REST API used by {@code JiraHelper} and the component commands:
+ * server info, projects, components, issues and the JQL search.
+ * The search only understands the issue keys in the query, e.g. {@code key in ("INFRA-1","INFRA-2")}.
+ * Both {@code /rest/api/2} and {@code /rest/api/latest} are served, the latter is used by the REST client.
+ */
+public class FakeJiraServer extends FakeHttpServer {
+
+    private static final String API = "/rest/api/(?:2|latest)";
+    private static final Pattern ISSUE_KEY = Pattern.compile("[A-Z][A-Z0-9_]*-\\d+");
+    static final String DATE = "2023-01-01T00:00:00.000+0000";
+
+    private static final class Project {
+        private final long id;
+        private final String key;
+        private final String name;
+
+        Project(long id, String key, String name) {
+            this.id = id;
+            this.key = key;
+            this.name = name;
+        }
+    }
+
+    private static final class Component {
+        private final long id;
+        private final String project;
+        private volatile String name;
+        @CheckForNull
+        private volatile String description;
+        @CheckForNull
+        private volatile String lead;
+
+        Component(long id, String project, String name, @CheckForNull String lead) {
+            this.id = id;
+            this.project = project;
+            this.name = name;
+            this.lead = lead;
+        }
+    }
+
+    private static final class Issue {
+        private final long id;
+        private final String key;
+        private final String project;
+        private final String summary;
+        private final String status;
+
+        Issue(long id, String key, String project, String summary, String status) {
+            this.id = id;
+            this.key = key;
+            this.project = project;
+            this.summary = summary;
+            this.status = status;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ComponentHandler {
+        Response handle(Component component) throws JSONException;
+    }
+
+    private final AtomicLong ids = new AtomicLong(10000);
+    private final Map<String, Project> projects = new ConcurrentHashMap<>();
+    private final Map<Long, Component> components = new ConcurrentHashMap<>();
+    private final Map<String, Issue> issues = new ConcurrentHashMap<>();
+
+    public FakeJiraServer() throws IOException {
+        super("fake-jira");
+        route("GET", API + "/serverInfo", r -> Response.json(200, serverInfo()));
+        route("GET", API + "/project/([^/]+)", this::getProject);
+        route("POST", API + "/component", this::createComponent);
+        route("GET", API + "/component/(\\d+)", r -> withComponent(r, c -> Response.json(200, component(c))));
+        route("PUT", API + "/component/(\\d+)", this::updateComponent);
+        route("DELETE", API + "/component/(\\d+)", this::removeComponent);
+        route("GET", API + "/issue/([^/]+)", this::getIssue);
+        route("GET", API + "/search", r -> search(r.param("jql"), r.intParam("maxResults", 50), r.intParam("startAt", 0)));
+        route("POST", API + "/search", r -> {
+            JSONObject query = r.json();
+            return search(query.optString("jql", ""), query.optInt("maxResults", 50), query.optInt("startAt", 0));
+        });
+    }
+
+    public void addProject(@Nonnull String key, @Nonnull String name) {
+        projects.put(key, new Project(ids.incrementAndGet(), key, name));
+    }
+
+    /**
+     * Adds the component to an existing project.
+     * @return ID of the component
+     */
+    public long addComponent(@Nonnull String project, @Nonnull String name, @CheckForNull String lead) {
+        checkProject(project);
+        long id = ids.incrementAndGet();
+        components.put(id, new Component(id, project, name, lead));
+        return id;
+    }
+
+    /**
+     * Adds the issue to an existing project, the project is taken from the key.
+     */
+    public void addIssue(@Nonnull String key, @Nonnull String summary, @Nonnull String status) {
+        String project = key.substring(0, key.lastIndexOf('-'));
+        checkProject(project);
+        issues.put(key, new Issue(ids.incrementAndGet(), key, project, summary, status));
+    }
+
+    /**
+     * Gets the names of the components of the project.
+     */
+    @Nonnull
+    public List<String> getComponentNames(@Nonnull String project) {
+        return components.values().stream()
+                .filter(c -> c.project.equals(project))
+                .map(c -> c.name)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the lead of the component, {@code null} if it has none.
+     * @throws IllegalArgumentException No such component
+     */
+    @CheckForNull
+    public String getComponentLead(@Nonnull String project, @Nonnull String name) {
+        return findComponent(project, name).lead;
+    }
+
+    /**
+     * Gets the description of the component, {@code null} if it has none.
+     * @throws IllegalArgumentException No such component
+     */
+    @CheckForNull
+    public String getComponentDescription(@Nonnull String project, @Nonnull String name) {
+        return findComponent(project, name).description;
+    }
+
+    @Override
+    protected Response error(int status, String message) {
+        try {
+            return Response.json(status, new JSONObject()
+                    .put("errorMessages", new JSONArray().put(message))
+                    .put("errors", new JSONObject()));
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void checkProject(String project) {
+        if (!projects.containsKey(project)) {
+            throw new IllegalArgumentException("No such project: " + project);
+        }
+    }
+
+    private Component findComponent(String project, String name) {
+        return components.values().stream()
+                .filter(c -> c.project.equals(project) && c.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No such component: " + name));
+    }
+
+    private Response getProject(Request r) throws JSONException {
+        Project project = projects.get(r.group(1));
+        if (project == null) {
+            return error(404, "No project could be found with key '" + r.group(1) + "'.");
+        }
+        JSONArray projectComponents = new JSONArray();
+        List<Component> sorted = components.values().stream()
+                .filter(c -> c.project.equals(project.key))
+                .sorted((a, b) -> Long.compare(a.id, b.id))
+                .collect(Collectors.toList());
+        for (Component c : sorted) {
+            projectComponents.put(basicComponent(c));
+        }
+        return Response.json(200, basicProject(project)
+                .put("expand", "description,lead,url,projectKeys")
+                .put("description", "")
+                .put("lead", user("admin"))
+                .put("components", projectComponents)
+                .put("issueTypes", new JSONArray().put(issueType()))
+                .put("versions", new JSONArray())
+                .put("roles", new JSONObject()));
+    }
+
+    private Response createComponent(Request r) throws JSONException {
+        JSONObject input = r.json();
+        String project = input.optString("project", "");
+        String name = input.optString("name", "");
+        if (!projects.containsKey(project)) {
+            return error(400, "The project is not valid");
+        }
+        if (name.isEmpty() || components.values().stream().anyMatch(c -> c.project.equals(project) && c.name.equals(name))) {
+            return error(400, "A component with the name " + name + " already exists in this project.");
+        }
+        long id = ids.incrementAndGet();
+        Component component = new Component(id, project, name, input.has("leadUserName") ? input.getString("leadUserName") : null);
+        component.description = input.has("description") ? input.getString("description") : null;
+        components.put(id, component);
+        return Response.json(201, component(component));
+    }
+
+    private Response updateComponent(Request r) throws JSONException {
+        JSONObject input = r.json();
+        return withComponent(r, c -> {
+            if (input.has("name")) {
+                c.name = input.getString("name");
+            }
+            if (input.has("description")) {
+                String description = input.getString("description");
+                c.description = description.isEmpty() ? null : description;
+            }
+            if (input.has("leadUserName")) {
+                String lead = input.getString("leadUserName");
+                c.lead = lead.isEmpty() ? null : lead;
+            }
+            return Response.json(200, component(c));
+        });
+    }
+
+    private Response removeComponent(Request r) throws JSONException {
+        String moveTo = r.param("moveIssuesTo");
+        if (moveTo != null && !components.containsKey(Long.parseLong(moveTo.substring(moveTo.lastIndexOf('/') + 1)))) {
+            return error(400, "The component to move the issues to does not exist");
+        }
+        return withComponent(r, c -> {
+            components.remove(c.id);
+            return Response.empty(204);
+        });
+    }
+
+    private Response withComponent(Request r, ComponentHandler handler) throws JSONException {
+        Component component = components.get(Long.parseLong(r.group(1)));
+        if (component == null) {
+            return error(404, "The component with id " + r.group(1) + " does not exist.");
+        }
+        return handler.handle(component);
+    }
+
+    private Response getIssue(Request r) throws JSONException {
+        Issue issue = issues.get(r.group(1));
+        if (issue == null) {
+            return error(404, "Issue Does Not Exist");
+        }
+        return Response.json(200, issue(issue));
+    }
+
+    private Response search(@CheckForNull String jql, int maxResults, int startAt) throws JSONException {
+        List<Issue> found = new ArrayList<>();
+        if (jql != null) {
+            Matcher key = ISSUE_KEY.matcher(jql);
+            while (key.find()) {
+                Issue issue = issues.get(key.group());
+                if (issue == null) {
+                    return error(400, "An issue with key '" + key.group() + "' does not exist for field 'key'.");
+                }
+                found.add(issue);
+            }
+        }
+        JSONArray page = new JSONArray();
+        for (int i = startAt; i < found.size() && i < startAt + maxResults; i++) {
+            page.put(issue(found.get(i)));
+        }
+        return Response.json(200, new JSONObject()
+                .put("expand", "schema,names")
+                .put("startAt", startAt)
+                .put("maxResults", maxResults)
+                .put("total", found.size())
+                .put("issues", page));
+    }
+
+    private JSONObject serverInfo() throws JSONException {
+        return new JSONObject()
+                .put("baseUrl", getUri().toString())
+                .put("version", "9.4.0")
+                .put("versionNumbers", new JSONArray().put(9).put(4).put(0))
+                .put("deploymentType", "Server")
+                .put("buildNumber", 940000)
+                .put("buildDate", DATE)
+                .put("serverTime", DATE)
+                .put("scmInfo", "fake")
+                .put("serverTitle", "Fake JIRA");
+    }
+
+    private JSONObject basicProject(Project project) throws JSONException {
+        return new JSONObject()
+                .put("self", api("project/" + project.id))
+                .put("id", Long.toString(project.id))
+                .put("key", project.key)
+                .put("name", project.name);
+    }
+
+    private JSONObject basicComponent(Component c) throws JSONException {
+        JSONObject json = new JSONObject()
+                .put("self", api("component/" + c.id))
+                .put("id", Long.toString(c.id))
+                .put("name", c.name);
+        if (c.description != null) {
+            json.put("description", c.description);
+        }
+        return json;
+    }
+
+    private JSONObject component(Component c) throws JSONException {
+        JSONObject json = basicComponent(c)
+                .put("project", c.project)
+                .put("projectId", projects.get(c.project).id)
+                .put("isAssigneeTypeValid", c.lead != null);
+        if (c.lead != null) {
+            json.put("lead", user(c.lead))
+                    .put("assigneeType", "COMPONENT_LEAD")
+                    .put("assignee", user(c.lead))
+                    .put("realAssigneeType", "COMPONENT_LEAD")
+                    .put("realAssignee", user(c.lead));
+        } else {
+            json.put("assigneeType", "PROJECT_DEFAULT")
+                    .put("realAssigneeType", "PROJECT_DEFAULT");
+        }
+        return json;
+    }
+
+    private JSONObject issue(Issue issue) throws JSONException {
+        JSONObject status = new JSONObject()
+                .put("self", api("status/1"))
+                .put("id", "1")
+                .put("name", issue.status)
+                .put("description", "")
+                .put("iconUrl", getUri() + "/images/icons/status.png")
+                .put("statusCategory", new JSONObject()
+                        .put("self", api("statuscategory/2"))
+                        .put("id", 2)
+                        .put("key", "new")
+                        .put("colorName", "blue-gray")
+                        .put("name", "To Do"));
+        return new JSONObject()
+                .put("expand", "")
+                .put("id", Long.toString(issue.id))
+                .put("self", api("issue/" + issue.id))
+                .put("key", issue.key)
+                .put("fields", new JSONObject()
+                        .put("summary", issue.summary)
+                        .put("status", status)
+                        .put("issuetype", issueType())
+                        .put("project", basicProject(projects.get(issue.project)))
+                        .put("created", DATE)
+                        .put("updated", DATE));
+    }
+
+    private JSONObject issueType() throws JSONException {
+        return new JSONObject()
+                .put("self", api("issuetype/1"))
+                .put("id", "1")
+                .put("name", "Bug")
+                .put("description", "")
+                .put("iconUrl", getUri() + "/images/icons/bug.png")
+                .put("subtask", false);
+    }
+
+    private JSONObject user(String name) throws JSONException {
+        return new JSONObject()
+                .put("self", api("user?username=" + name))
+                .put("name", name)
+                .put("key", name)
+                .put("displayName", name)
+                .put("active", true);
+    }
+
+    private String api(String path) {
+        return getUri() + "/rest/api/2/" + path;
+    }
+}
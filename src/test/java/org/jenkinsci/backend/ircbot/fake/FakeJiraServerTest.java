@@ -0,0 +1,126 @@
+package org.jenkinsci.backend.ircbot.fake;
+
+import com.atlassian.jira.rest.client.api.JiraRestClient;
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.domain.AssigneeType;
+import com.atlassian.jira.rest.client.api.domain.BasicComponent;
+import com.atlassian.jira.rest.client.api.domain.Component;
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.Project;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import com.atlassian.jira.rest.client.api.domain.input.ComponentInput;
+import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientFactory;
+import io.atlassian.util.concurrent.Promise;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link FakeJiraServer} with the REST client used by the bot.
+ */
+public class FakeJiraServerTest {
+
+    private FakeJiraServer server;
+    private JiraRestClient client;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeJiraServer();
+        server.addProject("JENKINS", "Jenkins");
+        server.addComponent("JENKINS", "core", null);
+        server.addComponent("JENKINS", "git-plugin", "someone");
+        server.addIssue("JENKINS-1", "Build fails", "Open");
+        server.addIssue("JENKINS-2", "Typo", "Resolved");
+        server.start();
+        client = new AsynchronousJiraRestClientFactory().createWithBasicHttpAuthentication(server.getUri(), "ircbot", "secret");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void testComponents() throws Exception {
+        Project project = get(client.getProjectClient().getProject("JENKINS"));
+        List<String> names = new ArrayList<>();
+        for (BasicComponent component : project.getComponents()) {
+            names.add(component.getName());
+        }
+        assertEquals(Arrays.asList("core", "git-plugin"), names);
+
+        Component created = get(client.getComponentClient().createComponent("JENKINS",
+                new ComponentInput("foo-plugin", "subcomponent", "maintainer", AssigneeType.COMPONENT_LEAD)));
+        assertEquals("maintainer", created.getLead().getName());
+        assertEquals("maintainer", server.getComponentLead("JENKINS", "foo-plugin"));
+
+        get(client.getComponentClient().updateComponent(created.getSelf(), new ComponentInput("bar-plugin", null, "", null)));
+        assertNull(server.getComponentLead("JENKINS", "bar-plugin"));
+        assertEquals("subcomponent", server.getComponentDescription("JENKINS", "bar-plugin"));
+
+        BasicComponent core = project.getComponents().iterator().next();
+        get(client.getComponentClient().removeComponent(created.getSelf(), core.getSelf()));
+        assertEquals(Arrays.asList("core", "git-plugin"), server.getComponentNames("JENKINS"));
+    }
+
+    @Test
+    public void testIssues() throws Exception {
+        Issue issue = get(client.getIssueClient().getIssue("JENKINS-1"));
+        assertEquals("Build fails", issue.getSummary());
+        assertEquals("Open", issue.getStatus().getName());
+
+        SearchResult result = get(client.getSearchClient().searchJql("key in (\"JENKINS-1\",\"JENKINS-2\")", 2, 0,
+                new HashSet<>(Arrays.asList("summary", "status", "issuetype", "created", "updated", "project"))));
+        assertEquals(2, result.getTotal());
+
+        ExecutionException missing = assertThrows(ExecutionException.class, () -> get(client.getIssueClient().getIssue("JENKINS-3")));
+        assertEquals(404, ((RestClientException) missing.getCause()).getStatusCode().get().intValue());
+    }
+
+    @Test
+    public void testFailuresAndRateLimit() throws Exception {
+        server.failNext(1, 503);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> get(client.getMetadataClient().getServerInfo()));
+        assertInstanceOf(RestClientException.class, failure.getCause());
+        assertEquals("Fake JIRA", get(client.getMetadataClient().getServerInfo()).getServerTitle());
+
+        server.setRateLimit(1, 1, TimeUnit.HOURS);
+        get(client.getMetadataClient().getServerInfo());
+        failure = assertThrows(ExecutionException.class, () -> get(client.getMetadataClient().getServerInfo()));
+        assertEquals(429, ((RestClientException) failure.getCause()).getStatusCode().get().intValue());
+        assertEquals(4, server.getRequestCount("GET", "/rest/api/latest/serverInfo"));
+    }
+
+    @Test
+    public void testLatency() throws Exception {
+        server.setLatency(200, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        List<Promise<Issue>> issues = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            issues.add(client.getIssueClient().getIssue("JENKINS-1"));
+        }
+        for (Promise<Issue> issue : issues) {
+            get(issue);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // concurrent requests are delayed in parallel
+        assertTrue(elapsed >= 200 && elapsed < 2000, "took " + elapsed + "ms");
+    }
+
+    private static <T> T get(Promise<T> promise) throws Exception {
+        return promise.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,203 @@
+package org.jenkinsci.backend.ircbot.fake;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+
+/**
+ * Simulates many users sending commands to the bot through {@link FakeIrcServer}
+ * and measures the end-to-end latency of the replies and the rate the bot sustains.
+ *
+ * The users greet the bot with {@code <bot>: hello}, which is answered with {@code Hello, <user>!}
+ * without calling the remote services, so the measurement covers the IRC client, the command dispatch
+ * and the outbound rate limit of the bot only.
+ * Several replies may be merged into one line, so they are correlated by the user nick,
+ * and each user waits for the reply before greeting the bot again in the same channel.
+ */
+public class IrcLoadGenerator {
+
+    private static final Pattern REPLY = Pattern.compile("Hello, ([^!]+)!");
+
+    /**
+     * Measured load.
+     */
+    public static final class Result {
+        private final long sent;
+        private final long[] latencies;
+        private final long durationNanos;
+
+        Result(long sent, long[] latencies, long durationNanos) {
+            this.sent = sent;
+            this.latencies = latencies;
+            this.durationNanos = durationNanos;
+            Arrays.sort(this.latencies);
+        }
+
+        /**
+         * Gets the number of commands sent to the bot.
+         */
+        public long getSent() {
+            return sent;
+        }
+
+        /**
+         * Gets the number of commands answered by the bot.
+         */
+        public long getAnswered() {
+            return latencies.length;
+        }
+
+        /**
+         * Gets the number of commands answered per second.
+         */
+        public double getAnsweredPerSecond() {
+            return latencies.length * 1e9 / durationNanos;
+        }
+
+        /**
+         * Gets the latency percentile of the answered commands.
+         * @param percentile Percentile, between 0 and 100
+         * @return Latency in milliseconds, {@code -1} if no command was answered
+         */
+        public double getLatencyMillis(double percentile) {
+            if (latencies.length == 0) {
+                return -1;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ENGLISH, "sent=%d answered=%d rate=%.1f/s latency p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                    sent, getAnswered(), getAnsweredPerSecond(),
+                    getLatencyMillis(50), getLatencyMillis(95), getLatencyMillis(99), getLatencyMillis(100));
+        }
+    }
+
+    private final FakeIrcServer server;
+    private final String botNick;
+    /**
+     * Send times of the commands waiting for the reply, by channel and user.
+     */
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    // guarded by itself
+    private final List<Long> latencies = new ArrayList<>();
+
+    public IrcLoadGenerator(@Nonnull FakeIrcServer server, @Nonnull String botNick) {
+        this.server = server;
+        this.botNick = botNick;
+        server.addListener(this::onMessage);
+    }
+
+    /**
+     * Joins the users to the channels and waits until the bot is there too.
+     * The users are named {@code user<channel index>x<user index>}.
+     * @return Users of every channel
+     */
+    @Nonnull
+    public List<List<String>> joinUsers(@Nonnull Collection<String> channels, int usersPerChannel, long timeout, @Nonnull TimeUnit unit)
+            throws IOException, InterruptedException {
+        List<List<String>> users = new ArrayList<>();
+        int index = 0;
+        for (String channel : channels) {
+            if (!server.awaitMember(channel, botNick, timeout, unit)) {
+                throw new IOException(botNick + " did not join " + channel);
+            }
+            List<String> channelUsers = new ArrayList<>();
+            for (int i = 0; i < usersPerChannel; i++) {
+                String user = "user" + index + "x" + i;
+                server.join(user, channel);
+                channelUsers.add(user);
+            }
+            users.add(channelUsers);
+            index++;
+        }
+        return users;
+    }
+
+    /**
+     * Sends the commands at the given rate, then waits for the remaining replies.
+     * @param channels Channels of the users
+     * @param users Users of every channel, see {@link #joinUsers(Collection, int, long, TimeUnit)}
+     * @param commandsPerSecond Rate of the commands to all the channels together.
+     *                          Commands of the users still waiting for a reply are skipped.
+     * @param drainTimeout Maximum time to wait for the replies after the last command
+     */
+    @Nonnull
+    public Result run(@Nonnull List<String> channels, @Nonnull List<List<String>> users, int commandsPerSecond,
+                      long duration, long drainTimeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        synchronized (latencies) {
+            latencies.clear();
+        }
+        pending.clear();
+        long interval = TimeUnit.SECONDS.toNanos(1) / commandsPerSecond;
+        long start = System.nanoTime();
+        long end = start + unit.toNanos(duration);
+        long next = start;
+        long sent = 0;
+        int turn = 0;
+        while (next - end < 0) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            // round robin over the channels, then over their users
+            int channelIndex = turn % channels.size();
+            List<String> channelUsers = users.get(channelIndex);
+            String user = channelUsers.get((turn / channels.size()) % channelUsers.size());
+            String channel = channels.get(channelIndex);
+            turn++;
+            if (pending.putIfAbsent(key(channel, user), System.nanoTime()) == null) {
+                server.say(user, channel, botNick + ": hello");
+                sent++;
+            }
+            next += interval;
+        }
+        long drainEnd = System.nanoTime() + unit.toNanos(drainTimeout);
+        while (!pending.isEmpty() && System.nanoTime() - drainEnd < 0) {
+            Thread.sleep(10);
+        }
+        long[] measured;
+        synchronized (latencies) {
+            measured = new long[latencies.size()];
+            for (int i = 0; i < measured.length; i++) {
+                measured[i] = latencies.get(i);
+            }
+        }
+        return new Result(sent, measured, System.nanoTime() - start);
+    }
+
+    private void onMessage(String sender, String target, String text) {
+        if (!sender.equalsIgnoreCase(botNick)) {
+            return;
+        }
+        long now = System.nanoTime();
+        Matcher m = REPLY.matcher(text);
+        while (m.find()) {
+            Long sentAt = pending.remove(key(target, m.group(1)));
+            if (sentAt != null) {
+                synchronized (latencies) {
+                    latencies.add(now - sentAt);
+                }
+            }
+        }
+    }
+
+    private static String key(String channel, String user) {
+        return channel.toLowerCase(Locale.ENGLISH) + " " + user;
+    }
+}
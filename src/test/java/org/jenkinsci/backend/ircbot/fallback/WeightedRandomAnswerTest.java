@@ -2,8 +2,10 @@ package org.jenkinsci.backend.ircbot.fallback;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class WeightedRandomAnswerTest {
@@ -46,4 +48,16 @@ public class WeightedRandomAnswerTest {
         assertTrue(14_500 < gotB && gotB < 15_500, "Got B " + gotB + " times");
         assertTrue(4_500 < gotC && gotC < 5_500, "Got C " + gotC + " times");
     }
+
+    @Test
+    public void zeroWeightNeverPicked() {
+        final WeightedRandomAnswer answer = new WeightedRandomAnswer()
+                .addAnswer("never", 0)
+                .addAnswer("A", 1)
+                .addAnswer("never again", 0);
+        for (int i = 0; i < 1_000; ++i) {
+            assertEquals("A", answer.get());
+        }
+        assertThrows(IllegalArgumentException.class, () -> answer.addAnswer("B", -1));
+    }
 }
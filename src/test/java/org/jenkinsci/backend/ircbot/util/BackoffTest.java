@@ -0,0 +1,44 @@
+package org.jenkinsci.backend.ircbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link Backoff}.
+ */
+public class BackoffTest {
+
+    @Test
+    public void testDelaysDoubleUpToMaximum() {
+        Backoff backoff = new Backoff(10, 100, 1000, 0, () -> 0.5);
+        assertEquals(0, backoff.getDelayMillis(1));
+        assertEquals(100, backoff.getDelayMillis(2));
+        assertEquals(200, backoff.getDelayMillis(3));
+        assertEquals(400, backoff.getDelayMillis(4));
+        assertEquals(800, backoff.getDelayMillis(5));
+        assertEquals(1000, backoff.getDelayMillis(6));
+        assertEquals(1000, backoff.getDelayMillis(60));
+        assertEquals(400, backoff.nextDelayMillis(4));
+    }
+
+    @Test
+    public void testJitterShortensDelays() {
+        double[] random = {0};
+        Backoff backoff = new Backoff(10, 100, 1000, 0.5, () -> random[0]);
+        assertEquals(0, backoff.nextDelayMillis(1));
+        assertEquals(400, backoff.nextDelayMillis(4));
+        random[0] = 0.5;
+        assertEquals(300, backoff.nextDelayMillis(4));
+        random[0] = 0.999;
+        assertEquals(201, backoff.nextDelayMillis(4));
+        assertEquals(501, backoff.nextDelayMillis(60));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new Backoff(0, 100, 1000, 0, () -> 0));
+        assertThrows(IllegalArgumentException.class, () -> new Backoff(3, 100, 1000, 1.5, () -> 0));
+    }
+}
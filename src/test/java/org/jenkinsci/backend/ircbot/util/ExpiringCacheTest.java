@@ -0,0 +1,75 @@
+package org.jenkinsci.backend.ircbot.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link ExpiringCache}.
+ */
+public class ExpiringCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    public void testExpiration() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(60, TimeUnit.SECONDS, 10, now::get);
+        assertNull(cache.put("a", "1"));
+        now.addAndGet(TimeUnit.SECONDS.toMillis(59));
+        assertEquals("1", cache.get("a"));
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(1));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPutRestartsExpiration() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(60, TimeUnit.SECONDS, 10, now::get);
+        cache.put("a", "1");
+        now.addAndGet(TimeUnit.SECONDS.toMillis(50));
+        assertEquals("1", cache.put("a", "2"));
+        now.addAndGet(TimeUnit.SECONDS.toMillis(50));
+        assertEquals("2", cache.get("a"));
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(60));
+        assertNull(cache.put("a", "3"), "Expired values are not reported");
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(60, TimeUnit.SECONDS, 10, now::get);
+        assertNull(cache.putIfAbsent("a", "1"));
+        assertEquals("1", cache.putIfAbsent("a", "2"));
+        now.addAndGet(TimeUnit.SECONDS.toMillis(60));
+        assertNull(cache.putIfAbsent("a", "3"));
+        assertEquals("3", cache.get("a"));
+    }
+
+    @Test
+    public void testRemove() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(60, TimeUnit.SECONDS, 10, now::get);
+        cache.put("a", "1");
+        assertFalse(cache.remove("a", "2"));
+        assertTrue(cache.remove("a", "1"));
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(60, TimeUnit.SECONDS, 2, now::get);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+        assertEquals(2, cache.size());
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+}
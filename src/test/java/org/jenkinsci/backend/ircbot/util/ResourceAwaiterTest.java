@@ -0,0 +1,114 @@
+package org.jenkinsci.backend.ircbot.util;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link ResourceAwaiter}.
+ * The attempts run directly, the first one in the caller and the following ones on the scheduler thread.
+ */
+public class ResourceAwaiterTest {
+
+    private final ResourceAwaiter awaiter = new ResourceAwaiter(Runnable::run, new Backoff(4, 10, 100, 0, () -> 0));
+
+    @AfterEach
+    public void tearDown() {
+        awaiter.close();
+    }
+
+    @Test
+    public void testAwaitFirstAvailable() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> repository = awaiter.await(() -> {
+            int call = calls.incrementAndGet();
+            if (call == 2) {
+                throw new IOException("502 Bad Gateway");
+            }
+            return call < 3 ? null : "renamed";
+        });
+        assertEquals("renamed", repository.get(10, TimeUnit.SECONDS));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testAwaitDoesNotWaitInCaller() throws Exception {
+        ResourceAwaiter slow = new ResourceAwaiter(Runnable::run, new Backoff(2, 1000, 1000, 0, () -> 0));
+        try {
+            AtomicInteger calls = new AtomicInteger();
+            CompletableFuture<String> repository = slow.await(() -> calls.incrementAndGet() < 2 ? null : "forked");
+            // the first attempt is immediate, the second one is scheduled
+            assertEquals(1, calls.get());
+            assertFalse(repository.isDone());
+            assertEquals("forked", repository.get(10, TimeUnit.SECONDS));
+        } finally {
+            slow.close();
+        }
+    }
+
+    @Test
+    public void testCloseFailsPendingWaits() {
+        ResourceAwaiter slow = new ResourceAwaiter(Runnable::run, new Backoff(2, 60000, 60000, 0, () -> 0));
+        CompletableFuture<String> repository = slow.await(() -> null);
+        slow.close();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> repository.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+    }
+
+    @Test
+    public void testAwaitGivesUp() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        assertNull(awaiter.await(() -> {
+            calls.incrementAndGet();
+            return null;
+        }).get(10, TimeUnit.SECONDS));
+        assertEquals(4, calls.get());
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> awaiter.await(() -> {
+            throw new IOException("timeout");
+        }).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, failure.getCause());
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        assertNull(awaiter.retry(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IOException("502 Bad Gateway");
+            }
+            return null;
+        }).get(10, TimeUnit.SECONDS));
+        assertEquals(3, calls.get());
+
+        calls.set(0);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> awaiter.retry(() -> {
+            calls.incrementAndGet();
+            throw new IOException("403 Forbidden");
+        }).get(10, TimeUnit.SECONDS));
+        assertEquals("403 Forbidden", failure.getCause().getMessage());
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void testRuntimeExceptionIsNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> awaiter.retry(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("bug");
+        }).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertEquals(1, calls.get());
+    }
+}